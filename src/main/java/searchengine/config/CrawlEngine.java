@@ -0,0 +1,22 @@
+package searchengine.config;
+
+/**
+ * Движок обхода сайтов, выбираемый через {@link SitesList#getCrawlEngine()}.
+ */
+public enum CrawlEngine {
+
+    /**
+     * Обход задачами Fork/Join из приоритетной очереди ссылок,
+     * отдельный {@link java.util.concurrent.ForkJoinPool} на сайт.
+     */
+    FORK_JOIN,
+
+    /**
+     * Общий для всех сайтов движок: у каждого сайта ограниченная очередь ссылок, запросы распределяются
+     * между сайтами справедливо (deficit round-robin), каждый запрос выполняется в виртуальном потоке.
+     * Скачанные страницы проходят общий конвейер разбор → лемматизация → запись в базу данных,
+     * у каждой стадии свой пул потоков и ограниченная входная очередь. Все сайты обходятся одновременно,
+     * {@link SitesList#getMaxConcurrentSites()} не применяется.
+     */
+    VIRTUAL_THREADS
+}
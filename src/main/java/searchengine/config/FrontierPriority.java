@@ -0,0 +1,23 @@
+package searchengine.config;
+
+/**
+ * Порядок обхода ссылок одной глубины, выбираемый через {@link SitesList#getFrontierPriority()}.
+ * Ссылки меньшей глубины всегда обходятся раньше.
+ */
+public enum FrontierPriority {
+
+    /**
+     * В порядке обнаружения.
+     */
+    BREADTH_FIRST,
+
+    /**
+     * Сначала ссылки с коротким путём (меньше сегментов пути, без параметров запроса).
+     */
+    SHALLOW_PATH,
+
+    /**
+     * По убыванию приоритета страницы в sitemap ({@code <priority>}).
+     */
+    SITEMAP_PRIORITY
+}
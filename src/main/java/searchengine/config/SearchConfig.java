@@ -25,4 +25,11 @@ public class SearchConfig {
      * Максимальная длина сниппета в символах.
      */
     private int snippetLength = 200;
+
+    /**
+     * Доля PageRank страницы в релевантности результата, от 0 до 1. Остальная доля приходится
+     * на текстовую релевантность. 0 — ранжирование только по тексту. PageRank страниц
+     * рассчитывается только при включённом {@link SitesList#isPageRankEnabled()}. По умолчанию — 0.
+     */
+    private double pageRankWeight = 0;
 } 
@@ -3,6 +3,8 @@ package searchengine.config;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -23,6 +25,67 @@ public class SiteInfo {
      */
     private String name;
 
+    /**
+     * Минимальный интервал между запросами одного соединения к сайту в миллисекундах.
+     * Если не задан, используется {@link SitesList#getPolitenessDelayMs()}.
+     */
+    private Integer politenessDelayMs;
+
+    /**
+     * Максимальный размер распакованного тела страницы сайта в байтах.
+     * Если не задан, используется {@link SitesList#getMaxBodyBytes()}.
+     */
+    private Integer maxBodyBytes;
+
+    /**
+     * Максимальный лимит одновременных запросов к сайту.
+     * Если не задан, используется {@link SitesList#getMaxFetchesPerSite()}.
+     */
+    private Integer maxFetches;
+
+    /**
+     * Дополнительные параметры запроса, удаляемые из ссылок сайта
+     * (например, параметры сортировки и фильтров каталога).
+     * Добавляются к общему списку {@link SitesList#getStripParams()}.
+     */
+    private List<String> stripParams = new ArrayList<>();
+
+    /**
+     * Вес сайта в движке {@link CrawlEngine#VIRTUAL_THREADS}: доля запросов,
+     * достающаяся сайту, пропорциональна весу. Если не задан, равен 1.
+     */
+    private Integer crawlWeight;
+
+    /**
+     * Максимальная глубина обхода сайта, 0 — без ограничения.
+     * Если не задана, используется {@link SitesList#getMaxCrawlDepth()}.
+     */
+    private Integer maxDepth;
+
+    /**
+     * Максимальное число обходимых страниц сайта, 0 — без ограничения.
+     * Если не задано, используется {@link SitesList#getMaxPagesPerSite()}.
+     */
+    private Integer maxPages;
+
+    /**
+     * Максимальное число ссылок сайта одного шаблона пути (числа и идентификаторы в пути заменены
+     * заполнителями), 0 — без ограничения. Если не задано, используется {@link SitesList#getMaxUrlsPerPattern()}.
+     */
+    private Integer maxUrlsPerPattern;
+
+    /**
+     * Максимальное число комбинаций параметров запроса одного пути сайта, 0 — без ограничения.
+     * Если не задано, используется {@link SitesList#getMaxQueryVariants()}.
+     */
+    private Integer maxQueryVariants;
+
+    /**
+     * Индексировать ли только основное содержимое страниц сайта.
+     * Если не задано, используется {@link SitesList#isBoilerplateRemoval()}.
+     */
+    private Boolean boilerplateRemoval;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
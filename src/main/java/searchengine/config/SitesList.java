@@ -5,6 +5,7 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -47,4 +48,385 @@ public class SitesList {
      * По умолчанию — 2.
      */
     private int maxConcurrentSites = 2;
+
+    /**
+     * Минимальный интервал между запросами одного соединения к хосту в миллисекундах: за интервал
+     * к сайту уходит не больше {@link #maxFetchesPerSite} запросов.
+     * Может быть переопределён для отдельного сайта через {@link SiteInfo#getPolitenessDelayMs()}.
+     * По умолчанию — 100.
+     */
+    private int politenessDelayMs = 100;
+
+    /**
+     * Таймаут установки соединения с сайтом в миллисекундах. По умолчанию — 10000.
+     */
+    private int connectTimeoutMs = 10_000;
+
+    /**
+     * Таймаут ожидания ответа сайта в миллисекундах. По умолчанию — 30000.
+     */
+    private int readTimeoutMs = 30_000;
+
+    /**
+     * Максимальное время чтения тела ответа в миллисекундах, от получения заголовков до конца тела.
+     * Ограничивает сервер, который отдаёт тело по байту или замолкает посреди ответа. По умолчанию — 60000.
+     */
+    private int bodyReadTimeoutMs = 60_000;
+
+    /**
+     * Максимальный размер распакованного тела страницы в байтах. Страница большего размера
+     * индексируется по началу. Может быть переопределён для сайта через {@link SiteInfo#getMaxBodyBytes()}.
+     * По умолчанию — 5 МБ.
+     */
+    private int maxBodyBytes = 5 * 1024 * 1024;
+
+    /**
+     * Начальный лимит одновременных запросов к одному сайту. Лимит подстраивается под сайт
+     * (AIMD) по задержке ответов, ответам 429/5xx и ошибкам. По умолчанию — 4.
+     */
+    private int initialFetchesPerSite = 4;
+
+    /**
+     * Минимальный лимит одновременных запросов к одному сайту. По умолчанию — 1.
+     */
+    private int minFetchesPerSite = 1;
+
+    /**
+     * Максимальный лимит одновременных запросов к одному сайту.
+     * Может быть переопределён для сайта через {@link SiteInfo#getMaxFetches()}. По умолчанию — 32.
+     */
+    private int maxFetchesPerSite = 32;
+
+    /**
+     * Во сколько раз сглаженная задержка ответа может превышать минимальную наблюдавшуюся,
+     * прежде чем лимит одновременных запросов к сайту начнёт уменьшаться. По умолчанию — 2.
+     */
+    private double fetchLatencyFactor = 2.0;
+
+    /**
+     * Движок обхода сайтов. По умолчанию — {@link CrawlEngine#FORK_JOIN}.
+     */
+    private CrawlEngine crawlEngine = CrawlEngine.FORK_JOIN;
+
+    /**
+     * Максимальное число одновременных HTTP-запросов для движка {@link CrawlEngine#VIRTUAL_THREADS}
+     * (общее для всех сайтов). По умолчанию — 32.
+     */
+    private int maxConcurrentFetches = 32;
+
+    /**
+     * Максимальное число одновременных записей страниц в базу данных (потоков стадии записи) для движка
+     * {@link CrawlEngine#VIRTUAL_THREADS} (общее для всех сайтов). По умолчанию — 8.
+     */
+    private int maxConcurrentDbWrites = 8;
+
+    /**
+     * Ёмкость очереди ссылок одного сайта для движка {@link CrawlEngine#VIRTUAL_THREADS}.
+     * Ссылки, найденные при заполненной очереди, не принимаются в обход. По умолчанию — 10000.
+     */
+    private int frontierCapacity = 10_000;
+
+    /**
+     * Директория журналов обхода, по которым прерванная индексация продолжается после перезапуска.
+     * По умолчанию — {@code crawl-journal} в рабочей директории.
+     */
+    private String crawlJournalDir = "crawl-journal";
+
+    /**
+     * Число потоков стадий разбора и лемматизации движка {@link CrawlEngine#VIRTUAL_THREADS}
+     * (общих для всех сайтов). По умолчанию равно количеству доступных процессорных ядер.
+     */
+    private int pipelineCpuThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Ёмкость очереди каждой стадии движка {@link CrawlEngine#VIRTUAL_THREADS}. По умолчанию — 256.
+     */
+    private int pipelineQueueCapacity = 256;
+
+    /**
+     * Число страниц, которое сайт с весом 1 получает за один проход планировщика
+     * движка {@link CrawlEngine#VIRTUAL_THREADS}. По умолчанию — 4.
+     */
+    private int crawlQuantum = 4;
+
+    /**
+     * Инкрементальная повторная индексация: страницы уже проиндексированного сайта не удаляются,
+     * запросы отправляются с заголовками {@code If-None-Match} / {@code If-Modified-Since},
+     * леммы пересчитываются только для изменившихся страниц, а страницы, на которые сайт
+     * отвечает 404 или 410, удаляются.
+     * По умолчанию выключена — сайт индексируется заново.
+     */
+    private boolean incrementalRecrawl = false;
+
+    /**
+     * Параметры запроса, удаляемые из ссылок при приведении к каноническому виду.
+     * Имя, оканчивающееся на {@code *}, задаёт префикс. Дополняется списком сайта
+     * {@link SiteInfo#getStripParams()}. По умолчанию — метки рекламных и аналитических систем.
+     */
+    private List<String> stripParams = new ArrayList<>(List.of(
+            "utm_*", "_ga", "_gl", "gclid", "fbclid", "yclid", "_openstat"));
+
+    /**
+     * Удалять ли завершающий слэш пути при приведении ссылок к каноническому виду.
+     * Пути уже сохранённых страниц не меняются, поэтому включать настройку следует вместе
+     * с полной переиндексацией: инкрементальный обход сохранил бы такие страницы повторно
+     * под новыми путями. По умолчанию — нет.
+     */
+    private boolean stripTrailingSlash = false;
+
+    /**
+     * Учитывать ли robots.txt сайта: запрещённые ссылки не обходятся, а Crawl-delay увеличивает
+     * интервал между запросами к сайту. По умолчанию — нет.
+     */
+    private boolean respectRobotsTxt = false;
+
+    /**
+     * Добавлять ли в начальную очередь обхода ссылки из sitemap сайта (из robots.txt
+     * или {@code /sitemap.xml}). По умолчанию — нет.
+     */
+    private boolean sitemapSeeding = false;
+
+    /**
+     * Максимальное число ссылок, загружаемых из sitemap одного сайта. По умолчанию — 100000.
+     */
+    private int maxSitemapUrls = 100_000;
+
+    /**
+     * Порядок обхода ссылок одной глубины. По умолчанию — {@link FrontierPriority#SHALLOW_PATH}.
+     */
+    private FrontierPriority frontierPriority = FrontierPriority.SHALLOW_PATH;
+
+    /**
+     * Максимальная глубина обхода от главной страницы и ссылок из sitemap.
+     * Переопределяется {@link SiteInfo#getMaxDepth()}. По умолчанию — 0 (без ограничения).
+     */
+    private int maxCrawlDepth = 0;
+
+    /**
+     * Максимальное число страниц, обходимых на одном сайте.
+     * Переопределяется {@link SiteInfo#getMaxPages()}. По умолчанию — 0 (без ограничения).
+     */
+    private int maxPagesPerSite = 0;
+
+    /**
+     * Пропускать ли лемматизацию и индексацию почти одинаковых страниц сайта (по SimHash текста).
+     * Такие страницы сохраняются со ссылкой на каноническую страницу. По умолчанию — да.
+     */
+    private boolean nearDuplicateDetection = true;
+
+    /**
+     * Максимальное расстояние Хэмминга между SimHash почти одинаковых страниц, от 0 до 3.
+     * По умолчанию — 3.
+     */
+    private int nearDuplicateDistance = 3;
+
+    /**
+     * Индексировать ли только основное содержимое страниц, отбрасывая меню, подвалы, боковые панели
+     * и другие блоки, повторяющиеся на страницах сайта. Переопределяется {@link SiteInfo#getBoilerplateRemoval()}.
+     * По умолчанию — нет.
+     */
+    private boolean boilerplateRemoval = false;
+
+    /**
+     * Максимальная доля текста блока внутри ссылок, при которой блок ещё может быть содержимым.
+     * По умолчанию — 0.33.
+     */
+    private double boilerplateMaxLinkDensity = 0.33;
+
+    /**
+     * Минимальное число слов блока основного содержимого. По умолчанию — 10.
+     */
+    private int boilerplateMinBlockWords = 10;
+
+    /**
+     * На скольких страницах сайта должен встретиться блок, чтобы считаться шаблонным,
+     * 0 — не выучивать шаблонные блоки. По умолчанию — 5.
+     */
+    private int boilerplateTemplatePages = 5;
+
+    /**
+     * Включает обнаружение ловушек обхода (календари, фасетные фильтры, идентификаторы сессий в ссылках)
+     * и бюджеты шаблонов ссылок. По умолчанию — да.
+     */
+    private boolean trapDetection = true;
+
+    /**
+     * Максимальное число ссылок одного шаблона пути на сайте, 0 — без ограничения.
+     * Каталоги с числовыми идентификаторами ({@code /product/{n}.html}) законно содержат тысячи ссылок
+     * одного шаблона, а ловушки с одинаковым содержимым отсекает {@link #maxSameContentVariants},
+     * поэтому ограничение задаётся для отдельных сайтов в {@link SiteInfo#getMaxUrlsPerPattern()}.
+     * По умолчанию — 0.
+     */
+    private int maxUrlsPerPattern = 0;
+
+    /**
+     * Максимальное число комбинаций параметров запроса одного пути, 0 — без ограничения.
+     * Переопределяется {@link SiteInfo#getMaxQueryVariants()}. По умолчанию — 100.
+     */
+    private int maxQueryVariants = 100;
+
+    /**
+     * Максимальная длина ссылки, 0 — без ограничения. По умолчанию — 512.
+     */
+    private int maxUrlLength = 512;
+
+    /**
+     * Сколько раз сегмент может повториться в пути ссылки, 0 — без ограничения. По умолчанию — 2.
+     */
+    private int maxSegmentRepeats = 2;
+
+    /**
+     * Сколько ссылок одного шаблона могут отдать одинаковое содержимое, прежде чем шаблон будет
+     * признан ловушкой, 0 — без ограничения. По умолчанию — 10.
+     */
+    private int maxSameContentVariants = 10;
+
+    /**
+     * Максимальное число страниц в обработке (от скачивания до записи в базу) на всех сайтах.
+     * Пока предел достигнут, новые страницы не скачиваются. 0 — без ограничения. По умолчанию — 256.
+     */
+    private int maxInFlightPages = 256;
+
+    /**
+     * Максимальный объём памяти в мегабайтах, занятой телами, DOM и текстом страниц в обработке
+     * на всех сайтах. 0 — без ограничения. По умолчанию — 512.
+     */
+    private long maxInFlightMb = 512;
+
+    /**
+     * Максимальное число страниц одного сайта в обработке. 0 — без ограничения. По умолчанию — 64.
+     */
+    private int maxInFlightPagesPerSite = 64;
+
+    /**
+     * Максимальный объём памяти в мегабайтах, занятой страницами одного сайта в обработке.
+     * 0 — без ограничения. По умолчанию — 128.
+     */
+    private long maxInFlightMbPerSite = 128;
+
+    /**
+     * Включает фоновое повторное посещение проиндексированных страниц с интервалом,
+     * подобранным по частоте их изменений. По умолчанию — false.
+     */
+    private boolean revisitEnabled = false;
+
+    /**
+     * Период запуска планировщика повторных посещений в миллисекундах. По умолчанию — 60000.
+     */
+    private long revisitTickMs = 60_000;
+
+    /**
+     * Общее максимальное число повторных посещений страниц всех сайтов в час. По умолчанию — 600.
+     */
+    private int revisitFetchesPerHour = 600;
+
+    /**
+     * Интервал до первого повторного посещения новой страницы в минутах. По умолчанию — 1440 (сутки).
+     */
+    private long initialRevisitIntervalMinutes = 1440;
+
+    /**
+     * Минимальный интервал между посещениями страницы в минутах. По умолчанию — 60.
+     */
+    private long minRevisitIntervalMinutes = 60;
+
+    /**
+     * Максимальный интервал между посещениями страницы в минутах. По умолчанию — 43200 (30 дней).
+     */
+    private long maxRevisitIntervalMinutes = 43_200;
+
+    /**
+     * Вероятность, с которой страница должна успеть измениться к следующему посещению.
+     * Чем она меньше, тем чаще посещаются страницы. По умолчанию — 0.5.
+     */
+    private double revisitChangeProbability = 0.5;
+
+    /**
+     * Включает совместный обход сайтов несколькими экземплярами приложения с общей базой данных.
+     * Индексацию запускает один узел, остальные присоединяются к ней автоматически. По умолчанию — false.
+     */
+    private boolean clusterEnabled = false;
+
+    /**
+     * Идентификатор узла кластера. Если не задан, используется имя хоста и PID процесса.
+     */
+    private String clusterNodeId;
+
+    /**
+     * Количество разделов, на которые делится пространство ссылок каждого сайта. По умолчанию — 64.
+     */
+    private int clusterPartitions = 64;
+
+    /**
+     * Период пульса узла кластера в миллисекундах. По умолчанию — 5000.
+     */
+    private long clusterHeartbeatMs = 5000;
+
+    /**
+     * Срок аренды разделов и время, после которого узел без пульса считается упавшим,
+     * в миллисекундах. По умолчанию — 30000.
+     */
+    private long clusterLeaseTtlMs = 30_000;
+
+    /**
+     * Максимальное количество ссылок, которые узел за раз забирает из общей очереди. По умолчанию — 1000.
+     */
+    private int clusterPullBatch = 1000;
+
+    /**
+     * Включает расчёт PageRank страниц сайта по графу ссылок, собранному при обходе,
+     * и его учёт в релевантности результатов поиска. По умолчанию — false.
+     */
+    private boolean pageRankEnabled = false;
+
+    /**
+     * Вероятность перехода по ссылке в модели PageRank. По умолчанию — 0.85.
+     */
+    private double pageRankDamping = 0.85;
+
+    /**
+     * Суммарное изменение рангов, при котором итерации PageRank прекращаются. По умолчанию — 0.000001.
+     */
+    private double pageRankTolerance = 1e-6;
+
+    /**
+     * Максимальное число итераций PageRank. По умолчанию — 50.
+     */
+    private int pageRankMaxIterations = 50;
+
+    /**
+     * Число потоков расчёта PageRank. 0 — по числу процессоров.
+     */
+    private int pageRankParallelism = 0;
+
+    /**
+     * Максимальное число ссылок в графе одного сайта. 0 — без ограничения. По умолчанию — 10000000 (около 80 МБ).
+     */
+    private int maxLinkGraphEdges = 10_000_000;
+
+    /**
+     * Максимальное число словоформ в кеше результатов морфологического разбора. По умолчанию — 100000.
+     */
+    private int lemmaCacheSize = 100_000;
+
+    /**
+     * Каталог файлов хранилища словоформ лемм. По умолчанию — lemma-forms в рабочем каталоге.
+     */
+    private String lemmaFormsDir = "lemma-forms";
+
+    /**
+     * Число новых словоформ, после которого они записываются на диск. По умолчанию — 100000.
+     */
+    private int lemmaFormsFlushThreshold = 100_000;
+
+    /**
+     * Число страниц без сохранённого текста, которым текст восстанавливается из HTML за один запуск
+     * фоновой задачи. 0 — не восстанавливать. По умолчанию — 500.
+     */
+    private int pageTextBackfillBatch = 500;
+
+    /**
+     * Пауза между запусками восстановления текста страниц в миллисекундах. По умолчанию — 1000.
+     */
+    private long pageTextBackfillTickMs = 1000;
 }
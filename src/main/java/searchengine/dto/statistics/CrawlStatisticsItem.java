@@ -0,0 +1,31 @@
+package searchengine.dto.statistics;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class CrawlStatisticsItem {
+    private int savedPages;
+    private int concurrencyLimit;
+    private int inFlightFetches;
+    private long averageLatencyMs;
+    private int notModifiedPages;
+    private int unchangedPages;
+    private int changedPages;
+    private int removedPages;
+    private int skippedNonTextPages;
+    private int oversizedPages;
+    private int truncatedPages;
+    private int nearDuplicatePages;
+    private long boilerplateChars;
+    private Map<String, Integer> limitHits;
+    private long visitedUrls;
+    private long visitedSetBytes;
+    private double visitedFalsePositiveRate;
+    private int inFlightPages;
+    private long inFlightBytes;
+    private long memoryThrottled;
+    private List<StageStatisticsItem> stages;
+}
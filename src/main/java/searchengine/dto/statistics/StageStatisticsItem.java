@@ -0,0 +1,13 @@
+package searchengine.dto.statistics;
+
+import lombok.Data;
+
+@Data
+public class StageStatisticsItem {
+    private String name;
+    private int workers;
+    private int queueDepth;
+    private int queueCapacity;
+    private long processed;
+    private double throughputPerSecond;
+}
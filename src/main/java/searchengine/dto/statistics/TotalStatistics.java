@@ -8,4 +8,13 @@ public class TotalStatistics {
     private int pages;
     private int lemmas;
     private boolean indexing;
+    private int inFlightPages;
+    private long inFlightBytes;
+    private long memoryThrottled;
+    private int revisitedPages;
+    private int revisitChangedPages;
+    private long revisitDuePages;
+    private long lemmaCacheHits;
+    private long lemmaCacheMisses;
+    private double lemmaCacheHitRate;
 }
@@ -0,0 +1,44 @@
+package searchengine.manager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.services.IndexingService;
+
+/**
+ * Фоновое подключение узла к совместным обходам сайтов, запущенным на других узлах кластера.
+ * <p>
+ * С периодом пульса кластера вызывает {@link IndexingService#joinClusterCrawls()}, поэтому узел
+ * присоединяется к обходу не позже чем через {@link SitesList#getClusterHeartbeatMs()} после его запуска.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrawlClusterJoinScheduler {
+
+    private final SitesList sitesList;
+
+    private final IndexingService indexingService;
+
+    /**
+     * Присоединяет узел к обходам, которые идут на других узлах.
+     */
+    @Scheduled(initialDelayString = "${indexing-settings.cluster-heartbeat-ms:5000}",
+            fixedDelayString = "${indexing-settings.cluster-heartbeat-ms:5000}")
+    public void joinClusterCrawls() {
+        if (!sitesList.isClusterEnabled()) {
+            return;
+        }
+        try {
+            int joined = indexingService.joinClusterCrawls();
+            if (joined > 0) {
+                log.info("Joined cluster crawl of {} sites", joined);
+            }
+        } catch (RuntimeException e) {
+            log.error("Joining cluster crawls failed", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package searchengine.manager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.services.CrawlClusterService;
+import searchengine.task.SharedFrontier;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Участие узла в совместном обходе сайтов несколькими экземплярами приложения с общей базой данных.
+ * <p>
+ * Пространство ссылок каждого сайта разбито на {@link SitesList#getClusterPartitions()} разделов,
+ * которые узлы арендуют в таблице {@code crawl_partition_lease}. Каждый узел стремится держать
+ * равную долю разделов сайта: {@code ceil(разделов / живых участников)}. Пульс
+ * ({@link #heartbeat()}) продлевает аренды узла, добирает свободные разделы и разделы
+ * с истёкшей арендой (например, упавшего узла) и отдаёт лишние, когда к обходу присоединяется
+ * новый узел. Узел без пульса дольше {@link SitesList#getClusterLeaseTtlMs()} считается упавшим.
+ * Пульс, подключение к обходу и отключение от него выполняются по очереди, чтобы пульс не арендовал
+ * разделы сайта, от обхода которого узел только что отключился.
+ * </p>
+ * <p>
+ * Для проверки на одной машине достаточно запустить несколько экземпляров с
+ * {@code indexing-settings.cluster-enabled=true} на разных {@code server.port}: идентификатор узла
+ * по умолчанию включает имя хоста и PID процесса.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrawlClusterManager {
+
+    private final SitesList sitesList;
+
+    private final CrawlClusterService crawlClusterService;
+
+    /**
+     * Идентификатор этого узла.
+     */
+    @Getter
+    private String nodeId;
+
+    /**
+     * Разделы, арендованные узлом, по идентификатору сайта, обход которого идёт на этом узле.
+     */
+    private final ConcurrentMap<Integer, Set<Integer>> ownedPartitions = new ConcurrentHashMap<>();
+
+    /**
+     * Определяет идентификатор узла и регистрирует узел в кластере.
+     * Аренды и ссылки, оставшиеся от прошлого запуска узла с тем же идентификатором, освобождаются.
+     */
+    @PostConstruct
+    public void init() {
+        String configured = sitesList.getClusterNodeId();
+        nodeId = configured != null && !configured.isBlank() ? configured : defaultNodeId();
+        if (isEnabled()) {
+            crawlClusterService.removeNode(nodeId);
+            crawlClusterService.heartbeat(nodeId);
+            log.info("Crawl cluster node {} started", nodeId);
+        }
+    }
+
+    /**
+     * @return true, если включён совместный обход несколькими узлами
+     */
+    public boolean isEnabled() {
+        return sitesList.isClusterEnabled();
+    }
+
+    /**
+     * Готовит общую очередь и свободные разделы для нового обхода сайта.
+     * Вызывается узлом, запустившим индексацию, после перевода сайта в статус INDEXING:
+     * пока разделов нет, другие узлы к обходу не присоединяются.
+     *
+     * @param siteId идентификатор сайта
+     */
+    public void resetSite(int siteId) {
+        crawlClusterService.resetSite(siteId, sitesList.getClusterPartitions());
+    }
+
+    /**
+     * Удаляет общую очередь и разделы сайта после завершения его обхода.
+     * Вызывается узлом, запустившим индексацию.
+     *
+     * @param siteId идентификатор сайта
+     */
+    public void finishSite(int siteId) {
+        crawlClusterService.resetSite(siteId, 0);
+    }
+
+    /**
+     * Проверяет, что в обходе сайта участвует хотя бы один живой узел.
+     *
+     * @param siteId идентификатор сайта
+     * @return true, если обход сайта продолжается на другом узле
+     */
+    public boolean hasLiveParticipants(int siteId) {
+        return crawlClusterService.countLiveParticipants(siteId, sitesList.getClusterLeaseTtlMs()) > 0;
+    }
+
+    /**
+     * Подключает узел к обходу сайта: регистрирует его участником и арендует его долю разделов.
+     *
+     * @param siteId идентификатор сайта
+     * @return общая очередь обхода сайта для контекста обхода
+     */
+    public synchronized SharedFrontier joinSite(int siteId) {
+        Set<Integer> owned = ownedPartitions.computeIfAbsent(siteId, id -> ConcurrentHashMap.newKeySet());
+        crawlClusterService.heartbeat(nodeId);
+        crawlClusterService.joinSite(siteId, nodeId);
+        rebalance(siteId, owned, crawlClusterService.findLeasedPartitions(nodeId));
+        log.info("Node {} joined crawl of siteId={} with {} partitions", nodeId, siteId, owned.size());
+        return new SharedFrontier(crawlClusterService, siteId, nodeId, sitesList.getClusterPartitions(), owned,
+                sitesList.getClusterLeaseTtlMs());
+    }
+
+    /**
+     * Отключает узел от обхода сайта и освобождает его разделы.
+     *
+     * @param siteId идентификатор сайта
+     */
+    public synchronized void leaveSite(int siteId) {
+        ownedPartitions.remove(siteId);
+        crawlClusterService.leaveSite(siteId, nodeId);
+        log.info("Node {} left crawl of siteId={}", nodeId, siteId);
+    }
+
+    /**
+     * Находит сайты, совместный обход которых идёт сейчас на каком-либо узле.
+     *
+     * @return идентификаторы сайтов
+     */
+    public List<Integer> findCrawlingSites() {
+        return crawlClusterService.findCrawlingSites();
+    }
+
+    /**
+     * Пульс узла: отмечает узел живым, продлевает его аренды и перераспределяет разделы сайтов,
+     * обход которых идёт на этом узле. Участие узла в обходе восстанавливается, если его запись
+     * была удалена, например при перезапуске обхода сайта.
+     */
+    @Scheduled(fixedDelayString = "${indexing-settings.cluster-heartbeat-ms:5000}")
+    public synchronized void heartbeat() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            crawlClusterService.heartbeat(nodeId);
+            crawlClusterService.renewLeases(nodeId, sitesList.getClusterLeaseTtlMs());
+            Map<Integer, Set<Integer>> leased = crawlClusterService.findLeasedPartitions(nodeId);
+            ownedPartitions.forEach((siteId, owned) -> {
+                crawlClusterService.joinSite(siteId, nodeId);
+                rebalance(siteId, owned, leased);
+            });
+        } catch (RuntimeException e) {
+            log.error("Crawl cluster heartbeat of node {} failed", nodeId, e);
+        }
+    }
+
+    /**
+     * Освобождает аренды узла при остановке приложения, чтобы другие узлы сразу забрали его разделы.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            crawlClusterService.removeNode(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to unregister crawl cluster node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Доводит число разделов сайта, арендованных узлом, до его равной доли и обновляет набор разделов узла.
+     *
+     * @param siteId идентификатор сайта
+     * @param owned  набор разделов узла, используемый общей очередью сайта
+     * @param leased действующие аренды узла по всем сайтам
+     */
+    private void rebalance(int siteId, Set<Integer> owned, Map<Integer, Set<Integer>> leased) {
+        int partitions = sitesList.getClusterPartitions();
+        int participants = Math.max(1, crawlClusterService.countLiveParticipants(siteId,
+                sitesList.getClusterLeaseTtlMs()));
+        int target = (partitions + participants - 1) / participants;
+        int current = leased.getOrDefault(siteId, Set.of()).size();
+
+        if (current < target) {
+            crawlClusterService.acquirePartitions(siteId, nodeId, target - current, sitesList.getClusterLeaseTtlMs());
+        } else if (current > target) {
+            crawlClusterService.releasePartitions(siteId, nodeId, current - target);
+        }
+        Set<Integer> fresh = current == target
+                ? leased.getOrDefault(siteId, Set.of())
+                : crawlClusterService.findLeasedPartitions(nodeId).getOrDefault(siteId, Set.of());
+        owned.retainAll(fresh);
+        owned.addAll(fresh);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = UUID.randomUUID().toString().substring(0, 8);
+        }
+        return host + ":" + ManagementFactory.getRuntimeMXBean().getPid();
+    }
+}
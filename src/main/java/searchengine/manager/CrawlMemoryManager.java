@@ -0,0 +1,43 @@
+package searchengine.manager;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.task.MemoryBudget;
+
+/**
+ * Общий для всех сайтов бюджет памяти обхода.
+ * <p>
+ * Ограничивает число страниц в обработке и занятую ими память во всём приложении,
+ * а для каждого обходимого сайта выдаёт вложенный бюджет со своими ограничениями.
+ * </p>
+ */
+@Component
+public class CrawlMemoryManager {
+
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private final SitesList sitesList;
+
+    /**
+     * Бюджет памяти всех сайтов.
+     */
+    @Getter
+    private final MemoryBudget globalBudget;
+
+    public CrawlMemoryManager(SitesList sitesList) {
+        this.sitesList = sitesList;
+        this.globalBudget = new MemoryBudget(sitesList.getMaxInFlightPages(),
+                sitesList.getMaxInFlightMb() * BYTES_PER_MB);
+    }
+
+    /**
+     * Создаёт бюджет памяти обхода сайта, вложенный в общий бюджет.
+     *
+     * @return бюджет сайта
+     */
+    public MemoryBudget createSiteBudget() {
+        return globalBudget.child(sitesList.getMaxInFlightPagesPerSite(),
+                sitesList.getMaxInFlightMbPerSite() * BYTES_PER_MB);
+    }
+}
@@ -0,0 +1,119 @@
+package searchengine.manager;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.util.Locale;
+
+/**
+ * Ответ на запрос краулера: код, заголовки и прочитанное, уже распакованное тело страницы.
+ * Было ли тело прочитано полностью, показывает {@link #getBodyStatus()}.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CrawlResponse {
+
+    private static final String CHARSET_PARAM = "charset=";
+
+    /**
+     * URL страницы после перенаправлений.
+     */
+    private final String url;
+
+    private final int statusCode;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    private final BodyStatus bodyStatus;
+
+    /**
+     * Возвращает первое значение заголовка ответа.
+     *
+     * @param name имя заголовка (без учёта регистра)
+     * @return значение заголовка или {@code null}
+     */
+    public String header(String name) {
+        return headers.firstValue(name).orElse(null);
+    }
+
+    /**
+     * @return значение заголовка {@code Content-Type} или {@code null}
+     */
+    public String contentType() {
+        return header("Content-Type");
+    }
+
+    /**
+     * Разбирает тело ответа в HTML-документ.
+     * Кодировка берётся из {@code Content-Type}, а если её там нет — определяется Jsoup по содержимому.
+     *
+     * @return HTML-документ
+     * @throws IOException если тело не удалось разобрать
+     */
+    public Document parse() throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(body), charset(), url);
+    }
+
+    /**
+     * Разбирает тело ответа и извлекает из него ссылки, заголовок и текст за один обход DOM.
+     * Для хранения используется исходный HTML в кодировке страницы, документ заново не сериализуется.
+     *
+     * @return данные страницы
+     * @throws IOException если тело не удалось разобрать
+     */
+    public ExtractedPage extract() throws IOException {
+        Document document = parse();
+        return ExtractedPage.extract(document, new String(body, document.charset()));
+    }
+
+    private String charset() {
+        String contentType = contentType();
+        if (contentType == null) {
+            return null;
+        }
+        int charsetStart = contentType.toLowerCase(Locale.ROOT).indexOf(CHARSET_PARAM);
+        if (charsetStart < 0) {
+            return null;
+        }
+        String charset = contentType.substring(charsetStart + CHARSET_PARAM.length());
+        int charsetEnd = charset.indexOf(';');
+        if (charsetEnd >= 0) {
+            charset = charset.substring(0, charsetEnd);
+        }
+        charset = charset.trim().replace("\"", "");
+        return charset.isEmpty() ? null : charset;
+    }
+
+    /**
+     * Результат чтения тела ответа.
+     */
+    public enum BodyStatus {
+
+        /**
+         * Тело прочитано полностью.
+         */
+        COMPLETE,
+
+        /**
+         * Тело не читалось: ответ с ошибкой, 304 или нетекстовый {@code Content-Type}.
+         */
+        SKIPPED,
+
+        /**
+         * Тело больше допустимого размера, прочитано только его начало.
+         */
+        OVERSIZED,
+
+        /**
+         * Соединение оборвалось до конца тела.
+         */
+        INCOMPLETE
+    }
+}
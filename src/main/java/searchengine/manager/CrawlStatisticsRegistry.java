@@ -0,0 +1,109 @@
+package searchengine.manager;
+
+import org.springframework.stereotype.Component;
+import searchengine.dto.statistics.CrawlStatisticsItem;
+import searchengine.dto.statistics.StageStatisticsItem;
+import searchengine.task.AdaptiveFetchLimiter;
+import searchengine.task.CrawlContext;
+import searchengine.task.CrawlStatistics;
+import searchengine.task.MemoryBudget;
+import searchengine.task.PipelineStage;
+import searchengine.task.VisitedUrlSet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Реестр статистики обхода сайтов.
+ * <p>
+ * Для сайтов, которые обходятся сейчас, статистика строится по живому контексту обхода.
+ * После завершения обхода сохраняется её последний снимок, чтобы не удерживать в памяти
+ * набор посещённых ссылок.
+ * </p>
+ */
+@Component
+public class CrawlStatisticsRegistry {
+
+    private final ConcurrentMap<String, CrawlContext> activeCrawls = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CrawlStatisticsItem> finishedCrawls = new ConcurrentHashMap<>();
+
+    /**
+     * Регистрирует начатый обход сайта.
+     *
+     * @param context контекст обхода
+     */
+    public void start(CrawlContext context) {
+        activeCrawls.put(context.getSite().getUrl(), context);
+    }
+
+    /**
+     * Сохраняет снимок статистики завершённого обхода сайта.
+     *
+     * @param context контекст обхода
+     */
+    public void finish(CrawlContext context) {
+        String siteUrl = context.getSite().getUrl();
+        finishedCrawls.put(siteUrl, snapshot(context));
+        activeCrawls.remove(siteUrl, context);
+    }
+
+    /**
+     * Возвращает статистику текущего или последнего обхода сайта.
+     *
+     * @param siteUrl URL сайта
+     * @return статистика обхода или {@code null}, если сайт не обходился с момента запуска приложения
+     */
+    public CrawlStatisticsItem find(String siteUrl) {
+        CrawlContext context = activeCrawls.get(siteUrl);
+        return context != null ? snapshot(context) : finishedCrawls.get(siteUrl);
+    }
+
+    private CrawlStatisticsItem snapshot(CrawlContext context) {
+        CrawlStatistics statistics = context.getStatistics();
+        VisitedUrlSet visitedLinks = context.getVisitedLinks();
+
+        CrawlStatisticsItem item = new CrawlStatisticsItem();
+        item.setSavedPages(statistics.getSavedPages().get());
+        AdaptiveFetchLimiter fetchLimiter = context.getFetchLimiter();
+        item.setConcurrencyLimit(fetchLimiter.getLimit());
+        item.setInFlightFetches(fetchLimiter.getInFlight());
+        item.setAverageLatencyMs(fetchLimiter.getSmoothedLatencyMs());
+        item.setNotModifiedPages(statistics.getNotModifiedPages().get());
+        item.setUnchangedPages(statistics.getUnchangedPages().get());
+        item.setChangedPages(statistics.getChangedPages().get());
+        item.setRemovedPages(statistics.getRemovedPages().get());
+        item.setSkippedNonTextPages(statistics.getSkippedNonTextPages().get());
+        item.setOversizedPages(statistics.getOversizedPages().get());
+        item.setTruncatedPages(statistics.getTruncatedPages().get());
+        item.setNearDuplicatePages(statistics.getNearDuplicatePages().get());
+        item.setBoilerplateChars(statistics.getBoilerplateChars().get());
+        Map<String, Integer> limitHits = new LinkedHashMap<>();
+        statistics.getLimitHits().forEach((limit, hits) -> limitHits.put(limit.name(), hits.get()));
+        item.setLimitHits(limitHits);
+        item.setVisitedUrls(visitedLinks.size());
+        item.setVisitedSetBytes(visitedLinks.memoryFootprintBytes());
+        item.setVisitedFalsePositiveRate(visitedLinks.falsePositiveRate());
+        MemoryBudget memoryBudget = context.getMemoryBudget();
+        item.setInFlightPages(memoryBudget.getInFlightPages());
+        item.setInFlightBytes(memoryBudget.getHeldBytes());
+        item.setMemoryThrottled(memoryBudget.getThrottled());
+        item.setStages(statistics.getStages().stream()
+                .map(this::snapshot)
+                .toList());
+        return item;
+    }
+
+    private StageStatisticsItem snapshot(PipelineStage<?> stage) {
+        StageStatisticsItem item = new StageStatisticsItem();
+        item.setName(stage.getName());
+        item.setWorkers(stage.getWorkers());
+        item.setQueueDepth(stage.getQueueDepth());
+        item.setQueueCapacity(stage.getQueueCapacity());
+        item.setProcessed(stage.getProcessed());
+        item.setThroughputPerSecond(stage.getThroughputPerSecond());
+        return item;
+    }
+}
@@ -0,0 +1,301 @@
+package searchengine.manager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Общий HTTP-клиент для всех запросов краулера.
+ * <p>
+ * Построен на одном экземпляре {@link HttpClient}, который держит пул keep-alive соединений по хостам
+ * и использует HTTP/2, если его поддерживает сервер: соединение и TLS-сессия с сайтом
+ * устанавливаются один раз, а не на каждую страницу. Ответы запрашиваются сжатыми (gzip, deflate)
+ * и распаковываются клиентом; разбор HTML остаётся за Jsoup ({@link CrawlResponse#parse()}).
+ * </p>
+ * <p>
+ * Тело читается потоком и только после проверки заголовков: ответы с ошибкой, 304 и нетекстовым
+ * {@code Content-Type} закрываются без чтения тела, а текстовое тело читается не больше заданного
+ * размера, остаток отбрасывается ({@link CrawlResponse.BodyStatus}).
+ * </p>
+ * <p>
+ * Таймаут запроса {@link HttpClient} ограничивает только ожидание заголовков, поэтому на чтение тела
+ * отводится отдельный общий срок {@link SitesList#getBodyReadTimeoutMs()}: по его истечении поток тела
+ * закрывается из таймера, и заблокированное чтение завершается ошибкой.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrawlerHttpClient {
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final String ACCEPT = "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8";
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private static final int NOT_MODIFIED = 304;
+
+    private final SitesList sitesList;
+
+    private HttpClient httpClient;
+
+    /**
+     * Таймер, закрывающий потоки тел ответов, которые не дочитаны к сроку.
+     */
+    private ScheduledExecutorService bodyDeadlineTimer;
+
+    /**
+     * Создаёт HTTP-клиент с таймаутом соединения из конфигурации.
+     */
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(sitesList.getConnectTimeoutMs()))
+                .build();
+        bodyDeadlineTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crawler-body-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Останавливает таймер сроков чтения тел ответов.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (bodyDeadlineTimer != null) {
+            bodyDeadlineTimer.shutdownNow();
+        }
+    }
+
+    /**
+     * Выполняет GET-запрос с User-Agent и Referrer из конфигурации
+     * и общим ограничением размера тела {@link SitesList#getMaxBodyBytes()}.
+     *
+     * @param url URL страницы
+     * @return ответ с распакованным телом
+     * @throws IOException          при ошибке соединения, таймауте или некорректном URL
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    public CrawlResponse get(String url) throws IOException, InterruptedException {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("User-Agent", sitesList.getUserAgent());
+        headers.put("Referer", sitesList.getReferrer());
+        return get(url, headers, sitesList.getMaxBodyBytes());
+    }
+
+    /**
+     * Выполняет GET-запрос с указанными заголовками.
+     *
+     * @param url          URL страницы
+     * @param headers      заголовки запроса
+     * @param maxBodyBytes максимальный размер распакованного тела в байтах
+     * @return ответ с распакованным телом
+     * @throws IOException          при ошибке соединения, таймауте или некорректном URL
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    public CrawlResponse get(String url, Map<String, String> headers, int maxBodyBytes)
+            throws IOException, InterruptedException {
+        return execute(url, headers, maxBodyBytes, true);
+    }
+
+    /**
+     * Выполняет GET-запрос служебного ресурса сайта (robots.txt, sitemap) с User-Agent и Referrer
+     * из конфигурации. В отличие от {@link #get(String, Map, int)}, тело читается при любом
+     * {@code Content-Type}, например у сжатых sitemap.
+     *
+     * @param url          URL ресурса
+     * @param maxBodyBytes максимальный размер распакованного тела в байтах
+     * @return ответ с распакованным телом
+     * @throws IOException          при ошибке соединения, таймауте или некорректном URL
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    public CrawlResponse getResource(String url, int maxBodyBytes) throws IOException, InterruptedException {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("User-Agent", sitesList.getUserAgent());
+        headers.put("Referer", sitesList.getReferrer());
+        return execute(url, headers, maxBodyBytes, false);
+    }
+
+    private CrawlResponse execute(String url, Map<String, String> headers, int maxBodyBytes, boolean textOnly)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(toUri(url))
+                .GET()
+                .timeout(Duration.ofMillis(sitesList.getReadTimeoutMs()))
+                .header("Accept", ACCEPT)
+                .header("Accept-Encoding", ACCEPT_ENCODING);
+        headers.forEach((name, value) -> {
+            if (value != null) {
+                request.header(name, value);
+            }
+        });
+
+        HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        String finalUrl = response.uri().toString();
+
+        if (!hasReadableBody(response, textOnly)) {
+            response.body().close();
+            return new CrawlResponse(finalUrl, response.statusCode(), response.headers(),
+                    new byte[0], CrawlResponse.BodyStatus.SKIPPED);
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CrawlResponse.BodyStatus status;
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> deadline = scheduleBodyDeadline(response.body(), expired);
+        try (InputStream in = decode(response)) {
+            status = readLimited(in, body, Math.max(0, maxBodyBytes));
+        } catch (IOException e) {
+            if (expired.get()) {
+                log.warn("Body of {} was not read in {} ms, {} bytes received", url,
+                        sitesList.getBodyReadTimeoutMs(), body.size());
+                if (body.size() == 0) {
+                    throw new HttpTimeoutException("Body read timed out: " + url);
+                }
+            } else if (body.size() == 0) {
+                throw e;
+            } else {
+                log.warn("Body of {} was cut off after {} bytes: {}", url, body.size(), e.getMessage());
+            }
+            status = CrawlResponse.BodyStatus.INCOMPLETE;
+        } finally {
+            deadline.cancel(false);
+        }
+
+        if (status == CrawlResponse.BodyStatus.COMPLETE && isShorterThanDeclared(response, body.size())) {
+            status = CrawlResponse.BodyStatus.INCOMPLETE;
+        }
+        return new CrawlResponse(finalUrl, response.statusCode(), response.headers(), body.toByteArray(), status);
+    }
+
+    /**
+     * Закрывает поток тела ответа, если он не дочитан за {@link SitesList#getBodyReadTimeoutMs()}.
+     *
+     * @param body    поток тела ответа
+     * @param expired признак, который устанавливается при закрытии потока по сроку
+     * @return задача таймера; её нужно отменить после чтения тела
+     */
+    private ScheduledFuture<?> scheduleBodyDeadline(InputStream body, AtomicBoolean expired) {
+        return bodyDeadlineTimer.schedule(() -> {
+            expired.set(true);
+            try {
+                body.close();
+            } catch (IOException e) {
+                log.debug("Could not close expired response body", e);
+            }
+        }, sitesList.getBodyReadTimeoutMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Проверяет по заголовкам, нужно ли читать тело ответа: только успешные ответы,
+     * при {@code textOnly} — только с текстовым содержимым.
+     */
+    private static boolean hasReadableBody(HttpResponse<?> response, boolean textOnly) {
+        if (response.statusCode() >= 400 || response.statusCode() == NOT_MODIFIED) {
+            return false;
+        }
+        if (!textOnly) {
+            return true;
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        return contentType != null && contentType.trim().toLowerCase(Locale.ROOT).startsWith("text/");
+    }
+
+    /**
+     * Читает не больше {@code maxBytes} байт; если тело длиннее, остаток не читается.
+     */
+    private static CrawlResponse.BodyStatus readLimited(InputStream in, ByteArrayOutputStream body, int maxBytes)
+            throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer, 0, (int) Math.min(buffer.length, maxBytes - body.size() + 1L))) != -1) {
+            int remaining = maxBytes - body.size();
+            if (read > remaining) {
+                body.write(buffer, 0, remaining);
+                return CrawlResponse.BodyStatus.OVERSIZED;
+            }
+            body.write(buffer, 0, read);
+        }
+        return CrawlResponse.BodyStatus.COMPLETE;
+    }
+
+    /**
+     * Проверяет, что несжатое тело короче заявленного в {@code Content-Length}, то есть соединение оборвалось.
+     */
+    private static boolean isShorterThanDeclared(HttpResponse<?> response, int bodySize) {
+        if (response.headers().firstValue("Content-Encoding").isPresent()) {
+            return false;
+        }
+        long declared = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        return declared >= 0 && bodySize < declared;
+    }
+
+    private InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding")
+                .orElse("")
+                .trim()
+                .toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(response.body());
+            case "deflate" -> new InflaterInputStream(response.body());
+            default -> response.body();
+        };
+    }
+
+    /**
+     * Преобразует ссылку в URI, экранируя символы, недопустимые в URI (пробелы, кириллицу и т.п.).
+     */
+    private static URI toUri(String url) throws IOException {
+        try {
+            return URI.create(url);
+        } catch (IllegalArgumentException e) {
+            try {
+                return URI.create(escape(url));
+            } catch (IllegalArgumentException escaped) {
+                throw new IOException("Invalid URL: " + url, escaped);
+            }
+        }
+    }
+
+    private static String escape(String url) {
+        StringBuilder result = new StringBuilder(url.length());
+        for (byte b : url.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if (c > 0x20 && c < 0x7F && "\"<>[\\]^`{|}".indexOf(c) < 0) {
+                result.append((char) c);
+            } else {
+                result.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return result.toString();
+    }
+}
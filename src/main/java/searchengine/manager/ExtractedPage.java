@@ -0,0 +1,293 @@
+package searchengine.manager;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Данные страницы, извлечённые из HTML за один обход DOM: исходный HTML для хранения,
+ * заголовок, видимый текст {@code <body>} и ссылки {@code <a href>}.
+ * <p>
+ * Текст собирается так же, как {@link Element#text()}: пробельные символы схлопываются,
+ * между блочными элементами вставляется пробел. Содержимое {@code <script>} и {@code <style>}
+ * в текст не попадает. Лемматизация, SimHash и сниппеты работают с уже извлечённым текстом
+ * и не разбирают HTML повторно.
+ * </p>
+ * <p>
+ * Тот же обход делит текст на блоки ({@link TextBlock}) по границам блочных элементов
+ * и для каждого блока считает символы внутри ссылок, чтобы шаблонные части страницы
+ * (меню, подвалы, боковые панели) можно было отбросить без повторного разбора.
+ * </p>
+ */
+@Getter
+@RequiredArgsConstructor
+public class ExtractedPage {
+
+    /**
+     * Максимальная длина заголовка (размер столбца {@code page.title}).
+     */
+    private static final int MAX_TITLE_LENGTH = 512;
+
+    /**
+     * Исходный HTML страницы.
+     */
+    private final String html;
+
+    /**
+     * Текст элемента {@code <title>}, не длиннее {@link #MAX_TITLE_LENGTH} символов, или пустая строка.
+     */
+    private final String title;
+
+    /**
+     * Видимый текст {@code <body>} без разметки.
+     */
+    private final String text;
+
+    /**
+     * Абсолютные ссылки из атрибутов {@code href} в порядке следования в документе.
+     */
+    private final List<String> links;
+
+    /**
+     * Непустые текстовые блоки {@code <body>} в порядке следования в документе.
+     */
+    private final List<TextBlock> blocks;
+
+    /**
+     * Разбирает HTML и извлекает из него данные страницы.
+     *
+     * @param html    HTML страницы
+     * @param baseUri URL страницы для разрешения относительных ссылок
+     * @return извлечённые данные
+     */
+    public static ExtractedPage parse(String html, String baseUri) {
+        return extract(Jsoup.parse(html, baseUri), html);
+    }
+
+    /**
+     * Извлекает данные страницы из разобранного документа за один обход его узлов.
+     *
+     * @param document HTML-документ
+     * @param html     исходный HTML, из которого построен документ
+     * @return извлечённые данные
+     */
+    public static ExtractedPage extract(Document document, String html) {
+        Extractor extractor = new Extractor();
+        NodeTraversor.traverse(extractor, document);
+        extractor.flushBlock();
+        String title = extractor.title.toString().trim();
+        if (title.length() > MAX_TITLE_LENGTH) {
+            title = title.substring(0, MAX_TITLE_LENGTH);
+        }
+        return new ExtractedPage(html, title, extractor.text.toString().trim(),
+                Collections.unmodifiableList(extractor.links), Collections.unmodifiableList(extractor.blocks));
+    }
+
+    /**
+     * Текст одного блочного элемента страницы без текста вложенных блочных элементов.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class TextBlock {
+
+        /**
+         * Текст блока с схлопнутыми пробелами.
+         */
+        private final String text;
+
+        /**
+         * Количество непробельных символов блока.
+         */
+        private final int chars;
+
+        /**
+         * Количество непробельных символов блока внутри элементов {@code <a>}.
+         */
+        private final int linkChars;
+
+        /**
+         * Количество слов блока.
+         */
+        private final int words;
+
+        /**
+         * Находится ли блок внутри {@code <nav>}, {@code <header>}, {@code <footer>} или {@code <aside>}.
+         */
+        private final boolean chrome;
+
+        /**
+         * @return доля символов блока внутри ссылок, от 0 до 1
+         */
+        public double linkDensity() {
+            return chars > 0 ? (double) linkChars / chars : 0;
+        }
+    }
+
+    /**
+     * Обходчик узлов документа, накапливающий заголовок, текст и ссылки.
+     */
+    private static final class Extractor implements NodeVisitor {
+
+        private final StringBuilder title = new StringBuilder();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private final List<String> links = new ArrayList<>();
+
+        private final List<TextBlock> blocks = new ArrayList<>();
+
+        private final StringBuilder block = new StringBuilder();
+
+        private int blockChars;
+
+        private int blockLinkChars;
+
+        private boolean blockChrome;
+
+        private int bodyDepth;
+
+        private int anchorDepth;
+
+        private int chromeDepth;
+
+        private int titleDepth;
+
+        private boolean pendingSpace;
+
+        @Override
+        public void head(Node node, int depth) {
+            if (node instanceof TextNode textNode) {
+                if (titleDepth > 0) {
+                    appendNormalized(title, textNode.getWholeText());
+                } else if (bodyDepth > 0) {
+                    if (pendingSpace && !text.isEmpty()) {
+                        appendSpace(text);
+                    }
+                    appendNormalized(text, textNode.getWholeText());
+                    appendToBlock(textNode.getWholeText(), pendingSpace);
+                    pendingSpace = false;
+                }
+                return;
+            }
+            if (!(node instanceof Element element)) {
+                return;
+            }
+            switch (element.normalName()) {
+                case "body" -> bodyDepth++;
+                case "title" -> titleDepth++;
+                case "nav", "header", "footer", "aside" -> chromeDepth++;
+                case "a" -> {
+                    anchorDepth++;
+                    if (element.hasAttr("href")) {
+                        String link = element.absUrl("href");
+                        if (!link.isEmpty()) {
+                            links.add(link);
+                        }
+                    }
+                }
+                case "br" -> pendingSpace = true;
+                default -> {
+                }
+            }
+            if (element.isBlock()) {
+                pendingSpace = true;
+                flushBlock();
+            }
+        }
+
+        @Override
+        public void tail(Node node, int depth) {
+            if (!(node instanceof Element element)) {
+                return;
+            }
+            switch (element.normalName()) {
+                case "body" -> bodyDepth--;
+                case "title" -> titleDepth--;
+                case "nav", "header", "footer", "aside" -> chromeDepth--;
+                case "a" -> anchorDepth--;
+                default -> {
+                }
+            }
+            if (element.isBlock()) {
+                pendingSpace = true;
+                flushBlock();
+            }
+        }
+
+        /**
+         * Дописывает текст в текущий блок и учитывает его символы.
+         */
+        private void appendToBlock(String value, boolean space) {
+            int before = block.length();
+            if (space && before > 0) {
+                appendSpace(block);
+            }
+            appendNormalized(block, value);
+            int added = 0;
+            for (int i = before; i < block.length(); i++) {
+                if (block.charAt(i) != ' ') {
+                    added++;
+                }
+            }
+            blockChars += added;
+            if (anchorDepth > 0) {
+                blockLinkChars += added;
+            }
+            if (chromeDepth > 0) {
+                blockChrome = true;
+            }
+        }
+
+        /**
+         * Завершает текущий блок и, если в нём есть текст, добавляет его в список блоков.
+         */
+        private void flushBlock() {
+            if (blockChars > 0) {
+                String value = block.toString().trim();
+                int words = 1;
+                for (int i = 0; i < value.length(); i++) {
+                    if (value.charAt(i) == ' ') {
+                        words++;
+                    }
+                }
+                blocks.add(new TextBlock(value, blockChars, blockLinkChars, words, blockChrome));
+            }
+            block.setLength(0);
+            blockChars = 0;
+            blockLinkChars = 0;
+            blockChrome = false;
+        }
+
+        /**
+         * Дописывает текст, заменяя последовательности пробельных символов одним пробелом.
+         */
+        private static void appendNormalized(StringBuilder target, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.isWhitespace(c) || c == '\u00a0') {
+                    if (!target.isEmpty()) {
+                        appendSpace(target);
+                    }
+                } else {
+                    target.append(c);
+                }
+            }
+        }
+
+        private static void appendSpace(StringBuilder target) {
+            if (target.charAt(target.length() - 1) != ' ') {
+                target.append(' ');
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package searchengine.manager;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.util.UrlUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Планировщик "вежливых" запросов к хостам.
+ * <p>
+ * Интервал между запросами к хосту выдерживается для каждого соединения отдельно, как если бы
+ * каждое соединение делало паузу между своими запросами: у хоста есть заданное число слотов,
+ * и каждый слот выдаётся не чаще одного раза за интервал. Так хост получает не больше
+ * заданного числа запросов за интервал, а фактическую нагрузку определяет число одновременных
+ * запросов к сайту ({@code AdaptiveFetchLimiter}). Для Crawl-delay из robots.txt регистрируется
+ * один слот, то есть один запрос за интервал.
+ * </p>
+ * <p>
+ * Вместо блокирующего ожидания поток получает время до ближайшего слота
+ * и может потратить его на другую работу.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class HostFetchScheduler {
+
+    private final SitesList sitesList;
+
+    private final ConcurrentMap<String, HostSlot> hostToSlot = new ConcurrentHashMap<>();
+
+    /**
+     * Задаёт минимальный интервал между запросами одного соединения к хосту указанного URL
+     * и число соединений.
+     *
+     * @param url         URL сайта или страницы
+     * @param intervalMs  интервал в миллисекундах
+     * @param connections число соединений, каждое из которых выдерживает интервал
+     */
+    public void registerHost(String url, long intervalMs, int connections) {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMs));
+        int slotCount = Math.max(1, connections);
+        hostToSlot.compute(UrlUtil.getHost(url), (host, slot) -> {
+            if (slot == null || slot.nextAllowed.length() != slotCount) {
+                HostSlot registered = new HostSlot(intervalNanos, slotCount);
+                if (slot != null) {
+                    registered.delayUntil(slot.latest());
+                }
+                return registered;
+            }
+            slot.intervalNanos = intervalNanos;
+            return slot;
+        });
+    }
+
+    /**
+     * Пытается получить слот на запрос к хосту указанного URL.
+     *
+     * @param url URL страницы
+     * @return {@code 0}, если слот выдан и запрос можно выполнять сразу,
+     *         иначе — время в наносекундах до ближайшего слота
+     */
+    public long tryAcquire(String url) {
+        HostSlot slot = getSlot(url);
+        AtomicLongArray nextAllowed = slot.nextAllowed;
+
+        while (true) {
+            long now = System.nanoTime();
+            int earliest = 0;
+            long earliestAt = nextAllowed.get(0);
+            for (int i = 1; i < nextAllowed.length() && now - earliestAt < 0; i++) {
+                long at = nextAllowed.get(i);
+                if (at - earliestAt < 0) {
+                    earliest = i;
+                    earliestAt = at;
+                }
+            }
+            if (now - earliestAt < 0) {
+                return earliestAt - now;
+            }
+            if (nextAllowed.compareAndSet(earliest, earliestAt, now + slot.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Откладывает следующий запрос к хосту указанного URL, например по заголовку {@code Retry-After}.
+     * Если следующий запрос уже запланирован позже, ничего не меняется.
+     *
+     * @param url     URL сайта или страницы
+     * @param delayMs задержка в миллисекундах от текущего момента
+     */
+    public void delay(String url, long delayMs) {
+        long resumeAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        getSlot(url).delayUntil(resumeAt);
+    }
+
+    private HostSlot getSlot(String url) {
+        return hostToSlot.computeIfAbsent(UrlUtil.getHost(url),
+                host -> new HostSlot(TimeUnit.MILLISECONDS.toNanos(sitesList.getPolitenessDelayMs()), 1));
+    }
+
+    private static final class HostSlot {
+
+        /**
+         * Момент, начиная с которого разрешён следующий запрос, для каждого соединения.
+         */
+        private final AtomicLongArray nextAllowed;
+
+        private volatile long intervalNanos;
+
+        private HostSlot(long intervalNanos, int connections) {
+            this.intervalNanos = intervalNanos;
+            this.nextAllowed = new AtomicLongArray(connections);
+            long now = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                nextAllowed.set(i, now);
+            }
+        }
+
+        private void delayUntil(long resumeAt) {
+            for (int i = 0; i < nextAllowed.length(); i++) {
+                nextAllowed.accumulateAndGet(i, resumeAt,
+                        (current, candidate) -> current - candidate < 0 ? candidate : current);
+            }
+        }
+
+        private long latest() {
+            long latest = nextAllowed.get(0);
+            for (int i = 1; i < nextAllowed.length(); i++) {
+                long at = nextAllowed.get(i);
+                if (at - latest > 0) {
+                    latest = at;
+                }
+            }
+            return latest;
+        }
+    }
+}
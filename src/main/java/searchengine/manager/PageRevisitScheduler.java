@@ -0,0 +1,71 @@
+package searchengine.manager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.services.IndexingService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновый планировщик повторных посещений страниц.
+ * <p>
+ * Периодически запускает {@link IndexingService#revisitDuePages(int)} с числом посещений,
+ * накопленным по общему бюджету {@link SitesList#getRevisitFetchesPerHour()}. Неизрасходованный
+ * бюджет переносится на следующий запуск, но не больше чем на один период, чтобы после простоя
+ * (например, полной индексации) посещения не шли пачкой.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageRevisitScheduler {
+
+    private static final double MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final SitesList sitesList;
+
+    private final IndexingService indexingService;
+
+    /**
+     * Накопленное, но ещё не израсходованное число посещений. Изменяется только потоком планировщика.
+     */
+    private double allowance;
+
+    private long lastTickNanos;
+
+    /**
+     * Посещает страницы, время посещения которых наступило, в пределах накопленного бюджета.
+     */
+    @Scheduled(initialDelayString = "${indexing-settings.revisit-tick-ms:60000}",
+            fixedDelayString = "${indexing-settings.revisit-tick-ms:60000}")
+    public void revisitDuePages() {
+        if (!sitesList.isRevisitEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsedMs = lastTickNanos == 0
+                ? sitesList.getRevisitTickMs()
+                : TimeUnit.NANOSECONDS.toMillis(now - lastTickNanos);
+        lastTickNanos = now;
+
+        double perTick = sitesList.getRevisitFetchesPerHour() * sitesList.getRevisitTickMs() / MILLIS_PER_HOUR;
+        allowance = Math.min(allowance + sitesList.getRevisitFetchesPerHour() * elapsedMs / MILLIS_PER_HOUR,
+                Math.max(1, perTick));
+        int budget = (int) allowance;
+        if (budget == 0) {
+            return;
+        }
+        try {
+            int visited = indexingService.revisitDuePages(budget);
+            allowance -= visited;
+            if (visited > 0) {
+                log.debug("Revisited {} of {} allowed pages", visited, budget);
+            }
+        } catch (RuntimeException e) {
+            log.error("Page revisiting failed", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package searchengine.manager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.services.PageService;
+
+/**
+ * Фоновое восстановление текста страниц, сохранённых до появления столбцов {@code page.title}
+ * и {@code page.text}.
+ * <p>
+ * Каждый запуск обрабатывает пакет из {@link SitesList#getPageTextBackfillBatch()} страниц
+ * в порядке возрастания идентификатора, продолжая с места предыдущего запуска. Когда страниц
+ * без текста не остаётся, задача больше ничего не делает до перезапуска приложения. Пока текст
+ * не восстановлен, поиск строит сниппет, разбирая HTML страницы.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageTextBackfillScheduler {
+
+    private final SitesList sitesList;
+
+    private final PageService pageService;
+
+    /**
+     * Идентификатор последней обработанной страницы или -1, если восстановление завершено.
+     * Изменяется только потоком планировщика.
+     */
+    private int lastPageId;
+
+    private boolean started;
+
+    /**
+     * Восстанавливает текст очередного пакета страниц.
+     */
+    @Scheduled(initialDelayString = "${indexing-settings.page-text-backfill-tick-ms:1000}",
+            fixedDelayString = "${indexing-settings.page-text-backfill-tick-ms:1000}")
+    public void backfillPageText() {
+        if (lastPageId < 0 || sitesList.getPageTextBackfillBatch() <= 0) {
+            return;
+        }
+        try {
+            int last = pageService.backfillPageText(lastPageId, sitesList.getPageTextBackfillBatch());
+            if (last < 0) {
+                if (started) {
+                    log.info("Finished restoring text of pages saved without it");
+                }
+                lastPageId = -1;
+                return;
+            }
+            if (!started) {
+                log.info("Restoring text of pages saved without it");
+                started = true;
+            }
+            lastPageId = last;
+        } catch (RuntimeException e) {
+            log.error("Page text backfill failed", e);
+        }
+    }
+}
@@ -10,12 +10,16 @@ import java.util.concurrent.locks.ReentrantLock;
  * Менеджер локов, обеспечивающий эксклюзивное выполнение кода для конкретного сайта.
  * <p>
  * Позволяет безопасно выполнять операции по siteId с использованием ReentrantLock.
+ * Отдельно хранит блокировки обхода сайтов по URL, которые исключают одновременную индексацию сайта
+ * и повторные посещения его страниц.
  */
 @Component
 public class SiteScopedLockManager {
 
     private final ConcurrentMap<Integer, ReentrantLock> siteIdToLock = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<String, ReentrantLock> siteUrlToCrawlLock = new ConcurrentHashMap<>();
+
     /**
      * Выполняет переданный Runnable с блокировкой, специфичной для заданного siteId.
      *
@@ -31,4 +35,15 @@ public class SiteScopedLockManager {
             lock.unlock();
         }
     }
+
+    /**
+     * Возвращает блокировку обхода сайта. Индексация держит её всё время обхода сайта,
+     * повторные посещения — на время посещения одной страницы.
+     *
+     * @param siteUrl URL сайта
+     * @return блокировка обхода сайта
+     */
+    public ReentrantLock getCrawlLock(String siteUrl) {
+        return siteUrlToCrawlLock.computeIfAbsent(siteUrl, url -> new ReentrantLock());
+    }
 }
@@ -0,0 +1,261 @@
+package searchengine.manager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.task.RobotsRules;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Загрузка служебных ресурсов сайта, задающих начало обхода: robots.txt и sitemap.
+ * <p>
+ * Sitemap читается потоковым StAX-парсером без загрузки DTD и внешних сущностей.
+ * Индексы sitemap обходятся рекурсивно (с ограничением глубины), сжатые gzip файлы распаковываются.
+ * Ошибки загрузки не прерывают индексацию: без robots.txt обход ничем не ограничен,
+ * а без sitemap начинается с главной страницы.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SiteSeedLoader {
+
+    private static final String ROBOTS_PATH = "robots.txt";
+
+    private static final String DEFAULT_SITEMAP_PATH = "sitemap.xml";
+
+    /**
+     * Максимальный размер robots.txt, как у поисковых систем.
+     */
+    private static final int MAX_ROBOTS_BYTES = 512 * 1024;
+
+    /**
+     * Максимальный размер распакованного файла sitemap по протоколу sitemaps.org.
+     */
+    private static final int MAX_SITEMAP_BYTES = 50 * 1024 * 1024;
+
+    /**
+     * Максимальная глубина вложенности индексов sitemap.
+     */
+    private static final int MAX_SITEMAP_DEPTH = 3;
+
+    private static final int NOT_FOUND = 404;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final CrawlerHttpClient httpClient;
+
+    /**
+     * Загружает и разбирает robots.txt сайта.
+     *
+     * @param siteUrl   URL сайта
+     * @param userAgent User-Agent краулера
+     * @return правила сайта или {@link RobotsRules#allowAll()}, если файл отсутствует или недоступен
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    public RobotsRules loadRobots(String siteUrl, String userAgent) throws InterruptedException {
+        String robotsUrl = resolve(siteUrl, ROBOTS_PATH);
+        try {
+            CrawlResponse response = httpClient.getResource(robotsUrl, MAX_ROBOTS_BYTES);
+            if (response.getStatusCode() >= 400 || response.getBody().length == 0) {
+                if (response.getStatusCode() != NOT_FOUND) {
+                    log.info("robots.txt of {} is not available: HTTP {}", siteUrl, response.getStatusCode());
+                }
+                return RobotsRules.allowAll();
+            }
+            return RobotsRules.parse(new String(response.getBody(), StandardCharsets.UTF_8), userAgent);
+        } catch (IOException e) {
+            log.warn("Failed to load robots.txt of {}: {}", siteUrl, e.getMessage());
+            return RobotsRules.allowAll();
+        }
+    }
+
+    /**
+     * Загружает ссылки на страницы из sitemap сайта вместе с их приоритетом ({@code <priority>}).
+     * Используются sitemap, перечисленные в robots.txt, а если их нет — {@code /sitemap.xml}.
+     *
+     * @param siteUrl URL сайта
+     * @param robots  правила robots.txt сайта
+     * @param maxUrls максимальное число ссылок
+     * @return приоритеты страниц по ссылке в порядке следования в sitemap; {@code null}, если приоритет не указан
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    public Map<String, Double> loadSitemapUrls(String siteUrl, RobotsRules robots, int maxUrls)
+            throws InterruptedException {
+        Deque<SitemapRef> queue = new ArrayDeque<>();
+        List<String> roots = robots.getSitemaps().isEmpty()
+                ? List.of(resolve(siteUrl, DEFAULT_SITEMAP_PATH))
+                : robots.getSitemaps();
+        roots.forEach(url -> queue.add(new SitemapRef(url, 0)));
+
+        Set<String> visitedSitemaps = new HashSet<>();
+        Map<String, Double> pageUrls = new LinkedHashMap<>();
+        while (!queue.isEmpty() && pageUrls.size() < maxUrls) {
+            SitemapRef sitemap = queue.poll();
+            if (!visitedSitemaps.add(sitemap.url)) {
+                continue;
+            }
+            try {
+                readSitemap(sitemap, queue, pageUrls, maxUrls);
+            } catch (IOException | XMLStreamException e) {
+                log.warn("Failed to read sitemap {}: {}", sitemap.url, e.getMessage());
+            }
+        }
+        log.info("Loaded {} urls from {} sitemap(s) of {}", pageUrls.size(), visitedSitemaps.size(), siteUrl);
+        return pageUrls;
+    }
+
+    /**
+     * Скачивает и разбирает один файл sitemap. Ссылки на страницы ({@code <url><loc>}) с приоритетом
+     * добавляются в результат, ссылки на вложенные sitemap ({@code <sitemap><loc>}) — в очередь.
+     */
+    private void readSitemap(SitemapRef sitemap, Deque<SitemapRef> queue, Map<String, Double> pageUrls, int maxUrls)
+            throws IOException, InterruptedException, XMLStreamException {
+        CrawlResponse response = httpClient.getResource(sitemap.url, MAX_SITEMAP_BYTES);
+        if (response.getStatusCode() >= 400 || response.getBody().length == 0) {
+            if (response.getStatusCode() != NOT_FOUND) {
+                log.info("Sitemap {} is not available: HTTP {}", sitemap.url, response.getStatusCode());
+            }
+            return;
+        }
+
+        try (InputStream in = open(response.getBody())) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                String parent = null;
+                String loc = null;
+                Double priority = null;
+                while (reader.hasNext() && pageUrls.size() < maxUrls) {
+                    int event = reader.next();
+                    if (event == XMLStreamReader.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("url".equals(name) || "sitemap".equals(name)) {
+                            parent = name;
+                            loc = null;
+                            priority = null;
+                        } else if ("loc".equals(name) && parent != null) {
+                            loc = reader.getElementText().trim();
+                        } else if ("priority".equals(name) && parent != null) {
+                            priority = parsePriority(reader.getElementText());
+                        }
+                    } else if (event == XMLStreamReader.END_ELEMENT && reader.getLocalName().equals(parent)) {
+                        if (loc != null && !loc.isEmpty()) {
+                            if ("url".equals(parent)) {
+                                pageUrls.putIfAbsent(loc, priority);
+                            } else if (sitemap.depth < MAX_SITEMAP_DEPTH) {
+                                queue.add(new SitemapRef(loc, sitemap.depth + 1));
+                            }
+                        }
+                        parent = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Открывает тело sitemap, распаковывая его, если это файл gzip (например {@code sitemap.xml.gz}).
+     * Распакованный размер ограничен {@link #MAX_SITEMAP_BYTES}.
+     */
+    private static InputStream open(byte[] body) throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        if (body.length >= 2 && (body[0] & 0xff) == 0x1f && (body[1] & 0xff) == 0x8b) {
+            return new LimitedInputStream(new GZIPInputStream(in), MAX_SITEMAP_BYTES);
+        }
+        return in;
+    }
+
+    private static Double parsePriority(String value) {
+        try {
+            double priority = Double.parseDouble(value.trim());
+            return priority >= 0 && priority <= 1 ? priority : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String resolve(String siteUrl, String path) {
+        int schemeEnd = siteUrl.indexOf("://");
+        int pathStart = siteUrl.indexOf('/', schemeEnd + 3);
+        String origin = pathStart >= 0 ? siteUrl.substring(0, pathStart) : siteUrl;
+        return origin + "/" + path;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    @RequiredArgsConstructor
+    private static final class SitemapRef {
+
+        private final String url;
+
+        private final int depth;
+    }
+
+    /**
+     * Поток, завершающийся ошибкой при чтении больше заданного числа байт (защита от gzip-бомб).
+     */
+    private static final class LimitedInputStream extends InputStream {
+
+        private final InputStream in;
+
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkRemaining();
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkRemaining();
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void checkRemaining() throws IOException {
+            if (remaining <= 0) {
+                throw new IOException("Sitemap exceeds " + MAX_SITEMAP_BYTES + " bytes");
+            }
+        }
+    }
+}
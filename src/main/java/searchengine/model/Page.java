@@ -60,4 +60,43 @@ public class Page implements Serializable {
     /** Контент страницы в виде HTML или текста */
     @Column(name = "content", nullable = false, columnDefinition = "MEDIUMTEXT")
     private String content;
+
+    /** Заголовок страницы из элемента title */
+    @Column(name = "title", length = 512)
+    private String title;
+
+    /** Видимый текст страницы без HTML-разметки, извлечённый при индексации */
+    @Column(name = "text", columnDefinition = "MEDIUMTEXT")
+    @ToString.Exclude
+    private String text;
+
+    /** Значение заголовка ETag последнего ответа, отправляется в If-None-Match при повторной индексации */
+    @Column(name = "etag")
+    private String etag;
+
+    /** Значение заголовка Last-Modified последнего ответа, отправляется в If-Modified-Since */
+    @Column(name = "last_modified", length = 64)
+    private String lastModified;
+
+    /** SHA-256 содержимого страницы в шестнадцатеричном виде */
+    @Column(name = "content_hash", columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    /** 64-битный SimHash текста страницы для поиска почти одинаковых страниц */
+    @Column(name = "simhash")
+    private Long simhash;
+
+    /**
+     * Идентификатор страницы, почти совпадающей с этой по тексту, или {@code null}.
+     * Леммы и индексы такой страницы не сохраняются, в поиске её представляет каноническая страница.
+     */
+    @Column(name = "canonical_page_id")
+    private Integer canonicalPageId;
+
+    /**
+     * PageRank страницы среди страниц её сайта, нормированный так, что среднее значение по сайту равно 1,
+     * или {@code null}, если ранг ещё не рассчитан.
+     */
+    @Column(name = "page_rank")
+    private Double pageRank;
 }
@@ -0,0 +1,64 @@
+package searchengine.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Сущность PageRevisit хранит расписание повторного посещения страницы и историю её изменений.
+ * <p>
+ * Класс привязан к таблице {@code page_revisit}. Запись создаётся для каждой сохранённой страницы
+ * и удаляется вместе со страницей. Счётчики посещений, изменений и прошедшего между посещениями
+ * времени затухают с каждым посещением, поэтому оценка частоты изменений следует за недавним
+ * поведением страницы.
+ * </p>
+ */
+@Entity
+@Table(name = "page_revisit")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class PageRevisit implements Serializable {
+
+    /** Идентификатор страницы */
+    @Id
+    @Column(name = "page_id")
+    private int pageId;
+
+    /** Идентификатор сайта страницы */
+    @Column(name = "site_id", nullable = false)
+    private int siteId;
+
+    /** Время последнего посещения страницы */
+    @Column(name = "last_visit_at", nullable = false)
+    private LocalDateTime lastVisitAt;
+
+    /** Время, начиная с которого страницу нужно посетить снова */
+    @Column(name = "next_visit_at", nullable = false)
+    private LocalDateTime nextVisitAt;
+
+    /** Текущий интервал между посещениями в секундах */
+    @Column(name = "interval_seconds", nullable = false)
+    private long intervalSeconds;
+
+    /** Затухающее число посещений */
+    @Column(name = "visits", nullable = false)
+    private double visits;
+
+    /** Затухающее число посещений, при которых содержимое страницы изменилось */
+    @Column(name = "changes", nullable = false)
+    private double changes;
+
+    /** Затухающая сумма интервалов между посещениями в секундах */
+    @Column(name = "observed_seconds", nullable = false)
+    private double observedSeconds;
+}
@@ -5,34 +5,30 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.lucene.morphology.LuceneMorphology;
 import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
 import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.safety.Safelist;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 /**
  * Класс для извлечения и обработки лемм из текста на русском и английском языках.
  * <p>
  * Основные функции:
  * <ul>
- *     <li>Разделение текста на слова и фильтрация по языку.</li>
+ *     <li>Разделение текста на слова и фильтрация по языку ({@link WordTokenizer}).</li>
  *     <li>Сбор лемм и подсчет их количества.</li>
- *     <li>Очистка текста от HTML-тегов.</li>
- *     <li>Хранение соответствия нормальных форм лемм и их вариантов в тексте.</li>
+ *     <li>Хранение соответствия нормальных форм лемм и их вариантов в тексте ({@link LemmaFormsStore}).</li>
  * </ul>
+ * Результаты морфологического разбора словоформ запоминаются в общем для всех потоков
+ * кеше {@link WordLemmaCache}, поэтому частые слова разбираются один раз.
  */
 @Slf4j
 public class LemmaFinder {
@@ -43,119 +39,99 @@ public class LemmaFinder {
 
     private static final String[] particlesNames = new String[]{"МЕЖД", "ПРЕДЛ", "СОЮЗ"};
 
-    private static final Pattern RUSSIAN_PATTERN = Pattern.compile("[а-яА-Я]");
+    /**
+     * Минимальная длина слова, для которого ищутся леммы.
+     */
+    private static final int MIN_WORD_LENGTH = 3;
 
-    private static final Pattern ENGLISH_PATTERN = Pattern.compile("[a-zA-Z]");
+    /**
+     * Имя файла, в котором прежние версии хранили сериализованную карту словоформ.
+     */
+    private static final String LEGACY_LEMMA_FORMS_FILE = "lemma-forms.txt";
 
     @Getter
-    private ConcurrentMap<String, Set<String>> lemmaFormsMap;
+    private final LemmaFormsStore formsStore;
+
+    @Getter
+    private final WordLemmaCache wordCache;
+
+    private final Function<String, List<String>> russianParser;
+
+    private final Function<String, List<String>> englishParser;
 
     /**
      * Получение экземпляра Singleton LemmaFinder.
      *
+     * @param cacheSize      максимальное число словоформ в кеше результатов разбора
+     * @param formsDirectory каталог хранилища словоформ лемм
+     * @param flushThreshold число новых словоформ, после которого они записываются на диск
      * @return экземпляр LemmaFinder
-     * @throws IOException при ошибках инициализации морфологий
+     * @throws IOException при ошибках инициализации морфологий или хранилища словоформ
      */
-    public static LemmaFinder getInstance() throws IOException {
+    public static LemmaFinder getInstance(int cacheSize, Path formsDirectory, int flushThreshold) throws IOException {
         LuceneMorphology russianMorphology = new RussianLuceneMorphology();
         LuceneMorphology englishMorphology = new EnglishLuceneMorphology();
-        return new LemmaFinder(russianMorphology, englishMorphology);
+        LemmaFormsStore formsStore = new LemmaFormsStore(formsDirectory, flushThreshold);
+        return new LemmaFinder(russianMorphology, englishMorphology, cacheSize, formsStore);
     }
 
-    private LemmaFinder(LuceneMorphology russianMorphology, LuceneMorphology englishMorphology) {
+    private LemmaFinder(LuceneMorphology russianMorphology, LuceneMorphology englishMorphology, int cacheSize,
+                        LemmaFormsStore formsStore) {
         this.russianMorphology = russianMorphology;
         this.englishMorphology = englishMorphology;
-        lemmaFormsMap = loadLemmaForms("lemma-forms.txt");
+        this.wordCache = new WordLemmaCache(cacheSize);
+        this.russianParser = word -> parseWord(word, russianMorphology);
+        this.englishParser = word -> parseWord(word, englishMorphology);
+        this.formsStore = formsStore;
+        importLegacyLemmaForms(new File(LEGACY_LEMMA_FORMS_FILE));
     }
 
     /**
-     * Загружает карту лемм и их вариантов из файла.
+     * Переносит словоформы из сериализованной карты прежних версий в хранилище {@link LemmaFormsStore}.
+     * После переноса файл переименовывается, чтобы не загружаться повторно.
      *
-     * @param fileName имя файла с сериализованной картой лемм
-     * @return карта, где ключ — лемма, значение — набор форм леммы
+     * @param file файл с сериализованной картой лемм
      */
     @SuppressWarnings("unchecked")
-    public ConcurrentHashMap<String, Set<String>> loadLemmaForms(String fileName) {
-        ConcurrentHashMap<String, Set<String>> map = new ConcurrentHashMap<>();
-        File file = new File(fileName);
+    private void importLegacyLemmaForms(File file) {
         if (!file.exists() || file.length() == 0) {
-            // Файл не существует или пустой, возвращаем пустую карту
-            return map;
+            return;
         }
-        try (FileInputStream fileIn = new FileInputStream(fileName);
+        try (FileInputStream fileIn = new FileInputStream(file);
              ObjectInputStream in = new ObjectInputStream(fileIn)) {
             Object obj = in.readObject();
-            if (obj instanceof ConcurrentHashMap) {
-                map = (ConcurrentHashMap<String, Set<String>>) obj;
-            } else if (obj instanceof Map) {
-                map.putAll((Map<String, Set<String>>) obj);
-            } else {
+            if (!(obj instanceof Map)) {
                 throw new IOException("Unexpected data format");
             }
+            ((Map<String, Set<String>>) obj).forEach((lemma, forms) ->
+                    forms.forEach(form -> formsStore.add(lemma, form)));
+            formsStore.flush();
+            if (!file.renameTo(new File(file.getPath() + ".imported"))) {
+                log.warn("Could not rename imported lemma forms file {}", file);
+            }
+            log.info("Imported lemma forms from {}", file);
         } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
+            log.error("Failed to import lemma forms from {}", file, e);
         }
-        return map;
     }
 
     /**
      * Разделяет текст на слова, находит все леммы и считает их количество.
      *
-     * @param text текст из которого будут выбираться леммы
+     * @param text текст без HTML-разметки, из которого будут выбираться леммы
      * @return ключ является леммой, а значение количеством найденных лемм
      */
     public Map<String, Integer> collectLemmas(String text) {
         log.debug("Collecting lemmas starts");
 
-        String[] words = arrayContainsRussianWords(text);
         HashMap<String, Integer> lemmas = new HashMap<>();
-
-        for (String word : words) {
-            if (word.isBlank() || word.length() <= 2) {
-                continue;
-            }
-
-            if (isMixedLanguageWord(word)) {
-                log.warn("Word contains characters from different languages, skip: {}", word);
-                continue;
-            }
-
-            if (RUSSIAN_PATTERN.matcher(word).find()) {
-                processWord(word, russianMorphology, lemmas);
-            } else if (ENGLISH_PATTERN.matcher(word).find()) {
-                processWord(word, englishMorphology, lemmas);
-            }
-        }
-
+        WordTokenizer.tokenize(text, MIN_WORD_LENGTH, (buffer, length, cyrillic) ->
+                processWord(new String(buffer, 0, length), cyrillic ? russianParser : englishParser, lemmas));
         return lemmas;
     }
 
-    private String[] arrayContainsRussianWords(String text) {
-        text = cleanHtmlTag(text);
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("([^а-яА-Яa-zA-Z\\s])", " ")
-                .trim()
-                .split("\\s+");
-    }
-
-    private boolean isMixedLanguageWord(String word) {
-        return RUSSIAN_PATTERN.matcher(word).find() && ENGLISH_PATTERN.matcher(word).find();
-    }
-
-    private void processWord(String word, LuceneMorphology morphology, HashMap<String, Integer> lemmas) {
-        List<String> wordBaseForms;
-        try {
-            wordBaseForms = morphology.getMorphInfo(word);
-        } catch (Exception e) {
-            log.warn("Failed to get morph info for word: {}", word, e);
-            return;
-        }
-
-        if (anyWordBaseBelongToParticle(wordBaseForms)) {
-            return;
-        }
-
-        List<String> normalForms = morphology.getNormalForms(word);
+    private void processWord(String word, Function<String, List<String>> parser, HashMap<String, Integer> lemmas) {
+        List<String> normalForms = wordCache.get(word, parser);
         if (normalForms.isEmpty()) {
             return;
         }
@@ -167,7 +143,6 @@ public class LemmaFinder {
         }
 
         lemmas.put(normalWord, lemmas.getOrDefault(normalWord, 0) + 1);
-        lemmaFormsMap.computeIfAbsent(normalWord, k -> ConcurrentHashMap.newKeySet()).add(word);
     }
 
 
@@ -179,38 +154,42 @@ public class LemmaFinder {
      */
     public Set<String> getLemmaSet(String text) {
         log.debug("Extracting lemma set from text length={}", text.length());
-        String[] textArray = arrayContainsRussianWords(text);
         Set<String> lemmaSet = new HashSet<>();
-        for (String word : textArray) {
-            if (word.isBlank() || word.length() <= 2 || isMixedLanguageWord(word)) {
-                continue;
-            }
+        WordTokenizer.tokenize(text, MIN_WORD_LENGTH, (buffer, length, cyrillic) ->
+                addLemmas(new String(buffer, 0, length), cyrillic ? russianParser : englishParser, lemmaSet));
+        return lemmaSet;
+    }
 
-            if (RUSSIAN_PATTERN.matcher(word).find()) {
-                addLemmas(word, russianMorphology, lemmaSet);
-            } else if (ENGLISH_PATTERN.matcher(word).find()) {
-                addLemmas(word, englishMorphology, lemmaSet);
+    private void addLemmas(String word, Function<String, List<String>> parser, Set<String> lemmaSet) {
+        for (String normalForm : wordCache.get(word, parser)) {
+            if (normalForm.length() > 2) {
+                lemmaSet.add(normalForm);
             }
         }
-        return lemmaSet;
     }
 
-    private void addLemmas(String word, LuceneMorphology morphology, Set<String> lemmaSet) {
-        List<String> wordBaseForms;
+    /**
+     * Разбирает словоформу морфологией языка и запоминает её как форму первой нормальной формы
+     * в {@link #formsStore}. Вызывается только при промахе {@link #wordCache}.
+     *
+     * @param word       словоформа в нижнем регистре
+     * @param morphology морфология языка слова
+     * @return нормальные формы слова или пустой список, если слово — служебная часть речи
+     *         или его не удалось разобрать
+     */
+    private List<String> parseWord(String word, LuceneMorphology morphology) {
         try {
-            wordBaseForms = morphology.getMorphInfo(word);
-        } catch (Exception e) {
-            log.warn("Failed to get morph info for word: {}", word, e);
-            return;
-        }
-
-        if (!anyWordBaseBelongToParticle(wordBaseForms)) {
+            if (anyWordBaseBelongToParticle(morphology.getMorphInfo(word))) {
+                return List.of();
+            }
             List<String> normalForms = morphology.getNormalForms(word);
-            for (String normalForm : normalForms) {
-                if (normalForm.length() > 2) {
-                    lemmaSet.add(normalForm);
-                }
+            if (!normalForms.isEmpty() && normalForms.get(0).length() >= MIN_WORD_LENGTH) {
+                formsStore.add(normalForms.get(0), word);
             }
+            return normalForms;
+        } catch (Exception e) {
+            log.warn("Failed to get morph info for word: {}", word, e);
+            return List.of();
         }
     }
 
@@ -226,16 +205,4 @@ public class LemmaFinder {
         }
         return false;
     }
-
-    /**
-     * Очищает текст от HTML-тегов.
-     *
-     * @param html исходный HTML-текст
-     * @return текст без HTML-тегов
-     */
-    public String cleanHtmlTag(String html) {
-        log.debug("Clean HTML");
-        Document doc = Jsoup.parse(html);
-        return Jsoup.clean(doc.body().html(), Safelist.none());
-    }
 }
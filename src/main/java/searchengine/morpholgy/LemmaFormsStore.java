@@ -0,0 +1,302 @@
+package searchengine.morpholgy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище словоформ лемм, встреченных при индексации, для подсветки слов запроса в сниппетах.
+ * <p>
+ * Словоформы хранятся в файле {@link LemmaFormsTable}, отображённом в память, и дополняются по ходу индексации:
+ * новые пары «лемма — словоформа» копятся в памяти и после {@link #flushThreshold} пар или по вызову
+ * {@link #flush()} сливаются с текущей таблицей в файл следующего поколения. Запись по порогу выполняет
+ * отдельный фоновый поток, поэтому потоки индексации на ней не останавливаются. Каждое поколение пишется
+ * в отдельный файл и подменяет предыдущее только после полной записи, поэтому сбой при записи
+ * не портит уже сохранённые словоформы. Файлы прежних поколений удаляются, а если файл ещё отображён
+ * в память и не удаляется, он удаляется при следующем запуске.
+ * </p>
+ */
+@Slf4j
+public class LemmaFormsStore {
+
+    private static final Pattern GENERATION_FILE = Pattern.compile("forms-(\\d+)\\.idx");
+
+    private final Path directory;
+
+    private final int flushThreshold;
+
+    private volatile LemmaFormsTable table;
+
+    private long generation;
+
+    /**
+     * Словоформы, ещё не записанные в таблицу.
+     */
+    private volatile ConcurrentMap<String, Set<String>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Словоформы, которые сейчас записываются в таблицу следующего поколения, или {@code null}.
+     */
+    private volatile ConcurrentMap<String, Set<String>> flushing;
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /**
+     * Защищает подмену {@link #pending}: добавление берёт блокировку на чтение, подмена — на запись,
+     * чтобы ни одна пара не была добавлена в уже записываемый набор.
+     */
+    private final ReentrantReadWriteLock pendingLock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Фоновый поток записи словоформ по достижении {@link #flushThreshold}.
+     */
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lemma-forms-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Признак того, что запись уже поставлена в очередь фонового потока.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Открывает хранилище: отображает в память таблицу последнего поколения из каталога.
+     *
+     * @param directory      каталог файлов таблицы
+     * @param flushThreshold число новых пар, после которого они записываются в таблицу
+     * @throws IOException если каталог не удалось создать или прочитать
+     */
+    public LemmaFormsStore(Path directory, int flushThreshold) throws IOException {
+        this.directory = directory;
+        this.flushThreshold = Math.max(1, flushThreshold);
+        Files.createDirectories(directory);
+
+        long startNanos = System.nanoTime();
+        List<Long> generations = listGenerations();
+        table = LemmaFormsTable.EMPTY;
+        for (int i = generations.size() - 1; i >= 0 && generation == 0; i--) {
+            Path file = generationFile(generations.get(i));
+            try {
+                table = LemmaFormsTable.open(file);
+                generation = generations.get(i);
+            } catch (IOException e) {
+                log.warn("Skipping unreadable lemma forms table {}", file, e);
+            }
+        }
+        generations.stream()
+                .filter(value -> value != generation)
+                .forEach(value -> deleteQuietly(generationFile(value)));
+        log.info("Loaded lemma forms table {}: {} lemmas in {} ms", directory, table.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Запоминает словоформу леммы, если она ещё не сохранена.
+     * При накоплении {@link #flushThreshold} новых пар поручает их запись фоновому потоку.
+     *
+     * @param lemma лемма
+     * @param form  словоформа в нижнем регистре
+     */
+    public void add(String lemma, String form) {
+        Set<String> forms = pending.get(lemma);
+        if (forms != null && forms.contains(form)) {
+            return;
+        }
+        ConcurrentMap<String, Set<String>> inFlush = flushing;
+        if (inFlush != null && inFlush.getOrDefault(lemma, Set.of()).contains(form)) {
+            return;
+        }
+        if (table.getForms(lemma).contains(form)) {
+            return;
+        }
+        boolean added;
+        pendingLock.readLock().lock();
+        try {
+            added = pending.computeIfAbsent(lemma, key -> ConcurrentHashMap.newKeySet()).add(form);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+        if (added && pendingCount.incrementAndGet() >= flushThreshold) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Возвращает все сохранённые словоформы леммы.
+     *
+     * @param lemma лемма в нижнем регистре
+     * @return словоформы леммы, пустое множество, если лемма не встречалась
+     */
+    public Set<String> getForms(String lemma) {
+        Set<String> forms = new TreeSet<>();
+        addForms(forms, pending, lemma);
+        addForms(forms, flushing, lemma);
+        forms.addAll(table.getForms(lemma));
+        return forms;
+    }
+
+    /**
+     * Записывает накопленные словоформы в таблицу следующего поколения.
+     * Ошибка записи не теряет словоформы: они остаются в памяти до следующей попытки.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Записывает накопленные словоформы и останавливает фоновый поток записи.
+     */
+    public void close() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Background lemma forms flush did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Ставит запись в очередь фонового потока, если она ещё не поставлена.
+     * Пока запись выполняется, новые сигналы не ставят вторую: накопленное после её начала
+     * запишет следующая запись, поставленная очередным добавлением.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flushExecutor.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+        }
+    }
+
+    private void flushLocked() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        ConcurrentMap<String, Set<String>> batch;
+        pendingLock.writeLock().lock();
+        try {
+            batch = pending;
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+            pendingCount.set(0);
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        List<Map.Entry<byte[], Collection<String>>> updates = new ArrayList<>(batch.size());
+        for (Map.Entry<String, Set<String>> entry : batch.entrySet()) {
+            updates.add(Map.entry(entry.getKey().getBytes(StandardCharsets.UTF_8), new TreeSet<>(entry.getValue())));
+        }
+        updates.sort(Comparator.comparing(Map.Entry::getKey, Arrays::compareUnsigned));
+
+        long nextGeneration = generation + 1;
+        Path file = generationFile(nextGeneration);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            LemmaFormsTable.write(temporary, LemmaFormsTable.merge(table, updates));
+            Files.move(temporary, file);
+            LemmaFormsTable previousTable = table;
+            table = LemmaFormsTable.open(file);
+            flushing = null;
+            deleteQuietly(generationFile(generation));
+            generation = nextGeneration;
+            log.info("Saved {} lemma forms to {}: {} lemmas in {} ms (was {})", updates.size(), file, table.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), previousTable.size());
+        } catch (IOException e) {
+            log.error("Failed to save lemma forms to {}", file, e);
+            deleteQuietly(temporary);
+            pendingLock.writeLock().lock();
+            try {
+                batch.forEach((lemma, forms) ->
+                        pending.computeIfAbsent(lemma, key -> ConcurrentHashMap.newKeySet()).addAll(forms));
+                flushing = null;
+            } finally {
+                pendingLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static void addForms(Set<String> target, Map<String, Set<String>> source, String lemma) {
+        if (source != null) {
+            Set<String> forms = source.get(lemma);
+            if (forms != null) {
+                target.addAll(forms);
+            }
+        }
+    }
+
+    private List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                Matcher matcher = GENERATION_FILE.matcher(name);
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                } else if (name.endsWith(".tmp")) {
+                    deleteQuietly(file);
+                }
+            });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private Path generationFile(long value) {
+        return directory.resolve(String.format("forms-%06d.idx", value));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}", file, e);
+        }
+    }
+}
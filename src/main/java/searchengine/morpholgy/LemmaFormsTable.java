@@ -0,0 +1,351 @@
+package searchengine.morpholgy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Неизменяемая таблица «лемма → словоформы» в файле, отображённом в память.
+ * <p>
+ * Леммы хранятся в UTF-8, отсортированными по байтам, блоками по {@link #BLOCK_SIZE} записей.
+ * Первая лемма блока записана целиком, каждая следующая — длиной общего префикса с предыдущей и остатком
+ * (front coding); словоформы записаны длиной общего префикса с леммой и остатком. Длины кодируются
+ * переменным числом байтов. После блоков идут смещения блоков и заголовок из пяти чисел:
+ * число лемм, число блоков, смещение таблицы смещений, версия формата и сигнатура.
+ * </p>
+ * <p>
+ * Открытие таблицы только отображает файл в память и проверяет заголовок, поэтому занимает миллисекунды
+ * независимо от размера. Поиск леммы — двоичный поиск по первым леммам блоков и просмотр одного блока.
+ * Чтение выполняется абсолютными методами буфера, поэтому таблица потокобезопасна.
+ * </p>
+ */
+public final class LemmaFormsTable {
+
+    /**
+     * Число лемм в блоке.
+     */
+    static final int BLOCK_SIZE = 16;
+
+    private static final int MAGIC = 0x4C46524D;
+
+    private static final int VERSION = 1;
+
+    private static final int FOOTER_BYTES = 5 * Integer.BYTES;
+
+    /**
+     * Пустая таблица без файла.
+     */
+    public static final LemmaFormsTable EMPTY = new LemmaFormsTable(ByteBuffer.allocate(0), 0, 0, 0);
+
+    private final ByteBuffer buffer;
+
+    private final int lemmaCount;
+
+    private final int blockCount;
+
+    private final int indexOffset;
+
+    private LemmaFormsTable(ByteBuffer buffer, int lemmaCount, int blockCount, int indexOffset) {
+        this.buffer = buffer;
+        this.lemmaCount = lemmaCount;
+        this.blockCount = blockCount;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Отображает файл таблицы в память.
+     *
+     * @param file файл таблицы
+     * @return таблица
+     * @throws IOException если файл не удалось прочитать или он повреждён
+     */
+    public static LemmaFormsTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid lemma forms table size " + size + ": " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int footer = (int) size - FOOTER_BYTES;
+            int lemmaCount = buffer.getInt(footer);
+            int blockCount = buffer.getInt(footer + Integer.BYTES);
+            int indexOffset = buffer.getInt(footer + 2 * Integer.BYTES);
+            int version = buffer.getInt(footer + 3 * Integer.BYTES);
+            int magic = buffer.getInt(footer + 4 * Integer.BYTES);
+            if (magic != MAGIC || version != VERSION
+                    || indexOffset < 0 || (long) indexOffset + (long) blockCount * Integer.BYTES != footer) {
+                throw new IOException("Corrupted lemma forms table: " + file);
+            }
+            return new LemmaFormsTable(buffer, lemmaCount, blockCount, indexOffset);
+        }
+    }
+
+    /**
+     * @return число лемм в таблице
+     */
+    public int size() {
+        return lemmaCount;
+    }
+
+    /**
+     * Возвращает словоформы леммы.
+     *
+     * @param lemma лемма в нижнем регистре
+     * @return словоформы леммы или пустой список, если лемма отсутствует
+     */
+    public List<String> getForms(String lemma) {
+        if (blockCount == 0) {
+            return List.of();
+        }
+        byte[] key = lemma.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            Reader reader = new Reader(blockOffset(middle));
+            if (Arrays.compareUnsigned(reader.nextKey(), key) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        Reader reader = new Reader(blockOffset(low));
+        int entries = Math.min(BLOCK_SIZE, lemmaCount - low * BLOCK_SIZE);
+        for (int i = 0; i < entries; i++) {
+            int compare = Arrays.compareUnsigned(reader.nextKey(), key);
+            if (compare == 0) {
+                return reader.nextForms();
+            }
+            if (compare > 0) {
+                break;
+            }
+            reader.skipForms();
+        }
+        return List.of();
+    }
+
+    /**
+     * Возвращает записи таблицы в порядке лемм для слияния с новыми словоформами.
+     *
+     * @return итератор по леммам (в UTF-8) и их словоформам
+     */
+    Iterator<Map.Entry<byte[], List<String>>> entries() {
+        return new Iterator<>() {
+
+            private final Reader reader = new Reader(0);
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < lemmaCount;
+            }
+
+            @Override
+            public Map.Entry<byte[], List<String>> next() {
+                if (index % BLOCK_SIZE == 0) {
+                    reader.startBlock(blockOffset(index / BLOCK_SIZE));
+                }
+                index++;
+                byte[] key = reader.nextKey();
+                return Map.entry(key, reader.nextForms());
+            }
+        };
+    }
+
+    private int blockOffset(int block) {
+        return buffer.getInt(indexOffset + block * Integer.BYTES);
+    }
+
+    /**
+     * Записывает таблицу в файл.
+     *
+     * @param file    файл таблицы
+     * @param entries леммы в UTF-8 в порядке возрастания байтов и их словоформы
+     * @throws IOException если файл не удалось записать
+     */
+    static void write(Path file, Iterator<Map.Entry<byte[], Collection<String>>> entries) throws IOException {
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            int[] blockOffsets = new int[64];
+            int lemmaCount = 0;
+            byte[] previous = new byte[0];
+            while (entries.hasNext()) {
+                Map.Entry<byte[], Collection<String>> entry = entries.next();
+                byte[] key = entry.getKey();
+                if (lemmaCount % BLOCK_SIZE == 0) {
+                    int block = lemmaCount / BLOCK_SIZE;
+                    if (block == blockOffsets.length) {
+                        blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                    }
+                    blockOffsets[block] = out.size();
+                    previous = new byte[0];
+                }
+                writeSuffix(out, previous, key);
+                Collection<String> forms = entry.getValue();
+                writeVarInt(out, forms.size());
+                for (String form : forms) {
+                    writeSuffix(out, key, form.getBytes(StandardCharsets.UTF_8));
+                }
+                previous = key;
+                lemmaCount++;
+                if (out.size() == Integer.MAX_VALUE) {
+                    throw new IOException("Lemma forms table exceeds 2 GB: " + file);
+                }
+            }
+            int blockCount = (lemmaCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int indexOffset = out.size();
+            for (int i = 0; i < blockCount; i++) {
+                out.writeInt(blockOffsets[i]);
+            }
+            out.writeInt(lemmaCount);
+            out.writeInt(blockCount);
+            out.writeInt(indexOffset);
+            out.writeInt(VERSION);
+            out.writeInt(MAGIC);
+        }
+    }
+
+    /**
+     * Объединяет записи таблицы с новыми словоформами, отсортированными по байтам лемм.
+     *
+     * @param table   существующая таблица
+     * @param updates новые словоформы
+     * @return итератор объединённых записей
+     */
+    static Iterator<Map.Entry<byte[], Collection<String>>> merge(LemmaFormsTable table,
+                                                                 List<Map.Entry<byte[], Collection<String>>> updates) {
+        Iterator<Map.Entry<byte[], List<String>>> existing = table.entries();
+        Iterator<Map.Entry<byte[], Collection<String>>> added = updates.iterator();
+        return new Iterator<>() {
+
+            private Map.Entry<byte[], List<String>> nextExisting = existing.hasNext() ? existing.next() : null;
+
+            private Map.Entry<byte[], Collection<String>> nextAdded = added.hasNext() ? added.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextExisting != null || nextAdded != null;
+            }
+
+            @Override
+            public Map.Entry<byte[], Collection<String>> next() {
+                int compare = nextExisting == null ? 1
+                        : nextAdded == null ? -1
+                        : Arrays.compareUnsigned(nextExisting.getKey(), nextAdded.getKey());
+                Map.Entry<byte[], Collection<String>> result;
+                if (compare < 0) {
+                    result = Map.entry(nextExisting.getKey(), nextExisting.getValue());
+                    nextExisting = existing.hasNext() ? existing.next() : null;
+                } else if (compare > 0) {
+                    result = nextAdded;
+                    nextAdded = added.hasNext() ? added.next() : null;
+                } else {
+                    TreeSet<String> forms = new TreeSet<>(nextExisting.getValue());
+                    forms.addAll(nextAdded.getValue());
+                    result = Map.entry(nextAdded.getKey(), forms);
+                    nextExisting = existing.hasNext() ? existing.next() : null;
+                    nextAdded = added.hasNext() ? added.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+
+    private static void writeSuffix(DataOutputStream out, byte[] base, byte[] value) throws IOException {
+        int shared = Arrays.mismatch(base, value);
+        if (shared < 0) {
+            shared = value.length;
+        }
+        writeVarInt(out, shared);
+        writeVarInt(out, value.length - shared);
+        out.write(value, shared, value.length - shared);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Последовательное чтение записей одного блока.
+     */
+    private final class Reader {
+
+        private int position;
+
+        private byte[] previous = new byte[0];
+
+        private Reader(int position) {
+            this.position = position;
+        }
+
+        private void startBlock(int offset) {
+            position = offset;
+            previous = new byte[0];
+        }
+
+        private byte[] nextKey() {
+            previous = readSuffix(previous);
+            return previous;
+        }
+
+        private List<String> nextForms() {
+            int count = readVarInt();
+            List<String> forms = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                forms.add(new String(readSuffix(previous), StandardCharsets.UTF_8));
+            }
+            return forms;
+        }
+
+        private void skipForms() {
+            int count = readVarInt();
+            for (int i = 0; i < count; i++) {
+                readVarInt();
+                int length = readVarInt();
+                position += length;
+            }
+        }
+
+        private byte[] readSuffix(byte[] base) {
+            int shared = readVarInt();
+            int length = readVarInt();
+            byte[] value = Arrays.copyOf(base, shared + length);
+            buffer.get(position, value, shared, length);
+            position += length;
+            return value;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -2,14 +2,14 @@ package searchengine.morpholgy;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.CannotAcquireLockException;
-import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.manager.ExtractedPage;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
 import searchengine.model.SearchIndex;
@@ -54,8 +54,39 @@ public class LemmaIndexer {
      */
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void saveAllLemmas(Page page) {
+        saveAllLemmas(page, collectLemmas(page));
+    }
+
+    /**
+     * Собирает леммы из текста страницы без обращения к базе данных.
+     * <p>
+     * Используется текст, извлечённый при скачивании страницы; HTML разбирается заново,
+     * только если текста нет (страница сохранена до появления столбца {@code text}).
+     * </p>
+     *
+     * @param page страница
+     * @return леммы с количеством вхождений
+     */
+    public Map<String, Integer> collectLemmas(Page page) {
+        String text = page.getText() != null
+                ? page.getText()
+                : ExtractedPage.parse(page.getContent(), "").getText();
+        return lemmasService.collectLemmas(text);
+    }
+
+    /**
+     * Сохраняет заранее собранные леммы страницы в базе данных.
+     * <p>
+     * Позволяет выполнять лемматизацию и запись в базу данных в разных потоках.
+     * </p>
+     *
+     * @param page            сохранённая страница
+     * @param lemmasWithCount леммы страницы с количеством вхождений
+     * @see #saveAllLemmas(Page)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void saveAllLemmas(Page page, Map<String, Integer> lemmasWithCount) {
         log.info("Start saving lemmas from pageId={}", page.getId());
-        Map<String, Integer> lemmasWithCount = lemmasService.collectLemmas(page.getContent());
         int siteId = page.getSite().getId();
 
         if (lemmasWithCount.isEmpty()) {
@@ -96,7 +127,7 @@ public class LemmaIndexer {
      * @param page  страница, к которой относятся леммы
      */
     @Retryable(
-            value = {CannotAcquireLockException.class, DeadlockLoserDataAccessException.class},
+            value = PessimisticLockingFailureException.class,
             maxAttempts = 7,
             backoff = @Backoff(delay = 500, maxDelay = 1500, random = true)
     )
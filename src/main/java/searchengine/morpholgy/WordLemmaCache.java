@@ -0,0 +1,151 @@
+package searchengine.morpholgy;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Ограниченный потокобезопасный кеш результатов морфологического разбора слов.
+ * <p>
+ * Ключ — словоформа в нижнем регистре, значение — нормальные формы слова или пустой список,
+ * если слово не индексируется (служебная часть речи или ошибка разбора). Частоты слов в текстах
+ * подчиняются закону Ципфа, поэтому несколько тысяч самых частых форм покрывают большую часть обращений.
+ * </p>
+ * <p>
+ * Вытеснение выполняется алгоритмом CLOCK (приближение LRU): при попадании запись только помечается
+ * использованной, без блокировок; при добавлении в заполненный кеш стрелка обходит кольцо записей,
+ * снимает пометки и вытесняет первую непомеченную запись. Если два потока одновременно разбирают
+ * одно и то же отсутствующее слово, разбор выполняется дважды, а в кеш попадает один результат.
+ * </p>
+ */
+public class WordLemmaCache {
+
+    private final int capacity;
+
+    private final ConcurrentMap<String, Entry> entries;
+
+    /**
+     * Кольцо записей для алгоритма CLOCK. Защищено монитором кеша.
+     */
+    private final Entry[] ring;
+
+    private int size;
+
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity максимальное число словоформ в кеше
+     */
+    public WordLemmaCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new ConcurrentHashMap<>(Math.min(this.capacity, 1 << 16));
+        this.ring = new Entry[this.capacity];
+    }
+
+    /**
+     * Возвращает нормальные формы слова из кеша или разбирает слово и запоминает результат.
+     *
+     * @param word   словоформа в нижнем регистре
+     * @param parser разбор слова, вызываемый при промахе
+     * @return нормальные формы слова или пустой список, если слово не индексируется
+     */
+    public List<String> get(String word, Function<String, List<String>> parser) {
+        Entry entry = entries.get(word);
+        if (entry != null) {
+            // запись без проверки делала бы строку кеша частого слова грязной на всех ядрах
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            hits.increment();
+            return entry.normalForms;
+        }
+        misses.increment();
+        List<String> normalForms = List.copyOf(parser.apply(word));
+        put(word, normalForms);
+        return normalForms;
+    }
+
+    private synchronized void put(String word, List<String> normalForms) {
+        if (entries.containsKey(word)) {
+            return;
+        }
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else {
+            while (ring[hand].referenced) {
+                ring[hand].referenced = false;
+                hand = (hand + 1) % capacity;
+            }
+            entries.remove(ring[hand].word);
+            evictions.increment();
+            slot = hand;
+            hand = (hand + 1) % capacity;
+        }
+        Entry entry = new Entry(word, normalForms);
+        ring[slot] = entry;
+        entries.put(word, entry);
+    }
+
+    /**
+     * @return число попаданий в кеш
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return число промахов кеша
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return число вытесненных записей
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return текущее число словоформ в кеше
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return доля попаданий среди всех обращений, от 0 до 1
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : hitCount / (double) total;
+    }
+
+    private static final class Entry {
+
+        private final String word;
+
+        private final List<String> normalForms;
+
+        /**
+         * Пометка использования с последнего прохода стрелки.
+         */
+        private volatile boolean referenced;
+
+        private Entry(String word, List<String> normalForms) {
+            this.word = word;
+            this.normalForms = normalForms;
+        }
+    }
+}
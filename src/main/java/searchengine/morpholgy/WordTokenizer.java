@@ -0,0 +1,91 @@
+package searchengine.morpholgy;
+
+import java.util.Arrays;
+
+/**
+ * Разбиение текста на слова за один проход по символам.
+ * <p>
+ * Словом считается непрерывная последовательность букв латиницы ({@code a-z}, {@code A-Z})
+ * или кириллицы ({@code а-я}, {@code А-Я}); все остальные символы разделяют слова.
+ * Буквы переводятся в нижний регистр прямо при копировании в буфер токена, а язык слова
+ * определяется по ходу сканирования, поэтому копии текста и регулярные выражения не нужны.
+ * Слова короче минимальной длины и слова, смешивающие латиницу и кириллицу, отбрасываются
+ * без передачи получателю.
+ * </p>
+ * <p>
+ * Получатель видит общий буфер, который перезаписывается следующим словом: если слово нужно сохранить,
+ * его следует скопировать.
+ * </p>
+ */
+public final class WordTokenizer {
+
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    /**
+     * Разница кодов строчной и прописной буквы; одинакова для латиницы и кириллицы {@code а-я}.
+     */
+    private static final int CASE_OFFSET = 'a' - 'A';
+
+    private WordTokenizer() {
+    }
+
+    /**
+     * Получатель слов текста.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        /**
+         * Обрабатывает очередное слово.
+         *
+         * @param buffer   буфер с буквами слова в нижнем регистре
+         * @param length   длина слова
+         * @param cyrillic true, если слово написано кириллицей, false — латиницей
+         */
+        void accept(char[] buffer, int length, boolean cyrillic);
+    }
+
+    /**
+     * Разбивает текст на слова и передаёт получателю слова не короче указанной длины.
+     *
+     * @param text      текст без HTML-разметки
+     * @param minLength минимальная длина слова
+     * @param consumer  получатель слов
+     */
+    public static void tokenize(CharSequence text, int minLength, TokenConsumer consumer) {
+        char[] buffer = new char[INITIAL_BUFFER_SIZE];
+        int length = 0;
+        boolean cyrillic = false;
+        boolean latin = false;
+        int textLength = text.length();
+        for (int i = 0; i <= textLength; i++) {
+            char c = i < textLength ? text.charAt(i) : ' ';
+            char lower;
+            if (c >= 'a' && c <= 'z') {
+                lower = c;
+                latin = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                lower = (char) (c + CASE_OFFSET);
+                latin = true;
+            } else if (c >= 'а' && c <= 'я') {
+                lower = c;
+                cyrillic = true;
+            } else if (c >= 'А' && c <= 'Я') {
+                lower = (char) (c + CASE_OFFSET);
+                cyrillic = true;
+            } else {
+                if (length >= minLength && cyrillic != latin) {
+                    consumer.accept(buffer, length, cyrillic);
+                }
+                length = 0;
+                cyrillic = false;
+                latin = false;
+                continue;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = lower;
+        }
+    }
+}
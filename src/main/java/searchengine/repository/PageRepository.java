@@ -5,6 +5,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import searchengine.model.Page;
 import searchengine.model.Site;
+import searchengine.repository.projection.PageState;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Репозиторий для работы с сущностью {@link Page}.
@@ -30,6 +34,15 @@ public interface PageRepository extends JpaRepository<Page, Integer> {
      */
     Page findByPath(String url);
 
+    /**
+     * Находит страницу сайта по пути.
+     *
+     * @param site сайт
+     * @param path путь страницы
+     * @return найденная страница или {@code null}
+     */
+    Page findBySiteAndPath(Site site, String path);
+
     /**
      * Считает количество страниц, принадлежащих указанному сайту.
      *
@@ -38,6 +51,62 @@ public interface PageRepository extends JpaRepository<Page, Integer> {
      */
     int countBySite(Site site);
 
+    /**
+     * Возвращает состояние всех страниц сайта без их содержимого.
+     *
+     * @param site сайт
+     * @return список состояний страниц
+     */
+    @Query("SELECT p.id AS id, p.path AS path, p.etag AS etag, p.lastModified AS lastModified, " +
+            "p.contentHash AS contentHash, p.simhash AS simhash, p.canonicalPageId AS canonicalPageId, " +
+            "p.pageRank AS pageRank " +
+            "FROM Page p WHERE p.site = :site")
+    List<PageState> findStatesBySite(Site site);
+
+    /**
+     * Возвращает состояние страниц с указанными идентификаторами без их содержимого.
+     *
+     * @param ids идентификаторы страниц
+     * @return список состояний найденных страниц
+     */
+    @Query("SELECT p.id AS id, p.path AS path, p.etag AS etag, p.lastModified AS lastModified, " +
+            "p.contentHash AS contentHash, p.simhash AS simhash, p.canonicalPageId AS canonicalPageId, " +
+            "p.pageRank AS pageRank " +
+            "FROM Page p WHERE p.id IN :ids")
+    List<PageState> findStatesByIdIn(Collection<Integer> ids);
+
+    /**
+     * Обновляет сохранённые заголовки ETag и Last-Modified страницы.
+     *
+     * @param id           идентификатор страницы
+     * @param etag         новое значение ETag
+     * @param lastModified новое значение Last-Modified
+     */
+    @Modifying
+    @Query("UPDATE Page p SET p.etag = :etag, p.lastModified = :lastModified WHERE p.id = :id")
+    void updateValidators(int id, String etag, String lastModified);
+
+    /**
+     * Снимает ссылку на каноническую страницу у её почти копий.
+     *
+     * @param canonicalPageId идентификатор канонической страницы
+     * @return число почти копий, у которых снята ссылка
+     */
+    @Modifying
+    @Query("UPDATE Page p SET p.canonicalPageId = NULL WHERE p.canonicalPageId = :canonicalPageId")
+    int clearCanonicalPage(int canonicalPageId);
+
+    /**
+     * Находит страницы сайта с SimHash, которые не являются почти копиями, но не имеют ни одного индекса:
+     * бывшие почти копии удалённой или изменившейся канонической страницы.
+     *
+     * @param site сайт
+     * @return страницы без индексов
+     */
+    @Query("SELECT p FROM Page p WHERE p.site = :site AND p.canonicalPageId IS NULL AND p.simhash IS NOT NULL " +
+            "AND p.code < 400 AND NOT EXISTS (SELECT i FROM index_table i WHERE i.page = p)")
+    List<Page> findUnindexedPagesBySite(Site site);
+
     /**
      * Удаляет все страницы, принадлежащие указанному сайту.
      *
@@ -0,0 +1,57 @@
+package searchengine.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import searchengine.model.PageRevisit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностью {@link PageRevisit}.
+ *
+ * Помимо стандартных CRUD операций позволяет поставить в расписание новые страницы
+ * и выбрать страницы, которые пора посетить снова.
+ */
+public interface PageRevisitRepository extends JpaRepository<PageRevisit, Integer> {
+
+    /**
+     * Создаёт записи расписания для успешно сохранённых страниц, у которых их ещё нет.
+     * Первое посещение назначается через случайное время от половины до полутора начальных интервалов,
+     * чтобы страницы одного обхода не стали нужны все сразу.
+     *
+     * @param intervalSeconds начальный интервал между посещениями в секундах
+     * @return количество созданных записей
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO page_revisit (page_id, site_id, last_visit_at, next_visit_at, interval_seconds,
+                                      visits, changes, observed_seconds)
+            SELECT p.id, p.site_id, NOW(),
+                   DATE_ADD(NOW(), INTERVAL FLOOR(:intervalSeconds * (0.5 + RAND())) SECOND),
+                   :intervalSeconds, 0, 0, 0
+            FROM page p
+            LEFT JOIN page_revisit r ON r.page_id = p.id
+            WHERE r.page_id IS NULL AND p.code < 400
+            """, nativeQuery = true)
+    int insertMissing(long intervalSeconds);
+
+    /**
+     * Находит страницы, время посещения которых наступило, начиная с самых просроченных.
+     *
+     * @param time     текущее время
+     * @param pageable ограничение количества записей
+     * @return записи расписания
+     */
+    List<PageRevisit> findByNextVisitAtLessThanEqualOrderByNextVisitAtAsc(LocalDateTime time, Pageable pageable);
+
+    /**
+     * Считает страницы, время посещения которых наступило.
+     *
+     * @param time текущее время
+     * @return количество страниц
+     */
+    long countByNextVisitAtLessThanEqual(LocalDateTime time);
+}
@@ -1,9 +1,12 @@
 package searchengine.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import searchengine.model.Site;
 import searchengine.model.SiteStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -29,4 +32,14 @@ public interface SiteRepository extends JpaRepository<Site, Integer> {
      * @return список сайтов с указанным статусом
      */
     List<Site> findByStatus(SiteStatus status);
+
+    /**
+     * Обновляет только время статуса сайта, не затрагивая статус и ошибку.
+     *
+     * @param id         идентификатор сайта
+     * @param statusTime новое время статуса
+     */
+    @Modifying
+    @Query("UPDATE Site s SET s.statusTime = :statusTime WHERE s.id = :id")
+    void updateStatusTime(int id, LocalDateTime statusTime);
 }
@@ -0,0 +1,65 @@
+package searchengine.repository.projection;
+
+/**
+ * Проекция для получения состояния ранее сохранённой страницы без её содержимого.
+ * Используется при повторной индексации сайта, чтобы отправлять условные запросы
+ * и определять, изменилась ли страница.
+ */
+public interface PageState {
+
+    /**
+     * Идентификатор страницы.
+     *
+     * @return уникальный ID страницы
+     */
+    Integer getId();
+
+    /**
+     * Путь страницы относительно URL сайта.
+     *
+     * @return путь страницы
+     */
+    String getPath();
+
+    /**
+     * Значение заголовка {@code ETag} последнего ответа.
+     *
+     * @return ETag или {@code null}
+     */
+    String getEtag();
+
+    /**
+     * Значение заголовка {@code Last-Modified} последнего ответа.
+     *
+     * @return дата изменения или {@code null}
+     */
+    String getLastModified();
+
+    /**
+     * Хеш сохранённого содержимого страницы.
+     *
+     * @return SHA-256 в шестнадцатеричном виде или {@code null}
+     */
+    String getContentHash();
+
+    /**
+     * SimHash текста сохранённой страницы.
+     *
+     * @return SimHash или {@code null}
+     */
+    Long getSimhash();
+
+    /**
+     * Идентификатор канонической страницы, если сохранённая страница — её почти полная копия.
+     *
+     * @return ID канонической страницы или {@code null}
+     */
+    Integer getCanonicalPageId();
+
+    /**
+     * PageRank страницы, рассчитанный после прошлого обхода сайта.
+     *
+     * @return PageRank или {@code null}, если ранг не рассчитан
+     */
+    Double getPageRank();
+}
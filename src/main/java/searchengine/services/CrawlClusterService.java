@@ -0,0 +1,152 @@
+package searchengine.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сервис для совместного обхода сайтов несколькими узлами через общую базу данных.
+ * <p>
+ * Обеспечивает учёт живых узлов, аренду разделов пространства ссылок сайта
+ * и общую очередь ссылок, через которую узлы передают друг другу найденные ссылки.
+ * Время аренды и пульса узлов отсчитывается по часам базы данных, поэтому часы узлов
+ * не обязаны быть синхронизированы.
+ * </p>
+ */
+public interface CrawlClusterService {
+
+    /**
+     * Отмечает узел живым.
+     *
+     * @param nodeId идентификатор узла
+     */
+    void heartbeat(String nodeId);
+
+    /**
+     * Удаляет узел и освобождает все его аренды и участие в обходах.
+     *
+     * @param nodeId идентификатор узла
+     */
+    void removeNode(String nodeId);
+
+    /**
+     * Удаляет общую очередь ссылок и аренды сайта и создаёт свободные разделы для нового обхода.
+     *
+     * @param siteId     идентификатор сайта
+     * @param partitions количество разделов; 0 только удаляет состояние обхода
+     */
+    void resetSite(int siteId, int partitions);
+
+    /**
+     * Регистрирует узел участником обхода сайта.
+     *
+     * @param siteId идентификатор сайта
+     * @param nodeId идентификатор узла
+     */
+    void joinSite(int siteId, String nodeId);
+
+    /**
+     * Снимает участие узла в обходе сайта и освобождает его аренды разделов сайта.
+     *
+     * @param siteId идентификатор сайта
+     * @param nodeId идентификатор узла
+     */
+    void leaveSite(int siteId, String nodeId);
+
+    /**
+     * Подсчитывает живых участников обхода сайта.
+     *
+     * @param siteId идентификатор сайта
+     * @param ttlMs  время, в течение которого узел без пульса считается живым, в миллисекундах
+     * @return количество узлов
+     */
+    int countLiveParticipants(int siteId, long ttlMs);
+
+    /**
+     * Продлевает все действующие аренды узла.
+     *
+     * @param nodeId идентификатор узла
+     * @param ttlMs  срок аренды в миллисекундах
+     */
+    void renewLeases(String nodeId, long ttlMs);
+
+    /**
+     * Арендует свободные разделы сайта и разделы с истёкшей арендой.
+     *
+     * @param siteId идентификатор сайта
+     * @param nodeId идентификатор узла
+     * @param count  максимальное количество разделов
+     * @param ttlMs  срок аренды в миллисекундах
+     * @return количество арендованных разделов
+     */
+    int acquirePartitions(int siteId, String nodeId, int count, long ttlMs);
+
+    /**
+     * Освобождает часть разделов сайта, арендованных узлом.
+     *
+     * @param siteId идентификатор сайта
+     * @param nodeId идентификатор узла
+     * @param count  количество разделов
+     */
+    void releasePartitions(int siteId, String nodeId, int count);
+
+    /**
+     * Находит действующие аренды узла.
+     *
+     * @param nodeId идентификатор узла
+     * @return номера арендованных разделов по идентификатору сайта
+     */
+    Map<Integer, Set<Integer>> findLeasedPartitions(String nodeId);
+
+    /**
+     * Находит сайты, совместный обход которых идёт сейчас.
+     *
+     * @return идентификаторы сайтов
+     */
+    List<Integer> findCrawlingSites();
+
+    /**
+     * Добавляет ссылку в общую очередь, если её там ещё нет.
+     *
+     * @param siteId    идентификатор сайта
+     * @param urlHash   отпечаток ссылки
+     * @param partition раздел ссылки
+     * @param url       каноническая ссылка
+     * @param depth     глубина ссылки
+     * @param claimedBy узел, сразу берущий ссылку в обработку, или {@code null}
+     * @return true, если ссылка добавлена
+     */
+    boolean offerUrl(int siteId, long urlHash, int partition, String url, int depth, String claimedBy);
+
+    /**
+     * Отмечает ссылку обработанной.
+     *
+     * @param siteId  идентификатор сайта
+     * @param urlHash отпечаток ссылки
+     */
+    void completeUrl(int siteId, long urlHash);
+
+    /**
+     * Берёт в обработку необработанные ссылки разделов, которые никем не взяты
+     * или взяты узлами, переставшими подавать признаки жизни, и возвращает все необработанные
+     * ссылки, взятые узлом.
+     *
+     * @param siteId     идентификатор сайта
+     * @param nodeId     идентификатор узла
+     * @param partitions разделы, арендованные узлом
+     * @param limit      максимальное количество ссылок
+     * @param ttlMs      время, в течение которого узел без пульса считается живым, в миллисекундах
+     * @return глубина по ссылке
+     */
+    Map<String, Integer> claimPendingUrls(int siteId, String nodeId, Collection<Integer> partitions, int limit,
+                                          long ttlMs);
+
+    /**
+     * Подсчитывает необработанные ссылки сайта во всех разделах.
+     *
+     * @param siteId идентификатор сайта
+     * @return количество ссылок
+     */
+    long countPendingUrls(int siteId);
+}
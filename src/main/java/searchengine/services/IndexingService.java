@@ -2,6 +2,7 @@ package searchengine.services;
 
 import searchengine.dto.response.IndexingResponse;
 import searchengine.model.Page;
+import searchengine.task.CrawlStatistics;
 
 /**
  * Сервис для управления процессом индексации сайтов.
@@ -40,4 +41,27 @@ public interface IndexingService {
      *
      */
     Page indexPage(String pageUrl);
+
+    /**
+     * Повторно посещает страницы, время посещения которых наступило, и переиндексирует изменившиеся.
+     * Пока идёт индексация сайтов, страницы не посещаются.
+     *
+     * @param maxPages максимальное количество страниц для посещения
+     * @return количество посещённых страниц
+     */
+    int revisitDuePages(int maxPages);
+
+    /**
+     * Присоединяет узел к совместным обходам сайтов, запущенным на других узлах кластера.
+     *
+     * @return количество сайтов, к обходу которых узел присоединился
+     */
+    int joinClusterCrawls();
+
+    /**
+     * Возвращает счётчики повторных посещений страниц с момента запуска приложения.
+     *
+     * @return статистика повторных посещений
+     */
+    CrawlStatistics getRevisitStatistics();
 }
@@ -1,13 +1,14 @@
 package searchengine.services;
 
 import searchengine.model.Lemma;
+import searchengine.model.Page;
 import searchengine.model.Site;
+import searchengine.morpholgy.WordLemmaCache;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Сервис для работы с леммами {@link Lemma}.
@@ -38,11 +39,24 @@ public interface LemmaService {
     Map<String, Integer> collectLemmas(String text);
 
     /**
-     * Возвращает все формы лемм.
+     * Возвращает словоформы леммы, встреченные при индексации.
      *
-     * @return ConcurrentMap, где ключ — лемма, значение — множество её форм
+     * @param lemma лемма в нижнем регистре
+     * @return множество словоформ леммы, пустое, если лемма не встречалась
      */
-    ConcurrentMap<String, Set<String>> getLemmaForms();
+    Set<String> getLemmaForms(String lemma);
+
+    /**
+     * Записывает на диск словоформы лемм, накопленные с последней записи.
+     */
+    void flushLemmaForms();
+
+    /**
+     * Возвращает кеш результатов морфологического разбора словоформ со счётчиками попаданий.
+     *
+     * @return кеш разбора словоформ
+     */
+    WordLemmaCache getWordLemmaCache();
 
     /**
      * Возвращает частоту появления указанной леммы в базе данных.
@@ -78,6 +92,24 @@ public interface LemmaService {
      */
     Optional<Lemma> findLemmaByLemmaAndSite(String lemma, Site site);
 
+    /**
+     * Уменьшает частоты лемм страницы на их ранги в индексе страницы.
+     * <p>
+     * Вызывается перед удалением индексов страницы, чтобы частоты лемм сайта
+     * не учитывали удаляемую страницу.
+     * </p>
+     *
+     * @param page страница
+     */
+    void decrementFrequenciesByPage(Page page);
+
+    /**
+     * Удаляет леммы сайта, частота которых стала нулевой.
+     *
+     * @param site объект сайта
+     */
+    void deleteUnusedLemmasBySite(Site site);
+
     /**
      * Удаляет все леммы, связанные с указанным сайтом.
      *
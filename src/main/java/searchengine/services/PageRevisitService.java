@@ -0,0 +1,45 @@
+package searchengine.services;
+
+import searchengine.model.PageRevisit;
+
+import java.util.List;
+
+/**
+ * Сервис для работы с расписанием повторного посещения страниц {@link PageRevisit}.
+ * <p>
+ * Обеспечивает постановку новых страниц в расписание, выбор страниц, которые пора посетить,
+ * и сохранение пересчитанного расписания.
+ * </p>
+ */
+public interface PageRevisitService {
+
+    /**
+     * Ставит в расписание все успешно сохранённые страницы, которых в нём ещё нет.
+     *
+     * @param intervalSeconds начальный интервал между посещениями в секундах
+     * @return количество страниц, поставленных в расписание
+     */
+    int scheduleNewPages(long intervalSeconds);
+
+    /**
+     * Находит страницы, время посещения которых наступило, начиная с самых просроченных.
+     *
+     * @param limit максимальное количество страниц
+     * @return записи расписания
+     */
+    List<PageRevisit> findDuePages(int limit);
+
+    /**
+     * Подсчитывает страницы, время посещения которых наступило.
+     *
+     * @return количество страниц
+     */
+    long countDuePages();
+
+    /**
+     * Сохраняет расписание страницы.
+     *
+     * @param revisit запись расписания
+     */
+    void saveRevisit(PageRevisit revisit);
+}
@@ -3,7 +3,9 @@ package searchengine.services;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
 import searchengine.model.Site;
+import searchengine.repository.projection.PageState;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -38,6 +40,92 @@ public interface PageService {
      */
     Page findPageByPath(String url);
 
+    /**
+     * Находит страницу сайта по пути.
+     *
+     * @param site объект Site
+     * @param path путь страницы относительно URL сайта
+     * @return объект Page или null, если страница не найдена
+     */
+    Page findPageBySiteAndPath(Site site, String path);
+
+    /**
+     * Возвращает состояние всех страниц сайта (заголовки ответа и хеш содержимого) без самого содержимого.
+     *
+     * @param site объект Site
+     * @return список состояний страниц
+     */
+    List<PageState> findPageStatesBySite(Site site);
+
+    /**
+     * Возвращает состояние страниц с указанными идентификаторами без их содержимого.
+     *
+     * @param pageIds идентификаторы страниц
+     * @return список состояний найденных страниц
+     */
+    List<PageState> findPageStatesByIds(Collection<Integer> pageIds);
+
+    /**
+     * Обновляет сохранённые заголовки ETag и Last-Modified страницы.
+     *
+     * @param pageId       идентификатор страницы
+     * @param etag         новое значение ETag
+     * @param lastModified новое значение Last-Modified
+     */
+    void updatePageValidators(int pageId, String etag, String lastModified);
+
+    /**
+     * Сохраняет PageRank страниц.
+     *
+     * @param pageIds идентификаторы страниц
+     * @param ranks   ранги страниц в том же порядке
+     */
+    void updatePageRanks(int[] pageIds, double[] ranks);
+
+    /**
+     * Заполняет заголовок и текст страниц, сохранённых до появления этих столбцов, разбирая их HTML.
+     * Обрабатывает не больше {@code limit} таких страниц с идентификатором больше {@code afterId}
+     * в порядке возрастания идентификатора.
+     *
+     * @param afterId идентификатор, после которого начинается поиск страниц
+     * @param limit   максимальное число страниц
+     * @return идентификатор последней обработанной страницы или -1, если таких страниц не осталось
+     */
+    int backfillPageText(int afterId, int limit);
+
+    /**
+     * Удаляет индексы страницы, уменьшая частоты её лемм. Сама страница остаётся.
+     *
+     * @param page страница
+     */
+    void deletePageIndexes(Page page);
+
+    /**
+     * Снимает ссылку на каноническую страницу у её почти копий, например когда содержимое
+     * канонической страницы изменилось. Почти копии остаются без индексов до
+     * {@link #findUnindexedPagesBySite(Site)}.
+     *
+     * @param canonicalPageId идентификатор канонической страницы
+     * @return число почти копий, у которых снята ссылка
+     */
+    int releaseDuplicates(int canonicalPageId);
+
+    /**
+     * Находит бывшие почти копии страниц сайта, которые больше не ссылаются на каноническую страницу
+     * и ещё не проиндексированы.
+     *
+     * @param site сайт
+     * @return страницы без индексов
+     */
+    List<Page> findUnindexedPagesBySite(Site site);
+
+    /**
+     * Удаляет страницу по идентификатору.
+     *
+     * @param pageId идентификатор страницы
+     */
+    void deletePageById(int pageId);
+
     /**
      * Подсчитывает количество страниц, принадлежащих конкретному сайту.
      *
@@ -3,6 +3,7 @@ package searchengine.services;
 import searchengine.model.Site;
 import searchengine.model.SiteStatus;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -43,4 +44,27 @@ public interface SiteService {
      * @return список всех объектов Site
      */
     List<Site> findAllSites();
+
+    /**
+     * Обновляет время статуса сайта, не перезаписывая статус, установленный другим узлом.
+     *
+     * @param site сайт с новым временем статуса
+     */
+    void updateStatusTime(Site site);
+
+    /**
+     * Находит отпечатки шаблонных блоков текста, выученных при прошлом обходе сайта.
+     *
+     * @param site сайт
+     * @return отпечатки шаблонных блоков
+     */
+    List<Long> findTemplateFingerprints(Site site);
+
+    /**
+     * Заменяет сохранённые отпечатки шаблонных блоков текста сайта.
+     *
+     * @param site         сайт
+     * @param fingerprints отпечатки шаблонных блоков
+     */
+    void saveTemplateFingerprints(Site site, Collection<Long> fingerprints);
 }
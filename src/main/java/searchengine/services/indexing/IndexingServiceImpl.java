@@ -2,34 +2,64 @@ package searchengine.services.indexing;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.config.CrawlEngine;
+import searchengine.config.FrontierPriority;
 import searchengine.config.SiteInfo;
 import searchengine.config.SitesList;
 import searchengine.dto.response.IndexingResponse;
+import searchengine.manager.CrawlClusterManager;
+import searchengine.manager.CrawlResponse;
+import searchengine.manager.CrawlMemoryManager;
+import searchengine.manager.CrawlStatisticsRegistry;
+import searchengine.manager.CrawlerHttpClient;
+import searchengine.manager.ExtractedPage;
+import searchengine.manager.HostFetchScheduler;
+import searchengine.manager.SiteScopedLockManager;
+import searchengine.manager.SiteSeedLoader;
 import searchengine.model.Page;
+import searchengine.model.PageRevisit;
 import searchengine.model.Site;
 import searchengine.model.SiteStatus;
 import searchengine.morpholgy.LemmaIndexer;
+import searchengine.repository.projection.PageState;
 import searchengine.services.IndexingService;
+import searchengine.services.PageRevisitService;
 import searchengine.services.PageService;
 import searchengine.services.SearchIndexService;
 import searchengine.services.SiteService;
 import searchengine.services.persistency.LemmaServiceImpl;
-import searchengine.task.PageCrawler;
+import searchengine.task.AdaptiveFetchLimiter;
+import searchengine.task.BoilerplateFilter;
+import searchengine.task.ChangeRateEstimator;
+import searchengine.task.CrawlContext;
+import searchengine.task.CrawlJournal;
+import searchengine.task.CrawlStatistics;
+import searchengine.task.CrawlTrapDetector;
+import searchengine.task.ForkJoinCrawler;
+import searchengine.task.FrontierScorer;
+import searchengine.task.LinkGraph;
+import searchengine.task.NearDuplicateIndex;
+import searchengine.task.PageRank;
+import searchengine.task.RobotsRules;
+import searchengine.task.SharedFrontier;
+import searchengine.task.UrlCanonicalizer;
+import searchengine.task.VirtualThreadCrawler;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -37,6 +67,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -65,31 +96,72 @@ public class IndexingServiceImpl implements IndexingService {
 
     private final LemmaIndexer lemmaIndexer;
 
+    private final HostFetchScheduler hostFetchScheduler;
+
+    private final CrawlerHttpClient crawlerHttpClient;
+
+    private final CrawlStatisticsRegistry crawlStatisticsRegistry;
+
+    private final SiteSeedLoader siteSeedLoader;
+
+    private final CrawlMemoryManager crawlMemoryManager;
+
+    private final PageRevisitService pageRevisitService;
+
+    private final CrawlClusterManager crawlClusterManager;
+
+    private final SiteScopedLockManager siteScopedLockManager;
+
+    /**
+     * Счётчики повторных посещений страниц планировщиком.
+     */
+    private final CrawlStatistics revisitStatistics = new CrawlStatistics();
+
     private final List<ForkJoinPool> forkJoinPools = new ArrayList<>();
 
     private final List<Thread> threads = new ArrayList<>();
 
     private ExecutorService siteExecutor;
 
+    private VirtualThreadCrawler virtualThreadCrawler;
+
     private final Set<Site> activeSites = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Идентификаторы сайтов, к обходу которых этот узел присоединился по запуску на другом узле кластера.
+     */
+    private final Set<Integer> joinedSites = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService joinExecutor;
+
     private static final String INDEXING_WAS_TERMINATED_BY_USER = "Индексация остановлена пользователем";
 
     private static final String INDEXING_IS_ALREADY_STARTED = "Индексация уже запущена";
 
     private static final String INDEXING_IS_NOT_STARTED = "Индексация не запущена";
 
+    private static final String INDEXING_WAS_INTERRUPTED_BY_RESTART =
+            "Индексация прервана перезапуском приложения и будет продолжена при следующем запуске";
+
     /**
      * Метод, вызываемый при запуске приложения.
      * Проверяет все сайты со статусом {@link SiteStatus#INDEXING} и переводит их в статус {@link SiteStatus#FAILED},
      * чтобы завершить некорректные или прерванные индексации.
+     * Если для сайта остался журнал обхода, индексация будет продолжена при следующем запуске.
+     * Сайты, совместный обход которых продолжают другие живые узлы кластера, не трогаются.
      */
     @EventListener(ApplicationReadyEvent.class)
     @Transactional
     public void markAllSitesWithIndexingStatusAsField() {
         List<Site> sites = siteService.findSiteByStatus(SiteStatus.INDEXING);
         for (Site site : sites) {
+            if (crawlClusterManager.isEnabled() && crawlClusterManager.hasLiveParticipants(site.getId())) {
+                continue;
+            }
             site.setStatus(SiteStatus.FAILED);
+            if (openJournal(site.getUrl()).hasUnfinishedCrawl()) {
+                site.setLastError(INDEXING_WAS_INTERRUPTED_BY_RESTART);
+            }
             siteService.saveSite(site);
         }
     }
@@ -98,7 +170,8 @@ public class IndexingServiceImpl implements IndexingService {
      * Запускает процесс индексации всех уникальных сайтов из списка.
      * <p>
      * Использует {@link ExecutorService} для параллельной обработки сайтов.
-     * Каждый сайт обрабатывается в отдельной задаче.
+     * Каждый сайт обрабатывается в отдельной задаче. Для движка {@link CrawlEngine#VIRTUAL_THREADS}
+     * задачи всех сайтов запускаются сразу: они только регистрируют обход в общем движке и ждут его завершения.
      * </p>
      *
      * @return {@link IndexingResponse} с информацией о начале индексации
@@ -113,8 +186,11 @@ public class IndexingServiceImpl implements IndexingService {
         List<SiteInfo> uniqueSites = getUniqueSites();
 
         int configuredMax = Math.max(1, sitesList.getMaxConcurrentSites());
-        int maxConcurrentSites = Math.min(configuredMax, uniqueSites.size());
-        siteExecutor = Executors.newFixedThreadPool(maxConcurrentSites);
+        int maxConcurrentSites = sitesList.getCrawlEngine() == CrawlEngine.VIRTUAL_THREADS
+                ? uniqueSites.size()
+                : Math.min(configuredMax, uniqueSites.size());
+        siteExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentSites));
+        prepareEngine(true);
         List<Future<?>> futures = new ArrayList<>();
 
         for (SiteInfo info : uniqueSites) {
@@ -129,6 +205,24 @@ public class IndexingServiceImpl implements IndexingService {
         return new IndexingResponse();
     }
 
+    /**
+     * Создаёт общие ресурсы движка обхода из конфигурации, если они ещё не созданы или уже остановлены.
+     * Новый запуск индексации всегда создаёт свои ресурсы: ресурсы предыдущего запуска останавливает
+     * его поток ожидания, который может завершиться уже после начала нового запуска.
+     *
+     * @param newRun true, если ресурсы готовятся для нового запуска индексации
+     */
+    private synchronized void prepareEngine(boolean newRun) {
+        if (sitesList.getCrawlEngine() == CrawlEngine.VIRTUAL_THREADS
+                && (newRun || virtualThreadCrawler == null || virtualThreadCrawler.isShutdown())) {
+            virtualThreadCrawler = new VirtualThreadCrawler(sitesList.getMaxConcurrentFetches(),
+                    sitesList.getPipelineCpuThreads(), sitesList.getMaxConcurrentDbWrites(),
+                    sitesList.getPipelineQueueCapacity(), sitesList.getFrontierCapacity(),
+                    sitesList.getCrawlQuantum());
+        }
+    }
+
+
     /**
      * Получает список уникальных сайтов для индексации.
      * <p>
@@ -186,6 +280,8 @@ public class IndexingServiceImpl implements IndexingService {
      * @param futures список {@link Future} задач индексации
      */
     private void waitForCompletionAsync(List<Future<?>> futures) {
+        // ресурсы этого запуска: следующий запуск может создать новые, пока этот поток ещё не завершился
+        VirtualThreadCrawler runCrawler = virtualThreadCrawler;
         new Thread(() -> {
             boolean allTasksCompleted = true;
 
@@ -198,6 +294,10 @@ public class IndexingServiceImpl implements IndexingService {
                 }
             }
 
+            if (runCrawler != null) {
+                runCrawler.shutdown();
+            }
+
             if (allTasksCompleted) {
                 log.info("All indexing tasks completed successfully.");
             } else {
@@ -211,6 +311,17 @@ public class IndexingServiceImpl implements IndexingService {
      * <p>
      * Подготавливает сайт для индексации, очищает старые данные, выполняет обход сайта
      * и обновляет статус после успешной индексации или ошибки.
+     * Если на диске остался журнал незавершённого обхода, старые данные не удаляются,
+     * а обход продолжается с необработанных ссылок. После успешного обхода журнал удаляется.
+     * </p>
+     * <p>
+     * При совместном обходе узлами кластера этот узел готовит общую очередь и разделы сайта,
+     * а после завершения обхода на всех узлах удаляет их.
+     * </p>
+     * <p>
+     * Всё время обработки удерживается блокировка обхода сайта
+     * ({@link SiteScopedLockManager#getCrawlLock(String)}), чтобы повторные посещения страниц
+     * не сохраняли страницы сайта, данные которого удаляются или обходятся заново.
      * </p>
      *
      * @param info      информация о сайте
@@ -224,32 +335,206 @@ public class IndexingServiceImpl implements IndexingService {
         if (Thread.currentThread().isInterrupted()) {
             throw new InterruptedException();
         }
-        Site site = prepareSite(info);
-        log.info("Prepared site for indexing: {}", site.getUrl());
-        activeSites.add(site);
+        ReentrantLock crawlLock = siteScopedLockManager.getCrawlLock(modifyUrlToValid(info.getUrl()));
+        crawlLock.lockInterruptibly();
         try {
-            crawlSite(site, userAgent, referrer);
-            updateSiteStatus(site, SiteStatus.INDEXED, null);
-        } catch (Exception e) {
-            log.error("Error processing site: {}", site.getUrl(), e);
-            updateSiteStatus(site, SiteStatus.FAILED, e.getMessage());
-            throw e;
+            CrawlJournal journal = openJournal(info.getUrl());
+            CrawlJournal.ResumeState resumeState = loadResumeState(journal, info);
+            Site site = prepareSite(info, resumeState != null);
+            log.info("Prepared site for indexing: {}", site.getUrl());
+            hostFetchScheduler.registerHost(site.getUrl(), getPolitenessDelayMs(info), getMaxFetches(info));
+            activeSites.add(site);
+            try {
+                if (crawlClusterManager.isEnabled()) {
+                    crawlClusterManager.resetSite(site.getId());
+                }
+                crawlSite(site, info, userAgent, referrer, journal, resumeState);
+                updateSiteStatus(site, SiteStatus.INDEXED, null);
+                journal.delete();
+            } catch (Exception e) {
+                log.error("Error processing site: {}", site.getUrl(), e);
+                updateSiteStatus(site, SiteStatus.FAILED, e.getMessage());
+                throw e;
+            } finally {
+                journal.close();
+                activeSites.remove(site);
+                lemmaService.flushLemmaForms();
+                if (crawlClusterManager.isEnabled()) {
+                    crawlClusterManager.finishSite(site.getId());
+                }
+            }
         } finally {
-            activeSites.remove(site);
+            crawlLock.unlock();
+        }
+    }
+
+    /**
+     * Создаёт канонизатор ссылок сайта с общими и собственными параметрами запроса, которые нужно удалять.
+     *
+     * @param site сайт
+     * @param info информация о сайте из конфигурации
+     * @return канонизатор ссылок
+     */
+    private UrlCanonicalizer createCanonicalizer(Site site, SiteInfo info) {
+        List<String> stripParams = new ArrayList<>(sitesList.getStripParams());
+        if (info.getStripParams() != null) {
+            stripParams.addAll(info.getStripParams());
+        }
+        return new UrlCanonicalizer(site.getUrl(), stripParams, sitesList.isStripTrailingSlash());
+    }
+
+    /**
+     * Создаёт оценку важности ссылок очереди обхода по настройке {@link SitesList#getFrontierPriority()}.
+     *
+     * @param sitemapPriorities приоритеты страниц из sitemap, заполняемые при загрузке sitemap
+     * @return оценка ссылок
+     */
+    private FrontierScorer createFrontierScorer(Map<String, Double> sitemapPriorities) {
+        return switch (sitesList.getFrontierPriority()) {
+            case BREADTH_FIRST -> FrontierScorer.breadthFirst();
+            case SITEMAP_PRIORITY -> FrontierScorer.sitemapPriority(sitemapPriorities);
+            default -> FrontierScorer.shallowPath();
+        };
+    }
+
+    private static int limitOrUnbounded(int limit) {
+        return limit > 0 ? limit : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Создаёт детектор ловушек обхода сайта с бюджетами шаблонов ссылок из конфигурации.
+     *
+     * @param info информация о сайте из конфигурации
+     * @return детектор или {@code null}, если обнаружение ловушек выключено
+     */
+    private CrawlTrapDetector createTrapDetector(SiteInfo info) {
+        if (!sitesList.isTrapDetection()) {
+            return null;
+        }
+        return CrawlTrapDetector.builder()
+                .maxUrlLength(sitesList.getMaxUrlLength())
+                .maxSegmentRepeats(sitesList.getMaxSegmentRepeats())
+                .maxUrlsPerPattern(info.getMaxUrlsPerPattern() != null
+                        ? info.getMaxUrlsPerPattern() : sitesList.getMaxUrlsPerPattern())
+                .maxQueryVariants(info.getMaxQueryVariants() != null
+                        ? info.getMaxQueryVariants() : sitesList.getMaxQueryVariants())
+                .maxSameContentVariants(sitesList.getMaxSameContentVariants())
+                .build();
+    }
+
+    /**
+     * Создаёт выделение основного содержимого страниц сайта с настройками из конфигурации.
+     * Шаблонные блоки, выученные при прошлом обходе сайта, сразу считаются шаблонными.
+     *
+     * @param site сайт
+     * @param info информация о сайте из конфигурации
+     * @return выделение содержимого или {@code null}, если для сайта индексируется весь текст страниц
+     */
+    private BoilerplateFilter createBoilerplateFilter(Site site, SiteInfo info) {
+        boolean enabled = info.getBoilerplateRemoval() != null
+                ? info.getBoilerplateRemoval() : sitesList.isBoilerplateRemoval();
+        if (!enabled) {
+            return null;
+        }
+        BoilerplateFilter filter = BoilerplateFilter.builder()
+                .maxLinkDensity(sitesList.getBoilerplateMaxLinkDensity())
+                .minBlockWords(sitesList.getBoilerplateMinBlockWords())
+                .templatePages(sitesList.getBoilerplateTemplatePages())
+                .build();
+        if (site.getId() != 0) {
+            filter.addTemplates(siteService.findTemplateFingerprints(site));
         }
+        return filter;
+    }
+
+    /**
+     * Создаёт индекс почти одинаковых страниц сайта и заполняет его SimHash сохранённых страниц,
+     * которые не являются почти копиями других.
+     *
+     * @param states состояние сохранённых страниц сайта
+     * @return индекс или {@code null}, если проверка почти одинаковых страниц выключена
+     */
+    private NearDuplicateIndex createNearDuplicateIndex(Collection<PageState> states) {
+        if (!sitesList.isNearDuplicateDetection()) {
+            return null;
+        }
+        NearDuplicateIndex index = new NearDuplicateIndex(sitesList.getNearDuplicateDistance());
+        for (PageState state : states) {
+            if (state.getSimhash() != null && state.getCanonicalPageId() == null) {
+                index.addSaved(state.getSimhash(), state.getPath(), state.getId());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Создаёт адаптивный ограничитель одновременных запросов к сайту.
+     *
+     * @param info информация о сайте из конфигурации
+     * @return ограничитель с границами из конфигурации
+     */
+    private AdaptiveFetchLimiter createFetchLimiter(SiteInfo info) {
+        return new AdaptiveFetchLimiter(sitesList.getInitialFetchesPerSite(), sitesList.getMinFetchesPerSite(),
+                getMaxFetches(info), sitesList.getFetchLatencyFactor());
+    }
+
+    /**
+     * Возвращает максимальное число одновременных запросов к сайту.
+     * Значение из настроек сайта имеет приоритет над общим.
+     *
+     * @param info информация о сайте
+     * @return число запросов
+     */
+    private int getMaxFetches(SiteInfo info) {
+        return info.getMaxFetches() != null ? info.getMaxFetches() : sitesList.getMaxFetchesPerSite();
+    }
+
+    private CrawlJournal openJournal(String siteUrl) {
+        return CrawlJournal.forSite(sitesList.getCrawlJournalDir(), modifyUrlToValid(siteUrl));
+    }
+
+    /**
+     * Читает журнал незавершённого обхода сайта, если его можно продолжить.
+     *
+     * @param journal журнал обхода сайта
+     * @param info    информация о сайте
+     * @return состояние обхода или {@code null}, если сайт нужно индексировать заново
+     */
+    private CrawlJournal.ResumeState loadResumeState(CrawlJournal journal, SiteInfo info) {
+        if (!journal.hasUnfinishedCrawl() || siteService.findSiteByUrl(modifyUrlToValid(info.getUrl())) == null) {
+            return null;
+        }
+        try {
+            return journal.load();
+        } catch (IOException e) {
+            log.warn("Failed to read crawl journal of site {}, indexing from scratch", info.getUrl(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Возвращает минимальный интервал между запросами к сайту.
+     * Значение из настроек сайта имеет приоритет над общим.
+     *
+     * @param info информация о сайте
+     * @return интервал в миллисекундах
+     */
+    private long getPolitenessDelayMs(SiteInfo info) {
+        return info.getPolitenessDelayMs() != null ? info.getPolitenessDelayMs() : sitesList.getPolitenessDelayMs();
     }
 
     /**
      * Подготавливает объект {@link Site} для индексации.
      * <p>
-     * Если сайт уже существует в базе, очищает его старые данные.
-     * Устанавливает статус {@link SiteStatus#INDEXING}.
+     * Если сайт уже существует в базе, обход не продолжается и инкрементальная повторная индексация
+     * выключена, очищает его старые данные. Устанавливает статус {@link SiteStatus#INDEXING}.
      * </p>
      *
-     * @param info информация о сайте
+     * @param info   информация о сайте
+     * @param resume true, если продолжается незавершённый обход
      * @return подготовленный объект {@link Site}
      */
-    private Site prepareSite(SiteInfo info) {
+    private Site prepareSite(SiteInfo info, boolean resume) {
         String siteUrl = modifyUrlToValid(info.getUrl());
         Site site = siteService.findSiteByUrl(siteUrl);
 
@@ -257,7 +542,7 @@ public class IndexingServiceImpl implements IndexingService {
             site = new Site();
             site.setUrl(siteUrl);
             site.setName(info.getName());
-        } else {
+        } else if (!resume && !sitesList.isIncrementalRecrawl()) {
             deleteSiteRelatedInfo(site);
         }
 
@@ -300,18 +585,458 @@ public class IndexingServiceImpl implements IndexingService {
     }
 
     /**
-     * Запускает рекурсивное обходное сканирование сайта.
-     * Используется ForkJoinPool для параллельной обработки страниц.
+     * Запускает обход сайта движком, выбранным в конфигурации, и логирует его скорость.
+     * <p>
+     * {@link CrawlEngine#FORK_JOIN} — рекурсивный обход в отдельном ForkJoinPool сайта,
+     * {@link CrawlEngine#VIRTUAL_THREADS} — обход из очереди ссылок сайта в общем для всех сайтов движке
+     * с конвейером стадий разбора, лемматизации и записи.
+     * </p>
+     * <p>
+     * При инкрементальной повторной индексации в контекст загружается состояние сохранённых страниц сайта,
+     * а после успешного обхода удаляются страницы, которые на сайте больше не найдены.
+     * После успешного обхода индексируются бывшие почти копии удалённых и изменившихся страниц
+     * и сохраняются шаблонные блоки, выученные выделением основного содержимого:
+     * с ними начинают следующий обход и повторные посещения страниц сайта.
+     * </p>
+     * <p>
+     * Перед обходом загружается robots.txt сайта: запрещённые им ссылки не обходятся, а Crawl-delay
+     * увеличивает интервал между запросами. Ссылки из sitemap сразу добавляются в очередь обхода
+     * вместе с главной страницей.
+     * </p>
+     * <p>
+     * При совместном обходе узлами кластера после обхода собственных ссылок узел продолжает обход
+     * ссылками общей очереди ({@link #crawlSharedFrontier(CrawlContext, SiteInfo, CrawlEngine)}).
+     * Исчезнувшие страницы в этом режиме не удаляются, PageRank не рассчитывается и шаблоны не сохраняются:
+     * ни один узел не видит всех ссылок сайта.
+     * </p>
+     *
+     * @param site        Сайт, который необходимо проиндексировать.
+     * @param info        Информация о сайте из конфигурации.
+     * @param userAgent   User-Agent, который будет использован при HTTP-запросах.
+     * @param referrer    Заголовок Referrer для HTTP-запросов.
+     * @param journal     Журнал обхода сайта.
+     * @param resumeState Состояние незавершённого обхода или {@code null} для обхода с главной страницы.
+     * @throws InterruptedException если обход был остановлен
+     */
+    private void crawlSite(Site site, SiteInfo info, String userAgent, String referrer, CrawlJournal journal,
+                           CrawlJournal.ResumeState resumeState) throws InterruptedException {
+        RobotsRules robotsRules = loadRobotsRules(site, info, userAgent);
+        Map<String, Double> sitemapPriorities = new ConcurrentHashMap<>();
+        SharedFrontier sharedFrontier = crawlClusterManager.isEnabled()
+                ? crawlClusterManager.joinSite(site.getId())
+                : null;
+        CrawlContext context = createCrawlContext(site, info, userAgent, referrer, journal, robotsRules,
+                sitemapPriorities, sharedFrontier);
+
+        List<String> seeds = new ArrayList<>(resumeState != null
+                ? prepareResume(context, resumeState)
+                : List.of(site.getUrl()));
+        List<String> sitemapSeeds = loadSitemapSeeds(context, seeds, sitemapPriorities);
+        seeds.addAll(sitemapSeeds);
+        journal.open(resumeState != null);
+
+        CrawlEngine engine = sitesList.getCrawlEngine();
+        long startNanos = System.nanoTime();
+        crawlStatisticsRegistry.start(context);
+        try {
+            runCrawler(engine, context, info, seeds);
+            if (sharedFrontier != null) {
+                crawlSharedFrontier(context, info, engine);
+            } else if (!Thread.currentThread().isInterrupted()) {
+                if (context.getKnownPages() != null) {
+                    removeGonePages(context);
+                }
+                reindexReleasedDuplicates(site);
+                if (context.getLinkGraph() != null) {
+                    computePageRank(context);
+                }
+                if (context.getBoilerplateFilter() != null) {
+                    siteService.saveTemplateFingerprints(site, context.getBoilerplateFilter().getTemplates());
+                }
+            }
+        } finally {
+            crawlStatisticsRegistry.finish(context);
+            if (sharedFrontier != null) {
+                crawlClusterManager.leaveSite(site.getId());
+            }
+        }
+        logCrawlRate(site, engine, context.getStatistics().getSavedPages().get(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Создаёт контекст обхода сайта по его настройкам из конфигурации.
+     *
+     * @param site              сайт
+     * @param info              информация о сайте из конфигурации
+     * @param userAgent         User-Agent для HTTP-запросов
+     * @param referrer          заголовок Referrer для HTTP-запросов
+     * @param journal           журнал обхода сайта или {@code null}
+     * @param robotsRules       правила robots.txt сайта
+     * @param sitemapPriorities приоритеты страниц из sitemap
+     * @param sharedFrontier    общая очередь обхода узлами кластера или {@code null}
+     * @return контекст обхода
+     */
+    private CrawlContext createCrawlContext(Site site, SiteInfo info, String userAgent, String referrer,
+                                            CrawlJournal journal, RobotsRules robotsRules,
+                                            Map<String, Double> sitemapPriorities, SharedFrontier sharedFrontier) {
+        Map<String, PageState> knownPages = sitesList.isIncrementalRecrawl() ? loadKnownPages(site) : null;
+        return CrawlContext.builder()
+                .site(site)
+                .userAgent(userAgent)
+                .referrer(referrer)
+                .pageService(pageService)
+                .siteService(siteService)
+                .lemmaIndexer(lemmaIndexer)
+                .hostFetchScheduler(hostFetchScheduler)
+                .fetchLimiter(createFetchLimiter(info))
+                .httpClient(crawlerHttpClient)
+                .maxBodyBytes(info.getMaxBodyBytes() != null ? info.getMaxBodyBytes() : sitesList.getMaxBodyBytes())
+                .journal(journal)
+                .canonicalizer(createCanonicalizer(site, info))
+                .knownPages(knownPages)
+                .robotsRules(robotsRules)
+                .maxDepth(limitOrUnbounded(info.getMaxDepth() != null
+                        ? info.getMaxDepth() : sitesList.getMaxCrawlDepth()))
+                .maxPages(limitOrUnbounded(info.getMaxPages() != null
+                        ? info.getMaxPages() : sitesList.getMaxPagesPerSite()))
+                .frontierScorer(createFrontierScorer(sitemapPriorities))
+                .nearDuplicates(createNearDuplicateIndex(knownPages != null ? knownPages.values() : List.of()))
+                .boilerplateFilter(createBoilerplateFilter(site, info))
+                .trapDetector(createTrapDetector(info))
+                .memoryBudget(crawlMemoryManager.createSiteBudget())
+                .sharedFrontier(sharedFrontier)
+                .linkGraph(sitesList.isPageRankEnabled() && sharedFrontier == null
+                        ? new LinkGraph(sitesList.getMaxLinkGraphEdges())
+                        : null)
+                .build();
+    }
+
+    /**
+     * Обходит сайт движком, выбранным в конфигурации, начиная с указанных ссылок.
+     *
+     * @param engine  движок обхода
+     * @param context контекст обхода сайта
+     * @param info    информация о сайте из конфигурации
+     * @param seeds   начальные ссылки обхода
+     * @throws InterruptedException если обход был остановлен
+     */
+    private void runCrawler(CrawlEngine engine, CrawlContext context, SiteInfo info, List<String> seeds)
+            throws InterruptedException {
+        switch (engine) {
+            case VIRTUAL_THREADS -> virtualThreadCrawler.crawl(context, seeds,
+                    info.getCrawlWeight() != null ? info.getCrawlWeight() : 1);
+            default -> {
+                int parallelism = Math.max(1, sitesList.getCrawlerParallelism());
+                ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+                forkJoinPools.add(forkJoinPool);
+                new ForkJoinCrawler(context, forkJoinPool).crawl(seeds);
+            }
+        }
+    }
+
+    /**
+     * Обходит ссылки общей очереди кластера из арендованных узлом разделов, пока на всех узлах
+     * не останется необработанных ссылок сайта.
+     * <p>
+     * Ссылки забираются пачками по {@link SitesList#getClusterPullBatch()} и обходятся тем же движком.
+     * Пока необработанные ссылки есть только у других узлов, узел ждёт один период пульса:
+     * их обход может добавить ссылки в разделы этого узла, а ссылки упавшего узла перейдут
+     * к арендаторам разделов.
+     * </p>
+     *
+     * @param context контекст обхода сайта с общей очередью
+     * @param info    информация о сайте из конфигурации
+     * @param engine  движок обхода
+     * @throws InterruptedException  если обход был остановлен
+     * @throws IllegalStateException если индексация сайта остановлена на другом узле
+     */
+    private void crawlSharedFrontier(CrawlContext context, SiteInfo info, CrawlEngine engine)
+            throws InterruptedException {
+        SharedFrontier sharedFrontier = context.getSharedFrontier();
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            List<String> seeds = sharedFrontier.pull(sitesList.getClusterPullBatch());
+            if (!seeds.isEmpty()) {
+                runCrawler(engine, context, info, seeds);
+                int abandoned = sharedFrontier.abandonUnadmitted();
+                if (abandoned > 0) {
+                    log.debug("Skipped {} shared frontier urls of site {}", abandoned, context.getSite().getUrl());
+                }
+                continue;
+            }
+            if (sharedFrontier.countPending() == 0) {
+                return;
+            }
+            if (!isSiteIndexing(context.getSite())) {
+                throw new IllegalStateException(INDEXING_WAS_TERMINATED_BY_USER);
+            }
+            TimeUnit.MILLISECONDS.sleep(sitesList.getClusterHeartbeatMs());
+        }
+    }
+
+    /**
+     * Проверяет по базе данных, что индексация сайта не завершена и не остановлена на другом узле.
+     *
+     * @param site сайт
+     * @return true, если сайт в статусе {@link SiteStatus#INDEXING}
+     */
+    private boolean isSiteIndexing(Site site) {
+        Site stored = siteService.findSiteByUrl(site.getUrl());
+        return stored != null && stored.getStatus() == SiteStatus.INDEXING;
+    }
+
+    /**
+     * Загружает правила robots.txt сайта и, если Crawl-delay реже допускает запросы, чем интервал
+     * из конфигурации для всех соединений с сайтом, оставляет одно соединение с интервалом Crawl-delay.
+     *
+     * @param site      сайт
+     * @param info      информация о сайте из конфигурации
+     * @param userAgent User-Agent краулера
+     * @return правила сайта или {@link RobotsRules#allowAll()}, если robots.txt не учитывается
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    private RobotsRules loadRobotsRules(Site site, SiteInfo info, String userAgent) throws InterruptedException {
+        if (!sitesList.isRespectRobotsTxt()) {
+            return RobotsRules.allowAll();
+        }
+        RobotsRules robotsRules = siteSeedLoader.loadRobots(site.getUrl(), userAgent);
+        Long crawlDelayMs = robotsRules.getCrawlDelayMs();
+        if (crawlDelayMs != null && crawlDelayMs * getMaxFetches(info) > getPolitenessDelayMs(info)) {
+            log.info("Site {} requests crawl delay of {} ms", site.getUrl(), crawlDelayMs);
+            hostFetchScheduler.registerHost(site.getUrl(), crawlDelayMs, 1);
+        }
+        return robotsRules;
+    }
+
+    /**
+     * Загружает ссылки из sitemap сайта для начальной очереди обхода.
+     * Ссылки приводятся к каноническому виду, а ссылки, не подлежащие обходу, уже обойденные
+     * или уже входящие в начальную очередь, отбрасываются.
+     *
+     * @param context    контекст обхода сайта
+     * @param seeds      уже выбранные начальные ссылки
+     * @param priorities словарь, в который записываются приоритеты страниц из sitemap
+     * @return новые начальные ссылки из sitemap
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    private List<String> loadSitemapSeeds(CrawlContext context, List<String> seeds, Map<String, Double> priorities)
+            throws InterruptedException {
+        if (!sitesList.isSitemapSeeding()) {
+            return List.of();
+        }
+        Set<String> known = new HashSet<>(seeds);
+        List<String> sitemapSeeds = new ArrayList<>();
+        Map<String, Double> sitemapUrls = siteSeedLoader.loadSitemapUrls(context.getSite().getUrl(),
+                context.getRobotsRules(), sitesList.getMaxSitemapUrls());
+        for (Map.Entry<String, Double> entry : sitemapUrls.entrySet()) {
+            String canonical = context.canonicalize(entry.getKey());
+            if (context.isValidLink(canonical) && !context.getVisitedLinks().contains(canonical)
+                    && known.add(canonical)) {
+                sitemapSeeds.add(canonical);
+                if (entry.getValue() != null
+                        && sitesList.getFrontierPriority() == FrontierPriority.SITEMAP_PRIORITY) {
+                    priorities.put(canonical, entry.getValue());
+                }
+            }
+        }
+        log.info("Seeding crawl of site {} with {} sitemap urls", context.getSite().getUrl(), sitemapSeeds.size());
+        return sitemapSeeds;
+    }
+
+    /**
+     * Загружает состояние сохранённых страниц сайта для инкрементальной повторной индексации.
+     *
+     * @param site сайт
+     * @return состояние страниц по пути
+     */
+    private Map<String, PageState> loadKnownPages(Site site) {
+        Map<String, PageState> knownPages = new ConcurrentHashMap<>();
+        for (PageState state : pageService.findPageStatesBySite(site)) {
+            knownPages.put(state.getPath(), state);
+        }
+        log.info("Loaded {} known pages of site {} for incremental recrawl", knownPages.size(), site.getUrl());
+        return knownPages;
+    }
+
+    /**
+     * Удаляет страницы, на которые при инкрементальном обходе сайта сервер ответил 404 или 410,
+     * уменьшая частоты их лемм, и затем неиспользуемые леммы сайта.
+     * <p>
+     * Страницы, до которых обход не дошёл, не удаляются: их могли отсечь ограничения глубины
+     * и числа страниц, robots.txt, обнаружение ловушек или ложное срабатывание набора посещённых ссылок.
+     * </p>
+     *
+     * @param context контекст завершённого обхода сайта
+     */
+    private void removeGonePages(CrawlContext context) {
+        Map<String, PageState> gone = context.getGonePages();
+        for (PageState state : gone.values()) {
+            deleteStoredPage(state);
+            context.getStatistics().getRemovedPages().incrementAndGet();
+        }
+        gone.clear();
+        context.getKnownPages().clear();
+        lemmaService.deleteUnusedLemmasBySite(context.getSite());
+        log.info("Incremental recrawl of site {}: {} not modified, {} unchanged, {} changed, {} removed pages",
+                context.getSite().getUrl(),
+                context.getStatistics().getNotModifiedPages().get(),
+                context.getStatistics().getUnchangedPages().get(),
+                context.getStatistics().getChangedPages().get(),
+                context.getStatistics().getRemovedPages().get());
+    }
+
+    /**
+     * Индексирует бывшие почти копии страниц сайта: при удалении канонической страницы ссылка на неё
+     * снимается внешним ключом, а при изменении её содержимого — {@link PageService#releaseDuplicates(int)}.
+     * Содержимое таких страниц не изменилось, поэтому без этого прохода они остались бы без индексов.
+     *
+     * @param site сайт
+     */
+    private void reindexReleasedDuplicates(Site site) {
+        List<Page> pages = pageService.findUnindexedPagesBySite(site);
+        for (Page page : pages) {
+            lemmaIndexer.saveAllLemmas(page, lemmaIndexer.collectLemmas(page));
+        }
+        if (!pages.isEmpty()) {
+            log.info("Indexed {} former near duplicates of site {}", pages.size(), site.getUrl());
+        }
+    }
+
+    /**
+     * Готовит продолжение обхода по журналу.
+     * <p>
+     * Обработанные ссылки помечаются посещёнными. Страницы, которые могли быть сохранены
+     * до сбоя, но не отмечены в журнале как обработанные, удаляются вместе с индексами,
+     * чтобы не появились дубликаты.
+     * При инкрементальной индексации обработанные страницы исключаются из списка ещё не обойденных.
+     * </p>
+     *
+     * @param context     контекст обхода сайта
+     * @param resumeState состояние незавершённого обхода
+     * @return ссылки, с которых продолжается обход
+     */
+    private List<String> prepareResume(CrawlContext context, CrawlJournal.ResumeState resumeState) {
+        Site site = context.getSite();
+        Map<String, PageState> knownPages = context.getKnownPages();
+        for (String url : resumeState.getCompleted()) {
+            context.getVisitedLinks().add(context.canonicalize(url));
+            if (knownPages != null) {
+                knownPages.remove(context.getRelativeUrl(url));
+            }
+        }
+        context.getAdmittedPages().addAndGet(resumeState.getCompleted().size());
+        for (String url : resumeState.getPending()) {
+            String path = context.getRelativeUrl(url);
+            Page page = pageService.findPageBySiteAndPath(site, path);
+            if (page != null) {
+                deletePageWithIndexes(page);
+                if (knownPages != null) {
+                    knownPages.remove(path);
+                }
+            }
+        }
+        lemmaService.deleteUnusedLemmasBySite(site);
+        log.info("Resuming indexing of site {}: {} pages done, {} pending",
+                site.getUrl(), resumeState.getCompleted().size(), resumeState.getPending().size());
+        return resumeState.getPending().stream()
+                .map(context::canonicalize)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Удаляет сохранённую страницу и её индексы, уменьшая частоты лемм сайта.
+     * Запись расписания повторных посещений страницы удаляется вместе с ней.
+     *
+     * @param state состояние страницы
+     */
+    private void deleteStoredPage(PageState state) {
+        Page page = new Page();
+        page.setId(state.getId());
+        pageService.deletePageIndexes(page);
+        pageService.deletePageById(state.getId());
+    }
+
+    /**
+     * Удаляет страницу и её индексы, уменьшая частоты лемм сайта.
+     *
+     * @param page страница
+     */
+    private void deletePageWithIndexes(Page page) {
+        pageService.deletePageIndexes(page);
+        pageService.deletePage(page);
+    }
+
+    /**
+     * Рассчитывает PageRank сохранённых страниц сайта по графу ссылок, собранному при обходе,
+     * и сохраняет ранги, нормированные так, что их среднее по сайту равно 1.
+     * <p>
+     * При продолжении обхода по журналу ссылки страниц, обработанных до сбоя, в графе отсутствуют,
+     * поэтому ранги таких сайтов приблизительны до следующей полной индексации.
+     * </p>
+     *
+     * @param context контекст завершённого обхода сайта
+     */
+    private void computePageRank(CrawlContext context) {
+        Site site = context.getSite();
+        LinkGraph linkGraph = context.getLinkGraph();
+        String baseUrl = site.getUrl().endsWith("/")
+                ? site.getUrl().substring(0, site.getUrl().length() - 1)
+                : site.getUrl();
+        List<PageState> pages = pageService.findPageStatesBySite(site);
+        int[] pageIds = new int[pages.size()];
+        List<String> pageUrls = new ArrayList<>(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            PageState page = pages.get(i);
+            pageIds[i] = page.getId();
+            pageUrls.add(context.canonicalize(baseUrl + page.getPath()));
+        }
+
+        long startNanos = System.nanoTime();
+        LinkGraph.Csr graph = linkGraph.toCsr(pageIds, pageUrls);
+        int parallelism = sitesList.getPageRankParallelism() > 0
+                ? sitesList.getPageRankParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        PageRank.Result result;
+        try {
+            result = PageRank.builder()
+                    .damping(sitesList.getPageRankDamping())
+                    .tolerance(sitesList.getPageRankTolerance())
+                    .maxIterations(sitesList.getPageRankMaxIterations())
+                    .pool(pool)
+                    .build()
+                    .compute(graph);
+        } finally {
+            pool.shutdown();
+        }
+
+        double[] ranks = result.getRanks();
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] *= ranks.length;
+        }
+        pageService.updatePageRanks(graph.getPageIds(), ranks);
+        log.info("PageRank of site {}: {} pages, {} links, {} iterations (delta {}) in {} ms{}", site.getUrl(),
+                graph.nodeCount(), graph.edgeCount(), result.getIterations(),
+                String.format("%.2e", result.getDelta()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                linkGraph.isTruncated() ? ", link graph truncated at " + linkGraph.edgeCount() + " links" : "");
+    }
+
+    /**
+     * Логирует скорость обхода сайта в страницах в минуту для сравнения движков.
      *
-     * @param site      Сайт, который необходимо проиндексировать.
-     * @param userAgent User-Agent, который будет использован при HTTP-запросах.
-     * @param referrer  Заголовок Referrer для HTTP-запросов.
+     * @param site         сайт
+     * @param engine       движок обхода
+     * @param pages        число сохранённых страниц
+     * @param elapsedNanos длительность обхода
      */
-    private void crawlSite(Site site, String userAgent, String referrer) {
-        int parallelism = Math.max(1, sitesList.getCrawlerParallelism());
-        ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
-        forkJoinPools.add(forkJoinPool);
-        forkJoinPool.invoke(new PageCrawler(site.getUrl(), userAgent, referrer, site, pageService, siteService, lemmaService, lemmaIndexer));
+    private void logCrawlRate(Site site, CrawlEngine engine, int pages, long elapsedNanos) {
+        double minutes = Math.max(elapsedNanos, 1) / (double) TimeUnit.MINUTES.toNanos(1);
+        log.info("Site {} crawled by {} engine: {} pages in {} s ({} pages/min)", site.getUrl(), engine, pages,
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), String.format("%.1f", pages / minutes));
     }
 
     /**
@@ -332,6 +1057,8 @@ public class IndexingServiceImpl implements IndexingService {
      * Останавливает процесс индексирования всех сайтов.
      * Прерывает все потоки и ForkJoinPool'ы, обновляет статус сайтов на FAILED,
      * если они находились в процессе индексирования.
+     * При совместном обходе в статус FAILED переводятся все индексируемые сайты:
+     * другие узлы кластера заметят это и завершат свою часть обхода.
      *
      * @return Объект IndexingResponse с результатом операции.
      */
@@ -366,9 +1093,21 @@ public class IndexingServiceImpl implements IndexingService {
         });
         forkJoinPools.clear();
 
+        if (virtualThreadCrawler != null) {
+            virtualThreadCrawler.shutdown();
+        }
+        if (joinExecutor != null) {
+            joinExecutor.shutdownNow();
+        }
+
         for (Site site : activeSites) {
             updateSiteStatus(site, SiteStatus.FAILED, INDEXING_WAS_TERMINATED_BY_USER);
         }
+        if (crawlClusterManager.isEnabled()) {
+            for (Site site : siteService.findSiteByStatus(SiteStatus.INDEXING)) {
+                updateSiteStatus(site, SiteStatus.FAILED, INDEXING_WAS_TERMINATED_BY_USER);
+            }
+        }
         return new IndexingResponse();
     }
 
@@ -383,6 +1122,302 @@ public class IndexingServiceImpl implements IndexingService {
         return !byStatus.isEmpty();
     }
 
+    /**
+     * Присоединяет узел к совместным обходам сайтов, запущенным на других узлах кластера.
+     * <p>
+     * Для каждого такого сайта из конфигурации узел в отдельной задаче арендует свою долю разделов
+     * и обходит ссылки общей очереди, пока обход сайта не завершится на всех узлах.
+     * Статус сайта меняет только узел, запустивший индексацию.
+     * </p>
+     *
+     * @return количество сайтов, к обходу которых узел присоединился
+     */
+    @Override
+    public int joinClusterCrawls() {
+        if (!crawlClusterManager.isEnabled()) {
+            return 0;
+        }
+        Set<Integer> localSites = activeSites.stream()
+                .map(Site::getId)
+                .collect(Collectors.toSet());
+        Map<Integer, Site> sitesById = null;
+        int joined = 0;
+        for (Integer siteId : crawlClusterManager.findCrawlingSites()) {
+            if (localSites.contains(siteId) || joinedSites.contains(siteId)) {
+                continue;
+            }
+            if (sitesById == null) {
+                sitesById = siteService.findAllSites().stream()
+                        .collect(Collectors.toMap(Site::getId, Function.identity()));
+            }
+            Site site = sitesById.get(siteId);
+            SiteInfo info = site != null ? findSiteInfo(site) : null;
+            if (info == null || !joinedSites.add(siteId)) {
+                continue;
+            }
+            getJoinExecutor().submit(() -> joinSiteCrawl(site, info));
+            joined++;
+        }
+        return joined;
+    }
+
+    private synchronized ExecutorService getJoinExecutor() {
+        if (joinExecutor == null || joinExecutor.isShutdown()) {
+            joinExecutor = Executors.newCachedThreadPool();
+        }
+        return joinExecutor;
+    }
+
+    /**
+     * Участвует в совместном обходе сайта, запущенном на другом узле кластера.
+     *
+     * @param site сайт
+     * @param info информация о сайте из конфигурации
+     */
+    private void joinSiteCrawl(Site site, SiteInfo info) {
+        log.info("Joining cluster crawl of site {}", site.getUrl());
+        try {
+            prepareEngine(false);
+            hostFetchScheduler.registerHost(site.getUrl(), getPolitenessDelayMs(info), getMaxFetches(info));
+            RobotsRules robotsRules = loadRobotsRules(site, info, sitesList.getUserAgent());
+            SharedFrontier sharedFrontier = crawlClusterManager.joinSite(site.getId());
+            CrawlContext context = createCrawlContext(site, info, sitesList.getUserAgent(), sitesList.getReferrer(),
+                    null, robotsRules, new ConcurrentHashMap<>(), sharedFrontier);
+            CrawlEngine engine = sitesList.getCrawlEngine();
+            long startNanos = System.nanoTime();
+            crawlStatisticsRegistry.start(context);
+            try {
+                crawlSharedFrontier(context, info, engine);
+            } finally {
+                crawlStatisticsRegistry.finish(context);
+                crawlClusterManager.leaveSite(site.getId());
+            }
+            logCrawlRate(site, engine, context.getStatistics().getSavedPages().get(),
+                    System.nanoTime() - startNanos);
+        } catch (InterruptedException e) {
+            log.warn("Cluster crawl of site {} was interrupted", site.getUrl());
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cluster crawl of site {} finished on this node: {}", site.getUrl(), e.getMessage());
+        } finally {
+            joinedSites.remove(site.getId());
+        }
+    }
+
+    /**
+     * Повторно посещает страницы, время посещения которых наступило.
+     * <p>
+     * Сначала в расписание ставятся страницы, сохранённые после прошлого запуска. Затем самые просроченные
+     * страницы группируются по сайтам и скачиваются условными запросами с интервалом между запросами
+     * к хосту из {@link HostFetchScheduler}. Изменившиеся страницы переиндексируются так же,
+     * как при инкрементальной повторной индексации, а по результату посещения
+     * {@link ChangeRateEstimator} пересчитывает интервал до следующего. Страницы, на которые сервер
+     * ответил 404 или 410, удаляются вместе с индексами и расписанием.
+     * </p>
+     * <p>
+     * Посещаются только страницы проиндексированных сайтов из конфигурации. Если во время посещений
+     * запускается индексация сайтов, оставшиеся страницы остаются в расписании до следующего запуска.
+     * </p>
+     *
+     * @param maxPages максимальное количество страниц для посещения
+     * @return количество посещённых страниц
+     */
+    @Override
+    public int revisitDuePages(int maxPages) {
+        if (maxPages <= 0 || isIndexingRunning()) {
+            return 0;
+        }
+        pageRevisitService.scheduleNewPages(TimeUnit.MINUTES.toSeconds(sitesList.getInitialRevisitIntervalMinutes()));
+        List<PageRevisit> due = pageRevisitService.findDuePages(maxPages);
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Site> sitesById = siteService.findAllSites().stream()
+                .collect(Collectors.toMap(Site::getId, Function.identity()));
+        Map<Integer, List<PageRevisit>> revisitsBySite = due.stream()
+                .collect(Collectors.groupingBy(PageRevisit::getSiteId, LinkedHashMap::new, Collectors.toList()));
+        ChangeRateEstimator estimator = createChangeRateEstimator();
+
+        int visited = 0;
+        for (Map.Entry<Integer, List<PageRevisit>> entry : revisitsBySite.entrySet()) {
+            Site site = sitesById.get(entry.getKey());
+            SiteInfo info = site != null && site.getStatus() == SiteStatus.INDEXED ? findSiteInfo(site) : null;
+            if (info == null) {
+                for (PageRevisit revisit : entry.getValue()) {
+                    estimator.postpone(revisit, LocalDateTime.now());
+                    pageRevisitService.saveRevisit(revisit);
+                }
+                continue;
+            }
+            try {
+                visited += revisitSitePages(site, info, entry.getValue(), estimator);
+            } catch (InterruptedException e) {
+                log.warn("Page revisiting was interrupted");
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CrawlStatistics getRevisitStatistics() {
+        return revisitStatistics;
+    }
+
+    /**
+     * Повторно посещает страницы одного сайта и сохраняет их новое расписание.
+     * Почти копии ищутся среди всех сохранённых страниц сайта по их SimHash, а шаблонные блоки
+     * берутся из прошлого обхода сайта. Каждая страница посещается под блокировкой обхода сайта; если её держит индексация сайта,
+     * оставшиеся страницы остаются в расписании до следующего запуска.
+     *
+     * @param site      сайт
+     * @param info      информация о сайте из конфигурации
+     * @param revisits  записи расписания страниц сайта
+     * @param estimator оценка интервалов между посещениями
+     * @return количество посещённых страниц
+     * @throws InterruptedException если поток был прерван
+     */
+    private int revisitSitePages(Site site, SiteInfo info, List<PageRevisit> revisits, ChangeRateEstimator estimator)
+            throws InterruptedException {
+        Map<Integer, PageState> states = pageService.findPageStatesByIds(revisits.stream()
+                        .map(PageRevisit::getPageId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(PageState::getId, Function.identity()));
+        Map<String, PageState> knownPages = new ConcurrentHashMap<>();
+        states.values().forEach(state -> knownPages.put(state.getPath(), state));
+
+        CrawlContext context = CrawlContext.builder()
+                .site(site)
+                .userAgent(sitesList.getUserAgent())
+                .referrer(sitesList.getReferrer())
+                .pageService(pageService)
+                .siteService(siteService)
+                .lemmaIndexer(lemmaIndexer)
+                .hostFetchScheduler(hostFetchScheduler)
+                .fetchLimiter(createFetchLimiter(info))
+                .httpClient(crawlerHttpClient)
+                .maxBodyBytes(info.getMaxBodyBytes() != null ? info.getMaxBodyBytes() : sitesList.getMaxBodyBytes())
+                .canonicalizer(createCanonicalizer(site, info))
+                .knownPages(knownPages)
+                .nearDuplicates(createNearDuplicateIndex(sitesList.isNearDuplicateDetection()
+                        ? pageService.findPageStatesBySite(site) : List.of()))
+                .boilerplateFilter(createBoilerplateFilter(site, info))
+                .statistics(revisitStatistics)
+                .build();
+
+        ReentrantLock crawlLock = siteScopedLockManager.getCrawlLock(site.getUrl());
+        int visited = 0;
+        int changed = 0;
+        int removed = 0;
+        for (PageRevisit revisit : revisits) {
+            if (!activeSites.isEmpty() || !crawlLock.tryLock()) {
+                log.info("Site indexing has started, postponing page revisits");
+                break;
+            }
+            Boolean pageChanged;
+            try {
+                PageState state = states.get(revisit.getPageId());
+                if (state == null || !state.getPath().startsWith("/")) {
+                    continue;
+                }
+                pageChanged = revisitPage(context, site.getUrl() + state.getPath().substring(1));
+                if (context.getGonePages().remove(state.getPath()) != null) {
+                    deleteStoredPage(state);
+                    revisitStatistics.getRemovedPages().incrementAndGet();
+                    removed++;
+                    visited++;
+                    continue;
+                }
+            } finally {
+                crawlLock.unlock();
+            }
+            if (pageChanged == null) {
+                estimator.postpone(revisit, LocalDateTime.now());
+            } else {
+                estimator.recordVisit(revisit, pageChanged, LocalDateTime.now());
+                changed += pageChanged ? 1 : 0;
+            }
+            pageRevisitService.saveRevisit(revisit);
+            visited++;
+        }
+
+        if (changed + removed > 0 && crawlLock.tryLock()) {
+            try {
+                reindexReleasedDuplicates(site);
+                lemmaService.deleteUnusedLemmasBySite(site);
+            } finally {
+                crawlLock.unlock();
+            }
+        }
+        log.info("Revisited {} pages of site {}, {} changed, {} removed", visited, site.getUrl(), changed, removed);
+        return visited;
+    }
+
+    /**
+     * Скачивает страницу условным запросом и, если её содержимое изменилось, переиндексирует её.
+     * Если сервер ответил 404 или 410, страница переносится в {@link CrawlContext#getGonePages()}.
+     *
+     * @param context контекст повторных посещений сайта
+     * @param url     URL страницы
+     * @return true, если содержимое изменилось, false, если нет,
+     *         или {@code null}, если страницу не удалось скачать или сохранить
+     * @throws InterruptedException если поток был прерван
+     */
+    private Boolean revisitPage(CrawlContext context, String url) throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = hostFetchScheduler.tryAcquire(url)) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        context.getFetchLimiter().acquire();
+        try {
+            CrawlResponse response = context.fetch(url);
+            if (context.isNotModified(response)) {
+                revisitStatistics.getNotModifiedPages().incrementAndGet();
+                return false;
+            }
+            if (!context.isIndexableResponse(response)) {
+                log.debug("Revisited page is not indexable, code {}: {}", response.getStatusCode(), url);
+                return null;
+            }
+            return context.savePage(url, response, response.extract()) != null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to revisit page {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Находит сайт в конфигурации.
+     *
+     * @param site сайт
+     * @return информация о сайте или {@code null}, если сайта больше нет в конфигурации
+     */
+    private SiteInfo findSiteInfo(Site site) {
+        return getUniqueSites().stream()
+                .filter(info -> modifyUrlToValid(info.getUrl()).equals(site.getUrl()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Создаёт оценку интервалов повторных посещений страниц по конфигурации.
+     *
+     * @return оценка интервалов
+     */
+    private ChangeRateEstimator createChangeRateEstimator() {
+        return ChangeRateEstimator.builder()
+                .minIntervalSeconds(TimeUnit.MINUTES.toSeconds(sitesList.getMinRevisitIntervalMinutes()))
+                .maxIntervalSeconds(TimeUnit.MINUTES.toSeconds(sitesList.getMaxRevisitIntervalMinutes()))
+                .changeProbability(sitesList.getRevisitChangeProbability())
+                .build();
+    }
+
     /**
      * Индексирует страницу по указанному URL.
      * <p>
@@ -426,7 +1461,9 @@ public class IndexingServiceImpl implements IndexingService {
             deletePageInfo(pageUrl);
         }
 
-        return parseAndSavePage(pageUrl, site);
+        Page page = parseAndSavePage(pageUrl, site, info);
+        reindexReleasedDuplicates(site);
+        return page;
     }
 
     /**
@@ -438,9 +1475,12 @@ public class IndexingServiceImpl implements IndexingService {
     private boolean isConnectionAvailable(String url) {
         int statusCode = 0;
         try {
-            statusCode = Jsoup.connect(url).execute().statusCode();
+            statusCode = crawlerHttpClient.get(url).getStatusCode();
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
         return statusCode < 400;
     }
@@ -493,18 +1533,22 @@ public class IndexingServiceImpl implements IndexingService {
      *
      * @param url  URL страницы.
      * @param site Сайт, которому принадлежит страница.
+     * @param info Информация о сайте из конфигурации.
      * @return Объект Page с данными страницы или null при ошибке.
      */
-    private Page parseAndSavePage(String url, Site site) {
+    private Page parseAndSavePage(String url, Site site, SiteInfo info) {
         Page page = null;
         try {
-            Connection.Response response = Jsoup.connect(url).execute();
-            Document document = response.parse();
+            CrawlResponse response = crawlerHttpClient.get(url);
+            ExtractedPage extracted = response.extract();
 
             page = new Page();
-            page.setCode(response.statusCode());
+            page.setCode(response.getStatusCode());
             page.setPath(url);
-            page.setContent(document.html());
+            page.setContent(extracted.getHtml());
+            page.setTitle(extracted.getTitle());
+            BoilerplateFilter boilerplateFilter = createBoilerplateFilter(site, info);
+            page.setText(boilerplateFilter != null ? boilerplateFilter.mainText(extracted) : extracted.getText());
             page.setSite(site);
 
             site.setStatus(SiteStatus.INDEXED);
@@ -513,7 +1557,10 @@ public class IndexingServiceImpl implements IndexingService {
             siteService.saveSite(site);
             page = pageService.savePage(page);
 
-        } catch (IOException e) {
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Failed to fetch or parse page: {}", url, e);
             site.setStatus(SiteStatus.FAILED);
             site.setStatusTime(LocalDateTime.now());
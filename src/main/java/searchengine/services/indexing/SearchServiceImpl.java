@@ -2,12 +2,11 @@ package searchengine.services.indexing;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Service;
 import searchengine.config.SearchConfig;
 import searchengine.dto.serach.SearchDto;
 import searchengine.dto.serach.SearchResponse;
+import searchengine.manager.ExtractedPage;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
 import searchengine.model.Site;
@@ -175,10 +174,7 @@ public class SearchServiceImpl implements SearchService {
     private Set<String> createQueryFormsSet(List<String> lemmas) {
         Set<String> queryForms = new HashSet<>();
         for (String lemma : lemmas) {
-            Set<String> forms = lemmaService.getLemmaForms().get(lemma.toLowerCase());
-            if (forms != null) {
-                queryForms.addAll(forms);
-            }
+            queryForms.addAll(lemmaService.getLemmaForms(lemma.toLowerCase()));
         }
         return queryForms;
     }
@@ -276,15 +272,24 @@ public class SearchServiceImpl implements SearchService {
         float maxAbsoluteRelevance = relevancesMap.values().stream()
                 .max(Float::compare)
                 .orElse(0.0f);
+        double maxPageRank = relevancesMap.keySet().stream()
+                .mapToDouble(this::scaledPageRank)
+                .max()
+                .orElse(0.0);
+        double pageRankWeight = maxPageRank == 0.0 ? 0.0 : searchConfig.getPageRankWeight();
 
         List<SearchDto> searchResults = new ArrayList<>();
         for (Map.Entry<Page, Float> entry : relevancesMap.entrySet()) {
             Page page = entry.getKey();
             float absoluteRelevance = entry.getValue();
 
-            Document doc = Jsoup.parse(page.getContent());
-            String title = snippetService.extractTitle(doc);
-            String bodyText = doc.text();
+            String title = page.getTitle();
+            String bodyText = page.getText();
+            if (bodyText == null) {
+                ExtractedPage extracted = ExtractedPage.parse(page.getContent(), "");
+                title = extracted.getTitle();
+                bodyText = extracted.getText();
+            }
 
             SearchDto searchDto = SearchDto.builder()
                     .site(page.getSite().getUrl())
@@ -292,7 +297,10 @@ public class SearchServiceImpl implements SearchService {
                     .uri(getValidUri(page))
                     .title(title)
                     .snippet(snippetService.generateSnippet(bodyText, query, querySet))
-                    .relevance(maxAbsoluteRelevance == 0.0f ? 0.0f : absoluteRelevance / maxAbsoluteRelevance)
+                    .relevance(combineRelevance(
+                            maxAbsoluteRelevance == 0.0f ? 0.0f : absoluteRelevance / maxAbsoluteRelevance,
+                            pageRankWeight == 0.0 ? 0.0 : scaledPageRank(page) / maxPageRank,
+                            pageRankWeight))
                     .build();
             searchResults.add(searchDto);
         }
@@ -304,6 +312,29 @@ public class SearchServiceImpl implements SearchService {
         return searchResults.subList(start, end);
     }
 
+    /**
+     * Возвращает PageRank страницы в логарифмической шкале, чтобы главная и другие страницы
+     * с очень большим числом ссылок не подавляли ранги остальных страниц.
+     *
+     * @param page страница
+     * @return {@code ln(1 + pageRank)} или 0, если ранг не рассчитан
+     */
+    private double scaledPageRank(Page page) {
+        return page.getPageRank() != null ? Math.log1p(page.getPageRank()) : 0.0;
+    }
+
+    /**
+     * Смешивает текстовую релевантность страницы с её PageRank.
+     *
+     * @param textRelevance  текстовая релевантность от 0 до 1
+     * @param pageRank       PageRank страницы относительно лучшего результата, от 0 до 1
+     * @param pageRankWeight доля PageRank
+     * @return итоговая релевантность от 0 до 1
+     */
+    private float combineRelevance(float textRelevance, double pageRank, double pageRankWeight) {
+        return (float) ((1 - pageRankWeight) * textRelevance + pageRankWeight * pageRank);
+    }
+
     private boolean isSiteIndexed(String siteUrl) {
         Site site = siteService.findSiteByUrl(siteUrl);
         return site != null && site.getStatus() == SiteStatus.INDEXED;
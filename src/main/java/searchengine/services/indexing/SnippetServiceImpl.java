@@ -2,8 +2,6 @@ package searchengine.services.indexing;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 import org.springframework.stereotype.Service;
 import searchengine.config.SearchConfig;
 import searchengine.services.SnippetService;
@@ -15,7 +13,7 @@ import java.util.stream.Collectors;
 /**
  * Реализация {@link SnippetService} для генерации сниппетов и подсветки текста.
  * <p>
- * Извлекает заголовки из HTML и создает сниппеты с подсветкой найденных терминов.
+ * Создает сниппеты с подсветкой найденных терминов в тексте страницы.
  * </p>
  */
 @Service
@@ -25,12 +23,6 @@ public class SnippetServiceImpl implements SnippetService {
 
     private final SearchConfig searchConfig;
 
-    @Override
-    public String extractTitle(Document doc) {
-        Element titleElement = doc.select("title").first();
-        return titleElement != null ? titleElement.text() : "";
-    }
-
     @Override
     public String generateSnippet(String bodyText, String query, Set<String> querySet) {
         int snippetLength = searchConfig.getSnippetLength();
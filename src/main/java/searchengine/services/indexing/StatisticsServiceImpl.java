@@ -8,12 +8,20 @@ import searchengine.dto.statistics.DetailedStatisticsItem;
 import searchengine.dto.statistics.StatisticsData;
 import searchengine.dto.statistics.StatisticsResponse;
 import searchengine.dto.statistics.TotalStatistics;
+import searchengine.manager.CrawlMemoryManager;
+import searchengine.manager.CrawlStatisticsRegistry;
 import searchengine.model.Site;
 import searchengine.model.SiteStatus;
+import searchengine.morpholgy.WordLemmaCache;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.SiteRepository;
+import searchengine.services.IndexingService;
+import searchengine.services.LemmaService;
+import searchengine.services.PageRevisitService;
 import searchengine.services.PageService;
 import searchengine.services.StatisticsService;
+import searchengine.task.CrawlStatistics;
+import searchengine.task.MemoryBudget;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -39,6 +47,16 @@ public class StatisticsServiceImpl implements StatisticsService {
 
     private final SitesList sitesList;
 
+    private final CrawlStatisticsRegistry crawlStatisticsRegistry;
+
+    private final CrawlMemoryManager crawlMemoryManager;
+
+    private final IndexingService indexingService;
+
+    private final PageRevisitService pageRevisitService;
+
+    private final LemmaService lemmaService;
+
     /**
      * Получает статистику по всем сайтам.
      *
@@ -63,8 +81,9 @@ public class StatisticsServiceImpl implements StatisticsService {
      * Формирует общую статистику по всем сайтам.
      *
      * @param sites список сайтов из базы данных
-     * @return объект {@link TotalStatistics} с количеством сайтов, страниц, лемм
-     *         и флагом индексирования
+     * @return объект {@link TotalStatistics} с количеством сайтов, страниц, лемм,
+     *         флагом индексирования, занятостью общего бюджета памяти обхода, счётчиками повторных посещений
+     *         и попаданий в кеш разбора словоформ
      */
     private TotalStatistics buildTotalStatistics(List<Site> sites) {
         int totalSites = sitesList.getSites().size();
@@ -77,6 +96,22 @@ public class StatisticsServiceImpl implements StatisticsService {
         total.setPages(totalPages);
         total.setLemmas(totalLemmas);
         total.setIndexing(isIndexing);
+
+        MemoryBudget memoryBudget = crawlMemoryManager.getGlobalBudget();
+        total.setInFlightPages(memoryBudget.getInFlightPages());
+        total.setInFlightBytes(memoryBudget.getHeldBytes());
+        total.setMemoryThrottled(memoryBudget.getThrottled());
+
+        CrawlStatistics revisits = indexingService.getRevisitStatistics();
+        total.setRevisitedPages(revisits.getNotModifiedPages().get() + revisits.getUnchangedPages().get()
+                + revisits.getChangedPages().get());
+        total.setRevisitChangedPages(revisits.getChangedPages().get());
+        total.setRevisitDuePages(pageRevisitService.countDuePages());
+
+        WordLemmaCache wordLemmaCache = lemmaService.getWordLemmaCache();
+        total.setLemmaCacheHits(wordLemmaCache.getHits());
+        total.setLemmaCacheMisses(wordLemmaCache.getMisses());
+        total.setLemmaCacheHitRate(wordLemmaCache.hitRate());
         return total;
     }
 
@@ -106,6 +141,7 @@ public class StatisticsServiceImpl implements StatisticsService {
                                 .filter(err -> !err.isBlank())
                                 .orElse("-");
                         item.setError(error);
+                        item.setCrawl(crawlStatisticsRegistry.find(site.getUrl()));
                     } else {
                         item.setPages(0);
                         item.setLemmas(0);
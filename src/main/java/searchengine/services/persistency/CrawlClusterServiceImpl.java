@@ -0,0 +1,288 @@
+package searchengine.services.persistency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.services.CrawlClusterService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@inheritDoc}
+ * <p>
+ * Работает с таблицами {@code crawl_node}, {@code crawl_site_node}, {@code crawl_partition_lease}
+ * и {@code crawl_url} через {@link JdbcTemplate}. Аренда раздела и взятие ссылок в обработку
+ * выполняются одним {@code UPDATE} с условием на текущего владельца, поэтому два узла не могут
+ * получить один раздел или одну ссылку.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlClusterServiceImpl implements CrawlClusterService {
+
+    private static final String HEARTBEAT = """
+                INSERT INTO crawl_node (node_id, heartbeat_at)
+                VALUES (?, NOW(3))
+                ON DUPLICATE KEY UPDATE heartbeat_at = NOW(3)
+            """;
+
+    private static final String RENEW_LEASES = """
+                UPDATE crawl_partition_lease
+                SET expires_at = DATE_ADD(NOW(3), INTERVAL ? MICROSECOND)
+                WHERE node_id = ? AND expires_at > NOW(3)
+            """;
+
+    private static final String ACQUIRE_PARTITIONS = """
+                UPDATE crawl_partition_lease
+                SET node_id = ?, expires_at = DATE_ADD(NOW(3), INTERVAL ? MICROSECOND)
+                WHERE site_id = ? AND (node_id IS NULL OR expires_at IS NULL OR expires_at <= NOW(3))
+                ORDER BY partition_no
+                LIMIT ?
+            """;
+
+    private static final String RELEASE_PARTITIONS = """
+                UPDATE crawl_partition_lease
+                SET node_id = NULL, expires_at = NULL
+                WHERE site_id = ? AND node_id = ?
+                ORDER BY partition_no DESC
+                LIMIT ?
+            """;
+
+    private static final String COUNT_LIVE_PARTICIPANTS = """
+                SELECT COUNT(*)
+                FROM crawl_site_node p
+                JOIN crawl_node n ON n.node_id = p.node_id
+                WHERE p.site_id = ? AND n.heartbeat_at > DATE_SUB(NOW(3), INTERVAL ? MICROSECOND)
+            """;
+
+    private static final String FIND_CRAWLING_SITES = """
+                SELECT DISTINCT l.site_id
+                FROM crawl_partition_lease l
+                JOIN site s ON s.id = l.site_id
+                WHERE s.status = 'INDEXING'
+            """;
+
+    private static final String OFFER_URL = """
+                INSERT IGNORE INTO crawl_url (site_id, url_hash, partition_no, url, depth, claimed_by, done)
+                VALUES (?, ?, ?, ?, ?, ?, FALSE)
+            """;
+
+    private static final String CLAIM_PENDING_URLS = """
+                UPDATE crawl_url u
+                SET u.claimed_by = ?
+                WHERE u.site_id = ? AND u.done = FALSE AND u.partition_no IN (%s)
+                  AND (u.claimed_by IS NULL OR NOT EXISTS (
+                        SELECT 1 FROM crawl_node n
+                        WHERE n.node_id = u.claimed_by
+                          AND n.heartbeat_at > DATE_SUB(NOW(3), INTERVAL ? MICROSECOND)))
+                LIMIT ?
+            """;
+
+    private static final String FIND_CLAIMED_URLS = """
+                SELECT url, depth
+                FROM crawl_url
+                WHERE site_id = ? AND claimed_by = ? AND done = FALSE
+                LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void heartbeat(String nodeId) {
+        jdbcTemplate.update(HEARTBEAT, nodeId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void removeNode(String nodeId) {
+        jdbcTemplate.update("DELETE FROM crawl_site_node WHERE node_id = ?", nodeId);
+        jdbcTemplate.update("UPDATE crawl_partition_lease SET node_id = NULL, expires_at = NULL WHERE node_id = ?",
+                nodeId);
+        jdbcTemplate.update("UPDATE crawl_url SET claimed_by = NULL WHERE claimed_by = ? AND done = FALSE", nodeId);
+        jdbcTemplate.update("DELETE FROM crawl_node WHERE node_id = ?", nodeId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void resetSite(int siteId, int partitions) {
+        jdbcTemplate.update("DELETE FROM crawl_url WHERE site_id = ?", siteId);
+        jdbcTemplate.update("DELETE FROM crawl_site_node WHERE site_id = ?", siteId);
+        jdbcTemplate.update("DELETE FROM crawl_partition_lease WHERE site_id = ?", siteId);
+        List<Object[]> rows = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            rows.add(new Object[]{siteId, partition});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO crawl_partition_lease (site_id, partition_no) VALUES (?, ?)", rows);
+            log.info("Created {} crawl partitions for siteId={}", partitions, siteId);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void joinSite(int siteId, String nodeId) {
+        jdbcTemplate.update("INSERT IGNORE INTO crawl_site_node (site_id, node_id) VALUES (?, ?)", siteId, nodeId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void leaveSite(int siteId, String nodeId) {
+        jdbcTemplate.update("DELETE FROM crawl_site_node WHERE site_id = ? AND node_id = ?", siteId, nodeId);
+        jdbcTemplate.update("UPDATE crawl_partition_lease SET node_id = NULL, expires_at = NULL "
+                + "WHERE site_id = ? AND node_id = ?", siteId, nodeId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public int countLiveParticipants(int siteId, long ttlMs) {
+        Integer count = jdbcTemplate.queryForObject(COUNT_LIVE_PARTICIPANTS, Integer.class, siteId, micros(ttlMs));
+        return count != null ? count : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void renewLeases(String nodeId, long ttlMs) {
+        jdbcTemplate.update(RENEW_LEASES, micros(ttlMs), nodeId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int acquirePartitions(int siteId, String nodeId, int count, long ttlMs) {
+        if (count <= 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(ACQUIRE_PARTITIONS, nodeId, micros(ttlMs), siteId, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void releasePartitions(int siteId, String nodeId, int count) {
+        if (count > 0) {
+            jdbcTemplate.update(RELEASE_PARTITIONS, siteId, nodeId, count);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Set<Integer>> findLeasedPartitions(String nodeId) {
+        Map<Integer, Set<Integer>> leased = new HashMap<>();
+        jdbcTemplate.query("SELECT site_id, partition_no FROM crawl_partition_lease "
+                        + "WHERE node_id = ? AND expires_at > NOW(3)",
+                rs -> {
+                    leased.computeIfAbsent(rs.getInt("site_id"), id -> new HashSet<>()).add(rs.getInt("partition_no"));
+                },
+                nodeId);
+        return leased;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Integer> findCrawlingSites() {
+        return jdbcTemplate.queryForList(FIND_CRAWLING_SITES, Integer.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public boolean offerUrl(int siteId, long urlHash, int partition, String url, int depth, String claimedBy) {
+        return jdbcTemplate.update(OFFER_URL, siteId, urlHash, partition, url, depth, claimedBy) > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void completeUrl(int siteId, long urlHash) {
+        jdbcTemplate.update("UPDATE crawl_url SET done = TRUE WHERE site_id = ? AND url_hash = ?", siteId, urlHash);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Map<String, Integer> claimPendingUrls(int siteId, String nodeId, Collection<Integer> partitions, int limit,
+                                                 long ttlMs) {
+        if (!partitions.isEmpty()) {
+            List<Object> args = new ArrayList<>();
+            args.add(nodeId);
+            args.add(siteId);
+            args.addAll(partitions);
+            args.add(micros(ttlMs));
+            args.add(limit);
+            String placeholders = String.join(",", Collections.nCopies(partitions.size(), "?"));
+            jdbcTemplate.update(CLAIM_PENDING_URLS.formatted(placeholders), args.toArray());
+        }
+        Map<String, Integer> claimed = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_CLAIMED_URLS,
+                rs -> {
+                    claimed.put(rs.getString("url"), rs.getInt("depth"));
+                },
+                siteId, nodeId, limit);
+        return claimed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long countPendingUrls(int siteId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crawl_url WHERE site_id = ? AND done = FALSE",
+                Long.class, siteId);
+        return count != null ? count : 0;
+    }
+
+    private static long micros(long millis) {
+        return TimeUnit.MILLISECONDS.toMicros(millis);
+    }
+}
@@ -1,23 +1,27 @@
 package searchengine.services.persistency;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.config.SitesList;
 import searchengine.model.Lemma;
+import searchengine.model.Page;
 import searchengine.model.Site;
 import searchengine.morpholgy.LemmaFinder;
+import searchengine.morpholgy.WordLemmaCache;
 import searchengine.repository.LemmaRepository;
 import searchengine.services.LemmaService;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * {@inheritDoc}
@@ -37,12 +41,27 @@ public class LemmaServiceImpl implements LemmaService {
 
     private final JdbcTemplate jdbcTemplate;
 
+    private final SitesList sitesList;
+
     private String upserLemmaInBatch = """
                 INSERT INTO lemma (lemma, frequency, site_id)
                 VALUES (?, ?, ?)
                 ON DUPLICATE KEY UPDATE frequency = frequency + VALUES(frequency)
             """;
 
+    private String decrementFrequenciesByPage = """
+                UPDATE lemma l
+                JOIN index_table i ON i.lemma_id = l.id
+                SET l.frequency = l.frequency - i.index_rank
+                WHERE i.page_id = ?
+            """;
+
+    private String deleteUnusedLemmasBySite = """
+                DELETE FROM lemma
+                WHERE site_id = ? AND frequency <= 0
+                  AND NOT EXISTS (SELECT 1 FROM index_table i WHERE i.lemma_id = lemma.id)
+            """;
+
     /**
      * Инициализация LemmaFinder после создания бина.
      * <p>
@@ -54,7 +73,8 @@ public class LemmaServiceImpl implements LemmaService {
     @PostConstruct
     public void init() {
         try {
-            lemmaFinder = LemmaFinder.getInstance();
+            lemmaFinder = LemmaFinder.getInstance(sitesList.getLemmaCacheSize(),
+                    Path.of(sitesList.getLemmaFormsDir()), sitesList.getLemmaFormsFlushThreshold());
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize LemmaFinder", e);
         }
@@ -85,8 +105,34 @@ public class LemmaServiceImpl implements LemmaService {
      * {@inheritDoc}
      */
     @Override
-    public ConcurrentMap<String, Set<String>> getLemmaForms() {
-        return lemmaFinder.getLemmaFormsMap();
+    public Set<String> getLemmaForms(String lemma) {
+        return lemmaFinder.getFormsStore().getForms(lemma);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flushLemmaForms() {
+        lemmaFinder.getFormsStore().flush();
+    }
+
+    /**
+     * Записывает накопленные словоформы лемм на диск при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (lemmaFinder != null) {
+            lemmaFinder.getFormsStore().close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WordLemmaCache getWordLemmaCache() {
+        return lemmaFinder.getWordCache();
     }
 
     /**
@@ -116,6 +162,25 @@ public class LemmaServiceImpl implements LemmaService {
         return lemmaRepository.findByLemmaAndSite(lemmaText, site);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void decrementFrequenciesByPage(Page page) {
+        jdbcTemplate.update(decrementFrequenciesByPage, page.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void deleteUnusedLemmasBySite(Site site) {
+        int deleted = jdbcTemplate.update(deleteUnusedLemmasBySite, site.getId());
+        log.debug("Deleted {} unused lemmas for site: {}", deleted, site.getUrl());
+    }
+
     /**
      * {@inheritDoc}
      */
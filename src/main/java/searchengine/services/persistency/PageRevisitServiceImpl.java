@@ -0,0 +1,68 @@
+package searchengine.services.persistency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.PageRevisit;
+import searchengine.repository.PageRevisitRepository;
+import searchengine.services.PageRevisitService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@inheritDoc}
+ * <p>
+ * В этой реализации используется {@link PageRevisitRepository} для работы с базой данных.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PageRevisitServiceImpl implements PageRevisitService {
+
+    private final PageRevisitRepository pageRevisitRepository;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int scheduleNewPages(long intervalSeconds) {
+        int scheduled = pageRevisitRepository.insertMissing(intervalSeconds);
+        if (scheduled > 0) {
+            log.info("Scheduled {} new pages for revisiting", scheduled);
+        }
+        return scheduled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PageRevisit> findDuePages(int limit) {
+        return pageRevisitRepository.findByNextVisitAtLessThanEqualOrderByNextVisitAtAsc(LocalDateTime.now(),
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long countDuePages() {
+        return pageRevisitRepository.countByNextVisitAtLessThanEqual(LocalDateTime.now());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void saveRevisit(PageRevisit revisit) {
+        pageRevisitRepository.save(revisit);
+    }
+}
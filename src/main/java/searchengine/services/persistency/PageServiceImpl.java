@@ -2,17 +2,22 @@ package searchengine.services.persistency;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.manager.ExtractedPage;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
 import searchengine.model.SearchIndex;
 import searchengine.model.Site;
 import searchengine.repository.PageRepository;
+import searchengine.repository.projection.PageState;
 import searchengine.services.LemmaService;
 import searchengine.services.PageService;
 import searchengine.services.SearchIndexService;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +27,7 @@ import java.util.Optional;
  * <p>
  * В этой реализации используется {@link PageRepository} для работы с базой данных,
  * а также класс {@link SearchIndexService} и {@link LemmaService} для работы с индексами и леммами.
+ * Ранги страниц и восстановленный текст старых страниц сохраняются пакетами через {@link JdbcTemplate}.
  * </p>
  */
 @Service
@@ -29,12 +35,19 @@ import java.util.Optional;
 @Slf4j
 public class PageServiceImpl implements PageService {
 
+    /**
+     * Количество строк в одном пакете обновления рангов.
+     */
+    private static final int PAGE_RANK_BATCH_SIZE = 1000;
+
     private final PageRepository pageRepository;
 
     private final SearchIndexService searchIndexService;
 
     private final LemmaService lemmaService;
 
+    private final JdbcTemplate jdbcTemplate;
+
     /**
      * {@inheritDoc}
      */
@@ -63,6 +76,120 @@ public class PageServiceImpl implements PageService {
         return pageRepository.findByPath(url);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page findPageBySiteAndPath(Site site, String path) {
+        return pageRepository.findBySiteAndPath(site, path);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PageState> findPageStatesBySite(Site site) {
+        return pageRepository.findStatesBySite(site);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PageState> findPageStatesByIds(Collection<Integer> pageIds) {
+        return pageRepository.findStatesByIdIn(pageIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void updatePageValidators(int pageId, String etag, String lastModified) {
+        pageRepository.updateValidators(pageId, etag, lastModified);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void updatePageRanks(int[] pageIds, double[] ranks) {
+        List<Integer> pages = new ArrayList<>(pageIds.length);
+        for (int i = 0; i < pageIds.length; i++) {
+            pages.add(i);
+        }
+        jdbcTemplate.batchUpdate("UPDATE page SET page_rank = ? WHERE id = ?", pages, PAGE_RANK_BATCH_SIZE,
+                (ps, i) -> {
+                    ps.setDouble(1, ranks[i]);
+                    ps.setInt(2, pageIds[i]);
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Страница обновляется, только если её текст всё ещё не заполнен, чтобы не затереть текст,
+     * сохранённый за это время обходом.
+     * </p>
+     */
+    @Override
+    @Transactional
+    public int backfillPageText(int afterId, int limit) {
+        List<Object[]> pages = jdbcTemplate.query(
+                "SELECT id, content FROM page WHERE id > ? AND text IS NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> {
+                    ExtractedPage extracted = ExtractedPage.parse(rs.getString("content"), "");
+                    return new Object[]{extracted.getTitle(), extracted.getText(), rs.getInt("id")};
+                },
+                afterId, limit);
+        if (pages.isEmpty()) {
+            return -1;
+        }
+        jdbcTemplate.batchUpdate("UPDATE page SET title = ?, text = ? WHERE id = ? AND text IS NULL", pages);
+        return (int) pages.get(pages.size() - 1)[2];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void deletePageIndexes(Page page) {
+        lemmaService.decrementFrequenciesByPage(page);
+        searchIndexService.deleteIndexByPage(page);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int releaseDuplicates(int canonicalPageId) {
+        return pageRepository.clearCanonicalPage(canonicalPageId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Page> findUnindexedPagesBySite(Site site) {
+        return pageRepository.findUnindexedPagesBySite(site);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void deletePageById(int pageId) {
+        pageRepository.deleteById(pageId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2,6 +2,7 @@ package searchengine.services.persistency;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.Site;
@@ -9,6 +10,8 @@ import searchengine.model.SiteStatus;
 import searchengine.repository.SiteRepository;
 import searchengine.services.SiteService;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,6 +19,8 @@ import java.util.List;
  * <p>
  * Обеспечивает операции сохранения, обновления, поиска и удаления сайтов,
  * а также взаимодействие с базой данных через {@link SiteRepository}.
+ * Отпечатки шаблонных блоков сайтов хранятся в таблице {@code site_template_block}
+ * и записываются через {@link JdbcTemplate}.
  * </p>
  */
 @Service
@@ -23,8 +28,12 @@ import java.util.List;
 @Slf4j
 public class SiteServiceImpl implements SiteService {
 
+    private static final int TEMPLATE_BATCH_SIZE = 1000;
+
     private final SiteRepository siteRepository;
 
+    private final JdbcTemplate jdbcTemplate;
+
     /**
      * {@inheritDoc}
      */
@@ -61,4 +70,38 @@ public class SiteServiceImpl implements SiteService {
     public List<Site> findAllSites() {
         return siteRepository.findAll();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void updateStatusTime(Site site) {
+        siteRepository.updateStatusTime(site.getId(), site.getStatusTime());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findTemplateFingerprints(Site site) {
+        return jdbcTemplate.queryForList("SELECT fingerprint FROM site_template_block WHERE site_id = ?",
+                Long.class, site.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void saveTemplateFingerprints(Site site, Collection<Long> fingerprints) {
+        jdbcTemplate.update("DELETE FROM site_template_block WHERE site_id = ?", site.getId());
+        jdbcTemplate.batchUpdate("INSERT INTO site_template_block (site_id, fingerprint) VALUES (?, ?)",
+                new ArrayList<>(fingerprints), TEMPLATE_BATCH_SIZE, (ps, fingerprint) -> {
+                    ps.setInt(1, site.getId());
+                    ps.setLong(2, fingerprint);
+                });
+        log.debug("Saved {} template blocks of site {}", fingerprints.size(), site.getUrl());
+    }
 }
@@ -0,0 +1,204 @@
+package searchengine.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивное ограничение числа одновременных запросов к одному сайту (AIMD).
+ * <p>
+ * Пока сайт отвечает быстро и без ошибок, лимит растёт аддитивно — примерно на единицу
+ * за каждые {@code limit} успешных ответов. При ответах 429 и 5xx, сетевых ошибках и таймаутах лимит
+ * уменьшается вдвое, а при росте сглаженной задержки выше {@code latencyFactor} минимальной —
+ * на {@link #LATENCY_DECREASE_FACTOR}. Уменьшение выполняется не чаще одного раза за сглаженную
+ * задержку, чтобы одна волна ошибок от уже отправленных запросов не обнуляла лимит.
+ * Лимит всегда остаётся в границах {@code [minLimit, maxLimit]}.
+ * </p>
+ */
+public class AdaptiveFetchLimiter {
+
+    private static final double OVERLOAD_DECREASE_FACTOR = 0.5;
+
+    private static final double LATENCY_DECREASE_FACTOR = 0.9;
+
+    /**
+     * Вес нового измерения в экспоненциально сглаженной задержке.
+     */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double latencyFactor;
+
+    private double limit;
+
+    private int inFlight;
+
+    private double smoothedLatencyNanos;
+
+    private long minLatencyNanos = Long.MAX_VALUE;
+
+    private long lastDecreaseNanos = System.nanoTime();
+
+    /**
+     * @param initialLimit  начальный лимит
+     * @param minLimit      минимальный лимит
+     * @param maxLimit      максимальный лимит
+     * @param latencyFactor во сколько раз сглаженная задержка может превышать минимальную без уменьшения лимита
+     */
+    public AdaptiveFetchLimiter(int initialLimit, int minLimit, int maxLimit, double latencyFactor) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyFactor = Math.max(1, latencyFactor);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Захватывает разрешение на запрос, блокируясь, пока число запросов в работе не станет меньше лимита.
+     *
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Захватывает разрешение на запрос, если число запросов в работе меньше лимита.
+     *
+     * @return true, если разрешение получено
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает разрешение после успешного ответа и увеличивает лимит, если задержка в норме.
+     *
+     * @param latencyNanos задержка ответа
+     */
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            updateLatency(latencyNanos);
+            if (smoothedLatencyNanos > minLatencyNanos * latencyFactor) {
+                decrease(LATENCY_DECREASE_FACTOR);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            releasePermit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает разрешение после признака перегрузки сайта (429, 5xx, таймаут, сетевая ошибка)
+     * и уменьшает лимит вдвое.
+     *
+     * @param latencyNanos время до ответа или ошибки
+     */
+    public void onOverload(long latencyNanos) {
+        lock.lock();
+        try {
+            updateLatency(latencyNanos);
+            decrease(OVERLOAD_DECREASE_FACTOR);
+            releasePermit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает разрешение, не меняя лимит: запрос не выполнялся или его результат не характеризует сайт.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            releasePermit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return текущий лимит одновременных запросов
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return число запросов в работе
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return сглаженная задержка ответа в миллисекундах
+     */
+    public long getSmoothedLatencyMs() {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMillis((long) smoothedLatencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLatency(long latencyNanos) {
+        minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+        smoothedLatencyNanos = smoothedLatencyNanos == 0
+                ? latencyNanos
+                : smoothedLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+    }
+
+    private void decrease(double factor) {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < (long) smoothedLatencyNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * factor);
+    }
+
+    private void releasePermit() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+        permitReleased.signalAll();
+    }
+}
@@ -0,0 +1,169 @@
+package searchengine.task;
+
+import lombok.Builder;
+import searchengine.manager.ExtractedPage;
+import searchengine.manager.ExtractedPage.TextBlock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выделение основного содержимого страниц одного сайта перед лемматизацией.
+ * <p>
+ * Текст страницы разбит на блоки ({@link ExtractedPage#getBlocks()}). Блок считается шаблонным и не индексируется,
+ * если:
+ * <ul>
+ *     <li>он находится внутри {@code <nav>}, {@code <header>}, {@code <footer>} или {@code <aside>};</li>
+ *     <li>доля его текста внутри ссылок больше {@link #maxLinkDensity} (меню, списки ссылок);</li>
+ *     <li>блок с таким же текстом уже встретился на {@link #templatePages} страницах сайта
+ *     (подвалы, баннеры cookie, боковые панели без семантической разметки).</li>
+ * </ul>
+ * Основным содержимым считаются блоки не короче {@link #minBlockWords} слов. Короткие блоки
+ * (заголовки, подписи, пункты списков) сохраняются, если соседствуют с основным содержимым.
+ * Если у страницы не нашлось ни одного блока основного содержимого, индексируется весь её текст.
+ * </p>
+ * <p>
+ * Повторяющиеся блоки выучиваются по ходу обхода, поэтому на первых страницах сайта шаблонные блоки
+ * без семантической разметки ещё индексируются. Выученные шаблоны сохраняются после обхода
+ * ({@link #getTemplates()}) и передаются фильтру следующего обхода и повторных посещений
+ * ({@link #addTemplates(Collection)}). Учитывается не больше {@link #MAX_TRACKED_BLOCKS}
+ * различных блоков сайта.
+ * </p>
+ */
+@Builder
+public class BoilerplateFilter {
+
+    /**
+     * Максимальное число различных блоков сайта, для которых ведётся счётчик страниц.
+     */
+    static final int MAX_TRACKED_BLOCKS = 200_000;
+
+    /**
+     * Максимальная доля текста блока внутри ссылок, при которой блок может быть содержимым.
+     */
+    private final double maxLinkDensity;
+
+    /**
+     * Минимальное число слов блока основного содержимого.
+     */
+    private final int minBlockWords;
+
+    /**
+     * Число страниц сайта, после которого повторяющийся блок считается шаблонным, 0 — не выучивать шаблоны.
+     */
+    private final int templatePages;
+
+    /**
+     * Число страниц сайта, на которых встретился блок, по отпечатку его текста.
+     */
+    private final ConcurrentMap<Long, AtomicInteger> blockPages = new ConcurrentHashMap<>();
+
+    /**
+     * Отмечает блоки с указанными отпечатками шаблонными, например выученные при прошлом обходе сайта.
+     *
+     * @param fingerprints отпечатки текста шаблонных блоков
+     */
+    public void addTemplates(Collection<Long> fingerprints) {
+        if (templatePages <= 0) {
+            return;
+        }
+        for (Long fingerprint : fingerprints) {
+            if (blockPages.size() >= MAX_TRACKED_BLOCKS) {
+                break;
+            }
+            blockPages.computeIfAbsent(fingerprint, key -> new AtomicInteger())
+                    .accumulateAndGet(templatePages, Math::max);
+        }
+    }
+
+    /**
+     * @return отпечатки текста блоков, признанных шаблонными
+     */
+    public List<Long> getTemplates() {
+        List<Long> templates = new ArrayList<>();
+        if (templatePages > 0) {
+            blockPages.forEach((fingerprint, pages) -> {
+                if (pages.get() >= templatePages) {
+                    templates.add(fingerprint);
+                }
+            });
+        }
+        return templates;
+    }
+
+    /**
+     * Учитывает блоки страницы в счётчиках шаблонов сайта и возвращает её основное содержимое.
+     *
+     * @param page данные, извлечённые из HTML страницы
+     * @return текст основного содержимого или весь текст страницы, если содержимое не выделено
+     */
+    public String mainText(ExtractedPage page) {
+        List<TextBlock> blocks = page.getBlocks();
+        if (blocks.isEmpty()) {
+            return page.getText();
+        }
+
+        boolean[] template = learnTemplates(blocks);
+        boolean[] content = new boolean[blocks.size()];
+        boolean found = false;
+        for (int i = 0; i < blocks.size(); i++) {
+            TextBlock block = blocks.get(i);
+            content[i] = isCandidate(block, template[i]) && block.getWords() >= minBlockWords;
+            found |= content[i];
+        }
+        if (!found) {
+            return page.getText();
+        }
+
+        StringBuilder text = new StringBuilder(page.getText().length());
+        for (int i = 0; i < blocks.size(); i++) {
+            TextBlock block = blocks.get(i);
+            boolean nearContent = (i > 0 && content[i - 1]) || (i + 1 < blocks.size() && content[i + 1]);
+            boolean keep = content[i] || (nearContent && isCandidate(block, template[i]));
+            if (keep) {
+                if (!text.isEmpty()) {
+                    text.append(' ');
+                }
+                text.append(block.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    private boolean isCandidate(TextBlock block, boolean template) {
+        return !template && !block.isChrome() && block.linkDensity() <= maxLinkDensity;
+    }
+
+    /**
+     * Увеличивает счётчики страниц для различных блоков страницы.
+     *
+     * @param blocks блоки страницы
+     * @return признаки блоков, встретившихся на {@link #templatePages} и более страницах сайта
+     */
+    private boolean[] learnTemplates(List<TextBlock> blocks) {
+        boolean[] template = new boolean[blocks.size()];
+        if (templatePages <= 0) {
+            return template;
+        }
+        Set<Long> counted = new HashSet<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            long fingerprint = VisitedUrlSet.fingerprint(blocks.get(i).getText());
+            AtomicInteger pages = blockPages.get(fingerprint);
+            if (pages == null && blockPages.size() < MAX_TRACKED_BLOCKS) {
+                pages = blockPages.computeIfAbsent(fingerprint, key -> new AtomicInteger());
+            }
+            if (pages == null) {
+                continue;
+            }
+            int count = counted.add(fingerprint) ? pages.incrementAndGet() : pages.get();
+            template[i] = count >= templatePages;
+        }
+        return template;
+    }
+}
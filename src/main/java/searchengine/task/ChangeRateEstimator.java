@@ -0,0 +1,95 @@
+package searchengine.task;
+
+import lombok.Builder;
+import searchengine.model.PageRevisit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Оценка частоты изменений страницы и интервала до её следующего посещения.
+ * <p>
+ * Изменения страницы считаются пуассоновским потоком с интенсивностью λ. Посещение лишь показывает,
+ * изменилась ли страница с прошлого раза, но не сколько раз, поэтому λ оценивается по доле посещений
+ * с изменениями X из n и среднему интервалу между посещениями I:
+ * {@code λ = -ln((n - X + 0.5) / (n + 0.5)) / I}. Поправка 0.5 не даёт оценке уйти в бесконечность,
+ * когда страница менялась при каждом посещении. Счётчики умножаются на {@link #historyWeight}
+ * при каждом посещении, так что старые наблюдения постепенно забываются.
+ * </p>
+ * <p>
+ * Следующий интервал выбирается так, чтобы к посещению страница изменилась с вероятностью
+ * {@link #changeProbability}: {@code -ln(1 - p) / λ}. Пока изменений не было, интервал растёт
+ * не быстрее чем в {@link #maxGrowth} раз за посещение, и всегда остаётся в пределах
+ * от {@link #minIntervalSeconds} до {@link #maxIntervalSeconds}.
+ * </p>
+ */
+@Builder
+public class ChangeRateEstimator {
+
+    private final long minIntervalSeconds;
+
+    private final long maxIntervalSeconds;
+
+    private final double changeProbability;
+
+    /**
+     * Множитель, на который уменьшаются счётчики прошлых посещений при каждом новом посещении.
+     */
+    @Builder.Default
+    private final double historyWeight = 0.8;
+
+    /**
+     * Максимальный рост интервала за одно посещение.
+     */
+    @Builder.Default
+    private final double maxGrowth = 2.0;
+
+    /**
+     * Учитывает посещение страницы и назначает следующее.
+     *
+     * @param revisit запись расписания страницы
+     * @param changed true, если содержимое страницы изменилось с прошлого посещения
+     * @param now     время посещения
+     */
+    public void recordVisit(PageRevisit revisit, boolean changed, LocalDateTime now) {
+        double elapsedSeconds = Math.max(1, Duration.between(revisit.getLastVisitAt(), now).getSeconds());
+        revisit.setVisits(revisit.getVisits() * historyWeight + 1);
+        revisit.setChanges(revisit.getChanges() * historyWeight + (changed ? 1 : 0));
+        revisit.setObservedSeconds(revisit.getObservedSeconds() * historyWeight + elapsedSeconds);
+
+        double rate = changesPerSecond(revisit);
+        double target = rate > 0 ? -Math.log(1 - changeProbability) / rate : maxIntervalSeconds;
+        double interval = Math.min(target, revisit.getIntervalSeconds() * maxGrowth);
+        long intervalSeconds = Math.max(minIntervalSeconds, Math.min(maxIntervalSeconds, Math.round(interval)));
+
+        revisit.setIntervalSeconds(intervalSeconds);
+        revisit.setLastVisitAt(now);
+        revisit.setNextVisitAt(now.plusSeconds(intervalSeconds));
+    }
+
+    /**
+     * Откладывает посещение страницы на текущий интервал, не меняя оценку частоты изменений.
+     * Используется, если страницу не удалось скачать.
+     *
+     * @param revisit запись расписания страницы
+     * @param now     текущее время
+     */
+    public void postpone(PageRevisit revisit, LocalDateTime now) {
+        revisit.setNextVisitAt(now.plusSeconds(Math.max(minIntervalSeconds, revisit.getIntervalSeconds())));
+    }
+
+    /**
+     * Оценивает интенсивность изменений страницы.
+     *
+     * @param revisit запись расписания страницы
+     * @return ожидаемое число изменений в секунду
+     */
+    public static double changesPerSecond(PageRevisit revisit) {
+        double visits = revisit.getVisits();
+        if (visits <= 0 || revisit.getObservedSeconds() <= 0) {
+            return 0;
+        }
+        double meanInterval = revisit.getObservedSeconds() / visits;
+        return -Math.log((visits - revisit.getChanges() + 0.5) / (visits + 0.5)) / meanInterval;
+    }
+}
@@ -0,0 +1,763 @@
+package searchengine.task;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import searchengine.manager.CrawlResponse;
+import searchengine.manager.CrawlerHttpClient;
+import searchengine.manager.ExtractedPage;
+import searchengine.manager.HostFetchScheduler;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.morpholgy.LemmaIndexer;
+import searchengine.repository.projection.PageState;
+import searchengine.services.PageService;
+import searchengine.services.SiteService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static searchengine.util.ContentHashUtil.sha256Hex;
+import static searchengine.util.SimHashUtil.simHash;
+import static searchengine.util.UrlUtil.isFile;
+
+/**
+ * Контекст обхода одного сайта.
+ * <p>
+ * Хранит состояние, общее для всех задач обхода сайта (набор посещённых ссылок, журнал обхода,
+ * статистику), и операции, одинаковые для всех движков обхода: проверку ссылок, скачивание,
+ * сохранение страницы с леммами и извлечение дочерних ссылок.
+ * Все ссылки, извлечённые из страниц, приводятся к каноническому виду {@link UrlCanonicalizer}
+ * до попадания в набор посещённых ссылок и в путь страницы.
+ * </p>
+ * <p>
+ * При инкрементальной повторной индексации контекст хранит состояние ранее сохранённых страниц сайта
+ * ({@link #knownPages}): по нему запросы отправляются условными, неизменившиеся страницы не пересохраняются,
+ * а у изменившихся пересчитываются только их собственные леммы. Страницы, на запрос к которым сервер
+ * ответил 404 Not Found или 410 Gone, переносятся в {@link #gonePages} и удаляются после обхода.
+ * Страницы, до которых обход не дошёл, остаются в базе.
+ * </p>
+ * <p>
+ * При совместном обходе несколькими узлами ссылки, принятые в обход, дополнительно проходят
+ * через общую очередь кластера ({@link #sharedFrontier}): узел обрабатывает только ссылки
+ * арендованных им разделов, остальные передаются их арендаторам.
+ * </p>
+ */
+@Slf4j
+@Getter
+@Builder
+public class CrawlContext {
+
+    private static final int NOT_MODIFIED = 304;
+
+    private static final int NOT_FOUND = 404;
+
+    private static final int GONE = 410;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int SERVER_ERROR = 500;
+
+    /**
+     * Максимальная пауза по заголовку {@code Retry-After}.
+     */
+    private static final long MAX_RETRY_AFTER_MS = Duration.ofMinutes(5).toMillis();
+
+    /**
+     * Оценка памяти, которую занимает DOM Jsoup на время разбора, в байтах на байт тела страницы.
+     */
+    private static final int DOM_BYTES_PER_BODY_BYTE = 8;
+
+    private final Site site;
+
+    private final String userAgent;
+
+    private final String referrer;
+
+    private final PageService pageService;
+
+    private final SiteService siteService;
+
+    private final LemmaIndexer lemmaIndexer;
+
+    private final HostFetchScheduler hostFetchScheduler;
+
+    private final AdaptiveFetchLimiter fetchLimiter;
+
+    private final CrawlerHttpClient httpClient;
+
+    /**
+     * Максимальный размер распакованного тела страницы в байтах.
+     */
+    private final int maxBodyBytes;
+
+    private final CrawlJournal journal;
+
+    private final UrlCanonicalizer canonicalizer;
+
+    /**
+     * Ранее сохранённые и ещё не обойденные страницы сайта по пути,
+     * или {@code null}, если сайт индексируется заново.
+     */
+    private final Map<String, PageState> knownPages;
+
+    /**
+     * Правила robots.txt сайта; ссылки, запрещённые ими, не обходятся.
+     */
+    @Builder.Default
+    private final RobotsRules robotsRules = RobotsRules.allowAll();
+
+    /**
+     * Ранее сохранённые страницы по пути, на запрос к которым сервер ответил 404 или 410.
+     */
+    @Builder.Default
+    private final Map<String, PageState> gonePages = new ConcurrentHashMap<>();
+
+    /**
+     * Максимальная глубина обхода от начальных ссылок.
+     */
+    @Builder.Default
+    private final int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Максимальное число страниц сайта, принимаемых в обход.
+     */
+    @Builder.Default
+    private final int maxPages = Integer.MAX_VALUE;
+
+    /**
+     * Оценка важности ссылок одной глубины в очереди обхода.
+     */
+    @Builder.Default
+    private final FrontierScorer frontierScorer = FrontierScorer.breadthFirst();
+
+    /**
+     * Число страниц, принятых в обход.
+     */
+    @Builder.Default
+    private final AtomicInteger admittedPages = new AtomicInteger();
+
+    /**
+     * Индекс SimHash страниц сайта для пропуска почти одинаковых страниц
+     * или {@code null}, если проверка выключена.
+     */
+    private final NearDuplicateIndex nearDuplicates;
+
+    /**
+     * Выделение основного содержимого страниц сайта или {@code null}, если индексируется весь текст.
+     */
+    private final BoilerplateFilter boilerplateFilter;
+
+    /**
+     * Граф ссылок сайта для расчёта PageRank или {@code null}, если граф не собирается.
+     */
+    private final LinkGraph linkGraph;
+
+    /**
+     * Обнаружение ловушек обхода и бюджеты шаблонов ссылок сайта или {@code null}, если проверка выключена.
+     */
+    private final CrawlTrapDetector trapDetector;
+
+    /**
+     * Бюджет памяти обхода сайта: ограничивает число страниц в обработке и занятую ими память.
+     */
+    @Builder.Default
+    private final MemoryBudget memoryBudget = MemoryBudget.unlimited();
+
+    /**
+     * Общая очередь обхода сайта узлами кластера или {@code null}, если сайт обходит один узел.
+     */
+    private final SharedFrontier sharedFrontier;
+
+    @Builder.Default
+    private final VisitedUrlSet visitedLinks = new VisitedUrlSet();
+
+    @Builder.Default
+    private final CrawlStatistics statistics = new CrawlStatistics();
+
+    /**
+     * Проверяет, что ссылка ведёт на HTML-страницу этого сайта и не запрещена robots.txt.
+     *
+     * @param link ссылка
+     * @return true, если ссылку нужно обходить
+     */
+    public boolean isValidLink(String link) {
+        return isLink(link) && !isFile(link) && robotsRules.isAllowed(link);
+    }
+
+    /**
+     * Проверяет, что каноническая ссылка принадлежит сайту.
+     *
+     * @param link ссылка
+     * @return true, если ссылка принадлежит сайту
+     */
+    public boolean isLink(String link) {
+        return link.startsWith(site.getUrl());
+    }
+
+    /**
+     * Принимает ссылку в обход: проверяет, что её нужно обходить, она не превышает ограничений
+     * глубины и числа страниц, ещё не посещалась и не похожа на ловушку обхода ({@link #trapDetector}),
+     * отмечает её посещённой и записывает в журнал. Сработавшие ограничения учитываются в статистике.
+     * Ссылка, отвергнутая детектором ловушек, остаётся посещённой и повторно не проверяется.
+     * При совместном обходе ссылка принимается, только если её должен обработать этот узел;
+     * ссылка, взятая из общей очереди, уже проверена узлом, который её нашёл.
+     *
+     * @param link  каноническая ссылка
+     * @param depth глубина ссылки от начальных ссылок обхода
+     * @return true, если ссылку нужно поставить в очередь обхода
+     */
+    public boolean admit(String link, int depth) {
+        if (depth > maxDepth || admittedPages.get() >= maxPages) {
+            if (!visitedLinks.contains(link)) {
+                statistics.recordLimitHit(depth > maxDepth ? CrawlLimit.DEPTH : CrawlLimit.PAGES);
+            }
+            return false;
+        }
+        boolean pulled = sharedFrontier != null && sharedFrontier.isClaimed(link);
+        if (!isValidLink(link) || (!visitedLinks.add(link) && !pulled)) {
+            return false;
+        }
+        CrawlLimit trap = trapDetector != null && !pulled ? trapDetector.check(link) : null;
+        if (trap != null) {
+            statistics.recordLimitHit(trap);
+            log.debug("Skipping {}: {}", link, trap);
+            return false;
+        }
+        if (admittedPages.incrementAndGet() > maxPages) {
+            statistics.recordLimitHit(CrawlLimit.PAGES);
+            return false;
+        }
+        if (sharedFrontier != null && !sharedFrontier.claim(link, depth)) {
+            admittedPages.decrementAndGet();
+            return false;
+        }
+        recordDiscovered(link);
+        return true;
+    }
+
+    /**
+     * Возвращает глубину начальной ссылки обхода: для ссылки, взятой из общей очереди кластера,
+     * это глубина, с которой её нашёл другой узел.
+     *
+     * @param url каноническая ссылка
+     * @return глубина ссылки
+     */
+    public int seedDepth(String url) {
+        return sharedFrontier != null ? sharedFrontier.claimedDepth(url) : 0;
+    }
+
+    /**
+     * Создаёт очередь обхода сайта с оценкой ссылок этого контекста.
+     *
+     * @return пустая очередь обхода
+     */
+    public CrawlFrontier newFrontier() {
+        return new CrawlFrontier(frontierScorer);
+    }
+
+    /**
+     * Приводит ссылку к каноническому виду.
+     *
+     * @param url абсолютная ссылка
+     * @return каноническая ссылка
+     */
+    public String canonicalize(String url) {
+        return canonicalizer.canonicalize(url);
+    }
+
+    /**
+     * Выполняет HTTP-запрос к странице общим клиентом краулера.
+     * Если страница уже сохранена, запрос отправляется с заголовками
+     * {@code If-None-Match} и {@code If-Modified-Since}.
+     * <p>
+     * Вызывающий должен заранее захватить разрешение {@link #fetchLimiter}: метод освобождает его
+     * и сообщает ограничителю задержку и результат запроса. По заголовку {@code Retry-After}
+     * следующий запрос к хосту откладывается.
+     * </p>
+     *
+     * @param url URL страницы
+     * @return ответ с данными страницы
+     * @throws IOException          если произошла ошибка запроса
+     * @throws InterruptedException если поток был прерван во время запроса
+     */
+    public CrawlResponse fetch(String url) throws IOException, InterruptedException {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("User-Agent", userAgent);
+        headers.put("Referer", referrer);
+
+        PageState state = findKnownPage(url);
+        if (state != null) {
+            headers.put("If-None-Match", state.getEtag());
+            headers.put("If-Modified-Since", state.getLastModified());
+        }
+
+        long startNanos = System.nanoTime();
+        CrawlResponse response;
+        try {
+            response = httpClient.get(url, headers, maxBodyBytes);
+        } catch (IOException e) {
+            fetchLimiter.onOverload(System.nanoTime() - startNanos);
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            fetchLimiter.release();
+            throw e;
+        }
+
+        long latencyNanos = System.nanoTime() - startNanos;
+        int status = response.getStatusCode();
+        if (status == TOO_MANY_REQUESTS || status >= SERVER_ERROR) {
+            fetchLimiter.onOverload(latencyNanos);
+            applyRetryAfter(url, response.header("Retry-After"));
+        } else {
+            fetchLimiter.onSuccess(latencyNanos);
+        }
+        return response;
+    }
+
+    /**
+     * Откладывает следующий запрос к хосту на время из заголовка {@code Retry-After}
+     * (в секундах или HTTP-датой), но не больше {@link #MAX_RETRY_AFTER_MS}.
+     *
+     * @param url        URL страницы
+     * @param retryAfter значение заголовка или {@code null}
+     */
+    private void applyRetryAfter(String url, String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return;
+        }
+        long delayMs;
+        try {
+            delayMs = Duration.ofSeconds(Long.parseLong(retryAfter.trim())).toMillis();
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime resumeAt = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                delayMs = Duration.between(ZonedDateTime.now(resumeAt.getZone()), resumeAt).toMillis();
+            } catch (DateTimeParseException invalid) {
+                log.debug("Invalid Retry-After header '{}' for {}", retryAfter, url);
+                return;
+            }
+        }
+        delayMs = Math.min(MAX_RETRY_AFTER_MS, delayMs);
+        log.info("Site asked to retry after {} ms: {}", delayMs, url);
+        hostFetchScheduler.delay(url, delayMs);
+    }
+
+    /**
+     * Проверяет, что сервер ответил на условный запрос 304 Not Modified.
+     *
+     * @param response ответ HTTP
+     * @return true, если страница не изменилась с прошлой индексации
+     */
+    public boolean isNotModified(CrawlResponse response) {
+        return response.getStatusCode() == NOT_MODIFIED;
+    }
+
+    /**
+     * Учитывает в бюджете памяти скачанную страницу вместе с DOM, который будет построен при её разборе.
+     *
+     * @param lease    допуск страницы
+     * @param response ответ HTTP
+     */
+    public void holdFetched(MemoryBudget.Lease lease, CrawlResponse response) {
+        lease.hold((long) response.getBody().length * (1 + DOM_BYTES_PER_BODY_BYTE));
+    }
+
+    /**
+     * Учитывает в бюджете памяти разобранную страницу: DOM уже освобождён, остаются тело ответа,
+     * исходный HTML и текст страницы.
+     *
+     * @param lease     допуск страницы
+     * @param response  ответ HTTP
+     * @param extracted данные, извлечённые из HTML страницы
+     */
+    public void holdExtracted(MemoryBudget.Lease lease, CrawlResponse response, ExtractedPage extracted) {
+        lease.hold(response.getBody().length
+                + 2L * (extracted.getHtml().length() + extracted.getText().length()));
+    }
+
+    /**
+     * Возвращает сохранённую ранее страницу, на запрос к которой сервер ответил 304 Not Modified.
+     * Леммы страницы не пересчитываются, сохранённый HTML разбирается только для извлечения ссылок.
+     *
+     * @param url URL страницы
+     * @return данные сохранённой страницы или {@code null}, если страница не найдена
+     */
+    public ExtractedPage loadStoredPage(String url) {
+        String path = getRelativeUrl(url);
+        if (knownPages != null) {
+            knownPages.remove(path);
+        }
+        statistics.getNotModifiedPages().incrementAndGet();
+
+        Page page = pageService.findPageBySiteAndPath(site, path);
+        if (page == null) {
+            log.warn("Page is not modified but missing in database: {}", url);
+            return null;
+        }
+        return ExtractedPage.parse(page.getContent(), url);
+    }
+
+    /**
+     * Учитывает ошибку обработки страницы при инкрементальной индексации:
+     * страница, которую не удалось скачать или обработать, остаётся в базе.
+     *
+     * @param url       URL страницы
+     * @param exception ошибка обработки
+     */
+    public void recordFetchFailure(String url, Exception exception) {
+        if (knownPages != null) {
+            knownPages.remove(getRelativeUrl(url));
+        }
+    }
+
+    /**
+     * Проверяет, что ответ содержит текстовую страницу с успешным кодом, и учитывает в статистике
+     * ответы, тело которых не читалось из-за типа содержимого, было обрезано по размеру или оборвалось.
+     * <p>
+     * Страница, больше допустимого размера, сохраняется по прочитанному началу.
+     * Оборвавшаяся страница не сохраняется, а её прежняя версия остаётся в базе.
+     * Ранее сохранённая страница, на которую сервер ответил 404 или 410, переносится
+     * в {@link #gonePages}; при других ошибках HTTP её прежняя версия остаётся в базе.
+     * </p>
+     *
+     * @param response ответ HTTP
+     * @return true, если страницу нужно сохранять
+     */
+    public boolean isIndexableResponse(CrawlResponse response) {
+        int status = response.getStatusCode();
+        if (status >= 400) {
+            if (knownPages != null) {
+                String path = getRelativeUrl(response.getUrl());
+                PageState previous = knownPages.remove(path);
+                if (previous != null && (status == NOT_FOUND || status == GONE)) {
+                    gonePages.put(path, previous);
+                }
+            }
+            return false;
+        }
+
+        String contentType = response.contentType();
+        if (contentType == null || !contentType.startsWith("text/")) {
+            log.debug("Skipping non-text content: {} {}", contentType, response.getUrl());
+            statistics.getSkippedNonTextPages().incrementAndGet();
+            return false;
+        }
+
+        switch (response.getBodyStatus()) {
+            case OVERSIZED -> {
+                log.warn("Page is larger than {} bytes, only the beginning is indexed: {}",
+                        maxBodyBytes, response.getUrl());
+                statistics.getOversizedPages().incrementAndGet();
+            }
+            case INCOMPLETE -> {
+                log.warn("Page body was cut off, keeping previous version: {}", response.getUrl());
+                statistics.getTruncatedPages().incrementAndGet();
+                if (knownPages != null) {
+                    knownPages.remove(getRelativeUrl(response.getUrl()));
+                }
+                return false;
+            }
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Сохраняет страницу в базу данных, обновляет временную метку сайта и индексирует леммы.
+     * <p>
+     * Если страница уже была сохранена и хеш содержимого не изменился, обновляются только
+     * заголовки ETag и Last-Modified. Если содержимое изменилось, у страницы сначала удаляются
+     * индексы и уменьшаются частоты её лемм, затем леммы индексируются заново.
+     * </p>
+     *
+     * @param url       URL страницы
+     * @param response  ответ HTTP
+     * @param extracted данные, извлечённые из HTML страницы
+     * @return сохранённая страница
+     */
+    public Page savePage(String url, CrawlResponse response, ExtractedPage extracted) {
+        PageUpdate update = preparePage(url, response, extracted);
+        return persistPage(update, update.needsLemmas() ? collectLemmas(update) : null);
+    }
+
+    /**
+     * Готовит страницу к сохранению без обращения к базе данных: заполняет её исходным HTML,
+     * заголовком и текстом, вычисляет хеш содержимого и сравнивает его с сохранённым при прошлой индексации.
+     * Если задан {@link #boilerplateFilter}, текстом страницы становится её основное содержимое:
+     * по нему считаются леммы, SimHash и сниппеты.
+     * <p>
+     * Для изменившейся страницы вычисляется SimHash текста и ищется почти совпадающая с ней
+     * страница сайта ({@link #nearDuplicates}). Почти копия не лемматизируется и не индексируется,
+     * а сохраняется со ссылкой на каноническую страницу.
+     * </p>
+     *
+     * @param url       URL страницы
+     * @param response  ответ HTTP
+     * @param extracted данные, извлечённые из HTML страницы
+     * @return подготовленное обновление страницы
+     */
+    public PageUpdate preparePage(String url, CrawlResponse response, ExtractedPage extracted) {
+        String path = getRelativeUrl(url);
+        String content = extracted.getHtml();
+
+        Page page = new Page();
+        page.setCode(response.getStatusCode());
+        page.setPath(path);
+        page.setContent(content);
+        page.setTitle(extracted.getTitle());
+        page.setText(mainText(extracted));
+        page.setEtag(response.header("ETag"));
+        page.setLastModified(response.header("Last-Modified"));
+        page.setContentHash(sha256Hex(content));
+        page.setSite(site);
+
+        if (trapDetector != null) {
+            trapDetector.recordContent(canonicalize(url), page.getContentHash());
+        }
+
+        PageState previous = knownPages != null ? knownPages.remove(path) : null;
+        if (nearDuplicates == null) {
+            return new PageUpdate(url, page, previous, null);
+        }
+
+        Long simhash = simHash(page.getText());
+        page.setSimhash(simhash);
+        if (simhash == null) {
+            return new PageUpdate(url, page, previous, null);
+        }
+        if (previous != null && page.getContentHash().equals(previous.getContentHash())) {
+            if (previous.getCanonicalPageId() == null) {
+                nearDuplicates.addSaved(simhash, path, previous.getId());
+            }
+            return new PageUpdate(url, page, previous, null);
+        }
+        return new PageUpdate(url, page, previous, nearDuplicates.findOrAdd(simhash, path));
+    }
+
+    /**
+     * Выделяет основное содержимое страницы и учитывает отброшенный текст в статистике.
+     *
+     * @param extracted данные, извлечённые из HTML страницы
+     * @return текст для индексации
+     */
+    private String mainText(ExtractedPage extracted) {
+        if (boilerplateFilter == null) {
+            return extracted.getText();
+        }
+        String text = boilerplateFilter.mainText(extracted);
+        statistics.getBoilerplateChars().addAndGet(extracted.getText().length() - text.length());
+        return text;
+    }
+
+    /**
+     * Собирает леммы подготовленной страницы.
+     *
+     * @param update подготовленное обновление страницы
+     * @return леммы с количеством вхождений
+     */
+    public Map<String, Integer> collectLemmas(PageUpdate update) {
+        return lemmaIndexer.collectLemmas(update.getPage());
+    }
+
+    /**
+     * Записывает подготовленную страницу и её леммы в базу данных.
+     * <p>
+     * Если содержимое не изменилось, обновляются только заголовки ETag и Last-Modified.
+     * Если изменилось, у ранее сохранённой страницы сначала удаляются индексы
+     * и уменьшаются частоты её лемм. PageRank страницы и, если SimHash не вычислялся,
+     * прежний SimHash переносятся в новую версию, а ссылка на каноническую страницу
+     * определяется заново.
+     * </p>
+     * <p>
+     * Почти копии изменившейся канонической страницы теряют ссылку на неё и индексируются
+     * после обхода. Почти копия другой страницы сохраняется со ссылкой на каноническую
+     * страницу без лемм и индексов; если каноническая страница ещё не сохранена, копия
+     * индексируется как обычная страница.
+     * </p>
+     *
+     * @param update подготовленное обновление страницы
+     * @param lemmas леммы страницы; для неизменившейся страницы и почти копии могут быть {@code null}
+     * @return сохранённая страница или {@code null}, если содержимое не изменилось
+     */
+    public Page persistPage(PageUpdate update, Map<String, Integer> lemmas) {
+        Page page = update.getPage();
+        PageState previous = update.getPrevious();
+        if (update.isUnchanged()) {
+            if (!Objects.equals(page.getEtag(), previous.getEtag())
+                    || !Objects.equals(page.getLastModified(), previous.getLastModified())) {
+                pageService.updatePageValidators(previous.getId(), page.getEtag(), page.getLastModified());
+            }
+            statistics.getUnchangedPages().incrementAndGet();
+            log.debug("Page content is unchanged: {}", update.getUrl());
+            return null;
+        }
+
+        log.info("Page parsing process is running: {}", update.getUrl());
+        site.setStatusTime(LocalDateTime.now());
+
+        if (previous != null) {
+            page.setId(previous.getId());
+            page.setPageRank(previous.getPageRank());
+            if (nearDuplicates == null) {
+                page.setSimhash(previous.getSimhash());
+            }
+            pageService.deletePageIndexes(page);
+            if (previous.getCanonicalPageId() == null) {
+                pageService.releaseDuplicates(previous.getId());
+            }
+            statistics.getChangedPages().incrementAndGet();
+        }
+
+        int canonicalPageId = update.isNearDuplicate() ? update.getCanonical().getPageId() : 0;
+        if (canonicalPageId != 0) {
+            page.setCanonicalPageId(canonicalPageId);
+        } else if (lemmas == null) {
+            lemmas = lemmaIndexer.collectLemmas(page);
+        }
+
+        page = pageService.savePage(page);
+        siteService.updateStatusTime(site);
+        if (canonicalPageId != 0) {
+            statistics.getNearDuplicatePages().incrementAndGet();
+            log.info("Page {} is a near duplicate of page {}, skipping lemmas", update.getUrl(), canonicalPageId);
+        } else {
+            lemmaIndexer.saveAllLemmas(page, lemmas);
+            if (update.getCanonical() != null && !update.isNearDuplicate()) {
+                update.getCanonical().setPageId(page.getId());
+            }
+        }
+        statistics.getSavedPages().incrementAndGet();
+        return page;
+    }
+
+    /**
+     * Записывает в журнал ссылку, поставленную в очередь обхода.
+     *
+     * @param url ссылка
+     */
+    public void recordDiscovered(String url) {
+        if (journal != null) {
+            journal.recordDiscovered(url);
+        }
+    }
+
+    /**
+     * Записывает в журнал обработанную страницу.
+     *
+     * @param url ссылка
+     */
+    public void recordCompleted(String url) {
+        if (journal != null) {
+            journal.recordCompleted(url);
+        }
+        if (sharedFrontier != null) {
+            sharedFrontier.complete(url);
+        }
+    }
+
+    private PageState findKnownPage(String url) {
+        return knownPages != null ? knownPages.get(getRelativeUrl(url)) : null;
+    }
+
+    /**
+     * Отбирает из ссылок страницы все, ведущие на этот сайт и не запрещённые robots.txt,
+     * и записывает их в граф ссылок сайта ({@link #linkGraph}).
+     *
+     * @param url       URL страницы
+     * @param extracted данные, извлечённые из HTML страницы
+     * @return список абсолютных канонических ссылок
+     */
+    public List<String> extractLinks(String url, ExtractedPage extracted) {
+        List<String> links = new ArrayList<>();
+        for (String link : extracted.getLinks()) {
+            String nextUrl = canonicalize(link);
+            if (isLink(nextUrl) && robotsRules.isAllowed(nextUrl)) {
+                links.add(nextUrl);
+            }
+        }
+        if (linkGraph != null) {
+            linkGraph.addLinks(canonicalize(url), links);
+        }
+        return links;
+    }
+
+    /**
+     * Преобразует абсолютную ссылку в путь канонической страницы относительно URL сайта.
+     *
+     * @param url абсолютная ссылка
+     * @return путь страницы, начинающийся с "/"
+     */
+    public String getRelativeUrl(String url) {
+        url = canonicalize(url);
+        String baseUrl = site.getUrl();
+        if (url.startsWith(baseUrl)) {
+            url = url.substring(baseUrl.length());
+        }
+        if (url.isBlank()) return "/";
+        return url.startsWith("/") ? url : "/" + url;
+    }
+
+    /**
+     * Страница, подготовленная к записи в базу данных.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class PageUpdate {
+
+        /**
+         * URL страницы.
+         */
+        private final String url;
+
+        /**
+         * Несохранённая страница с содержимым, заголовками и хешем.
+         */
+        private final Page page;
+
+        /**
+         * Состояние страницы, сохранённое при прошлой индексации, или {@code null}.
+         */
+        private final PageState previous;
+
+        /**
+         * Запись канонической страницы в индексе почти одинаковых страниц: найденной почти совпадающей
+         * или самой этой страницы; {@code null}, если проверка не выполнялась.
+         */
+        private final NearDuplicateIndex.Entry canonical;
+
+        /**
+         * @return true, если страница уже сохранена и её содержимое не изменилось
+         */
+        public boolean isUnchanged() {
+            return previous != null && page.getContentHash().equals(previous.getContentHash());
+        }
+
+        /**
+         * @return true, если страница почти совпадает с другой страницей сайта
+         */
+        public boolean isNearDuplicate() {
+            return canonical != null && !canonical.getPath().equals(page.getPath());
+        }
+
+        /**
+         * @return true, если для страницы нужно собрать и сохранить леммы
+         */
+        public boolean needsLemmas() {
+            return !isUnchanged() && !isNearDuplicate();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Приоритетная очередь ссылок сайта для обхода.
+ * <p>
+ * Ссылки выбираются по возрастанию глубины (обход в ширину), среди ссылок одной глубины — по убыванию
+ * оценки {@link FrontierScorer}, при равной оценке — в порядке добавления. В очереди хранятся только
+ * ссылки с глубиной, поэтому память не зависит от глубины сайта: документ страницы освобождается
+ * сразу после извлечения из него ссылок.
+ * </p>
+ * <p>
+ * Проверку ссылок и ограничения обхода выполняет {@link CrawlContext#admit(String, int)}, очередь их не повторяет.
+ * </p>
+ */
+public class CrawlFrontier {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::getDepth)
+            .thenComparing(Comparator.comparingDouble(Entry::getScore).reversed())
+            .thenComparingLong(Entry::getSequence);
+
+    private final FrontierScorer scorer;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(ORDER);
+
+    private long sequence;
+
+    /**
+     * @param scorer оценка важности ссылок одной глубины
+     */
+    public CrawlFrontier(FrontierScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    /**
+     * Добавляет ссылку в очередь.
+     *
+     * @param url   каноническая ссылка
+     * @param depth глубина ссылки
+     */
+    public synchronized void add(String url, int depth) {
+        queue.add(new Entry(url, depth, scorer.score(url, depth), sequence++));
+    }
+
+    /**
+     * @return самая важная ссылка или {@code null}, если очередь пуста
+     */
+    public synchronized Entry poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Очищает очередь.
+     */
+    public synchronized void clear() {
+        queue.clear();
+    }
+
+    /**
+     * @return число ссылок в очереди
+     */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return true, если очередь пуста
+     */
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Ссылка в очереди обхода.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+
+        private final String url;
+
+        /**
+         * Глубина ссылки: 0 у начальных ссылок, у найденных на странице — на 1 больше, чем у страницы.
+         */
+        private final int depth;
+
+        private final double score;
+
+        private final long sequence;
+    }
+}
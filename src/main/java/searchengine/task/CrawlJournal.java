@@ -0,0 +1,206 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Журнал обхода сайта на диске, позволяющий продолжить обход после перезапуска приложения.
+ * <p>
+ * Журнал — это файл, в который только дописываются строки двух видов:
+ * <ul>
+ *     <li>{@code D <url>} — ссылка найдена и поставлена в очередь обхода;</li>
+ *     <li>{@code C <url>} — страница обработана.</li>
+ * </ul>
+ * Обе записи идут в один файл, поэтому порядок сохраняется: если на диск попала отметка
+ * об обработке страницы, то попали и все найденные на ней ссылки.
+ * Ссылки, найденные, но не обработанные, образуют очередь для продолжения обхода.
+ * </p>
+ * <p>
+ * После успешного завершения обхода журнал удаляется.
+ * </p>
+ */
+@Slf4j
+public class CrawlJournal implements Closeable {
+
+    private static final String JOURNAL_FILE = "crawl.journal";
+
+    private static final String DISCOVERED_PREFIX = "D ";
+
+    private static final String COMPLETED_PREFIX = "C ";
+
+    /**
+     * Количество записей, после которого буфер сбрасывается на диск.
+     */
+    private static final int FLUSH_EVERY = 100;
+
+    private final Path file;
+
+    private BufferedWriter writer;
+
+    private int unflushed;
+
+    private boolean failed;
+
+    private CrawlJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Возвращает журнал сайта в указанной директории.
+     *
+     * @param directory директория журналов
+     * @param siteUrl   URL сайта
+     * @return журнал сайта
+     */
+    public static CrawlJournal forSite(String directory, String siteUrl) {
+        String siteKey = siteUrl.replaceAll("[^a-zA-Z0-9.-]", "_");
+        return new CrawlJournal(Path.of(directory, siteKey, JOURNAL_FILE));
+    }
+
+    /**
+     * Проверяет, остался ли на диске журнал незавершённого обхода.
+     *
+     * @return true, если журнал существует
+     */
+    public boolean hasUnfinishedCrawl() {
+        return Files.exists(file);
+    }
+
+    /**
+     * Читает журнал незавершённого обхода.
+     *
+     * @return обработанные ссылки и ссылки, ожидающие обработки
+     * @throws IOException при ошибке чтения
+     */
+    public ResumeState load() throws IOException {
+        Set<String> completed = new HashSet<>();
+        Set<String> discovered = new LinkedHashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(COMPLETED_PREFIX)) {
+                    completed.add(line.substring(COMPLETED_PREFIX.length()));
+                } else if (line.startsWith(DISCOVERED_PREFIX)) {
+                    discovered.add(line.substring(DISCOVERED_PREFIX.length()));
+                }
+            }
+        }
+        discovered.removeAll(completed);
+        return new ResumeState(completed, new ArrayList<>(discovered));
+    }
+
+    /**
+     * Открывает журнал для записи. Если файл открыть не удалось, обход продолжается без журнала.
+     *
+     * @param resume true — дописывать в существующий журнал, false — начать новый
+     */
+    public synchronized void open(boolean resume) {
+        try {
+            Files.createDirectories(file.getParent());
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            failed = true;
+            log.error("Failed to open crawl journal {}, resume will not be possible", file, e);
+        }
+    }
+
+    /**
+     * Записывает ссылку, поставленную в очередь обхода.
+     *
+     * @param url ссылка
+     */
+    public void recordDiscovered(String url) {
+        append(DISCOVERED_PREFIX, url);
+    }
+
+    /**
+     * Записывает обработанную страницу.
+     *
+     * @param url ссылка
+     */
+    public void recordCompleted(String url) {
+        append(COMPLETED_PREFIX, url);
+    }
+
+    private synchronized void append(String prefix, String url) {
+        if (writer == null || failed) {
+            return;
+        }
+        try {
+            writer.write(prefix);
+            writer.write(url);
+            writer.newLine();
+            if (++unflushed >= FLUSH_EVERY) {
+                writer.flush();
+                unflushed = 0;
+            }
+        } catch (IOException e) {
+            failed = true;
+            log.error("Failed to write crawl journal {}, resume will not be possible", file, e);
+        }
+    }
+
+    /**
+     * Сбрасывает буфер и закрывает журнал. Файл остаётся на диске.
+     */
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close crawl journal {}", file, e);
+        }
+        writer = null;
+    }
+
+    /**
+     * Закрывает и удаляет журнал после успешного завершения обхода.
+     */
+    public synchronized void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete crawl journal {}", file, e);
+        }
+    }
+
+    /**
+     * Состояние незавершённого обхода, прочитанное из журнала.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class ResumeState {
+
+        /**
+         * Ссылки на уже обработанные страницы.
+         */
+        private final Set<String> completed;
+
+        /**
+         * Ссылки, найденные, но ещё не обработанные, в порядке обнаружения.
+         */
+        private final List<String> pending;
+    }
+}
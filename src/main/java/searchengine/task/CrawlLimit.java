@@ -0,0 +1,49 @@
+package searchengine.task;
+
+/**
+ * Ограничение обхода сайта, из-за которого ссылка не была принята в обход.
+ * Срабатывания ограничений учитываются в статистике обхода ({@link CrawlStatistics#getLimitHits()}).
+ */
+public enum CrawlLimit {
+
+    /**
+     * Превышена максимальная глубина обхода.
+     */
+    DEPTH,
+
+    /**
+     * Достигнуто максимальное число страниц сайта.
+     */
+    PAGES,
+
+    /**
+     * Ссылка длиннее допустимого.
+     */
+    URL_LENGTH,
+
+    /**
+     * Сегмент пути повторяется слишком много раз (например {@code /a/b/a/b/a/b}).
+     */
+    REPEATING_SEGMENTS,
+
+    /**
+     * Исчерпан бюджет ссылок шаблона пути (числовые сегменты и идентификаторы заменены заполнителями).
+     */
+    PATH_PATTERN,
+
+    /**
+     * Исчерпан бюджет комбинаций параметров запроса одного пути.
+     */
+    QUERY_VARIANTS,
+
+    /**
+     * Шаблон ссылки признан ловушкой: слишком много его вариантов отдают одинаковое содержимое.
+     */
+    DUPLICATE_CONTENT,
+
+    /**
+     * Очередь ссылок сайта заполнена. Ссылка не помечается посещённой и может быть принята позже,
+     * если встретится на другой странице.
+     */
+    FRONTIER_FULL
+}
@@ -0,0 +1,96 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики обхода одного сайта, отображаемые в статистике.
+ */
+@Getter
+public class CrawlStatistics {
+
+    /**
+     * Количество сохранённых страниц.
+     */
+    private final AtomicInteger savedPages = new AtomicInteger();
+
+    /**
+     * Количество страниц, на условный запрос к которым сервер ответил 304 Not Modified.
+     */
+    private final AtomicInteger notModifiedPages = new AtomicInteger();
+
+    /**
+     * Количество скачанных страниц, содержимое которых совпало с сохранённым.
+     */
+    private final AtomicInteger unchangedPages = new AtomicInteger();
+
+    /**
+     * Количество ранее сохранённых страниц, содержимое которых изменилось.
+     */
+    private final AtomicInteger changedPages = new AtomicInteger();
+
+    /**
+     * Количество удалённых страниц, которые больше не найдены на сайте.
+     */
+    private final AtomicInteger removedPages = new AtomicInteger();
+
+    /**
+     * Количество ответов с нетекстовым содержимым, тело которых не скачивалось.
+     */
+    private final AtomicInteger skippedNonTextPages = new AtomicInteger();
+
+    /**
+     * Количество страниц больше допустимого размера, сохранённых по началу.
+     */
+    private final AtomicInteger oversizedPages = new AtomicInteger();
+
+    /**
+     * Количество страниц, скачивание которых оборвалось до конца тела.
+     */
+    private final AtomicInteger truncatedPages = new AtomicInteger();
+
+    /**
+     * Количество почти копий других страниц, сохранённых без лемм и индексов.
+     */
+    private final AtomicInteger nearDuplicatePages = new AtomicInteger();
+
+    /**
+     * Количество символов текста страниц, отброшенных как шаблонные блоки перед лемматизацией.
+     */
+    private final AtomicLong boilerplateChars = new AtomicLong();
+
+    /**
+     * Количество ссылок, не принятых в обход из-за ограничений обхода и ловушек, по ограничениям.
+     */
+    private final Map<CrawlLimit, AtomicInteger> limitHits = createLimitHits();
+
+    /**
+     * Стадии конвейера индексации, если сайт обходится движком {@code VIRTUAL_THREADS}.
+     * Стадии общие для всех сайтов запуска.
+     */
+    @Setter
+    private volatile List<PipelineStage<?>> stages = List.of();
+
+    /**
+     * Учитывает ссылку, не принятую в обход из-за ограничения.
+     *
+     * @param limit сработавшее ограничение
+     */
+    public void recordLimitHit(CrawlLimit limit) {
+        limitHits.get(limit).incrementAndGet();
+    }
+
+    private static Map<CrawlLimit, AtomicInteger> createLimitHits() {
+        Map<CrawlLimit, AtomicInteger> hits = new EnumMap<>(CrawlLimit.class);
+        for (CrawlLimit limit : CrawlLimit.values()) {
+            hits.put(limit, new AtomicInteger());
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,262 @@
+package searchengine.task;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Обнаружение ловушек обхода: календарей, фасетных фильтров, ссылок с идентификатором сессии
+ * и других источников бесконечного числа ссылок.
+ * <p>
+ * Каждая новая ссылка сайта проверяется эвристиками:
+ * <ul>
+ *     <li>длина ссылки не больше {@link #maxUrlLength};</li>
+ *     <li>ни один сегмент пути не повторяется больше {@link #maxSegmentRepeats} раз;</li>
+ *     <li>ссылок одного шаблона пути, в котором числа и идентификаторы заменены заполнителями
+ *     ({@code /calendar/2024/05} → {@code /calendar/{n}/{n}}), не больше {@link #maxUrlsPerPattern};</li>
+ *     <li>комбинаций параметров запроса одного пути не больше {@link #maxQueryVariants};</li>
+ *     <li>шаблон не признан ловушкой по содержимому: если больше {@link #maxSameContentVariants}
+ *     ссылок шаблона отдали страницу с одинаковым хешем содержимого, новые ссылки шаблона не обходятся.</li>
+ * </ul>
+ * Счётчики ведутся только для ссылок, шаблон которых отличается от пути (с числами, идентификаторами
+ * или параметрами запроса), поэтому память занимают только потенциально бесконечные семейства ссылок.
+ * Ограничение, равное 0, не проверяется.
+ * </p>
+ */
+@Slf4j
+@Builder
+public class CrawlTrapDetector {
+
+    private static final String NUMBER_PLACEHOLDER = "{n}";
+
+    private static final String ID_PLACEHOLDER = "{id}";
+
+    /**
+     * Минимальная длина сегмента из шестнадцатеричных цифр и дефисов, считающегося идентификатором.
+     */
+    private static final int MIN_ID_LENGTH = 16;
+
+    private final int maxUrlLength;
+
+    private final int maxSegmentRepeats;
+
+    private final int maxUrlsPerPattern;
+
+    private final int maxQueryVariants;
+
+    private final int maxSameContentVariants;
+
+    private final ConcurrentMap<String, AtomicInteger> urlsPerPattern = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicInteger> queryVariantsPerPath = new ConcurrentHashMap<>();
+
+    /**
+     * Число ссылок с одинаковым содержимым по ключу из хеша шаблона и начала хеша содержимого.
+     */
+    private final ConcurrentMap<Long, AtomicInteger> sameContentVariants = new ConcurrentHashMap<>();
+
+    private final Set<String> trappedPatterns = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Проверяет новую ссылку и учитывает её в бюджетах шаблона и параметров запроса.
+     * Вызывается один раз для каждой ещё не посещённой ссылки.
+     *
+     * @param url каноническая абсолютная ссылка
+     * @return сработавшее ограничение или {@code null}, если ссылку можно обходить
+     */
+    public CrawlLimit check(String url) {
+        if (maxUrlLength > 0 && url.length() > maxUrlLength) {
+            return CrawlLimit.URL_LENGTH;
+        }
+
+        ParsedUrl parsed = ParsedUrl.of(url);
+        if (maxSegmentRepeats > 0 && hasRepeatingSegments(parsed.path)) {
+            return CrawlLimit.REPEATING_SEGMENTS;
+        }
+
+        String pattern = pattern(parsed);
+        if (pattern == null) {
+            return null;
+        }
+        if (trappedPatterns.contains(pattern)) {
+            return CrawlLimit.DUPLICATE_CONTENT;
+        }
+        if (parsed.query != null && exceeds(queryVariantsPerPath, parsed.path, maxQueryVariants)) {
+            return CrawlLimit.QUERY_VARIANTS;
+        }
+        if (exceeds(urlsPerPattern, pattern, maxUrlsPerPattern)) {
+            return CrawlLimit.PATH_PATTERN;
+        }
+        return null;
+    }
+
+    /**
+     * Учитывает хеш содержимого скачанной страницы. Если слишком много ссылок одного шаблона
+     * отдали одинаковое содержимое, шаблон признаётся ловушкой.
+     *
+     * @param url         каноническая абсолютная ссылка страницы
+     * @param contentHash хеш содержимого страницы в шестнадцатеричном виде
+     */
+    public void recordContent(String url, String contentHash) {
+        if (maxSameContentVariants <= 0 || contentHash == null || contentHash.length() < 8) {
+            return;
+        }
+        String pattern = pattern(ParsedUrl.of(url));
+        if (pattern == null || trappedPatterns.contains(pattern)) {
+            return;
+        }
+        long key = ((long) pattern.hashCode() << 32) | Long.parseLong(contentHash.substring(0, 8), 16);
+        int variants = sameContentVariants.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        if (variants > maxSameContentVariants && trappedPatterns.add(pattern)) {
+            log.warn("URL pattern {} returned identical content for {} urls, treating it as a crawler trap",
+                    pattern, variants);
+        }
+    }
+
+    /**
+     * Увеличивает счётчик ключа и проверяет, превысил ли он ограничение.
+     */
+    private static boolean exceeds(ConcurrentMap<String, AtomicInteger> counters, String key, int limit) {
+        if (limit <= 0) {
+            return false;
+        }
+        int count = counters.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        if (count == limit + 1) {
+            log.info("Crawl budget of {} urls is exhausted for {}", limit, key);
+        }
+        return count > limit;
+    }
+
+    private boolean hasRepeatingSegments(String path) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        int start = 1;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start && occurrences.merge(path.substring(start, end), 1, Integer::sum) > maxSegmentRepeats) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Строит шаблон ссылки: числа в сегментах пути заменяются на {@value #NUMBER_PLACEHOLDER},
+     * длинные шестнадцатеричные идентификаторы — на {@value #ID_PLACEHOLDER}, от запроса остаются имена параметров.
+     *
+     * @return шаблон или {@code null}, если он совпадает с путём (в ссылке нет переменных частей)
+     */
+    private static String pattern(ParsedUrl parsed) {
+        String path = parsed.path;
+        StringBuilder pattern = new StringBuilder(path.length() + 16);
+        boolean generalized = false;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start, end);
+            if (isId(segment)) {
+                pattern.append('/').append(ID_PLACEHOLDER);
+                generalized = true;
+            } else {
+                generalized |= appendWithNumberPlaceholders(pattern, segment);
+            }
+            start = end;
+        }
+
+        if (parsed.query != null) {
+            generalized = true;
+            pattern.append('?');
+            for (String param : parsed.query.split("&")) {
+                int nameEnd = param.indexOf('=');
+                pattern.append(nameEnd >= 0 ? param.substring(0, nameEnd) : param).append('&');
+            }
+            pattern.setLength(pattern.length() - 1);
+        }
+        return generalized ? pattern.toString() : null;
+    }
+
+    /**
+     * Проверяет, что сегмент пути (со слэшем в начале) — длинный шестнадцатеричный идентификатор или UUID
+     * и содержит хотя бы одну цифру.
+     */
+    private static boolean isId(String segment) {
+        if (segment.length() - 1 < MIN_ID_LENGTH) {
+            return false;
+        }
+        boolean hasDigit = false;
+        for (int i = 1; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (!(c >= 'a' && c <= 'f') && !(c >= 'A' && c <= 'F') && c != '-') {
+                return false;
+            }
+        }
+        return hasDigit;
+    }
+
+    /**
+     * Дописывает сегмент пути, заменяя последовательности цифр заполнителем.
+     *
+     * @return true, если в сегменте были цифры
+     */
+    private static boolean appendWithNumberPlaceholders(StringBuilder pattern, String segment) {
+        boolean replaced = false;
+        int i = 0;
+        while (i < segment.length()) {
+            char c = segment.charAt(i);
+            if (c >= '0' && c <= '9') {
+                while (i < segment.length() && segment.charAt(i) >= '0' && segment.charAt(i) <= '9') {
+                    i++;
+                }
+                pattern.append(NUMBER_PLACEHOLDER);
+                replaced = true;
+            } else {
+                pattern.append(c);
+                i++;
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Путь и запрос абсолютной ссылки.
+     */
+    private static final class ParsedUrl {
+
+        private final String path;
+
+        private final String query;
+
+        private ParsedUrl(String path, String query) {
+            this.path = path;
+            this.query = query;
+        }
+
+        private static ParsedUrl of(String url) {
+            int schemeEnd = url.indexOf("://");
+            int pathStart = schemeEnd >= 0 ? url.indexOf('/', schemeEnd + 3) : 0;
+            int queryStart = url.indexOf('?', Math.max(pathStart, 0));
+            if (pathStart < 0) {
+                return new ParsedUrl("/", queryStart >= 0 ? url.substring(queryStart + 1) : null);
+            }
+            if (queryStart < 0) {
+                return new ParsedUrl(url.substring(pathStart), null);
+            }
+            String query = url.substring(queryStart + 1);
+            return new ParsedUrl(url.substring(pathStart, queryStart), query.isEmpty() ? null : query);
+        }
+    }
+}
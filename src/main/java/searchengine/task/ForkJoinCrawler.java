@@ -0,0 +1,128 @@
+package searchengine.task;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Обход сайта задачами Fork/Join из приоритетной очереди ссылок {@link CrawlFrontier}.
+ * <p>
+ * Задачи {@link PageCrawler} не привязаны к ссылкам: при запуске задача берёт из очереди самую
+ * важную ссылку. Поэтому страницы обходятся в порядке очереди (по глубине и оценке), задачи не ждут
+ * дочерних задач, а документ страницы освобождается сразу после извлечения из него ссылок и текста.
+ * </p>
+ * <p>
+ * Число задач сайта в пуле не превышает предела страниц в обработке его бюджета памяти
+ * {@link CrawlContext#getMemoryBudget()}: новая задача отправляется в пул при добавлении ссылки,
+ * только если предел не достигнут, а завершившаяся задача заменяется новой, пока очередь не пуста.
+ * </p>
+ * <p>
+ * Обход завершается, когда не осталось ссылок в очереди и страниц в обработке.
+ * </p>
+ */
+public class ForkJoinCrawler {
+
+    @Getter
+    private final CrawlContext context;
+
+    private final ForkJoinPool pool;
+
+    @Getter
+    private final CrawlFrontier frontier;
+
+    /**
+     * Количество ссылок в очереди и страниц в обработке.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Максимальное число задач сайта в пуле.
+     */
+    private final int maxTasks;
+
+    /**
+     * Число задач сайта, отправленных в пул и ещё не завершившихся.
+     */
+    private final AtomicInteger activeTasks = new AtomicInteger();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /**
+     * @param context контекст обхода сайта
+     * @param pool    пул, в котором выполняются задачи обхода
+     */
+    public ForkJoinCrawler(CrawlContext context, ForkJoinPool pool) {
+        this.context = context;
+        this.pool = pool;
+        this.frontier = context.newFrontier();
+        this.maxTasks = context.getMemoryBudget().getMaxPages();
+    }
+
+    /**
+     * Обходит сайт начиная с указанных ссылок и блокируется до завершения обхода.
+     *
+     * @param seeds начальные ссылки обхода
+     * @throws InterruptedException если обход был остановлен
+     */
+    public void crawl(Collection<String> seeds) throws InterruptedException {
+        for (String seed : seeds) {
+            enqueue(seed, context.seedDepth(seed));
+        }
+        if (pending.get() > 0) {
+            done.await();
+        }
+    }
+
+    /**
+     * Принимает ссылку в обход, ставит её в очередь и отправляет в пул задачу, если предел задач не достигнут.
+     *
+     * @param url   ссылка
+     * @param depth глубина ссылки
+     */
+    void enqueue(String url, int depth) {
+        if (!context.admit(url, depth)) {
+            return;
+        }
+        pending.incrementAndGet();
+        frontier.add(url, depth);
+        trySpawn();
+    }
+
+    /**
+     * Отмечает завершение задачи и заменяет её новой, если в очереди остались ссылки.
+     * Очередь проверяется после уменьшения счётчика задач, поэтому ссылка, добавленная
+     * одновременно с завершением последней задачи, не останется без задачи.
+     */
+    void taskFinished() {
+        activeTasks.decrementAndGet();
+        if (!frontier.isEmpty()) {
+            trySpawn();
+        }
+    }
+
+    private void trySpawn() {
+        if (activeTasks.incrementAndGet() > maxTasks) {
+            activeTasks.decrementAndGet();
+            return;
+        }
+        PageCrawler task = new PageCrawler(this);
+        if (ForkJoinTask.getPool() == pool) {
+            task.fork();
+        } else {
+            pool.execute(task);
+        }
+    }
+
+    /**
+     * Отмечает завершение обработки страницы.
+     */
+    void complete() {
+        if (pending.decrementAndGet() == 0) {
+            done.countDown();
+        }
+    }
+}
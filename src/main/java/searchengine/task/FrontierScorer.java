@@ -0,0 +1,77 @@
+package searchengine.task;
+
+import java.util.Map;
+
+/**
+ * Оценка важности ссылки для очереди обхода {@link CrawlFrontier}.
+ * <p>
+ * Ссылки выбираются по возрастанию глубины, а среди ссылок одной глубины — по убыванию оценки.
+ * Оценка вычисляется один раз при добавлении ссылки в очередь.
+ * </p>
+ */
+@FunctionalInterface
+public interface FrontierScorer {
+
+    /**
+     * Приоритет страницы sitemap по умолчанию (sitemaps.org).
+     */
+    double DEFAULT_SITEMAP_PRIORITY = 0.5;
+
+    /**
+     * @param url   каноническая ссылка
+     * @param depth глубина ссылки от начальных страниц обхода
+     * @return оценка: чем больше, тем раньше ссылка будет обойдена
+     */
+    double score(String url, int depth);
+
+    /**
+     * @return оценка, при которой ссылки одной глубины обходятся в порядке обнаружения
+     */
+    static FrontierScorer breadthFirst() {
+        return (url, depth) -> 0;
+    }
+
+    /**
+     * @return оценка, при которой раньше обходятся ссылки с меньшим числом сегментов пути и без параметров
+     */
+    static FrontierScorer shallowPath() {
+        return (url, depth) -> -pathWeight(url);
+    }
+
+    /**
+     * Оценка по приоритету страницы из sitemap. Приоритет удаляется из словаря при оценке ссылки,
+     * поскольку каждая ссылка оценивается один раз; ссылки без приоритета получают
+     * {@link #DEFAULT_SITEMAP_PRIORITY}.
+     *
+     * @param priorities приоритеты страниц sitemap по канонической ссылке
+     * @return оценка по приоритету sitemap
+     */
+    static FrontierScorer sitemapPriority(Map<String, Double> priorities) {
+        return (url, depth) -> {
+            Double priority = priorities.remove(url);
+            return priority != null ? priority : DEFAULT_SITEMAP_PRIORITY;
+        };
+    }
+
+    /**
+     * Считает число сегментов пути ссылки; наличие параметров запроса добавляет ещё один.
+     */
+    private static int pathWeight(String url) {
+        int schemeEnd = url.indexOf("://");
+        int pathStart = url.indexOf('/', schemeEnd + 3);
+        if (pathStart < 0) {
+            return 0;
+        }
+        int weight = 0;
+        for (int i = pathStart; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '?') {
+                return weight + 1;
+            }
+            if (c == '/' && i + 1 < url.length() && url.charAt(i + 1) != '?') {
+                weight++;
+            }
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,255 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Граф ссылок одного сайта, собираемый во время обхода.
+ * <p>
+ * Ссылки хранятся парами номеров вершин в массивах {@code int}: каждая каноническая ссылка
+ * получает номер при первой встрече, а отпечатки ссылок ({@link VisitedUrlSet#fingerprint(String)})
+ * хранятся в таблице с открытой адресацией без объектов-обёрток. Ребро занимает 8 байт, вершина — около 24.
+ * Повторные ссылки страницы на одну и ту же страницу и ссылки страницы на саму себя не учитываются.
+ * После {@link #maxEdges} рёбер новые рёбра не записываются.
+ * </p>
+ * <p>
+ * После обхода {@link #toCsr(int[], List)} сопоставляет вершины сохранённым страницам сайта
+ * и упаковывает граф в сжатые строки (CSR) по входящим ссылкам для {@link PageRank}.
+ * </p>
+ */
+public class LinkGraph {
+
+    private static final int INITIAL_NODES = 1 << 10;
+
+    private static final int INITIAL_EDGES = 1 << 12;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int maxEdges;
+
+    /**
+     * Отпечатки ссылок; 0 обозначает свободную ячейку.
+     */
+    private long[] keys = new long[INITIAL_NODES * 2];
+
+    private int[] nodes = new int[INITIAL_NODES * 2];
+
+    private int nodeCount;
+
+    private int[] sources = new int[INITIAL_EDGES];
+
+    private int[] targets = new int[INITIAL_EDGES];
+
+    private int edgeCount;
+
+    @Getter
+    private volatile boolean truncated;
+
+    /**
+     * @param maxEdges максимальное число записываемых рёбер, 0 — без ограничения
+     */
+    public LinkGraph(int maxEdges) {
+        this.maxEdges = maxEdges > 0 ? maxEdges : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Записывает ссылки страницы.
+     *
+     * @param url   каноническая ссылка страницы
+     * @param links канонические ссылки со страницы на страницы сайта
+     */
+    public synchronized void addLinks(String url, Collection<String> links) {
+        if (links.isEmpty()) {
+            return;
+        }
+        int source = intern(url);
+        int first = edgeCount;
+        for (String link : links) {
+            if (edgeCount >= maxEdges) {
+                truncated = true;
+                break;
+            }
+            int target = intern(link);
+            if (target == source) {
+                continue;
+            }
+            if (edgeCount == sources.length) {
+                int capacity = (int) Math.min((long) sources.length * 2, Integer.MAX_VALUE - 8);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            edgeCount++;
+        }
+        removeDuplicateTargets(first);
+    }
+
+    /**
+     * @return число записанных рёбер
+     */
+    public synchronized int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Упаковывает граф в сжатые строки по входящим ссылкам.
+     * Вершинами становятся переданные страницы; рёбра к ссылкам, не ставшим страницами, отбрасываются.
+     *
+     * @param pageIds  идентификаторы страниц сайта
+     * @param pageUrls канонические ссылки страниц в том же порядке
+     * @return граф страниц сайта
+     */
+    public synchronized Csr toCsr(int[] pageIds, List<String> pageUrls) {
+        int pageCount = pageIds.length;
+        int[] pageByNode = new int[nodeCount];
+        Arrays.fill(pageByNode, -1);
+        for (int i = 0; i < pageCount; i++) {
+            int node = find(VisitedUrlSet.fingerprint(pageUrls.get(i)));
+            if (node >= 0 && pageByNode[node] < 0) {
+                pageByNode[node] = i;
+            }
+        }
+
+        int[] outDegree = new int[pageCount];
+        int[] inOffsets = new int[pageCount + 1];
+        int edges = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            int source = pageByNode[sources[e]];
+            int target = pageByNode[targets[e]];
+            if (source >= 0 && target >= 0) {
+                outDegree[source]++;
+                inOffsets[target + 1]++;
+                edges++;
+            }
+        }
+        for (int i = 0; i < pageCount; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+
+        int[] inSources = new int[edges];
+        int[] cursor = Arrays.copyOf(inOffsets, pageCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int source = pageByNode[sources[e]];
+            int target = pageByNode[targets[e]];
+            if (source >= 0 && target >= 0) {
+                inSources[cursor[target]++] = source;
+            }
+        }
+        return new Csr(pageIds, inOffsets, inSources, outDegree);
+    }
+
+    /**
+     * Удаляет повторные рёбра последней записанной страницы: у всех её рёбер один источник,
+     * поэтому достаточно отсортировать и сжать их цели.
+     */
+    private void removeDuplicateTargets(int first) {
+        if (edgeCount - first < 2) {
+            return;
+        }
+        Arrays.sort(targets, first, edgeCount);
+        int last = first;
+        for (int e = first + 1; e < edgeCount; e++) {
+            if (targets[e] != targets[last]) {
+                targets[++last] = targets[e];
+            }
+        }
+        edgeCount = last + 1;
+    }
+
+    private int intern(String url) {
+        long key = nonZero(VisitedUrlSet.fingerprint(url));
+        int mask = keys.length - 1;
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return nodes[index];
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        nodes[index] = nodeCount;
+        if (++nodeCount > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+        return nodeCount - 1;
+    }
+
+    private int find(long fingerprint) {
+        long key = nonZero(fingerprint);
+        int mask = keys.length - 1;
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return nodes[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldNodes = nodes;
+        keys = new long[oldKeys.length * 2];
+        nodes = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) {
+                continue;
+            }
+            int index = (int) (key ^ (key >>> 32)) & mask;
+            while (keys[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            nodes[index] = oldNodes[i];
+        }
+    }
+
+    private static long nonZero(long fingerprint) {
+        return fingerprint != 0 ? fingerprint : 1;
+    }
+
+    /**
+     * Граф страниц в виде сжатых строк по входящим ссылкам: ссылки на страницу {@code v} идут
+     * со страниц {@code inSources[inOffsets[v]] .. inSources[inOffsets[v + 1] - 1]}.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Csr {
+
+        /**
+         * Идентификаторы страниц по номеру вершины.
+         */
+        private final int[] pageIds;
+
+        private final int[] inOffsets;
+
+        private final int[] inSources;
+
+        /**
+         * Число исходящих ссылок страницы на другие страницы графа.
+         */
+        private final int[] outDegree;
+
+        /**
+         * @return число вершин
+         */
+        public int nodeCount() {
+            return outDegree.length;
+        }
+
+        /**
+         * @return число рёбер
+         */
+        public int edgeCount() {
+            return inSources.length;
+        }
+    }
+}
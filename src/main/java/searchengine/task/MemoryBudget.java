@@ -0,0 +1,257 @@
+package searchengine.task;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Бюджет памяти обхода: ограничение числа страниц в обработке и байт, которые удерживают
+ * их тела, DOM и извлечённый текст.
+ * <p>
+ * Перед скачиванием страницы краулер получает у бюджета допуск {@link Lease} и держит его до конца
+ * обработки страницы, сообщая через {@link Lease#hold(long)}, сколько памяти она занимает сейчас.
+ * Пока число страниц в обработке или занятая память достигли предела, новые допуски не выдаются:
+ * скачивание новых страниц и, как следствие, расширение очереди обхода приостанавливаются
+ * до завершения обработки уже скачанных. Одна страница допускается всегда, даже если она
+ * больше бюджета, чтобы обход не останавливался навсегда.
+ * </p>
+ * <p>
+ * Бюджет сайта вкладывается в общий бюджет всех сайтов ({@link #child(int, long)}):
+ * допуск выдаётся, только если его разрешают оба, и учитывается в обоих.
+ * </p>
+ */
+public class MemoryBudget {
+
+    private final MemoryBudget parent;
+
+    /**
+     * Максимальное число страниц в обработке.
+     */
+    @Getter
+    private final int maxPages;
+
+    /**
+     * Максимальный объём памяти, занятой страницами в обработке, в байтах.
+     */
+    @Getter
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private int inFlightPages;
+
+    private long heldBytes;
+
+    /**
+     * Число запросов допуска, которые были отклонены или ждали освобождения бюджета.
+     */
+    private final AtomicLong throttled = new AtomicLong();
+
+    /**
+     * @param maxPages максимальное число страниц в обработке; не больше нуля — без ограничения
+     * @param maxBytes максимальный объём памяти в байтах; не больше нуля — без ограничения
+     */
+    public MemoryBudget(int maxPages, long maxBytes) {
+        this(null, maxPages, maxBytes);
+    }
+
+    private MemoryBudget(MemoryBudget parent, int maxPages, long maxBytes) {
+        this.parent = parent;
+        this.maxPages = maxPages > 0 ? maxPages : Integer.MAX_VALUE;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return бюджет без ограничений
+     */
+    public static MemoryBudget unlimited() {
+        return new MemoryBudget(0, 0);
+    }
+
+    /**
+     * Создаёт вложенный бюджет, допуски которого учитываются и в этом бюджете.
+     *
+     * @param maxPages максимальное число страниц в обработке; не больше нуля — без ограничения
+     * @param maxBytes максимальный объём памяти в байтах; не больше нуля — без ограничения
+     * @return вложенный бюджет
+     */
+    public MemoryBudget child(int maxPages, long maxBytes) {
+        return new MemoryBudget(this, maxPages, maxBytes);
+    }
+
+    /**
+     * Ожидает, пока бюджет и все объемлющие бюджеты позволят взять в обработку ещё одну страницу.
+     *
+     * @return допуск страницы
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public Lease acquire() throws InterruptedException {
+        for (MemoryBudget budget = this; budget != null; budget = budget.parent) {
+            try {
+                budget.acquireSlot();
+            } catch (InterruptedException e) {
+                releaseSlots(budget, 0);
+                throw e;
+            }
+        }
+        return new Lease();
+    }
+
+    /**
+     * Берёт в обработку ещё одну страницу, если бюджет и все объемлющие бюджеты это позволяют.
+     *
+     * @return допуск страницы или {@code null}, если бюджет исчерпан
+     */
+    public Lease tryAcquire() {
+        for (MemoryBudget budget = this; budget != null; budget = budget.parent) {
+            if (!budget.tryAcquireSlot()) {
+                releaseSlots(budget, 0);
+                return null;
+            }
+        }
+        return new Lease();
+    }
+
+    /**
+     * @return число страниц в обработке
+     */
+    public int getInFlightPages() {
+        lock.lock();
+        try {
+            return inFlightPages;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return объём памяти, занятой страницами в обработке, в байтах
+     */
+    public long getHeldBytes() {
+        lock.lock();
+        try {
+            return heldBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return число запросов допуска, которые были отклонены или ждали освобождения бюджета
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    private void acquireSlot() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (!hasRoom()) {
+                throttled.incrementAndGet();
+                while (!hasRoom()) {
+                    released.await();
+                }
+            }
+            inFlightPages++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryAcquireSlot() {
+        lock.lock();
+        try {
+            if (!hasRoom()) {
+                throttled.incrementAndGet();
+                return false;
+            }
+            inFlightPages++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasRoom() {
+        return inFlightPages == 0 || (inFlightPages < maxPages && heldBytes < maxBytes);
+    }
+
+    private void adjust(long deltaBytes) {
+        lock.lock();
+        try {
+            heldBytes += deltaBytes;
+            if (deltaBytes < 0) {
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot(long bytes) {
+        lock.lock();
+        try {
+            inFlightPages--;
+            heldBytes -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает слоты, уже захваченные этим бюджетом и объемлющими бюджетами ниже {@code stop}.
+     */
+    private void releaseSlots(MemoryBudget stop, long bytes) {
+        for (MemoryBudget budget = this; budget != stop; budget = budget.parent) {
+            budget.releaseSlot(bytes);
+        }
+    }
+
+    /**
+     * Допуск одной страницы в обработку. Используется одним потоком в каждый момент времени
+     * и передаётся между стадиями обработки вместе со страницей.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private long bytes;
+
+        private boolean closed;
+
+        private Lease() {
+        }
+
+        /**
+         * Сообщает, сколько памяти страница занимает сейчас.
+         *
+         * @param bytes объём памяти в байтах
+         */
+        public void hold(long bytes) {
+            if (closed) {
+                return;
+            }
+            long delta = bytes - this.bytes;
+            this.bytes = bytes;
+            for (MemoryBudget budget = MemoryBudget.this; budget != null; budget = budget.parent) {
+                budget.adjust(delta);
+            }
+        }
+
+        /**
+         * Завершает обработку страницы и возвращает занятую ею память в бюджет.
+         * Повторный вызов ничего не делает.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            releaseSlots(null, bytes);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static searchengine.util.SimHashUtil.hammingDistance;
+
+/**
+ * Индекс SimHash страниц одного сайта для поиска почти одинаковых страниц.
+ * <p>
+ * Отпечаток делится на {@link #BLOCKS} блоков по 16 бит, и для каждого блока хранится таблица
+ * «значение блока → страницы». Если два отпечатка различаются не более чем в {@code BLOCKS - 1} битах,
+ * хотя бы один блок у них совпадает, поэтому кандидатов достаточно искать по совпадению блоков,
+ * а не перебирать все страницы сайта.
+ * </p>
+ */
+public class NearDuplicateIndex {
+
+    /**
+     * Число блоков отпечатка.
+     */
+    public static final int BLOCKS = 4;
+
+    /**
+     * Максимальное допустимое расстояние Хэмминга.
+     */
+    public static final int MAX_DISTANCE = BLOCKS - 1;
+
+    private static final int BLOCK_BITS = Long.SIZE / BLOCKS;
+
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+
+    private final int maxDistance;
+
+    private final List<Map<Integer, List<Entry>>> blocks = new ArrayList<>(BLOCKS);
+
+    /**
+     * @param maxDistance максимальное расстояние Хэмминга между отпечатками почти одинаковых страниц,
+     *                    не больше {@link #MAX_DISTANCE}
+     */
+    public NearDuplicateIndex(int maxDistance) {
+        this.maxDistance = Math.min(Math.max(0, maxDistance), MAX_DISTANCE);
+        for (int i = 0; i < BLOCKS; i++) {
+            blocks.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Ищет страницу, почти совпадающую по отпечатку; если такой нет, добавляет страницу в индекс.
+     * Поиск и добавление выполняются атомарно, поэтому из двух одновременно обрабатываемых копий
+     * канонической становится одна.
+     *
+     * @param simhash отпечаток страницы
+     * @param path    путь страницы
+     * @return запись канонической страницы: найденной почти совпадающей или добавленной этой страницы
+     */
+    public synchronized Entry findOrAdd(long simhash, String path) {
+        Entry canonical = find(simhash);
+        if (canonical == null) {
+            canonical = new Entry(simhash, path);
+            add(canonical);
+        }
+        return canonical;
+    }
+
+    /**
+     * Добавляет в индекс уже сохранённую страницу, если почти совпадающей с ней ещё нет.
+     *
+     * @param simhash отпечаток страницы
+     * @param path    путь страницы
+     * @param pageId  идентификатор страницы
+     */
+    public synchronized void addSaved(long simhash, String path, int pageId) {
+        if (find(simhash) == null) {
+            Entry entry = new Entry(simhash, path);
+            entry.setPageId(pageId);
+            add(entry);
+        }
+    }
+
+    /**
+     * @return число страниц в индексе
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (List<Entry> entries : blocks.get(0).values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+
+    private Entry find(long simhash) {
+        for (int block = 0; block < BLOCKS; block++) {
+            List<Entry> candidates = blocks.get(block).get(blockValue(simhash, block));
+            if (candidates == null) {
+                continue;
+            }
+            for (Entry candidate : candidates) {
+                if (hammingDistance(candidate.simhash, simhash) <= maxDistance) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void add(Entry entry) {
+        for (int block = 0; block < BLOCKS; block++) {
+            blocks.get(block).computeIfAbsent(blockValue(entry.simhash, block), key -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    private static int blockValue(long simhash, int block) {
+        return (int) ((simhash >>> (block * BLOCK_BITS)) & BLOCK_MASK);
+    }
+
+    /**
+     * Страница в индексе. Идентификатор известен после сохранения страницы в базу данных.
+     */
+    public static class Entry {
+
+        private final long simhash;
+
+        @Getter
+        private final String path;
+
+        /**
+         * Идентификатор сохранённой страницы или 0, если страница ещё не сохранена.
+         */
+        @Getter
+        @Setter
+        private volatile int pageId;
+
+        private Entry(long simhash, String path) {
+            this.simhash = simhash;
+            this.path = path;
+        }
+    }
+}
@@ -1,275 +1,194 @@
 package searchengine.task;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import searchengine.model.Page;
-import searchengine.model.Site;
-import searchengine.morpholgy.LemmaIndexer;
-import searchengine.services.LemmaService;
-import searchengine.services.PageService;
-import searchengine.services.SiteService;
+import searchengine.manager.CrawlResponse;
+import searchengine.manager.ExtractedPage;
+import searchengine.manager.HostFetchScheduler;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveAction;
-import java.util.regex.Pattern;
-
-import static searchengine.util.UrlUtil.isFile;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * PageCrawler — рекурсивная задача для обхода страниц сайта и индексирования их содержимого.
+ * PageCrawler — задача Fork/Join для обхода одной страницы сайта и индексирования её содержимого.
  * <p>
- * Использует {@link RecursiveAction} из Fork/Join Framework для параллельной обработки страниц.
- * Каждая страница скачивается с помощью Jsoup, сохраняется в базу данных, и создаются дочерние задачи
- * для всех ссылок на той же странице, которые ведут на тот же сайт.
+ * Задача берёт самую важную ссылку из очереди обхода {@link ForkJoinCrawler}, скачивает страницу
+ * общим HTTP-клиентом краулера, разбирает Jsoup, сохраняет в базу данных и ставит в очередь
+ * все ссылки страницы, которые ведут на тот же сайт. Дочерних задач задача не ждёт.
  * </p>
  * <p>
- * Поддерживает проверку валидности ссылок, пропуск файлов и URL с определёнными паттернами.
- * Реализует задержку между запросами для уменьшения нагрузки на сайт.
+ * Перед скачиванием задача получает слот на запрос у {@link HostFetchScheduler}, затем допуск
+ * бюджета памяти сайта {@link MemoryBudget} и разрешение {@link AdaptiveFetchLimiter}. Пока слот
+ * или допуск не выданы, поток выполняет другие задачи пула вместо сна. Получив допуск, поток
+ * больше не берёт чужие задачи: вложенные задачи ждут допусков того же бюджета, общего для всех
+ * сайтов, и допуски задач под ними не освобождались бы, пока вложенные задачи не завершатся.
  * </p>
  */
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class PageCrawler extends RecursiveAction {
 
-    private static final int MIN_DELAY_MS = 100;
-
-    private static final int MAX_DELAY_MS = 150;
-
-    private static final Pattern SKIP_PATTERNS = Pattern.compile("\\?_ga|#");
-
-    private String url;
-
-    private final String userAgent;
-
-    private final String referrer;
-
-    private final Site site;
-
-    private final PageService pageService;
-
-    private final SiteService siteService;
-
-    private final LemmaService lemmaService;
-
-    private final LemmaIndexer lemmaIndexer;
-
-    private final Set<String> visitedLinks;
+    /**
+     * Максимальная вложенность задач, выполняемых потоком в ожидании слота на запрос или допуска памяти.
+     */
+    private static final int MAX_HELP_DEPTH = 3;
 
     /**
-     * Конструктор без параметра visitedLinks — создаёт новый потокобезопасный набор посещённых ссылок.
-     *
-     * @param url URL страницы для обработки
-     * @param userAgent User-Agent для HTTP-запроса
-     * @param referrer Referrer для HTTP-запроса
-     * @param site Сайт, которому принадлежит URL
-     * @param pageService сервис для работы со страницами
-     * @param siteService сервис для работы с сайтом
-     * @param lemmaService сервис для работы с леммами
-     * @param lemmaIndexer сервис для индексирования лемм
+     * Пауза между попытками получить разрешение ограничителя запросов или допуск бюджета памяти сайта,
+     * если другой работы нет.
      */
-    public PageCrawler(String url, String userAgent, String referrer, Site site,
-                       PageService pageService, SiteService siteService, LemmaService lemmaService, LemmaIndexer lemmaIndexer) {
-        this(url, userAgent, referrer, site, pageService, siteService, lemmaService, lemmaIndexer, ConcurrentHashMap.newKeySet());
-    }
+    private static final long PERMIT_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ThreadLocal<int[]> HELP_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final ForkJoinCrawler crawler;
 
     /**
      * Основной метод задачи Fork/Join.
      * <p>
-     * Проверяет прерывание, валидность страницы, посещение ссылки, затем вызывает {@link #processPage()}.
+     * Проверяет прерывание, берёт ссылку из очереди обхода и вызывает {@link #processPage(CrawlFrontier.Entry)}.
      * </p>
      */
     @Override
     protected void compute() {
-        if (isInterrupted()) {
-            handleInterruption("before execution");
-            return;
-        }
-
-        if (!isDaughterPage()) {
-            log.info("Link is not from the site, url {}, \n site {}", url, site);
+        CrawlFrontier.Entry entry = crawler.getFrontier().poll();
+        if (entry == null) {
+            crawler.taskFinished();
             return;
         }
-
-        if (!visitedLinks.add(url)) {
-            log.info("Link is already visited: {}", url);
-            return;
-        }
-
+        CrawlContext context = crawler.getContext();
+        String url = entry.getUrl();
         try {
-            processPage();
+            if (isInterrupted()) {
+                handleInterruption("before execution", url);
+                return;
+            }
+            processPage(entry);
+            context.recordCompleted(url);
         } catch (InterruptedException e) {
-            handleInterruption("during processing");
+            handleInterruption("during processing", url);
             Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error processing URL: {}", url, e);
+            context.recordFetchFailure(url, e);
+            context.recordCompleted(url);
+        } finally {
+            crawler.complete();
+            crawler.taskFinished();
         }
     }
 
     /**
-     * Проверяет, что страница принадлежит сайту (начинается с URL сайта).
-     *
-     * @return true если страница принадлежит сайту, иначе false
-     */
-    private boolean isDaughterPage() {
-        return url.startsWith(site.getUrl());
-    }
-
-    /**
-     * Обрабатывает страницу: скачивает, сохраняет, индексирует леммы, создаёт дочерние задачи для ссылок.
+     * Обрабатывает страницу: скачивает, сохраняет, индексирует леммы, ставит её ссылки в очередь обхода.
      *
-     * @throws InterruptedException если поток был прерван во время ожидания
+     * @param entry ссылка из очереди обхода
+     * @throws InterruptedException если поток был прерван во время ожидания слота
      * @throws IOException если произошла ошибка при скачивании страницы
      */
-    private void processPage() throws InterruptedException, IOException {
-        if (!isValidLink() || isFile(url)) {
-            log.debug("Skipping non-html or invalid link: {}", url);
-            return;
-        }
+    private void processPage(CrawlFrontier.Entry entry) throws InterruptedException, IOException {
+        CrawlContext context = crawler.getContext();
+        String url = entry.getUrl();
 
-        Thread.sleep(generateRandomDelay());
+        awaitHostSlot(url);
+        try (MemoryBudget.Lease lease = awaitMemory()) {
+            awaitFetchPermit();
 
-        Connection.Response response = fetchPage();
+            CrawlResponse response = context.fetch(url);
 
-        if (isInterrupted()) {
-            handleInterruption("after getting connection response");
-            return;
-        }
+            if (isInterrupted()) {
+                handleInterruption("after getting connection response", url);
+                return;
+            }
 
-        String contentType = response.contentType();
-        if (contentType == null || !contentType.startsWith("text/")) {
-            log.debug("Skipping non-text content: {}", contentType);
-            return;
-        }
+            ExtractedPage page;
+            if (context.isNotModified(response)) {
+                page = context.loadStoredPage(url);
+                if (page == null) {
+                    return;
+                }
+            } else {
+                if (!context.isIndexableResponse(response)) {
+                    return;
+                }
+                context.holdFetched(lease, response);
+                page = response.extract();
+                context.holdExtracted(lease, response, page);
+                context.savePage(url, response, page);
+            }
 
-        if (!isValidStatusCode(response)) {
-            return;
+            for (String link : context.extractLinks(url, page)) {
+                crawler.enqueue(link, entry.getDepth() + 1);
+            }
         }
-
-        Document document = response.parse();
-        savePage(response, document);
-
-        processChildLinks(document);
     }
 
     /**
-     * Выполняет HTTP-запрос к странице с помощью Jsoup.
+     * Ожидает слот на запрос к хосту страницы, выполняя в это время задачи из очереди пула
+     * (не глубже {@link #MAX_HELP_DEPTH} вложенных уровней). Поток паркуется, только если другой работы нет.
      *
-     * @return объект Connection.Response с данными страницы
-     * @throws IOException если произошла ошибка запроса
+     * @param url URL страницы
+     * @throws InterruptedException если поток был прерван во время ожидания
      */
-    private Connection.Response fetchPage() throws IOException {
-        return Jsoup.connect(url)
-                .userAgent(userAgent)
-                .referrer(referrer)
-                .execute();
+    private void awaitHostSlot(String url) throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = crawler.getContext().getHostFetchScheduler().tryAcquire(url)) > 0) {
+            helpOrPark(waitNanos);
+        }
     }
 
     /**
-     * Сохраняет страницу в базу данных, обновляет временную метку сайта и индексирует леммы.
+     * Ожидает допуск страницы в обработку у бюджета памяти сайта, выполняя в это время другие задачи пула.
      *
-     * @param response ответ HTTP
-     * @param document HTML-документ страницы
+     * @return допуск страницы
+     * @throws InterruptedException если поток был прерван во время ожидания
      */
-    private void savePage(Connection.Response response, Document document) {
-        log.info("Page parsing process is running: {}", url);
-
-        Page page = createPage(response, document);
-        updateSiteTimestamp();
-
-        pageService.savePage(page);
-        siteService.saveSite(site);
-        lemmaIndexer.saveAllLemmas(page);
-    }
-
-    private Page createPage(Connection.Response response, Document document) {
-        Page page = new Page();
-        page.setCode(response.statusCode());
-        page.setPath(getRelativeUrl(url));
-        page.setContent(document.html());
-        page.setSite(site);
-        return page;
-    }
-
-    private String getRelativeUrl(String url) {
-        String baseUrl = site.getUrl();
-        if (url.startsWith(baseUrl)) {
-            url = url.substring(baseUrl.length());
+    private MemoryBudget.Lease awaitMemory() throws InterruptedException {
+        MemoryBudget.Lease lease;
+        while ((lease = crawler.getContext().getMemoryBudget().tryAcquire()) == null) {
+            helpOrPark(PERMIT_RETRY_NANOS);
         }
-        if (url.isBlank()) return "/";
-        return url.startsWith("/") ? url : "/" + url;
+        return lease;
     }
 
-    private void updateSiteTimestamp() {
-        site.setStatusTime(LocalDateTime.now());
-    }
-
-    private void processChildLinks(Document document){
-        List<PageCrawler> childTasks = new ArrayList<>();
-
-        for (Element element : document.select("a[href]")) {
-            String nextUrl = element.absUrl("href");
-
-            if (isValidChildUrl(nextUrl)) {
-                if (isInterrupted()) {
-                    handleInterruption("before creating sub-task");
-                    return;
-                }
-
-                PageCrawler childTask = createChildTask(nextUrl);
-                childTask.fork();
-                childTasks.add(childTask);
+    /**
+     * Ожидает разрешение адаптивного ограничителя одновременных запросов к сайту.
+     * <p>
+     * Вызывается с удерживаемым допуском бюджета памяти, поэтому поток только паркуется и не выполняет
+     * чужие задачи. Разрешение захватывается последним, поэтому между ним и запросом нет ожиданий.
+     * </p>
+     *
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    private void awaitFetchPermit() throws InterruptedException {
+        while (!crawler.getContext().getFetchLimiter().tryAcquire()) {
+            if (isInterrupted()) {
+                throw new InterruptedException();
             }
+            LockSupport.parkNanos(PERMIT_RETRY_NANOS);
         }
-
-        waitForChildTasks(childTasks);
-    }
-
-    private boolean isValidChildUrl(String nextUrl) {
-        return !nextUrl.isEmpty() && isLink(nextUrl);
-    }
-
-    private PageCrawler createChildTask(String nextUrl) {
-        return new PageCrawler(nextUrl, userAgent, referrer, site, pageService, siteService, lemmaService, lemmaIndexer, visitedLinks);
     }
 
-    private void waitForChildTasks(List<PageCrawler> childTasks) {
-        for (PageCrawler task : childTasks) {
-            task.join();
+    private void helpOrPark(long parkNanos) throws InterruptedException {
+        if (isInterrupted()) {
+            throw new InterruptedException();
         }
-    }
-
-    private boolean isValidLink() {
-        return isLink(url) && !isFile(url);
-    }
-
-    private boolean isLink(String link) {
-        return link.startsWith(site.getUrl()) && !containsSkipPatterns(link);
-    }
 
-    private boolean containsSkipPatterns(String link) {
-        return SKIP_PATTERNS.matcher(link).find();
-    }
-
-    private boolean isValidStatusCode(Connection.Response response) {
-        return response.statusCode() < 400;
-    }
+        int[] helpDepth = HELP_DEPTH.get();
+        ForkJoinTask<?> task = helpDepth[0] < MAX_HELP_DEPTH ? pollTask() : null;
+        if (task == null) {
+            LockSupport.parkNanos(parkNanos);
+            return;
+        }
 
-    /**
-     * Генерирует случайную задержку между запросами в пределах MIN_DELAY_MS и MAX_DELAY_MS.
-     *
-     * @return случайное значение задержки в миллисекундах
-     */
-    private int generateRandomDelay() {
-        return MIN_DELAY_MS + (int) (Math.random() * (MAX_DELAY_MS - MIN_DELAY_MS));
+        helpDepth[0]++;
+        try {
+            task.quietlyInvoke();
+        } finally {
+            helpDepth[0]--;
+        }
     }
 
     /**
@@ -282,13 +201,14 @@ public class PageCrawler extends RecursiveAction {
     }
 
     /**
-     * Обрабатывает прерывание задачи: логирует и очищает набор посещённых ссылок.
+     * Обрабатывает прерывание задачи: логирует и очищает набор посещённых ссылок и очередь обхода.
      *
-     * @param context описание момента прерывания
+     * @param stage описание момента прерывания
+     * @param url   URL страницы
      */
-    private void handleInterruption(String context) {
-        log.info("Task was interrupted {}: {}", context, url);
-        visitedLinks.clear();
+    private void handleInterruption(String stage, String url) {
+        log.info("Task was interrupted {}: {}", stage, url);
+        crawler.getContext().getVisitedLinks().clear();
+        crawler.getFrontier().clear();
     }
 }
-
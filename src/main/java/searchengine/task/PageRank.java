@@ -0,0 +1,163 @@
+package searchengine.task;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Вычисление PageRank страниц сайта степенным методом.
+ * <p>
+ * Каждая итерация состоит из двух параллельных проходов по массивам графа {@link LinkGraph.Csr}
+ * в {@link ForkJoinPool}: сначала для каждой страницы считается её вклад {@code rank / outDegree}
+ * и сумма рангов страниц без исходящих ссылок, затем новый ранг каждой страницы собирается
+ * по её входящим ссылкам. Каждая задача пишет только в свой диапазон вершин, поэтому синхронизация
+ * не нужна, а память ограничена тремя массивами {@code double} по числу страниц.
+ * </p>
+ * <p>
+ * Ранг страниц без исходящих ссылок распределяется поровну между всеми страницами, поэтому сумма
+ * рангов всегда равна 1. Итерации прекращаются, когда суммарное изменение рангов меньше
+ * {@link #tolerance}, или после {@link #maxIterations} итераций.
+ * </p>
+ */
+@Builder
+public class PageRank {
+
+    /**
+     * Число вершин, которое задача обрабатывает без дальнейшего деления.
+     */
+    private static final int SPLIT_THRESHOLD = 1 << 13;
+
+    /**
+     * Вероятность перехода по ссылке, обычно 0.85.
+     */
+    private final double damping;
+
+    private final double tolerance;
+
+    private final int maxIterations;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Вычисляет PageRank страниц графа.
+     *
+     * @param graph граф страниц сайта
+     * @return ранги страниц по номеру вершины
+     */
+    public Result compute(LinkGraph.Csr graph) {
+        int n = graph.nodeCount();
+        if (n == 0) {
+            return new Result(new double[0], 0, 0);
+        }
+        int[] inOffsets = graph.getInOffsets();
+        int[] inSources = graph.getInSources();
+        int[] outDegree = graph.getOutDegree();
+
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        double[] next = new double[n];
+        double[] contribution = new double[n];
+
+        int iteration = 0;
+        double delta = Double.MAX_VALUE;
+        while (iteration < maxIterations && delta >= tolerance) {
+            double[] current = rank;
+            double[] updated = next;
+            double dangling = pool.invoke(new RangeTask((from, to) -> {
+                double sum = 0;
+                for (int u = from; u < to; u++) {
+                    if (outDegree[u] == 0) {
+                        contribution[u] = 0;
+                        sum += current[u];
+                    } else {
+                        contribution[u] = current[u] / outDegree[u];
+                    }
+                }
+                return sum;
+            }, 0, n));
+
+            double base = (1 - damping) / n + damping * dangling / n;
+            delta = pool.invoke(new RangeTask((from, to) -> {
+                double diff = 0;
+                for (int v = from; v < to; v++) {
+                    double sum = 0;
+                    for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+                        sum += contribution[inSources[k]];
+                    }
+                    double value = base + damping * sum;
+                    diff += Math.abs(value - current[v]);
+                    updated[v] = value;
+                }
+                return diff;
+            }, 0, n));
+
+            next = current;
+            rank = updated;
+            iteration++;
+        }
+        return new Result(rank, iteration, delta);
+    }
+
+    /**
+     * Результат вычисления PageRank.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+
+        /**
+         * Ранги страниц по номеру вершины, в сумме 1.
+         */
+        private final double[] ranks;
+
+        private final int iterations;
+
+        /**
+         * Суммарное изменение рангов на последней итерации.
+         */
+        private final double delta;
+    }
+
+    @FunctionalInterface
+    private interface RangeFunction {
+
+        /**
+         * Обрабатывает вершины диапазона и возвращает сумму, которую нужно сложить по всем диапазонам.
+         */
+        double apply(int from, int to);
+    }
+
+    /**
+     * Задача, делящая диапазон вершин пополам до {@link #SPLIT_THRESHOLD} и складывающая результаты.
+     */
+    private static final class RangeTask extends RecursiveTask<Double> {
+
+        private final RangeFunction function;
+
+        private final int from;
+
+        private final int to;
+
+        RangeTask(RangeFunction function, int from, int to) {
+            this.function = function;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return function.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(function, from, middle);
+            left.fork();
+            double right = new RangeTask(function, middle, to).compute();
+            return left.join() + right;
+        }
+    }
+}
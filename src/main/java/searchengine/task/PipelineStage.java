@@ -0,0 +1,172 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Стадия конвейера индексации: ограниченная входная очередь и собственный пул потоков,
+ * размер которого подбирается под ресурс стадии (сеть, процессор, база данных).
+ * <p>
+ * Предыдущая стадия блокируется в {@link #submit(Object)}, пока в очереди нет места,
+ * поэтому медленная стадия замедляет только те, что её питают.
+ * Стадия считает обработанные элементы и отдаёт глубину очереди и пропускную способность для статистики.
+ * </p>
+ *
+ * @param <T> тип элементов стадии
+ */
+@Slf4j
+public class PipelineStage<T> {
+
+    /**
+     * Обработчик элемента стадии.
+     *
+     * @param <T> тип элемента
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+
+        /**
+         * Обрабатывает элемент и передаёт результат следующей стадии.
+         *
+         * @param item элемент
+         * @throws Exception при ошибке обработки
+         */
+        void handle(T item) throws Exception;
+    }
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int workers;
+
+    private final BlockingQueue<T> queue;
+
+    private final Handler<T> handler;
+
+    private final BiConsumer<T, Exception> errorHandler;
+
+    private final ExecutorService executor;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private volatile long startNanos;
+
+    /**
+     * @param name          имя стадии, используется в именах потоков и статистике
+     * @param workers       число потоков стадии
+     * @param queueCapacity ёмкость входной очереди
+     * @param handler       обработчик элемента
+     * @param errorHandler  вызывается, если обработчик завершился исключением
+     */
+    public PipelineStage(String name, int workers, int queueCapacity,
+                         Handler<T> handler, BiConsumer<T, Exception> errorHandler) {
+        this.name = name;
+        this.workers = Math.max(1, workers);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.handler = handler;
+        this.errorHandler = errorHandler;
+        this.executor = Executors.newFixedThreadPool(this.workers, namedThreadFactory(name));
+    }
+
+    /**
+     * Запускает потоки стадии.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * Ставит элемент в очередь стадии, блокируясь, пока в ней нет места.
+     *
+     * @param item элемент
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public void submit(T item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    /**
+     * Прерывает потоки стадии. Элементы, оставшиеся в очереди, не обрабатываются.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return число элементов в очереди стадии
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return ёмкость очереди стадии
+     */
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    /**
+     * @return число обработанных элементов
+     */
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * @return среднее число обработанных элементов в секунду с момента запуска стадии
+     */
+    public double getThroughputPerSecond() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return startNanos == 0 || elapsedNanos <= 0
+                ? 0
+                : processed.get() / ((double) elapsedNanos / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            T item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                handler.handle(item);
+            } catch (InterruptedException e) {
+                log.debug("Stage {} was interrupted", name);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                errorHandler.accept(item, e);
+            } finally {
+                processed.incrementAndGet();
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-" + name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
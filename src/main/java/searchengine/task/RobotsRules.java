@@ -0,0 +1,235 @@
+package searchengine.task;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Правила robots.txt сайта для User-Agent краулера.
+ * <p>
+ * Из файла выбирается группа правил с самым длинным совпадающим токеном User-Agent, а если такой нет —
+ * группа {@code *}. Для ссылки применяется правило Allow/Disallow с самым длинным шаблоном,
+ * при равной длине побеждает Allow. Шаблоны поддерживают {@code *} и {@code $}.
+ * Также читаются Crawl-delay выбранной группы и все строки Sitemap.
+ * </p>
+ */
+public class RobotsRules {
+
+    private static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), null, List.of());
+
+    private final List<Rule> rules;
+
+    /**
+     * Задержка между запросами из Crawl-delay в миллисекундах или {@code null}, если не задана.
+     */
+    @Getter
+    private final Long crawlDelayMs;
+
+    /**
+     * Ссылки на sitemap, перечисленные в robots.txt.
+     */
+    @Getter
+    private final List<String> sitemaps;
+
+    private RobotsRules(List<Rule> rules, Long crawlDelayMs, List<String> sitemaps) {
+        this.rules = rules;
+        this.crawlDelayMs = crawlDelayMs;
+        this.sitemaps = sitemaps;
+    }
+
+    /**
+     * @return правила, разрешающие всё (robots.txt отсутствует или не учитывается)
+     */
+    public static RobotsRules allowAll() {
+        return ALLOW_ALL;
+    }
+
+    /**
+     * Разбирает содержимое robots.txt.
+     *
+     * @param content   содержимое файла
+     * @param userAgent User-Agent краулера; для сравнения используется токен до первого {@code /} или пробела
+     * @return правила для краулера
+     */
+    public static RobotsRules parse(String content, String userAgent) {
+        String agentToken = productToken(userAgent);
+
+        List<String> sitemaps = new ArrayList<>();
+        List<Group> groups = new ArrayList<>();
+        Group current = null;
+        boolean readingAgents = false;
+
+        for (String rawLine : content.split("\\r?\\n|\\r")) {
+            String line = stripComment(rawLine);
+            int separator = line.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String field = line.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(separator + 1).trim();
+
+            switch (field) {
+                case "user-agent" -> {
+                    if (current == null || !readingAgents) {
+                        current = new Group();
+                        groups.add(current);
+                    }
+                    current.agents.add(value.toLowerCase(Locale.ROOT));
+                    readingAgents = true;
+                }
+                case "allow", "disallow" -> {
+                    readingAgents = false;
+                    if (current != null && !value.isEmpty()) {
+                        current.rules.add(new Rule(value, "allow".equals(field)));
+                    }
+                }
+                case "crawl-delay" -> {
+                    readingAgents = false;
+                    if (current != null) {
+                        current.crawlDelayMs = parseDelayMs(value);
+                    }
+                }
+                case "sitemap" -> {
+                    if (!value.isEmpty()) {
+                        sitemaps.add(value);
+                    }
+                }
+                default -> readingAgents = false;
+            }
+        }
+
+        Group selected = selectGroup(groups, agentToken);
+        if (selected == null) {
+            return new RobotsRules(List.of(), null, Collections.unmodifiableList(sitemaps));
+        }
+        return new RobotsRules(List.copyOf(selected.rules), selected.crawlDelayMs,
+                Collections.unmodifiableList(sitemaps));
+    }
+
+    /**
+     * Проверяет, разрешено ли обходить ссылку.
+     *
+     * @param url абсолютная ссылка
+     * @return true, если ссылка не запрещена правилами
+     */
+    public boolean isAllowed(String url) {
+        if (rules.isEmpty()) {
+            return true;
+        }
+        String path = pathAndQuery(url);
+        Rule best = null;
+        for (Rule rule : rules) {
+            if (rule.matches(path) && (best == null
+                    || rule.length() > best.length()
+                    || (rule.length() == best.length() && rule.allow))) {
+                best = rule;
+            }
+        }
+        return best == null || best.allow;
+    }
+
+    private static Group selectGroup(List<Group> groups, String agentToken) {
+        Group best = null;
+        int bestLength = -1;
+        Group wildcard = null;
+        for (Group group : groups) {
+            for (String agent : group.agents) {
+                if ("*".equals(agent)) {
+                    wildcard = wildcard == null ? group : wildcard;
+                } else if (!agent.isEmpty() && agentToken.contains(agent) && agent.length() > bestLength) {
+                    best = group;
+                    bestLength = agent.length();
+                }
+            }
+        }
+        return best != null ? best : wildcard;
+    }
+
+    private static String productToken(String userAgent) {
+        if (userAgent == null) {
+            return "";
+        }
+        String token = userAgent.trim().toLowerCase(Locale.ROOT);
+        int end = 0;
+        while (end < token.length() && token.charAt(end) != '/' && !Character.isWhitespace(token.charAt(end))) {
+            end++;
+        }
+        return token.substring(0, end);
+    }
+
+    private static String stripComment(String line) {
+        int comment = line.indexOf('#');
+        return comment >= 0 ? line.substring(0, comment) : line;
+    }
+
+    private static Long parseDelayMs(String value) {
+        try {
+            double seconds = Double.parseDouble(value);
+            return seconds >= 0 ? Math.round(seconds * 1000) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String pathAndQuery(String url) {
+        int schemeEnd = url.indexOf("://");
+        int pathStart = schemeEnd >= 0 ? url.indexOf('/', schemeEnd + 3) : 0;
+        if (pathStart < 0) {
+            return "/";
+        }
+        int fragment = url.indexOf('#', pathStart);
+        return fragment >= 0 ? url.substring(pathStart, fragment) : url.substring(pathStart);
+    }
+
+    private static final class Group {
+
+        private final List<String> agents = new ArrayList<>();
+
+        private final List<Rule> rules = new ArrayList<>();
+
+        private Long crawlDelayMs;
+    }
+
+    private static final class Rule {
+
+        private final String pattern;
+
+        private final boolean allow;
+
+        private final Pattern regex;
+
+        private Rule(String pattern, boolean allow) {
+            this.pattern = pattern;
+            this.allow = allow;
+            this.regex = pattern.indexOf('*') >= 0 || pattern.endsWith("$") ? toRegex(pattern) : null;
+        }
+
+        private boolean matches(String path) {
+            return regex != null ? regex.matcher(path).lookingAt() : path.startsWith(pattern);
+        }
+
+        private int length() {
+            return pattern.length();
+        }
+
+        private static Pattern toRegex(String pattern) {
+            boolean anchored = pattern.endsWith("$");
+            String body = anchored ? pattern.substring(0, pattern.length() - 1) : pattern;
+            StringBuilder regex = new StringBuilder();
+            for (String part : body.split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(part));
+            }
+            if (anchored) {
+                regex.append('$');
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.services.CrawlClusterService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Общая для узлов кластера очередь обхода сайта.
+ * <p>
+ * Пространство ссылок сайта разбито на {@link #partitions} разделов по отпечатку ссылки
+ * ({@link VisitedUrlSet#fingerprint(String)}); каждый раздел в каждый момент арендует один узел.
+ * Ссылка, найденная на любом узле, один раз записывается в общую очередь в базе данных:
+ * если её раздел арендован этим узлом, узел сразу берёт её в обработку, иначе её заберёт
+ * арендатор раздела. Таблица общей очереди служит и общим набором посещённых ссылок.
+ * </p>
+ * <p>
+ * Взятая в обработку ссылка остаётся за узлом, пока он жив, даже если раздел перешёл к другому узлу,
+ * поэтому перераспределение разделов не приводит к повторной обработке. Ссылки узла, переставшего
+ * подавать признаки жизни, забирают новые арендаторы их разделов.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class SharedFrontier {
+
+    private final CrawlClusterService clusterService;
+
+    @Getter
+    private final int siteId;
+
+    private final String nodeId;
+
+    @Getter
+    private final int partitions;
+
+    /**
+     * Разделы сайта, арендованные узлом; обновляются пульсом кластера.
+     */
+    private final Set<Integer> ownedPartitions;
+
+    /**
+     * Время, в течение которого узел без пульса считается живым, в миллисекундах.
+     */
+    private final long nodeTtlMs;
+
+    /**
+     * Ссылки, взятые из общей очереди и ещё не принятые в обход, с их глубиной.
+     */
+    private final ConcurrentMap<String, Integer> claimed = new ConcurrentHashMap<>();
+
+    /**
+     * Вычисляет раздел ссылки.
+     *
+     * @param url каноническая ссылка
+     * @return номер раздела
+     */
+    public int partitionOf(String url) {
+        return (int) Long.remainderUnsigned(VisitedUrlSet.fingerprint(url), partitions);
+    }
+
+    /**
+     * Принимает ссылку в общую очередь. Ссылку, взятую из общей очереди через {@link #pull(int)},
+     * узел обрабатывает сам.
+     *
+     * @param url   каноническая ссылка
+     * @param depth глубина ссылки
+     * @return true, если ссылку должен обработать этот узел
+     */
+    public boolean claim(String url, int depth) {
+        if (claimed.remove(url) != null) {
+            return true;
+        }
+        int partition = partitionOf(url);
+        boolean owned = ownedPartitions.contains(partition);
+        boolean added = clusterService.offerUrl(siteId, VisitedUrlSet.fingerprint(url), partition, url, depth,
+                owned ? nodeId : null);
+        return added && owned;
+    }
+
+    /**
+     * Проверяет, что ссылка взята из общей очереди и ещё не принята в обход.
+     *
+     * @param url каноническая ссылка
+     * @return true, если ссылку нужно обработать, даже если узел уже встречал её
+     */
+    public boolean isClaimed(String url) {
+        return claimed.containsKey(url);
+    }
+
+    /**
+     * Возвращает глубину ссылки, взятой из общей очереди.
+     *
+     * @param url каноническая ссылка
+     * @return глубина ссылки или 0, если ссылка не бралась из общей очереди
+     */
+    public int claimedDepth(String url) {
+        return claimed.getOrDefault(url, 0);
+    }
+
+    /**
+     * Отмечает ссылку обработанной.
+     *
+     * @param url каноническая ссылка
+     */
+    public void complete(String url) {
+        clusterService.completeUrl(siteId, VisitedUrlSet.fingerprint(url));
+    }
+
+    /**
+     * Берёт в обработку необработанные ссылки арендованных разделов.
+     *
+     * @param limit максимальное количество ссылок
+     * @return ссылки для обхода
+     */
+    public List<String> pull(int limit) {
+        Map<String, Integer> urls = clusterService.claimPendingUrls(siteId, nodeId, List.copyOf(ownedPartitions),
+                limit, nodeTtlMs);
+        claimed.putAll(urls);
+        return new ArrayList<>(urls.keySet());
+    }
+
+    /**
+     * Отмечает обработанными ссылки, взятые из общей очереди, но не принятые в обход
+     * (например, из-за ограничений глубины или числа страниц), чтобы обход сайта мог завершиться.
+     *
+     * @return количество таких ссылок
+     */
+    public int abandonUnadmitted() {
+        int abandoned = 0;
+        for (String url : claimed.keySet()) {
+            if (claimed.remove(url) != null) {
+                complete(url);
+                abandoned++;
+            }
+        }
+        return abandoned;
+    }
+
+    /**
+     * Подсчитывает необработанные ссылки сайта на всех узлах.
+     *
+     * @return количество ссылок
+     */
+    public long countPending() {
+        return clusterService.countPendingUrls(siteId);
+    }
+}
@@ -0,0 +1,206 @@
+package searchengine.task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Приводит ссылки сайта к каноническому виду, чтобы одна и та же страница,
+ * записанная по-разному, скачивалась и сохранялась один раз.
+ * <p>
+ * Выполняемые преобразования:
+ * <ul>
+ *     <li>схема и хост приводятся к нижнему регистру, порт по умолчанию удаляется;</li>
+ *     <li>хост с {@code www.} и без него приводится к хосту сайта, вместе со схемой и портом сайта;</li>
+ *     <li>фрагмент ({@code #...}) удаляется;</li>
+ *     <li>в процентных последовательностях шестнадцатеричные цифры приводятся к верхнему регистру,
+ *     незарезервированные символы декодируются;</li>
+ *     <li>параметры запроса из списка удаляемых (например {@code utm_*}) отбрасываются,
+ *     остальные сортируются по имени;</li>
+ *     <li>при необходимости удаляется завершающий слэш пути (кроме корня сайта).</li>
+ * </ul>
+ * Ссылки на другие хосты нормализуются, но к хосту сайта не приводятся.
+ * </p>
+ */
+public class UrlCanonicalizer {
+
+    private static final String SCHEME_SEPARATOR = "://";
+
+    private static final String WWW_PREFIX = "www.";
+
+    private final String siteUrl;
+
+    private final String siteScheme;
+
+    private final String siteAuthority;
+
+    private final String siteBareHost;
+
+    private final List<String> stripParams;
+
+    private final boolean stripTrailingSlash;
+
+    /**
+     * @param siteUrl            URL сайта, к хосту которого приводятся ссылки
+     * @param stripParams        имена удаляемых параметров запроса; имя, оканчивающееся на {@code *},
+     *                           задаёт префикс. Регистр не учитывается
+     * @param stripTrailingSlash удалять ли завершающий слэш пути
+     */
+    public UrlCanonicalizer(String siteUrl, Collection<String> stripParams, boolean stripTrailingSlash) {
+        this.stripParams = stripParams.stream()
+                .map(param -> param.trim().toLowerCase(Locale.ROOT))
+                .filter(param -> !param.isEmpty())
+                .toList();
+        this.stripTrailingSlash = stripTrailingSlash;
+
+        int schemeEnd = siteUrl.indexOf(SCHEME_SEPARATOR);
+        int authorityStart = schemeEnd + SCHEME_SEPARATOR.length();
+        int authorityEnd = indexOfPathOrQuery(siteUrl, authorityStart);
+        this.siteScheme = siteUrl.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+        this.siteAuthority = normalizeAuthority(siteScheme, siteUrl.substring(authorityStart, authorityEnd));
+        this.siteBareHost = bareHost(siteAuthority);
+        this.siteUrl = siteScheme + SCHEME_SEPARATOR + siteAuthority + normalizePath(siteUrl.substring(authorityEnd));
+    }
+
+    /**
+     * Приводит ссылку к каноническому виду.
+     *
+     * @param url абсолютная ссылка
+     * @return каноническая ссылка или исходная строка, если это не абсолютная HTTP-ссылка
+     */
+    public String canonicalize(String url) {
+        int schemeEnd = url.indexOf(SCHEME_SEPARATOR);
+        if (schemeEnd <= 0) {
+            return url;
+        }
+
+        int fragmentStart = url.indexOf('#');
+        if (fragmentStart >= 0) {
+            url = url.substring(0, fragmentStart);
+        }
+
+        String scheme = url.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+        int authorityStart = schemeEnd + SCHEME_SEPARATOR.length();
+        int authorityEnd = indexOfPathOrQuery(url, authorityStart);
+        String authority = normalizeAuthority(scheme, url.substring(authorityStart, authorityEnd));
+        if (bareHost(authority).equals(siteBareHost)) {
+            scheme = siteScheme;
+            authority = siteAuthority;
+        }
+
+        String rest = url.substring(authorityEnd);
+        int queryStart = rest.indexOf('?');
+        String path = normalizePath(queryStart >= 0 ? rest.substring(0, queryStart) : rest);
+        String query = queryStart >= 0 ? normalizeQuery(rest.substring(queryStart + 1)) : "";
+
+        String prefix = scheme + SCHEME_SEPARATOR + authority;
+        if (stripTrailingSlash && path.length() > 1 && path.endsWith("/")
+                && !siteUrl.equals(prefix + path)) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        return query.isEmpty() ? prefix + path : prefix + path + "?" + query;
+    }
+
+    private static int indexOfPathOrQuery(String url, int from) {
+        for (int i = from; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?') {
+                return i;
+            }
+        }
+        return url.length();
+    }
+
+    private static String normalizeAuthority(String scheme, String authority) {
+        authority = authority.toLowerCase(Locale.ROOT);
+        int portStart = authority.lastIndexOf(':');
+        if (portStart > authority.lastIndexOf(']')) {
+            String port = authority.substring(portStart + 1);
+            if (port.isEmpty()
+                    || ("http".equals(scheme) && "80".equals(port))
+                    || ("https".equals(scheme) && "443".equals(port))) {
+                authority = authority.substring(0, portStart);
+            }
+        }
+        return authority;
+    }
+
+    private static String bareHost(String authority) {
+        return authority.startsWith(WWW_PREFIX) ? authority.substring(WWW_PREFIX.length()) : authority;
+    }
+
+    private static String normalizePath(String path) {
+        return path.isEmpty() ? "/" : normalizePercentEncoding(path);
+    }
+
+    private String normalizeQuery(String query) {
+        List<String> params = new ArrayList<>();
+        for (String param : query.split("&")) {
+            if (!param.isEmpty() && !isStripped(param)) {
+                params.add(normalizePercentEncoding(param));
+            }
+        }
+        params.sort(Comparator.comparing(UrlCanonicalizer::paramName));
+        return String.join("&", params);
+    }
+
+    private boolean isStripped(String param) {
+        String name = paramName(param).toLowerCase(Locale.ROOT);
+        for (String rule : stripParams) {
+            boolean matches = rule.endsWith("*")
+                    ? name.startsWith(rule.substring(0, rule.length() - 1))
+                    : name.equals(rule);
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String paramName(String param) {
+        int valueStart = param.indexOf('=');
+        return valueStart >= 0 ? param.substring(0, valueStart) : param;
+    }
+
+    /**
+     * Приводит шестнадцатеричные цифры процентных последовательностей к верхнему регистру
+     * и декодирует незарезервированные символы (RFC 3986, раздел 6.2.2).
+     */
+    private static String normalizePercentEncoding(String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (c == '%' && i + 2 < value.length() && isHex(value.charAt(i + 1)) && isHex(value.charAt(i + 2))) {
+                int decoded = Integer.parseInt(value.substring(i + 1, i + 3), 16);
+                if (isUnreserved(decoded)) {
+                    result.append((char) decoded);
+                } else {
+                    result.append('%')
+                            .append(Character.toUpperCase(value.charAt(i + 1)))
+                            .append(Character.toUpperCase(value.charAt(i + 2)));
+                }
+                i += 3;
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isHex(char c) {
+        return Character.digit(c, 16) >= 0;
+    }
+
+    private static boolean isUnreserved(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+}
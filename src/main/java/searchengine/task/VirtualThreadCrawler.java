@@ -0,0 +1,543 @@
+package searchengine.task;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import searchengine.manager.CrawlResponse;
+import searchengine.manager.ExtractedPage;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Общий для всех сайтов запуска движок обхода, выполняющий каждый запрос в отдельном виртуальном потоке.
+ * <p>
+ * У каждого сайта своя приоритетная очередь ссылок {@link CrawlFrontier}. Поток-диспетчер получает
+ * разрешение общего семафора HTTP-запросов и выбирает следующую страницу алгоритмом deficit round-robin:
+ * сайты обходятся по кругу, за проход сайт получает кредит {@code quantum × weight} страниц
+ * и обслуживается, пока кредит не исчерпан. Сайт, которому сейчас нельзя отправить запрос
+ * (исчерпан его {@link MemoryBudget}, не наступил слот вежливости хоста или исчерпан лимит
+ * {@link AdaptiveFetchLimiter}), пропускается, и диспетчер сразу берёт страницу другого сайта.
+ * Как только у небольшого сайта заканчиваются ссылки, его доля запросов переходит к остальным.
+ * </p>
+ * <p>
+ * Выбранная страница скачивается в виртуальном потоке и дальше проходит общие для всех сайтов стадии
+ * {@link PipelineStage}: разбор и лемматизация — по числу процессоров, запись в базу данных —
+ * по числу одновременных записей. Стадии связаны ограниченными очередями, поэтому медленная база данных
+ * не останавливает лемматизацию уже скачанных страниц, а медленный сайт — запись в базу, и наоборот.
+ * Допуск бюджета памяти передаётся между стадиями вместе со страницей до её записи; страница считается
+ * обработанной и записывается в журнал обхода после стадии записи.
+ * </p>
+ * <p>
+ * Потоки страниц не ждут места в очереди: ссылка, найденная, когда в очереди сайта уже
+ * {@code frontierCapacity} ссылок, не принимается в обход и учитывается как {@link CrawlLimit#FRONTIER_FULL}.
+ * Посещённой она не помечается, поэтому будет принята, если встретится на другой странице позже.
+ * Начальные ссылки (например из sitemap) принимаются все, даже если их больше ёмкости очереди.
+ * </p>
+ * <p>
+ * Поток сайта регистрирует обход через {@link #crawl(CrawlContext, Collection, int)}
+ * и блокируется до его завершения: очередь сайта пуста и не осталось страниц в обработке.
+ * </p>
+ */
+@Slf4j
+public class VirtualThreadCrawler {
+
+    /**
+     * Максимальное ожидание диспетчера, когда ни одному сайту нельзя отправить запрос.
+     */
+    private static final long MAX_IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Semaphore fetchPermits;
+
+    private final PipelineStage<FetchedPage> parseStage;
+
+    private final PipelineStage<ParsedPage> lemmatizeStage;
+
+    private final PipelineStage<LemmatizedPage> persistStage;
+
+    private final List<PipelineStage<?>> stages;
+
+    private final int frontierCapacity;
+
+    private final int quantum;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition workAvailable = lock.newCondition();
+
+    /**
+     * Сайты, в очередях которых есть ссылки, в порядке обслуживания.
+     */
+    private final Deque<SiteQueue> activeSites = new ArrayDeque<>();
+
+    private final Thread dispatcher;
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param maxConcurrentFetches  число одновременных HTTP-запросов всех сайтов
+     * @param cpuWorkers            число потоков стадий разбора и лемматизации
+     * @param maxConcurrentDbWrites число потоков стадии записи в базу данных
+     * @param stageQueueCapacity    ёмкость очереди каждой стадии
+     * @param frontierCapacity      ёмкость очереди ссылок одного сайта
+     * @param quantum               кредит страниц сайта с весом 1 за один проход по кругу
+     */
+    public VirtualThreadCrawler(int maxConcurrentFetches, int cpuWorkers, int maxConcurrentDbWrites,
+                                int stageQueueCapacity, int frontierCapacity, int quantum) {
+        this.fetchPermits = new Semaphore(Math.max(1, maxConcurrentFetches));
+        this.parseStage = new PipelineStage<>("parse", cpuWorkers, stageQueueCapacity,
+                this::parse, (page, e) -> onError(page.getSite(), page.getUrl(), page.getLease(), e));
+        this.lemmatizeStage = new PipelineStage<>("lemmatize", cpuWorkers, stageQueueCapacity,
+                this::lemmatize, (page, e) -> onError(page.getSite(), page.getUpdate().getUrl(), page.getLease(), e));
+        this.persistStage = new PipelineStage<>("persist", maxConcurrentDbWrites, stageQueueCapacity,
+                this::persist, (page, e) -> onError(page.getSite(), page.getUpdate().getUrl(), page.getLease(), e));
+        this.stages = List.of(parseStage, lemmatizeStage, persistStage);
+        stages.forEach(PipelineStage::start);
+        this.frontierCapacity = Math.max(1, frontierCapacity);
+        this.quantum = Math.max(1, quantum);
+        this.dispatcher = new Thread(this::dispatch, "crawl-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Обходит сайт начиная с указанных ссылок и блокируется до завершения обхода.
+     *
+     * @param context контекст обхода сайта
+     * @param seeds   начальные ссылки обхода
+     * @param weight  вес сайта: доля запросов пропорциональна весу
+     * @throws InterruptedException если обход был остановлен
+     */
+    public void crawl(CrawlContext context, Collection<String> seeds, int weight) throws InterruptedException {
+        SiteQueue site = new SiteQueue(context, Math.max(1, weight));
+        context.getStatistics().setStages(stages);
+        for (String seed : seeds) {
+            site.queued.incrementAndGet();
+            if (!accept(site, seed, context.seedDepth(seed))) {
+                site.queued.decrementAndGet();
+            }
+        }
+        if (site.pending.get() == 0) {
+            return;
+        }
+        try {
+            site.done.await();
+        } catch (InterruptedException e) {
+            cancel(site);
+            throw e;
+        }
+    }
+
+    /**
+     * Останавливает диспетчер и стадии и прерывает страницы, которые обрабатываются в этот момент.
+     */
+    public void shutdown() {
+        shutdown = true;
+        dispatcher.interrupt();
+        executor.shutdownNow();
+        stages.forEach(PipelineStage::stop);
+        for (PipelineStage<?> stage : stages) {
+            log.info("Stage {}: processed {}, {} items/s", stage.getName(), stage.getProcessed(),
+                    String.format("%.1f", stage.getThroughputPerSecond()));
+        }
+    }
+
+    /**
+     * @return true, если движок остановлен
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private void dispatch() {
+        while (!shutdown) {
+            PageTask task;
+            try {
+                fetchPermits.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task = next();
+            } catch (InterruptedException e) {
+                fetchPermits.release();
+                return;
+            }
+            try {
+                executor.execute(() -> fetch(task.site, task.entry, task.lease));
+            } catch (RejectedExecutionException e) {
+                fetchPermits.release();
+                task.site.context.getFetchLimiter().release();
+                task.lease.close();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Выбирает следующую страницу по алгоритму deficit round-robin.
+     * Захватывает допуск бюджета памяти, слот вежливости хоста и разрешение {@link AdaptiveFetchLimiter}
+     * выбранного сайта.
+     *
+     * @return сайт, ссылка для обработки и допуск страницы
+     * @throws InterruptedException если движок остановлен
+     */
+    private PageTask next() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (shutdown) {
+                    throw new InterruptedException();
+                }
+                long waitNanos = MAX_IDLE_WAIT_NANOS;
+                int skipped = 0;
+                while (!activeSites.isEmpty() && skipped < activeSites.size()) {
+                    SiteQueue site = activeSites.peekFirst();
+                    if (site.deficit < 1) {
+                        site.deficit += (long) quantum * site.weight;
+                        activeSites.addLast(activeSites.pollFirst());
+                        continue;
+                    }
+                    MemoryBudget.Lease lease = site.context.getMemoryBudget().tryAcquire();
+                    long hostWaitNanos = lease != null ? tryReserveFetch(site) : -1;
+                    if (hostWaitNanos != 0) {
+                        if (lease != null) {
+                            lease.close();
+                        }
+                        if (hostWaitNanos > 0) {
+                            waitNanos = Math.min(waitNanos, hostWaitNanos);
+                        }
+                        activeSites.addLast(activeSites.pollFirst());
+                        skipped++;
+                        continue;
+                    }
+                    CrawlFrontier.Entry entry = site.frontier.poll();
+                    site.queued.decrementAndGet();
+                    site.deficit--;
+                    if (site.frontier.isEmpty()) {
+                        activeSites.pollFirst();
+                        site.active = false;
+                        site.deficit = 0;
+                    }
+                    return new PageTask(site, entry, lease);
+                }
+                workAvailable.awaitNanos(waitNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Пытается зарезервировать запрос к сайту.
+     *
+     * @return {@code 0}, если запрос зарезервирован; время до слота хоста в наносекундах,
+     *         если он ещё не наступил; {@code -1}, если исчерпан лимит одновременных запросов сайта
+     */
+    private long tryReserveFetch(SiteQueue site) {
+        CrawlContext context = site.context;
+        if (!context.getFetchLimiter().tryAcquire()) {
+            return -1;
+        }
+        long hostWaitNanos = context.getHostFetchScheduler().tryAcquire(context.getSite().getUrl());
+        if (hostWaitNanos > 0) {
+            context.getFetchLimiter().release();
+        }
+        return hostWaitNanos;
+    }
+
+    /**
+     * Скачивает страницу и передаёт её стадии разбора; ответы, которые не нужно индексировать, отбрасывает.
+     * Семафор на HTTP-запрос и разрешение лимитера сайта захвачены диспетчером: семафор освобождается
+     * сразу после скачивания, разрешение — {@link CrawlContext#fetch(String)}.
+     *
+     * @param site  сайт
+     * @param entry ссылка из очереди сайта
+     * @param lease допуск страницы в бюджете памяти сайта
+     */
+    private void fetch(SiteQueue site, CrawlFrontier.Entry entry, MemoryBudget.Lease lease) {
+        CrawlContext context = site.context;
+        String url = entry.getUrl();
+        boolean fetchPermitHeld = true;
+        try {
+            CrawlResponse response = context.fetch(url);
+            fetchPermits.release();
+            fetchPermitHeld = false;
+            if (!context.isNotModified(response) && !context.isIndexableResponse(response)) {
+                complete(site, url, lease);
+                return;
+            }
+            context.holdFetched(lease, response);
+            parseStage.submit(new FetchedPage(site, url, entry.getDepth(), response, lease));
+        } catch (InterruptedException e) {
+            log.info("Task was interrupted during processing: {}", url);
+            lease.close();
+            complete(site);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            onError(site, url, lease, e);
+        } finally {
+            if (fetchPermitHeld) {
+                fetchPermits.release();
+            }
+        }
+    }
+
+    /**
+     * Стадия разбора: строит документ, ставит найденные ссылки в очередь сайта и готовит страницу к записи.
+     * Неизменившиеся страницы и почти копии других страниц минуют стадию лемматизации.
+     */
+    private void parse(FetchedPage fetched) throws Exception {
+        SiteQueue site = fetched.getSite();
+        CrawlContext context = site.context;
+        String url = fetched.getUrl();
+        MemoryBudget.Lease lease = fetched.getLease();
+        boolean notModified = context.isNotModified(fetched.getResponse());
+        ExtractedPage page = notModified ? context.loadStoredPage(url) : fetched.getResponse().extract();
+        if (page == null) {
+            complete(site, url, lease);
+            return;
+        }
+
+        for (String link : context.extractLinks(url, page)) {
+            enqueue(site, link, fetched.getDepth() + 1);
+        }
+
+        if (notModified) {
+            complete(site, url, lease);
+            return;
+        }
+
+        context.holdExtracted(lease, fetched.getResponse(), page);
+        CrawlContext.PageUpdate update = context.preparePage(url, fetched.getResponse(), page);
+        if (!update.needsLemmas()) {
+            persistStage.submit(new LemmatizedPage(site, update, null, lease));
+        } else {
+            lemmatizeStage.submit(new ParsedPage(site, update, lease));
+        }
+    }
+
+    /**
+     * Стадия лемматизации: собирает леммы страницы без обращения к базе данных.
+     */
+    private void lemmatize(ParsedPage page) throws Exception {
+        CrawlContext.PageUpdate update = page.getUpdate();
+        persistStage.submit(new LemmatizedPage(page.getSite(), update,
+                page.getSite().context.collectLemmas(update), page.getLease()));
+    }
+
+    /**
+     * Стадия записи: сохраняет страницу, сайт и леммы в базу данных.
+     */
+    private void persist(LemmatizedPage page) {
+        page.getSite().context.persistPage(page.getUpdate(), page.getLemmas());
+        complete(page.getSite(), page.getUpdate().getUrl(), page.getLease());
+    }
+
+    private void onError(SiteQueue site, String url, MemoryBudget.Lease lease, Exception e) {
+        log.error("Error processing URL: {}", url, e);
+        site.context.recordFetchFailure(url, e);
+        complete(site, url, lease);
+    }
+
+    /**
+     * Завершает обработку страницы и возвращает занятую ею память в бюджет.
+     *
+     * @param site  сайт
+     * @param url   ссылка
+     * @param lease допуск страницы
+     */
+    private void complete(SiteQueue site, String url, MemoryBudget.Lease lease) {
+        lease.close();
+        site.context.recordCompleted(url);
+        complete(site);
+    }
+
+    /**
+     * Добавляет ссылку в очередь сайта, если в ней есть место и ссылка принята в обход
+     * {@link CrawlContext#admit(String, int)}. Не блокируется: место в очереди занимается
+     * до проверки ссылки, поэтому очередь не превышает ёмкость.
+     *
+     * @param site  сайт
+     * @param url   ссылка
+     * @param depth глубина ссылки
+     */
+    private void enqueue(SiteQueue site, String url, int depth) {
+        int size;
+        do {
+            size = site.queued.get();
+            if (size >= frontierCapacity) {
+                site.context.getStatistics().recordLimitHit(CrawlLimit.FRONTIER_FULL);
+                return;
+            }
+        } while (!site.queued.compareAndSet(size, size + 1));
+        if (!accept(site, url, depth)) {
+            site.queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Принимает ссылку в обход, учитывает её в числе незавершённых страниц сайта, ставит в очередь
+     * и возвращает сайт в круг обслуживания. Место в очереди должно быть занято заранее.
+     *
+     * @param site  сайт
+     * @param url   ссылка
+     * @param depth глубина ссылки
+     * @return true, если ссылка поставлена в очередь
+     */
+    private boolean accept(SiteQueue site, String url, int depth) {
+        if (site.cancelled || !site.context.admit(url, depth)) {
+            return false;
+        }
+        site.pending.incrementAndGet();
+        lock.lock();
+        try {
+            site.frontier.add(url, depth);
+            if (!site.active) {
+                site.active = true;
+                activeSites.addLast(site);
+            }
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private void complete(SiteQueue site) {
+        if (site.pending.decrementAndGet() == 0) {
+            site.done.countDown();
+        }
+        lock.lock();
+        try {
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancel(SiteQueue site) {
+        lock.lock();
+        try {
+            site.cancelled = true;
+            site.frontier.clear();
+            if (site.active) {
+                activeSites.remove(site);
+                site.active = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Очередь ссылок сайта и его состояние в круге обслуживания. Поля очереди защищены {@link #lock}.
+     */
+    private static final class SiteQueue {
+
+        private final CrawlContext context;
+
+        private final int weight;
+
+        private final CrawlFrontier frontier;
+
+        /**
+         * Количество ссылок в очереди, включая места, занятые под ссылки, которые ещё принимаются в обход.
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        /**
+         * Количество ссылок в очереди и страниц в обработке.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        /**
+         * Оставшийся кредит страниц в текущем проходе по кругу.
+         */
+        private long deficit;
+
+        private boolean active;
+
+        private volatile boolean cancelled;
+
+        private SiteQueue(CrawlContext context, int weight) {
+            this.context = context;
+            this.weight = weight;
+            this.frontier = context.newFrontier();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class PageTask {
+
+        private final SiteQueue site;
+
+        private final CrawlFrontier.Entry entry;
+
+        private final MemoryBudget.Lease lease;
+    }
+
+    /**
+     * Скачанная страница.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class FetchedPage {
+
+        private final SiteQueue site;
+
+        private final String url;
+
+        private final int depth;
+
+        private final CrawlResponse response;
+
+        private final MemoryBudget.Lease lease;
+    }
+
+    /**
+     * Разобранная страница, ожидающая лемматизации.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class ParsedPage {
+
+        private final SiteQueue site;
+
+        private final CrawlContext.PageUpdate update;
+
+        private final MemoryBudget.Lease lease;
+    }
+
+    /**
+     * Страница с собранными леммами, готовая к записи в базу данных.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class LemmatizedPage {
+
+        private final SiteQueue site;
+
+        private final CrawlContext.PageUpdate update;
+
+        private final Map<String, Integer> lemmas;
+
+        private final MemoryBudget.Lease lease;
+    }
+}
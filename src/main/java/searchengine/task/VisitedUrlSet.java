@@ -0,0 +1,209 @@
+package searchengine.task;
+
+import java.util.Collection;
+
+/**
+ * Компактный потокобезопасный набор посещённых ссылок.
+ * <p>
+ * Вместо строк хранит 64-битные отпечатки ссылок в примитивных массивах с открытой адресацией
+ * (линейное пробирование). Набор разбит на {@link #STRIPE_COUNT} сегментов со своими блокировками,
+ * сегмент выбирается по старшим битам отпечатка, поэтому потоки краулера редко конкурируют за одну блокировку.
+ * </p>
+ * <p>
+ * Одна ссылка занимает 8–16 байт вместо сотни с лишним байт на строку и узел {@code ConcurrentHashMap}.
+ * Ценой этого является вероятность совпадения отпечатков: новая ссылка может быть ошибочно
+ * принята за посещённую, вероятность оценивает {@link #falsePositiveRate()}.
+ * </p>
+ */
+public class VisitedUrlSet {
+
+    /**
+     * Количество сегментов, степень двойки.
+     */
+    private static final int STRIPE_COUNT = 64;
+
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPE_COUNT);
+
+    private static final int INITIAL_STRIPE_CAPACITY = 1024;
+
+    /**
+     * Значение пустой ячейки. Отпечаток, совпавший с ним, заменяется на 1.
+     */
+    private static final long EMPTY = 0L;
+
+    private static final double FINGERPRINT_SPACE = Math.pow(2, Long.SIZE);
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    public VisitedUrlSet() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Добавляет ссылку в набор.
+     *
+     * @param url ссылка
+     * @return true, если ссылки ещё не было в наборе
+     */
+    public boolean add(String url) {
+        long fingerprint = fingerprint(url);
+        return stripeFor(fingerprint).add(fingerprint);
+    }
+
+    /**
+     * Добавляет все ссылки в набор.
+     *
+     * @param urls ссылки
+     */
+    public void addAll(Collection<String> urls) {
+        for (String url : urls) {
+            add(url);
+        }
+    }
+
+    /**
+     * Проверяет, есть ли ссылка в наборе.
+     *
+     * @param url ссылка
+     * @return true, если ссылка уже добавлена (или совпала по отпечатку с добавленной)
+     */
+    public boolean contains(String url) {
+        long fingerprint = fingerprint(url);
+        return stripeFor(fingerprint).contains(fingerprint);
+    }
+
+    /**
+     * Очищает набор и освобождает память сегментов.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * @return количество ссылок в наборе
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return объём памяти, занимаемый таблицами отпечатков, в байтах
+     */
+    public long memoryFootprintBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += (long) stripe.capacity() * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Оценивает вероятность того, что ещё не посещённая ссылка совпадёт по отпечатку
+     * с одной из ссылок набора и будет пропущена.
+     *
+     * @return вероятность ложноположительного ответа {@link #add(String)} / {@link #contains(String)}
+     */
+    public double falsePositiveRate() {
+        return size() / FINGERPRINT_SPACE;
+    }
+
+    /**
+     * Вычисляет 64-битный отпечаток строки: FNV-1a по символам с финальным перемешиванием MurmurHash3.
+     *
+     * @param value строка
+     * @return отпечаток, не равный {@link #EMPTY}
+     */
+    static long fingerprint(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private Stripe stripeFor(long fingerprint) {
+        return stripes[(int) (fingerprint >>> STRIPE_SHIFT)];
+    }
+
+    /**
+     * Сегмент набора: хеш-таблица с открытой адресацией, заполненная не более чем на 3/4.
+     */
+    private static final class Stripe {
+
+        private long[] table = new long[INITIAL_STRIPE_CAPACITY];
+
+        private int size;
+
+        synchronized boolean add(long fingerprint) {
+            if ((size + 1) * 4L > table.length * 3L) {
+                resize();
+            }
+            int mask = table.length - 1;
+            int index = (int) fingerprint & mask;
+            while (table[index] != EMPTY) {
+                if (table[index] == fingerprint) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            table[index] = fingerprint;
+            size++;
+            return true;
+        }
+
+        synchronized boolean contains(long fingerprint) {
+            int mask = table.length - 1;
+            int index = (int) fingerprint & mask;
+            while (table[index] != EMPTY) {
+                if (table[index] == fingerprint) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        synchronized void clear() {
+            table = new long[INITIAL_STRIPE_CAPACITY];
+            size = 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int capacity() {
+            return table.length;
+        }
+
+        private void resize() {
+            long[] oldTable = table;
+            table = new long[oldTable.length * 2];
+            int mask = table.length - 1;
+            for (long fingerprint : oldTable) {
+                if (fingerprint == EMPTY) {
+                    continue;
+                }
+                int index = (int) fingerprint & mask;
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = fingerprint;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package searchengine.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Утилитный класс для вычисления хеша содержимого страниц.
+ * <p>
+ * Хеш позволяет при повторной индексации определить, что содержимое страницы не изменилось,
+ * и не пересчитывать её леммы.
+ */
+@UtilityClass
+public class ContentHashUtil {
+
+    /**
+     * Вычисляет SHA-256 от строки в кодировке UTF-8.
+     *
+     * @param content содержимое страницы
+     * @return хеш в шестнадцатеричном виде (64 символа)
+     */
+    public static String sha256Hex(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package searchengine.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Утилитный класс для вычисления SimHash текста страницы.
+ * <p>
+ * SimHash — 64-битный отпечаток, у которого почти одинаковые тексты отличаются в немногих битах.
+ * Признаками служат шинглы из {@link #SHINGLE_SIZE} подряд идущих слов, поэтому отпечаток
+ * чувствителен к порядку слов, но устойчив к небольшим вставкам и правкам.
+ * </p>
+ */
+@UtilityClass
+public class SimHashUtil {
+
+    /**
+     * Число слов в шингле.
+     */
+    public static final int SHINGLE_SIZE = 3;
+
+    /**
+     * Минимальное число слов текста, при котором отпечаток имеет смысл.
+     */
+    public static final int MIN_WORDS = 50;
+
+    /**
+     * Вычисляет SimHash текста.
+     *
+     * @param text текст страницы без разметки
+     * @return отпечаток или {@code null}, если в тексте меньше {@link #MIN_WORDS} слов
+     */
+    public static Long simHash(String text) {
+        int[] weights = new int[Long.SIZE];
+        long[] window = new long[SHINGLE_SIZE];
+        int words = 0;
+        long wordHash = 0;
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    wordHash = 0xcbf29ce484222325L;
+                    inWord = true;
+                }
+                wordHash ^= Character.toLowerCase(c);
+                wordHash *= 0x100000001b3L;
+                continue;
+            }
+            if (!inWord) {
+                continue;
+            }
+            inWord = false;
+            window[words % SHINGLE_SIZE] = wordHash;
+            words++;
+            if (words >= SHINGLE_SIZE) {
+                addShingle(weights, window, words);
+            }
+        }
+        if (words < MIN_WORDS) {
+            return null;
+        }
+
+        long hash = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                hash |= 1L << bit;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @return число различающихся битов двух отпечатков
+     */
+    public static int hammingDistance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    /**
+     * Учитывает в весах битов шингл из последних {@link #SHINGLE_SIZE} слов.
+     *
+     * @param weights веса битов отпечатка
+     * @param window  кольцевой буфер хешей последних слов
+     * @param words   число прочитанных слов
+     */
+    private static void addShingle(int[] weights, long[] window, int words) {
+        long shingle = 0;
+        for (int j = 0; j < SHINGLE_SIZE; j++) {
+            shingle = shingle * 0x100000001b3L + window[(words + j) % SHINGLE_SIZE];
+        }
+        shingle = mix(shingle);
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += ((shingle >>> bit) & 1) != 0 ? 1 : -1;
+        }
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3, чтобы биты шингла были равномерно распределены.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
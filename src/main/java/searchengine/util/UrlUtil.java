@@ -2,12 +2,16 @@ package searchengine.util;
 
 import lombok.experimental.UtilityClass;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
 import java.util.Set;
 
 /**
  * Утилитный класс для работы с URL.
  * <p>
- * Содержит методы для проверки, относится ли URL к файлу по расширению.
+ * Содержит методы для проверки, относится ли URL к файлу по расширению,
+ * и для извлечения хоста из URL.
  */
 @UtilityClass
 public class UrlUtil {
@@ -28,4 +32,19 @@ public class UrlUtil {
         return SKIPPED_FILE_EXTENSIONS.stream()
                 .anyMatch(lowerCaseLink::endsWith);
     }
+
+    /**
+     * Извлекает хост из URL в нижнем регистре.
+     *
+     * @param link ссылка
+     * @return хост ссылки или сама ссылка, если её не удалось разобрать
+     */
+    public static String getHost(String link) {
+        try {
+            String host = new URL(link).getHost();
+            return host.isEmpty() ? link : host.toLowerCase(Locale.ROOT);
+        } catch (MalformedURLException e) {
+            return link;
+        }
+    }
 }
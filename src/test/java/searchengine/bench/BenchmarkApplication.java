@@ -0,0 +1,21 @@
+package searchengine.bench;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import searchengine.Application;
+
+/**
+ * Запуск офлайн-замера скорости обхода и индексации на встроенной базе H2 (профиль {@code bench}).
+ * <p>
+ * Класс лежит в тестовых исходниках, поэтому замер не попадает в сборку приложения:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=searchengine.bench.BenchmarkApplication
+ * -Dexec.classpathScope=test}.
+ * </p>
+ */
+public class BenchmarkApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(Application.class)
+                .profiles("bench")
+                .run(args);
+    }
+}
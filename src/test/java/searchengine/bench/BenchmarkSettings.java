@@ -0,0 +1,96 @@
+package searchengine.bench;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки офлайн-замера скорости обхода и индексации (профиль {@code bench}).
+ * <p>
+ * Описывают синтетический сайт, который поднимается на localhost вместо реальных сайтов.
+ * Значения подгружаются с префиксом {@code benchmark}.
+ * </p>
+ */
+@Data
+@Component
+@Profile("bench")
+@ConfigurationProperties(prefix = "benchmark")
+public class BenchmarkSettings {
+
+    /**
+     * Порт встроенного HTTP-сервера синтетического сайта.
+     */
+    private int port = 8089;
+
+    /**
+     * Число страниц сайта.
+     */
+    private int pageCount = 1_000;
+
+    /**
+     * Число ссылок на дочерние страницы на каждой странице.
+     */
+    private int fanOut = 10;
+
+    /**
+     * Максимальная глубина дерева страниц от главной.
+     */
+    private int maxDepth = 5;
+
+    /**
+     * Дополнительные ссылки каждой страницы на случайные страницы сайта (проверка повторов).
+     */
+    private int crossLinks = 3;
+
+    /**
+     * Число слов текста на странице.
+     */
+    private int wordsPerPage = 500;
+
+    /**
+     * Доля русских слов в тексте, от 0 до 1.
+     */
+    private double russianShare = 0.7;
+
+    /**
+     * Задержка ответа сервера в миллисекундах.
+     */
+    private int latencyMs = 20;
+
+    /**
+     * Число потоков HTTP-сервера.
+     */
+    private int serverThreads = 64;
+
+    /**
+     * Движки обхода, которыми синтетический сайт индексируется по очереди для сравнения числа страниц
+     * в минуту. Пустой список — только движок из {@code indexing-settings}.
+     */
+    private List<CrawlEngine> engines = new ArrayList<>();
+
+    /**
+     * Число прогревочных обходов первым движком перед замером. Прогрев выравнивает условия движков:
+     * иначе движок, который идёт первым, работает без JIT-компиляции и с пустым кэшем лемм слов.
+     */
+    private int warmupCrawls = 1;
+
+    /**
+     * Завершать ли приложение после вывода результатов замера.
+     */
+    private boolean exitOnFinish = true;
+
+    /**
+     * Число страниц синтетического графа ссылок для замера PageRank. 0 — не замерять.
+     */
+    private int pageRankNodes = 1_000_000;
+
+    /**
+     * Число ссылок каждой страницы синтетического графа ссылок.
+     */
+    private int pageRankLinksPerNode = 10;
+}
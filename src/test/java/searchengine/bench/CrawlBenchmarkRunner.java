@@ -0,0 +1,268 @@
+package searchengine.bench;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlEngine;
+import searchengine.config.SitesList;
+import searchengine.morpholgy.WordLemmaCache;
+import searchengine.repository.LemmaRepository;
+import searchengine.repository.SearchIndexRepository;
+import searchengine.services.IndexingService;
+import searchengine.services.LemmaService;
+import searchengine.services.PageService;
+import searchengine.task.LinkGraph;
+import searchengine.task.PageRank;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Офлайн-замер скорости обхода и индексации (профиль {@code bench}).
+ * <p>
+ * После запуска приложения индексирует синтетический сайт {@link SyntheticSiteServer} через
+ * {@link IndexingService#startIndexing()}, дожидается завершения и выводит в лог число страниц, лемм
+ * и строк индекса в секунду, а также пиковый объём кучи. Профиль подключает встроенную базу H2,
+ * поэтому замер не требует MySQL и не затрагивает рабочую базу. Если заданы
+ * {@link BenchmarkSettings#getEngines()}, сайт индексируется каждым движком по очереди
+ * после {@link BenchmarkSettings#getWarmupCrawls()} прогревочных обходов, и в конце выводится
+ * число страниц в минуту для каждого движка.
+ * </p>
+ * <p>
+ * Затем строит синтетический граф ссылок из {@link BenchmarkSettings#getPageRankNodes()} страниц
+ * и замеряет построение графа и расчёт PageRank. Разбиение текста на слова и набор посещённых ссылок
+ * замеряются отдельно в JMH: {@link TokenizerBenchmark}, {@link VisitedSetBenchmark}.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("bench")
+@RequiredArgsConstructor
+public class CrawlBenchmarkRunner {
+
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private static final long START_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * Таблицы базы замера в порядке очистки: сначала ссылающиеся на другие.
+     */
+    private static final List<String> TABLES = List.of("index_table", "page_revisit", "lemma",
+            "site_template_block", "crawl_url", "crawl_site_node", "crawl_partition_lease", "page", "site");
+
+    private final BenchmarkSettings settings;
+
+    private final SyntheticSiteServer siteServer;
+
+    private final IndexingService indexingService;
+
+    private final PageService pageService;
+
+    private final LemmaRepository lemmaRepository;
+
+    private final SearchIndexRepository searchIndexRepository;
+
+    private final SitesList sitesList;
+
+    private final LemmaService lemmaService;
+
+    private final ApplicationContext applicationContext;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Запускает замер в отдельном потоке после готовности приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order
+    public void runBenchmark() {
+        Thread thread = new Thread(this::measure, "Crawl-Benchmark");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void measure() {
+        List<CrawlEngine> engines = settings.getEngines().isEmpty()
+                ? List.of(sitesList.getCrawlEngine())
+                : settings.getEngines();
+        Map<CrawlEngine, Double> pagesPerMinute = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < settings.getWarmupCrawls(); i++) {
+                log.info("Benchmark: warm-up crawl {} of {}", i + 1, settings.getWarmupCrawls());
+                sitesList.setCrawlEngine(engines.get(0));
+                measureCrawl(engines.get(0));
+            }
+            for (CrawlEngine engine : engines) {
+                sitesList.setCrawlEngine(engine);
+                pagesPerMinute.put(engine, measureCrawl(engine));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (pagesPerMinute.size() > 1) {
+            pagesPerMinute.forEach((engine, rate) ->
+                    log.info("Benchmark engine {}: {} pages/min", engine, String.format("%.0f", rate)));
+        }
+
+        if (settings.getPageRankNodes() > 0) {
+            measurePageRank();
+        }
+        if (settings.isExitOnFinish()) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Индексирует синтетический сайт указанным движком и выводит результаты в лог.
+     *
+     * @param engine движок обхода
+     * @return число проиндексированных страниц в минуту
+     * @throws InterruptedException если замер был прерван
+     */
+    private double measureCrawl(CrawlEngine engine) throws InterruptedException {
+        log.info("Benchmark: crawling synthetic site {} with {} ({} pages, fan-out {}, {} words/page, latency {} ms)",
+                siteServer.getSiteUrl(), engine, siteServer.getPageCount(), settings.getFanOut(),
+                settings.getWordsPerPage(), settings.getLatencyMs());
+        clearDatabase();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long startNanos = System.nanoTime();
+        indexingService.startIndexing();
+        awaitIndexing(startNanos);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        return report(elapsedNanos);
+    }
+
+    /**
+     * Очищает базу замера, чтобы каждый движок индексировал сайт с нуля и в замер не попадало
+     * удаление данных предыдущего прогона.
+     */
+    private void clearDatabase() {
+        TABLES.forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    private void awaitIndexing(long startNanos) throws InterruptedException {
+        while (!indexingService.isIndexingRunning()) {
+            if (System.nanoTime() - startNanos > START_TIMEOUT_NANOS) {
+                log.warn("Benchmark: indexing did not start");
+                return;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        while (indexingService.isIndexingRunning()) {
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Выводит в лог результаты индексации.
+     *
+     * @param elapsedNanos длительность индексации
+     * @return число проиндексированных страниц в минуту
+     */
+    private double report(long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        long pages = pageService.countAllPages();
+        long lemmas = Optional.ofNullable(lemmaRepository.countAllLemmas()).orElse(0);
+        long indexes = searchIndexRepository.count();
+        long rows = pages + lemmas + indexes;
+
+        log.info("Benchmark finished in {} s", String.format("%.1f", seconds));
+        log.info("Benchmark pages: {} ({} pages/s)", pages, String.format("%.1f", pages / seconds));
+        log.info("Benchmark lemmas: {} ({} lemmas/s)", lemmas, String.format("%.1f", lemmas / seconds));
+        log.info("Benchmark index rows: {} ({} rows/s)", indexes, String.format("%.1f", indexes / seconds));
+        log.info("Benchmark DB rows: {} ({} rows/s)", rows, String.format("%.1f", rows / seconds));
+        WordLemmaCache wordLemmaCache = lemmaService.getWordLemmaCache();
+        log.info("Benchmark lemma cache: {} words, {} hits, {} misses, {} evictions ({}% hit rate)",
+                wordLemmaCache.size(), wordLemmaCache.getHits(), wordLemmaCache.getMisses(),
+                wordLemmaCache.getEvictions(), String.format("%.1f", wordLemmaCache.hitRate() * 100));
+        log.info("Benchmark peak heap: {} MB", peakHeapBytes() / (1024 * 1024));
+        return pages / seconds * 60;
+    }
+
+    /**
+     * Строит граф ссылок со случайными ссылками, смещёнными к страницам с меньшими номерами
+     * (как ссылки на главную и разделы сайта), и замеряет упаковку графа и расчёт PageRank.
+     */
+    private void measurePageRank() {
+        int nodes = settings.getPageRankNodes();
+        int linksPerNode = settings.getPageRankLinksPerNode();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        long startNanos = System.nanoTime();
+
+        Random random = new Random(nodes);
+        LinkGraph linkGraph = new LinkGraph(0);
+        int[] pageIds = new int[nodes];
+        List<String> pageUrls = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            pageIds[i] = i + 1;
+            pageUrls.add("http://bench/" + i);
+        }
+        List<String> links = new ArrayList<>(linksPerNode);
+        for (int i = 0; i < nodes; i++) {
+            links.clear();
+            for (int k = 0; k < linksPerNode; k++) {
+                double skew = random.nextDouble();
+                links.add(pageUrls.get((int) (nodes * skew * skew * skew)));
+            }
+            linkGraph.addLinks(pageUrls.get(i), links);
+        }
+        LinkGraph.Csr graph = linkGraph.toCsr(pageIds, pageUrls);
+        long graphNanos = System.nanoTime() - startNanos;
+
+        ForkJoinPool pool = new ForkJoinPool(sitesList.getPageRankParallelism() > 0
+                ? sitesList.getPageRankParallelism()
+                : Runtime.getRuntime().availableProcessors());
+        PageRank.Result result;
+        try {
+            result = PageRank.builder()
+                    .damping(sitesList.getPageRankDamping())
+                    .tolerance(sitesList.getPageRankTolerance())
+                    .maxIterations(sitesList.getPageRankMaxIterations())
+                    .pool(pool)
+                    .build()
+                    .compute(graph);
+        } finally {
+            pool.shutdown();
+        }
+        long rankMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos - graphNanos);
+
+        log.info("Benchmark link graph: {} pages, {} links built in {} ms", graph.nodeCount(), graph.edgeCount(),
+                TimeUnit.NANOSECONDS.toMillis(graphNanos));
+        log.info("Benchmark PageRank: {} iterations in {} ms ({} ms/iteration, {} threads)", result.getIterations(),
+                rankMs, String.format("%.1f", rankMs / (double) Math.max(1, result.getIterations())),
+                pool.getParallelism());
+        log.info("Benchmark PageRank peak heap: {} MB", peakHeapBytes() / (1024 * 1024));
+    }
+
+    /**
+     * @return сумма пиковых объёмов пулов памяти кучи с начала замера
+     */
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,183 @@
+package searchengine.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Встроенный HTTP-сервер синтетического сайта для офлайн-замера скорости обхода (профиль {@code bench}).
+ * <p>
+ * Страницы образуют дерево: у страницы {@code n} дочерние страницы {@code n·fanOut + 1 … n·fanOut + fanOut}
+ * в пределах числа страниц и глубины из {@link BenchmarkSettings}. Дополнительно каждая страница ссылается
+ * на несколько случайных страниц. Текст страницы — смесь русских и английских слов. Содержимое
+ * страницы определяется её номером, поэтому повторные замеры обходят один и тот же сайт.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("bench")
+@RequiredArgsConstructor
+public class SyntheticSiteServer {
+
+    private static final String PAGE_PREFIX = "/page/";
+
+    static final String[] RUSSIAN_WORDS = {
+            "поиск", "страница", "сайт", "индекс", "лемма", "запрос", "документ", "текст", "слово", "ссылка",
+            "каталог", "товар", "цена", "доставка", "новость", "статья", "картина", "художник", "выставка",
+            "галерея", "музыка", "концерт", "книга", "автор", "история", "город", "улица", "работа", "время",
+            "большой", "новый", "красивый", "быстрый", "читать", "смотреть", "покупать", "искать", "находить"
+    };
+
+    static final String[] ENGLISH_WORDS = {
+            "search", "page", "site", "index", "query", "document", "text", "word", "link", "catalog",
+            "product", "price", "delivery", "news", "article", "painting", "artist", "gallery", "music",
+            "book", "author", "history", "city", "street", "work", "time", "large", "new", "fast", "read"
+    };
+
+    private final BenchmarkSettings settings;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /**
+     * Запускает сервер на {@code localhost:port}.
+     *
+     * @throws IOException если порт недоступен
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getPort()), 0);
+        executor = Executors.newFixedThreadPool(Math.max(1, settings.getServerThreads()));
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Synthetic site with {} pages is served at {}", getPageCount(), getSiteUrl());
+    }
+
+    /**
+     * Останавливает сервер.
+     */
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return URL главной страницы синтетического сайта
+     */
+    public String getSiteUrl() {
+        return "http://localhost:" + settings.getPort() + "/";
+    }
+
+    /**
+     * @return число страниц сайта, достижимых с главной страницы с учётом глубины
+     */
+    public int getPageCount() {
+        long reachable = 0;
+        long levelSize = 1;
+        for (int depth = 0; depth <= settings.getMaxDepth() && reachable < settings.getPageCount(); depth++) {
+            reachable += levelSize;
+            levelSize *= Math.max(1, settings.getFanOut());
+        }
+        return (int) Math.min(reachable, settings.getPageCount());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            sleepLatency();
+            int pageId = parsePageId(exchange.getRequestURI().getPath());
+            if (pageId < 0 || pageId >= getPageCount()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = renderPage(pageId).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void sleepLatency() {
+        if (settings.getLatencyMs() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(settings.getLatencyMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int parsePageId(String path) {
+        if ("/".equals(path)) {
+            return 0;
+        }
+        if (!path.startsWith(PAGE_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(path.substring(PAGE_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String renderPage(int pageId) {
+        Random random = new Random(pageId * 31L + 7);
+        int pageCount = getPageCount();
+        StringBuilder html = new StringBuilder(settings.getWordsPerPage() * 10);
+        html.append("<!DOCTYPE html><html><head><title>Страница ").append(pageId)
+                .append(" page</title></head><body><h1>").append(randomWord(random)).append(' ')
+                .append(randomWord(random)).append("</h1><p>");
+
+        for (int i = 0; i < settings.getWordsPerPage(); i++) {
+            html.append(randomWord(random)).append(i % 12 == 11 ? ". " : " ");
+            if (i % 80 == 79) {
+                html.append("</p><p>");
+            }
+        }
+        html.append("</p><nav><a href=\"/\">Главная</a>");
+
+        for (int i = 1; i <= settings.getFanOut(); i++) {
+            long child = (long) pageId * settings.getFanOut() + i;
+            if (child < pageCount) {
+                appendLink(html, (int) child);
+            }
+        }
+        for (int i = 0; i < settings.getCrossLinks(); i++) {
+            appendLink(html, random.nextInt(pageCount));
+        }
+        return html.append("</nav></body></html>").toString();
+    }
+
+    private String randomWord(Random random) {
+        return random.nextDouble() < settings.getRussianShare()
+                ? RUSSIAN_WORDS[random.nextInt(RUSSIAN_WORDS.length)]
+                : ENGLISH_WORDS[random.nextInt(ENGLISH_WORDS.length)];
+    }
+
+    private static void appendLink(StringBuilder html, int pageId) {
+        html.append("<a href=\"").append(pageId == 0 ? "/" : PAGE_PREFIX + pageId).append("\">")
+                .append("Страница ").append(pageId).append("</a>");
+    }
+}
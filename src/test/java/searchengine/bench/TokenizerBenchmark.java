@@ -0,0 +1,118 @@
+package searchengine.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import searchengine.morpholgy.WordTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * JMH-сравнение разбиения текста на слова через {@link WordTokenizer} с прежним разбиением
+ * регулярными выражениями.
+ * <p>
+ * Тексты страниц строятся из тех же слов, что и страницы {@link SyntheticSiteServer}. Одна операция —
+ * проход по всем текстам, результат — число слов, поэтому JIT не может выбросить разбиение.
+ * Выделение памяти на проход показывает профилировщик {@code -prof gc} (метрика {@code gc.alloc.rate.norm}).
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main TokenizerBenchmark -prof gc"}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TokenizerBenchmark {
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private static final Pattern RUSSIAN_PATTERN = Pattern.compile("[а-яА-Я]");
+
+    private static final Pattern ENGLISH_PATTERN = Pattern.compile("[a-zA-Z]");
+
+    /**
+     * Число текстов страниц.
+     */
+    @Param("500")
+    public int pages;
+
+    /**
+     * Число слов текста страницы.
+     */
+    @Param("500")
+    public int wordsPerPage;
+
+    /**
+     * Доля русских слов в тексте, от 0 до 1.
+     */
+    @Param("0.7")
+    public double russianShare;
+
+    private List<String> texts;
+
+    @Setup
+    public void generateTexts() {
+        Random random = new Random(pages);
+        texts = new ArrayList<>(pages);
+        for (int page = 0; page < pages; page++) {
+            StringBuilder text = new StringBuilder(wordsPerPage * 10);
+            for (int i = 0; i < wordsPerPage; i++) {
+                String[] words = random.nextDouble() < russianShare
+                        ? SyntheticSiteServer.RUSSIAN_WORDS
+                        : SyntheticSiteServer.ENGLISH_WORDS;
+                text.append(words[random.nextInt(words.length)]).append(i % 12 == 11 ? ". " : " ");
+            }
+            texts.add(text.toString());
+        }
+    }
+
+    /**
+     * Прежнее разбиение: копия текста в нижнем регистре, замена символов регулярным выражением,
+     * разбиение регулярным выражением и проверка языка каждого слова.
+     */
+    @Benchmark
+    public long regex() {
+        long count = 0;
+        for (String text : texts) {
+            String[] words = text.toLowerCase(Locale.ROOT)
+                    .replaceAll("([^а-яА-Яa-zA-Z\\s])", " ")
+                    .trim()
+                    .split("\\s+");
+            for (String word : words) {
+                if (word.isBlank() || word.length() < MIN_WORD_LENGTH) {
+                    continue;
+                }
+                boolean russian = RUSSIAN_PATTERN.matcher(word).find();
+                boolean english = ENGLISH_PATTERN.matcher(word).find();
+                if (russian != english) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long scanner() {
+        long[] count = new long[1];
+        for (String text : texts) {
+            WordTokenizer.tokenize(text, MIN_WORD_LENGTH, (buffer, length, cyrillic) -> count[0]++);
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,189 @@
+package searchengine.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import searchengine.task.VisitedUrlSet;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMH-сравнение набора посещённых ссылок {@link VisitedUrlSet} с {@code ConcurrentHashMap.newKeySet()}
+ * при одновременной работе нескольких потоков, как у потоков краулера.
+ * <p>
+ * {@link #add(Sets, Adder)} — потоки одновременно заполняют новый набор своими долями из {@link Sets#urls}
+ * ссылок, одна операция — заполнение набора. {@link #contains(Sets, Lookup)} — потоки проверяют случайные
+ * ссылки в заполненном наборе, половина из них есть в наборе. Число потоков задаётся {@code -t}.
+ * Строки ссылок созданы заранее, а {@code String} кэширует свой хеш, поэтому {@code ConcurrentHashMap}
+ * не пересчитывает его при повторных проверках; в краулере ссылки каждый раз — новые строки.
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main VisitedSetBenchmark"}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+public class VisitedSetBenchmark {
+
+    /**
+     * Проверяемые наборы: заполненный для проверок и новый для добавления.
+     */
+    @State(Scope.Benchmark)
+    public static class Sets {
+
+        @Param({"VisitedUrlSet", "ConcurrentHashMap"})
+        public String implementation;
+
+        /**
+         * Число ссылок в наборе для проверок.
+         */
+        @Param("1000000")
+        public int urls;
+
+        private String[] present;
+
+        private UrlSet filled;
+
+        private UrlSet empty;
+
+        private final AtomicInteger nextThread = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void fill() {
+            present = new String[urls];
+            filled = newSet();
+            for (int i = 0; i < urls; i++) {
+                present[i] = url(i);
+                filled.add(present[i]);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            empty = newSet();
+        }
+
+        private UrlSet newSet() {
+            return "VisitedUrlSet".equals(implementation) ? new VisitedUrlSetAdapter() : new KeySetAdapter();
+        }
+    }
+
+    /**
+     * Доля ссылок потока при заполнении набора: каждая {@code threads}-я ссылка, начиная с номера потока.
+     */
+    @State(Scope.Thread)
+    public static class Adder {
+
+        private int thread;
+
+        private int threads;
+
+        @Setup(Level.Trial)
+        public void init(Sets sets, BenchmarkParams params) {
+            thread = sets.nextThread.getAndIncrement() % params.getThreads();
+            threads = params.getThreads();
+        }
+    }
+
+    /**
+     * Заранее созданные ссылки для проверок потока: половина есть в наборе, половина нет.
+     */
+    @State(Scope.Thread)
+    public static class Lookup {
+
+        private static final int SIZE = 1 << 16;
+
+        private final String[] candidates = new String[SIZE];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void init(Sets sets) {
+            SplittableRandom random = new SplittableRandom(sets.nextThread.getAndIncrement());
+            for (int i = 0; i < SIZE; i++) {
+                int id = random.nextInt(sets.urls);
+                candidates[i] = random.nextBoolean() ? url(id) : "http://localhost:8089/missing/" + id;
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public long add(Sets sets, Adder adder) {
+        long added = 0;
+        for (int i = adder.thread; i < sets.present.length; i += adder.threads) {
+            added += sets.empty.add(sets.present[i]) ? 1 : 0;
+        }
+        return added;
+    }
+
+    @Benchmark
+    public boolean contains(Sets sets, Lookup lookup) {
+        return sets.filled.contains(lookup.candidates[lookup.next++ & (Lookup.SIZE - 1)]);
+    }
+
+    /**
+     * Ссылка, похожая на ссылку каталога: раздел, страница и параметр.
+     */
+    private static String url(int i) {
+        return "http://localhost:8089/catalog/" + (i % 97) + "/item-" + i + ".html?color=" + (i % 7);
+    }
+
+    private interface UrlSet {
+
+        boolean add(String url);
+
+        boolean contains(String url);
+    }
+
+    private static final class VisitedUrlSetAdapter implements UrlSet {
+
+        private final VisitedUrlSet set = new VisitedUrlSet();
+
+        @Override
+        public boolean add(String url) {
+            return set.add(url);
+        }
+
+        @Override
+        public boolean contains(String url) {
+            return set.contains(url);
+        }
+    }
+
+    private static final class KeySetAdapter implements UrlSet {
+
+        private final Set<String> set = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean add(String url) {
+            return set.add(url);
+        }
+
+        @Override
+        public boolean contains(String url) {
+            return set.contains(url);
+        }
+    }
+}
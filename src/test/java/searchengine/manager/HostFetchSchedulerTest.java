@@ -0,0 +1,55 @@
+package searchengine.manager;
+
+import org.junit.jupiter.api.Test;
+import searchengine.config.SitesList;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostFetchSchedulerTest {
+
+    private static final String SITE = "https://example.com/";
+
+    private final HostFetchScheduler scheduler = new HostFetchScheduler(new SitesList());
+
+    @Test
+    void grantsOneSlotPerConnectionWithinInterval() {
+        scheduler.registerHost(SITE, 60_000, 3);
+
+        assertThat(scheduler.tryAcquire(SITE + "a")).isZero();
+        assertThat(scheduler.tryAcquire(SITE + "b")).isZero();
+        assertThat(scheduler.tryAcquire(SITE + "c")).isZero();
+        assertThat(scheduler.tryAcquire(SITE + "d"))
+                .isPositive()
+                .isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(60));
+    }
+
+    @Test
+    void keepsHostsIndependent() {
+        scheduler.registerHost(SITE, 60_000, 1);
+
+        assertThat(scheduler.tryAcquire(SITE)).isZero();
+        assertThat(scheduler.tryAcquire("https://other.example.org/")).isZero();
+        assertThat(scheduler.tryAcquire(SITE)).isPositive();
+    }
+
+    @Test
+    void delaysAllConnections() {
+        scheduler.registerHost(SITE, 0, 4);
+
+        scheduler.delay(SITE, 60_000);
+
+        assertThat(scheduler.tryAcquire(SITE)).isGreaterThan(TimeUnit.SECONDS.toNanos(59));
+    }
+
+    @Test
+    void keepsDelayWhenConnectionsChange() {
+        scheduler.registerHost(SITE, 0, 4);
+        scheduler.delay(SITE, 60_000);
+
+        scheduler.registerHost(SITE, 0, 1);
+
+        assertThat(scheduler.tryAcquire(SITE)).isGreaterThan(TimeUnit.SECONDS.toNanos(59));
+    }
+}
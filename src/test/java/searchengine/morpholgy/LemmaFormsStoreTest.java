@@ -0,0 +1,90 @@
+package searchengine.morpholgy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LemmaFormsStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsFormsAcrossGenerationsAndReopen() throws IOException {
+        LemmaFormsStore store = new LemmaFormsStore(directory, 1_000);
+        store.add("дом", "дома");
+        store.add("кот", "коты");
+        store.flush();
+        store.add("дом", "домами");
+        store.add("лес", "леса");
+        store.flush();
+        store.close();
+
+        assertThat(generationFiles()).containsExactly("forms-000002.idx");
+
+        LemmaFormsStore reopened = new LemmaFormsStore(directory, 1_000);
+        assertThat(reopened.getForms("дом")).containsExactly("дома", "домами");
+        assertThat(reopened.getForms("кот")).containsExactly("коты");
+        assertThat(reopened.getForms("лес")).containsExactly("леса");
+        assertThat(reopened.getForms("сад")).isEmpty();
+        reopened.close();
+    }
+
+    @Test
+    void returnsPendingFormsBeforeFlush() throws IOException {
+        LemmaFormsStore store = new LemmaFormsStore(directory, 1_000);
+        store.add("дом", "дома");
+        store.flush();
+        store.add("дом", "дому");
+        store.add("дом", "дома");
+
+        assertThat(store.getForms("дом")).containsExactly("дома", "дому");
+        store.close();
+    }
+
+    @Test
+    void writesFormsOnCloseAfterBackgroundFlush() throws IOException {
+        LemmaFormsStore store = new LemmaFormsStore(directory, 2);
+        for (int i = 0; i < 10; i++) {
+            store.add("слово", "форма" + i);
+        }
+        store.close();
+
+        LemmaFormsStore reopened = new LemmaFormsStore(directory, 2);
+        assertThat(reopened.getForms("слово")).hasSize(10);
+        assertThat(generationFiles()).hasSize(1);
+        reopened.close();
+    }
+
+    @Test
+    void skipsUnreadableGenerationAndTemporaryFiles() throws IOException {
+        LemmaFormsStore store = new LemmaFormsStore(directory, 1_000);
+        store.add("дом", "дома");
+        store.close();
+        Files.write(directory.resolve("forms-000009.idx"), new byte[64]);
+        Files.write(directory.resolve("forms-000010.idx.tmp"), new byte[64]);
+
+        LemmaFormsStore reopened = new LemmaFormsStore(directory, 1_000);
+
+        assertThat(reopened.getForms("дом")).containsExactly("дома");
+        assertThat(generationFiles()).containsExactly("forms-000001.idx");
+        assertThat(directory.resolve("forms-000010.idx.tmp")).doesNotExist();
+        reopened.close();
+    }
+
+    private List<String> generationFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".idx"))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
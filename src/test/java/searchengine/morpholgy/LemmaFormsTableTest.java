@@ -0,0 +1,92 @@
+package searchengine.morpholgy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LemmaFormsTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsFormsOfEveryLemmaAcrossBlocks() throws IOException {
+        Map<String, List<String>> forms = new TreeMap<>();
+        for (int i = 0; i < LemmaFormsTable.BLOCK_SIZE * 5 + 3; i++) {
+            String lemma = "слово" + i;
+            forms.put(lemma, List.of(lemma + "а", lemma + "ом"));
+        }
+        forms.put("ёж", List.of("ежа", "ёжик"));
+        forms.put("a", List.of("an"));
+        Path file = write(forms);
+
+        LemmaFormsTable table = LemmaFormsTable.open(file);
+
+        assertThat(table.size()).isEqualTo(forms.size());
+        forms.forEach((lemma, expected) -> assertThat(table.getForms(lemma)).as(lemma).isEqualTo(expected));
+    }
+
+    @Test
+    void returnsNoFormsForMissingLemmas() throws IOException {
+        LemmaFormsTable table = LemmaFormsTable.open(write(Map.of("дом", List.of("дома"), "кот", List.of("коты"))));
+
+        assertThat(table.getForms("до")).isEmpty();
+        assertThat(table.getForms("дома")).isEmpty();
+        assertThat(table.getForms("а")).isEmpty();
+        assertThat(table.getForms("яблоко")).isEmpty();
+        assertThat(LemmaFormsTable.EMPTY.getForms("дом")).isEmpty();
+    }
+
+    @Test
+    void mergeCombinesFormsOfExistingAndNewLemmas() throws IOException {
+        LemmaFormsTable table = LemmaFormsTable.open(write(Map.of(
+                "дом", List.of("дома"),
+                "кот", List.of("коты"))));
+        List<Map.Entry<byte[], Collection<String>>> updates = sortedEntries(Map.of(
+                "дом", List.of("домами"),
+                "лес", List.of("леса")));
+
+        Path merged = directory.resolve("merged.idx");
+        LemmaFormsTable.write(merged, LemmaFormsTable.merge(table, updates));
+        LemmaFormsTable result = LemmaFormsTable.open(merged);
+
+        assertThat(result.size()).isEqualTo(3);
+        assertThat(result.getForms("дом")).containsExactly("дома", "домами");
+        assertThat(result.getForms("кот")).containsExactly("коты");
+        assertThat(result.getForms("лес")).containsExactly("леса");
+    }
+
+    @Test
+    void rejectsCorruptedFile() throws IOException {
+        Path file = directory.resolve("broken.idx");
+        Files.write(file, new byte[64]);
+
+        assertThatThrownBy(() -> LemmaFormsTable.open(file)).isInstanceOf(IOException.class);
+    }
+
+    private Path write(Map<String, List<String>> forms) throws IOException {
+        Path file = directory.resolve("forms.idx");
+        LemmaFormsTable.write(file, sortedEntries(forms).iterator());
+        return file;
+    }
+
+    private static List<Map.Entry<byte[], Collection<String>>> sortedEntries(Map<String, List<String>> forms) {
+        List<Map.Entry<byte[], Collection<String>>> entries = new ArrayList<>();
+        forms.forEach((lemma, values) -> entries.add(Map.entry(lemma.getBytes(StandardCharsets.UTF_8), values)));
+        entries.sort((first, second) -> Arrays.compareUnsigned(first.getKey(), second.getKey()));
+        return entries;
+    }
+}
@@ -0,0 +1,101 @@
+package searchengine.morpholgy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WordLemmaCacheTest {
+
+    private final List<String> parsed = new ArrayList<>();
+
+    private final Function<String, List<String>> parser = word -> {
+        synchronized (parsed) {
+            parsed.add(word);
+        }
+        return List.of(word + "-lemma");
+    };
+
+    @Test
+    void parsesWordOnceAndServesRepeatsFromCache() {
+        WordLemmaCache cache = new WordLemmaCache(10);
+
+        assertThat(cache.get("дома", parser)).containsExactly("дома-lemma");
+        assertThat(cache.get("дома", parser)).containsExactly("дома-lemma");
+
+        assertThat(parsed).containsExactly("дома");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void cachesWordsWithoutNormalForms() {
+        WordLemmaCache cache = new WordLemmaCache(10);
+
+        assertThat(cache.get("и", word -> List.of())).isEmpty();
+        assertThat(cache.get("и", parser)).isEmpty();
+        assertThat(parsed).isEmpty();
+    }
+
+    @Test
+    void evictsFirstUnreferencedEntryWhenFull() {
+        WordLemmaCache cache = new WordLemmaCache(2);
+        cache.get("a", parser);
+        cache.get("b", parser);
+        cache.get("a", parser);
+
+        cache.get("c", parser);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        cache.get("a", parser);
+        cache.get("c", parser);
+        assertThat(parsed).containsExactly("a", "b", "c");
+        cache.get("b", parser);
+        assertThat(parsed).containsExactly("a", "b", "c", "b");
+    }
+
+    @Test
+    void returnsImmutableForms() {
+        WordLemmaCache cache = new WordLemmaCache(10);
+        List<String> forms = cache.get("дом", word -> new ArrayList<>(List.of("дом")));
+
+        assertThatThrownBy(() -> forms.add("дома")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void staysWithinCapacityUnderConcurrentAccess() throws Exception {
+        WordLemmaCache cache = new WordLemmaCache(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    String word = "w" + ((i * 7 + offset) % 500);
+                    assertThat(cache.get(word, parser)).containsExactly(word + "-lemma");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.getHits() + cache.getMisses()).isEqualTo(40_000);
+    }
+}
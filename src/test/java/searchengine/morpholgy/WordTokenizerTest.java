@@ -0,0 +1,76 @@
+package searchengine.morpholgy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordTokenizerTest {
+
+    @Test
+    void splitsTextIntoLowerCaseWordsOfBothScripts() {
+        List<String> words = new ArrayList<>();
+        List<Boolean> cyrillic = new ArrayList<>();
+        WordTokenizer.tokenize("Привет, МИР! Hello\tWorld.", 1, (buffer, length, isCyrillic) -> {
+            words.add(new String(buffer, 0, length));
+            cyrillic.add(isCyrillic);
+        });
+
+        assertThat(words).containsExactly("привет", "мир", "hello", "world");
+        assertThat(cyrillic).containsExactly(true, true, false, false);
+    }
+
+    @Test
+    void dropsWordsMixingLatinAndCyrillic() {
+        // «Mоscow» с кириллической «о» и слово, склеенное из двух алфавитов
+        assertThat(tokenize("Mоscow приветhello ok да", 1)).containsExactly("ok", "да");
+    }
+
+    @Test
+    void keepsWordsOfExactlyMinimumLength() {
+        assertThat(tokenize("я ты она они cat dogs", 3)).containsExactly("она", "они", "cat", "dogs");
+    }
+
+    @Test
+    void treatsDigitsAndPunctuationAsSeparators() {
+        assertThat(tokenize("abc123def слово-слово e-mail", 1))
+                .containsExactly("abc", "def", "слово", "слово", "e", "mail");
+    }
+
+    @Test
+    void emitsWordsAtTextBoundaries() {
+        assertThat(tokenize("начало", 1)).containsExactly("начало");
+        assertThat(tokenize("  end", 1)).containsExactly("end");
+        assertThat(tokenize("", 1)).isEmpty();
+        assertThat(tokenize("123 !!! ...", 1)).isEmpty();
+    }
+
+    @Test
+    void convertsFirstAndLastLettersOfAlphabets() {
+        assertThat(tokenize("АЯ AZ аяАЯ azAZ", 1)).containsExactly("ая", "az", "аяая", "azaz");
+    }
+
+    @Test
+    void growsBufferForLongWords() {
+        String longWord = "Б".repeat(200);
+
+        assertThat(tokenize("x " + longWord + " y", 1)).containsExactly("x", "б".repeat(200), "y");
+    }
+
+    @Test
+    void reusesBufferBetweenWords() {
+        List<char[]> buffers = new ArrayList<>();
+        WordTokenizer.tokenize("one two", 1, (buffer, length, isCyrillic) -> buffers.add(buffer));
+
+        assertThat(buffers).hasSize(2);
+        assertThat(buffers.get(0)).isSameAs(buffers.get(1));
+    }
+
+    private static List<String> tokenize(String text, int minLength) {
+        List<String> words = new ArrayList<>();
+        WordTokenizer.tokenize(text, minLength, (buffer, length, isCyrillic) -> words.add(new String(buffer, 0, length)));
+        return words;
+    }
+}
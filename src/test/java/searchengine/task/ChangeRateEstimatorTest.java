@@ -0,0 +1,104 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+import searchengine.model.PageRevisit;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ChangeRateEstimatorTest {
+
+    private static final long MIN_INTERVAL = 60;
+
+    private static final long MAX_INTERVAL = 30L * 24 * 3600;
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final ChangeRateEstimator estimator = ChangeRateEstimator.builder()
+            .minIntervalSeconds(MIN_INTERVAL)
+            .maxIntervalSeconds(MAX_INTERVAL)
+            .changeProbability(0.5)
+            .build();
+
+    @Test
+    void doublesIntervalWhileNothingChanges() {
+        PageRevisit revisit = revisit(3600);
+        LocalDateTime now = START.plusSeconds(3600);
+
+        estimator.recordVisit(revisit, false, now);
+
+        assertThat(revisit.getIntervalSeconds()).isEqualTo(7200);
+        assertThat(revisit.getLastVisitAt()).isEqualTo(now);
+        assertThat(revisit.getNextVisitAt()).isEqualTo(now.plusSeconds(7200));
+        assertThat(ChangeRateEstimator.changesPerSecond(revisit)).isZero();
+    }
+
+    @Test
+    void staysWithinMaximumInterval() {
+        PageRevisit revisit = revisit(MAX_INTERVAL);
+        LocalDateTime now = START;
+        for (int i = 0; i < 5; i++) {
+            now = now.plusSeconds(revisit.getIntervalSeconds());
+            estimator.recordVisit(revisit, false, now);
+        }
+
+        assertThat(revisit.getIntervalSeconds()).isEqualTo(MAX_INTERVAL);
+    }
+
+    @Test
+    void shortensIntervalDownToMinimumWhenPageAlwaysChanges() {
+        PageRevisit revisit = revisit(3600);
+        LocalDateTime now = START;
+        long previousInterval = revisit.getIntervalSeconds();
+        for (int i = 0; i < 20; i++) {
+            now = now.plusSeconds(revisit.getIntervalSeconds());
+            estimator.recordVisit(revisit, true, now);
+            assertThat(revisit.getIntervalSeconds()).isLessThanOrEqualTo(previousInterval);
+            previousInterval = revisit.getIntervalSeconds();
+        }
+
+        assertThat(revisit.getIntervalSeconds()).isEqualTo(MIN_INTERVAL);
+    }
+
+    @Test
+    void estimatesRateFromShareOfChangedVisits() {
+        // страница меняется при каждом десятом посещении: оценка близка к -ln(0.9) / интервал между посещениями
+        PageRevisit revisit = revisit(3600);
+        LocalDateTime now = START;
+        long visitInterval = 3600;
+        for (int i = 0; i < 200; i++) {
+            now = now.plusSeconds(visitInterval);
+            boolean changed = i % 10 == 0;
+            estimator.recordVisit(revisit, changed, now);
+        }
+
+        double expectedRate = -Math.log(0.9) / visitInterval;
+        assertThat(ChangeRateEstimator.changesPerSecond(revisit)).isCloseTo(expectedRate, within(expectedRate));
+    }
+
+    @Test
+    void postponeKeepsEstimate() {
+        PageRevisit revisit = revisit(10);
+        revisit.setVisits(3);
+        revisit.setChanges(1);
+        revisit.setObservedSeconds(300);
+        double rate = ChangeRateEstimator.changesPerSecond(revisit);
+        LocalDateTime now = START.plusHours(1);
+
+        estimator.postpone(revisit, now);
+
+        assertThat(revisit.getNextVisitAt()).isEqualTo(now.plusSeconds(MIN_INTERVAL));
+        assertThat(ChangeRateEstimator.changesPerSecond(revisit)).isEqualTo(rate);
+        assertThat(revisit.getLastVisitAt()).isEqualTo(START);
+    }
+
+    private static PageRevisit revisit(long intervalSeconds) {
+        PageRevisit revisit = new PageRevisit();
+        revisit.setLastVisitAt(START);
+        revisit.setNextVisitAt(START.plusSeconds(intervalSeconds));
+        revisit.setIntervalSeconds(intervalSeconds);
+        return revisit;
+    }
+}
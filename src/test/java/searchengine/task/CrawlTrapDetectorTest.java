@@ -0,0 +1,91 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrawlTrapDetectorTest {
+
+    @Test
+    void rejectsTooLongUrls() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxUrlLength(40).build();
+
+        assertThat(detector.check("https://example.com/short")).isNull();
+        assertThat(detector.check("https://example.com/" + "a".repeat(40))).isEqualTo(CrawlLimit.URL_LENGTH);
+    }
+
+    @Test
+    void rejectsRepeatingPathSegments() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxSegmentRepeats(2).build();
+
+        assertThat(detector.check("https://example.com/a/b/a/c")).isNull();
+        assertThat(detector.check("https://example.com/a/b/a/b/a")).isEqualTo(CrawlLimit.REPEATING_SEGMENTS);
+    }
+
+    @Test
+    void limitsUrlsPerPathPattern() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxUrlsPerPattern(3).build();
+
+        assertThat(detector.check("https://example.com/calendar/2024/01")).isNull();
+        assertThat(detector.check("https://example.com/calendar/2024/02")).isNull();
+        assertThat(detector.check("https://example.com/calendar/2025/11")).isNull();
+        assertThat(detector.check("https://example.com/calendar/2026/12")).isEqualTo(CrawlLimit.PATH_PATTERN);
+        assertThat(detector.check("https://example.com/news/2024")).isNull();
+    }
+
+    @Test
+    void countsIdentifiersAsOnePattern() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxUrlsPerPattern(1).build();
+
+        assertThat(detector.check("https://example.com/session/0f8fad5b-d9cb-469f-a165-70867728950e")).isNull();
+        assertThat(detector.check("https://example.com/session/7c9e6679-7425-40de-944b-e07fc1f90ae7"))
+                .isEqualTo(CrawlLimit.PATH_PATTERN);
+    }
+
+    @Test
+    void doesNotCountPlainPaths() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxUrlsPerPattern(1).build();
+
+        assertThat(detector.check("https://example.com/about")).isNull();
+        assertThat(detector.check("https://example.com/contacts")).isNull();
+        assertThat(detector.check("https://example.com/deadbeef-cafe")).isNull();
+    }
+
+    @Test
+    void limitsQueryVariantsOfOnePath() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxQueryVariants(2).build();
+
+        assertThat(detector.check("https://example.com/shop?color=red")).isNull();
+        assertThat(detector.check("https://example.com/shop?size=xl")).isNull();
+        assertThat(detector.check("https://example.com/shop?color=red&size=xl")).isEqualTo(CrawlLimit.QUERY_VARIANTS);
+        assertThat(detector.check("https://example.com/blog?page=2")).isNull();
+    }
+
+    @Test
+    void treatsPatternWithRepeatedContentAsTrap() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxSameContentVariants(2).build();
+        String contentHash = "a1b2c3d4e5f60718";
+
+        detector.recordContent("https://example.com/filter?page=1", contentHash);
+        detector.recordContent("https://example.com/filter?page=2", contentHash);
+        assertThat(detector.check("https://example.com/filter?page=3")).isNull();
+
+        detector.recordContent("https://example.com/filter?page=3", contentHash);
+
+        assertThat(detector.check("https://example.com/filter?page=4")).isEqualTo(CrawlLimit.DUPLICATE_CONTENT);
+        assertThat(detector.check("https://example.com/other?page=4")).isNull();
+    }
+
+    @Test
+    void ignoresRepeatedContentOfDifferentPagesOrPlainPaths() {
+        CrawlTrapDetector detector = CrawlTrapDetector.builder().maxSameContentVariants(1).build();
+
+        detector.recordContent("https://example.com/item/1", "00000001ffffffff");
+        detector.recordContent("https://example.com/item/2", "00000002ffffffff");
+        detector.recordContent("https://example.com/about", "00000003ffffffff");
+        detector.recordContent("https://example.com/contacts", "00000003ffffffff");
+
+        assertThat(detector.check("https://example.com/item/3")).isNull();
+        assertThat(detector.check("https://example.com/team")).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinkGraphTest {
+
+    private static final String HOME = "https://example.com/";
+
+    private static final String NEWS = "https://example.com/news";
+
+    private static final String ABOUT = "https://example.com/about";
+
+    @Test
+    void skipsSelfLinksAndRepeatedLinks() {
+        LinkGraph graph = new LinkGraph(0);
+
+        graph.addLinks(HOME, List.of(NEWS, ABOUT, NEWS, HOME));
+        graph.addLinks(NEWS, List.of());
+
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThat(graph.isTruncated()).isFalse();
+    }
+
+    @Test
+    void packsIncomingLinksOfSavedPages() {
+        LinkGraph graph = new LinkGraph(0);
+        graph.addLinks(HOME, List.of(NEWS, ABOUT, "https://example.com/missing"));
+        graph.addLinks(NEWS, List.of(HOME, ABOUT));
+        graph.addLinks(ABOUT, List.of(HOME));
+
+        LinkGraph.Csr csr = graph.toCsr(new int[]{10, 20, 30}, List.of(HOME, NEWS, ABOUT));
+
+        assertThat(csr.nodeCount()).isEqualTo(3);
+        assertThat(csr.edgeCount()).isEqualTo(5);
+        assertThat(csr.getPageIds()).containsExactly(10, 20, 30);
+        assertThat(csr.getOutDegree()).containsExactly(2, 2, 1);
+        assertThat(incoming(csr, 0)).containsExactlyInAnyOrder(1, 2);
+        assertThat(incoming(csr, 1)).containsExactly(0);
+        assertThat(incoming(csr, 2)).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void stopsRecordingAfterMaxEdges() {
+        LinkGraph graph = new LinkGraph(3);
+
+        graph.addLinks(HOME, List.of(NEWS, ABOUT));
+        graph.addLinks(NEWS, List.of(HOME, ABOUT));
+
+        assertThat(graph.edgeCount()).isEqualTo(3);
+        assertThat(graph.isTruncated()).isTrue();
+    }
+
+    @Test
+    void growsTablesForLargeGraphs() {
+        LinkGraph graph = new LinkGraph(0);
+        int pages = 5_000;
+        List<String> urls = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            urls.add("https://example.com/page-" + i);
+        }
+        for (int i = 0; i < pages; i++) {
+            graph.addLinks(urls.get(i), List.of(urls.get((i + 1) % pages), urls.get((i + 2) % pages)));
+        }
+        int[] pageIds = new int[pages];
+        for (int i = 0; i < pages; i++) {
+            pageIds[i] = i + 1;
+        }
+
+        LinkGraph.Csr csr = graph.toCsr(pageIds, urls);
+
+        assertThat(csr.edgeCount()).isEqualTo(2 * pages);
+        assertThat(incoming(csr, 0)).containsExactlyInAnyOrder(pages - 1, pages - 2);
+    }
+
+    private static List<Integer> incoming(LinkGraph.Csr csr, int node) {
+        List<Integer> sources = new ArrayList<>();
+        for (int k = csr.getInOffsets()[node]; k < csr.getInOffsets()[node + 1]; k++) {
+            sources.add(csr.getInSources()[k]);
+        }
+        return sources;
+    }
+}
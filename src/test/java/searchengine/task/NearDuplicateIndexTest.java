@@ -0,0 +1,59 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTest {
+
+    private static final long HASH = 0x0123_4567_89AB_CDEFL;
+
+    @Test
+    void returnsCanonicalEntryForNearDuplicates() {
+        NearDuplicateIndex index = new NearDuplicateIndex(3);
+        NearDuplicateIndex.Entry canonical = index.findOrAdd(HASH, "/original");
+
+        // три бита в трёх разных блоках: кандидат находится по совпадению четвёртого блока
+        NearDuplicateIndex.Entry duplicate = index.findOrAdd(HASH ^ 1L ^ (1L << 20) ^ (1L << 40), "/copy");
+
+        assertThat(duplicate).isSameAs(canonical);
+        assertThat(duplicate.getPath()).isEqualTo("/original");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void addsPagesBeyondMaxDistance() {
+        NearDuplicateIndex index = new NearDuplicateIndex(2);
+        index.findOrAdd(HASH, "/original");
+
+        NearDuplicateIndex.Entry entry = index.findOrAdd(HASH ^ 0b111L, "/other");
+
+        assertThat(entry.getPath()).isEqualTo("/other");
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void limitsDistanceToBlockGuarantee() {
+        NearDuplicateIndex index = new NearDuplicateIndex(10);
+        index.findOrAdd(HASH, "/original");
+
+        // четыре бита, по одному в каждом блоке: кандидат не находится по совпадению блоков
+        NearDuplicateIndex.Entry entry =
+                index.findOrAdd(HASH ^ 1L ^ (1L << 16) ^ (1L << 32) ^ (1L << 48), "/other");
+
+        assertThat(entry.getPath()).isEqualTo("/other");
+    }
+
+    @Test
+    void keepsPageIdOfSavedPages() {
+        NearDuplicateIndex index = new NearDuplicateIndex(3);
+        index.addSaved(HASH, "/saved", 42);
+        index.addSaved(HASH ^ 1L, "/saved-copy", 43);
+
+        NearDuplicateIndex.Entry entry = index.findOrAdd(HASH ^ 2L, "/new");
+
+        assertThat(entry.getPath()).isEqualTo("/saved");
+        assertThat(entry.getPageId()).isEqualTo(42);
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,146 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PageRankTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private final PageRank pageRank = PageRank.builder()
+            .damping(0.85)
+            .tolerance(1e-10)
+            .maxIterations(200)
+            .pool(pool)
+            .build();
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void givesEqualRanksToCycle() {
+        PageRank.Result result = pageRank.compute(graph(4, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 0}}));
+
+        assertThat(result.getRanks()).containsExactly(new double[]{0.25, 0.25, 0.25, 0.25}, within(1e-9));
+    }
+
+    @Test
+    void ranksHubAboveLinkingPages() {
+        // три страницы ссылаются на главную, главная — на первую из них
+        PageRank.Result result = pageRank.compute(graph(4, new int[][]{{1, 0}, {2, 0}, {3, 0}, {0, 1}}));
+        double[] ranks = result.getRanks();
+
+        assertThat(Arrays.stream(ranks).sum()).isCloseTo(1.0, within(1e-9));
+        assertThat(ranks[0]).isGreaterThan(ranks[1]);
+        assertThat(ranks[1]).isGreaterThan(ranks[2]);
+        assertThat(ranks[2]).isCloseTo(ranks[3], within(1e-12));
+        assertThat(ranks[2]).isCloseTo(0.15 / 4, within(1e-9));
+        assertThat(result.getDelta()).isLessThan(1e-10);
+    }
+
+    @Test
+    void spreadsRankOfPagesWithoutLinks() {
+        // у страницы 1 нет исходящих ссылок: без перераспределения её ранг терялся бы
+        PageRank.Result result = pageRank.compute(graph(2, new int[][]{{0, 1}}));
+        double[] ranks = result.getRanks();
+
+        assertThat(ranks[0] + ranks[1]).isCloseTo(1.0, within(1e-9));
+        assertThat(ranks[1]).isGreaterThan(ranks[0]);
+    }
+
+    @Test
+    void matchesSequentialComputationOnLargeGraph() {
+        int nodes = 20_000;
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 1; i < nodes; i++) {
+            edges.add(new int[]{i, 0});
+            edges.add(new int[]{i, i / 2});
+            if (i % 3 == 0) {
+                edges.add(new int[]{0, i});
+            }
+        }
+        LinkGraph.Csr csr = graph(nodes, edges.stream()
+                .filter(edge -> edge[0] != edge[1])
+                .toArray(int[][]::new));
+
+        double[] ranks = pageRank.compute(csr).getRanks();
+
+        assertThat(ranks).containsExactly(sequentialPageRank(csr, 0.85, 1e-10, 200), within(1e-9));
+    }
+
+    @Test
+    void handlesEmptyGraph() {
+        PageRank.Result result = pageRank.compute(graph(0, new int[0][]));
+
+        assertThat(result.getRanks()).isEmpty();
+        assertThat(result.getIterations()).isZero();
+    }
+
+    @Test
+    void stopsAfterMaxIterations() {
+        PageRank limited = PageRank.builder().damping(0.85).tolerance(0).maxIterations(3).pool(pool).build();
+
+        assertThat(limited.compute(graph(2, new int[][]{{0, 1}})).getIterations()).isEqualTo(3);
+    }
+
+    private static LinkGraph.Csr graph(int nodes, int[][] edges) {
+        int[] outDegree = new int[nodes];
+        int[] inOffsets = new int[nodes + 1];
+        for (int[] edge : edges) {
+            outDegree[edge[0]]++;
+            inOffsets[edge[1] + 1]++;
+        }
+        for (int i = 0; i < nodes; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] inSources = new int[edges.length];
+        int[] cursor = Arrays.copyOf(inOffsets, nodes);
+        for (int[] edge : edges) {
+            inSources[cursor[edge[1]]++] = edge[0];
+        }
+        int[] pageIds = new int[nodes];
+        Arrays.setAll(pageIds, i -> i + 1);
+        return new LinkGraph.Csr(pageIds, inOffsets, inSources, outDegree);
+    }
+
+    private static double[] sequentialPageRank(LinkGraph.Csr graph, double damping, double tolerance,
+                                               int maxIterations) {
+        int n = graph.nodeCount();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                if (graph.getOutDegree()[u] == 0) {
+                    dangling += rank[u];
+                }
+            }
+            double[] next = new double[n];
+            double delta = 0;
+            for (int v = 0; v < n; v++) {
+                double sum = 0;
+                for (int k = graph.getInOffsets()[v]; k < graph.getInOffsets()[v + 1]; k++) {
+                    int u = graph.getInSources()[k];
+                    sum += rank[u] / graph.getOutDegree()[u];
+                }
+                next[v] = (1 - damping) / n + damping * dangling / n + damping * sum;
+                delta += Math.abs(next[v] - rank[v]);
+            }
+            rank = next;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+}
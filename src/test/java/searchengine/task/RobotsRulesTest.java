@@ -0,0 +1,124 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RobotsRulesTest {
+
+    private static final String USER_AGENT = "HeliontSearchBot/1.0 (+https://example.com/bot)";
+
+    @Test
+    void selectsGroupOfLongestMatchingAgent() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /
+
+                User-agent: heliont
+                Disallow: /private
+
+                User-agent: HeliontSearchBot
+                Disallow: /admin
+                Crawl-delay: 1.5
+                """, USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/private/page")).isTrue();
+        assertThat(rules.isAllowed("https://example.com/admin/users")).isFalse();
+        assertThat(rules.getCrawlDelayMs()).isEqualTo(1_500);
+    }
+
+    @Test
+    void fallsBackToWildcardGroup() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: OtherBot
+                Disallow: /
+
+                User-agent: *
+                Disallow: /tmp/ # временные файлы
+                """, USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/tmp/file")).isFalse();
+        assertThat(rules.isAllowed("https://example.com/tmpfile")).isTrue();
+        assertThat(rules.getCrawlDelayMs()).isNull();
+    }
+
+    @Test
+    void sharesRulesBetweenConsecutiveAgents() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: OtherBot
+                User-agent: HeliontSearchBot
+                Disallow: /shared
+                """, USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/shared/page")).isFalse();
+    }
+
+    @Test
+    void prefersLongestRuleAndAllowOnTie() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /catalog
+                Allow: /catalog/public
+                Disallow: /page
+                Allow: /page
+                """, USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/catalog/secret")).isFalse();
+        assertThat(rules.isAllowed("https://example.com/catalog/public/item")).isTrue();
+        assertThat(rules.isAllowed("https://example.com/page")).isTrue();
+    }
+
+    @Test
+    void supportsWildcardsAndEndAnchor() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /*.pdf$
+                Disallow: /*?sessionid=
+                """, USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/docs/file.pdf")).isFalse();
+        assertThat(rules.isAllowed("https://example.com/docs/file.pdf?download=1")).isTrue();
+        assertThat(rules.isAllowed("https://example.com/list?sessionid=42")).isFalse();
+        assertThat(rules.isAllowed("https://example.com/list?page=2")).isTrue();
+    }
+
+    @Test
+    void checksPathAndQueryWithoutFragment() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /search?
+                """, USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/search?q=test#results")).isFalse();
+        assertThat(rules.isAllowed("https://example.com/search#q")).isTrue();
+        assertThat(rules.isAllowed("https://example.com")).isTrue();
+    }
+
+    @Test
+    void ignoresEmptyDisallowAndInvalidDelay() {
+        RobotsRules rules = RobotsRules.parse("User-agent: *\r\nDisallow:\r\nCrawl-delay: soon\r\n", USER_AGENT);
+
+        assertThat(rules.isAllowed("https://example.com/anything")).isTrue();
+        assertThat(rules.getCrawlDelayMs()).isNull();
+    }
+
+    @Test
+    void collectsAllSitemaps() {
+        RobotsRules rules = RobotsRules.parse("""
+                Sitemap: https://example.com/sitemap.xml
+                User-agent: OtherBot
+                Disallow: /
+                Sitemap: https://example.com/news.xml
+                """, USER_AGENT);
+
+        assertThat(rules.getSitemaps())
+                .containsExactly("https://example.com/sitemap.xml", "https://example.com/news.xml");
+        assertThat(rules.isAllowed("https://example.com/page")).isTrue();
+    }
+
+    @Test
+    void allowAllPermitsEverything() {
+        assertThat(RobotsRules.allowAll().isAllowed("https://example.com/admin")).isTrue();
+        assertThat(RobotsRules.allowAll().getSitemaps()).isEmpty();
+    }
+}
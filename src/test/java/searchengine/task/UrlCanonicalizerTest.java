@@ -0,0 +1,77 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlCanonicalizerTest {
+
+    private final UrlCanonicalizer canonicalizer =
+            new UrlCanonicalizer("https://example.com/", List.of("utm_*", "SessionId"), true);
+
+    @Test
+    void mapsHostVariantsToSiteHost() {
+        assertThat(canonicalizer.canonicalize("HTTP://WWW.Example.COM/Page")).isEqualTo("https://example.com/Page");
+        assertThat(canonicalizer.canonicalize("https://example.com:443/page")).isEqualTo("https://example.com/page");
+        assertThat(canonicalizer.canonicalize("https://example.com")).isEqualTo("https://example.com/");
+    }
+
+    @Test
+    void normalizesOtherHostsWithoutMappingThem() {
+        assertThat(canonicalizer.canonicalize("HTTP://Other.org:80/a/")).isEqualTo("http://other.org/a");
+        assertThat(canonicalizer.canonicalize("http://other.org:8080/a")).isEqualTo("http://other.org:8080/a");
+    }
+
+    @Test
+    void dropsFragment() {
+        assertThat(canonicalizer.canonicalize("https://example.com/page#section")).isEqualTo("https://example.com/page");
+        assertThat(canonicalizer.canonicalize("https://example.com/#top")).isEqualTo("https://example.com/");
+    }
+
+    @Test
+    void stripsConfiguredParamsAndSortsTheRest() {
+        assertThat(canonicalizer.canonicalize("https://example.com/list?page=2&utm_source=mail&sort=asc&sessionid=42"))
+                .isEqualTo("https://example.com/list?page=2&sort=asc");
+        assertThat(canonicalizer.canonicalize("https://example.com/list?UTM_Campaign=x"))
+                .isEqualTo("https://example.com/list");
+        assertThat(canonicalizer.canonicalize("https://example.com/list?&b=1&&a"))
+                .isEqualTo("https://example.com/list?a&b=1");
+    }
+
+    @Test
+    void normalizesPercentEncoding() {
+        assertThat(canonicalizer.canonicalize("https://example.com/%7euser/%2fdocs%3f"))
+                .isEqualTo("https://example.com/~user/%2Fdocs%3F");
+        assertThat(canonicalizer.canonicalize("https://example.com/%D0%B4%D0%BE%D0%BC"))
+                .isEqualTo("https://example.com/%D0%B4%D0%BE%D0%BC");
+        assertThat(canonicalizer.canonicalize("https://example.com/100%"))
+                .isEqualTo("https://example.com/100%");
+    }
+
+    @Test
+    void stripsTrailingSlashExceptSiteRoot() {
+        assertThat(canonicalizer.canonicalize("https://example.com/docs/")).isEqualTo("https://example.com/docs");
+        assertThat(canonicalizer.canonicalize("https://example.com/")).isEqualTo("https://example.com/");
+
+        UrlCanonicalizer keepingSlash = new UrlCanonicalizer("https://example.com", List.of(), false);
+        assertThat(keepingSlash.canonicalize("https://example.com/docs/")).isEqualTo("https://example.com/docs/");
+    }
+
+    @Test
+    void keepsSiteRootWhenSiteLivesInSubdirectory() {
+        UrlCanonicalizer sectionCanonicalizer = new UrlCanonicalizer("https://example.com/blog/", List.of(), true);
+
+        assertThat(sectionCanonicalizer.canonicalize("https://www.example.com/blog/"))
+                .isEqualTo("https://example.com/blog/");
+        assertThat(sectionCanonicalizer.canonicalize("https://example.com/blog/post/"))
+                .isEqualTo("https://example.com/blog/post");
+    }
+
+    @Test
+    void leavesNonAbsoluteUrlsUnchanged() {
+        assertThat(canonicalizer.canonicalize("/relative/path")).isEqualTo("/relative/path");
+        assertThat(canonicalizer.canonicalize("mailto:user@example.com")).isEqualTo("mailto:user@example.com");
+    }
+}
@@ -0,0 +1,101 @@
+package searchengine.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VisitedUrlSetTest {
+
+    @Test
+    void addsEachUrlOnce() {
+        VisitedUrlSet set = new VisitedUrlSet();
+
+        assertThat(set.add("https://example.com/a")).isTrue();
+        assertThat(set.add("https://example.com/a")).isFalse();
+        assertThat(set.contains("https://example.com/a")).isTrue();
+        assertThat(set.contains("https://example.com/b")).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsStripesAndKeepsAllUrls() {
+        VisitedUrlSet set = new VisitedUrlSet();
+        List<String> urls = urls(200_000);
+        long initialFootprint = set.memoryFootprintBytes();
+
+        set.addAll(urls);
+
+        assertThat(set.size()).isEqualTo(urls.size());
+        assertThat(urls).allMatch(set::contains);
+        assertThat(set.contains("https://example.com/missing")).isFalse();
+        assertThat(set.memoryFootprintBytes()).isGreaterThan(initialFootprint);
+        assertThat(set.falsePositiveRate()).isPositive().isLessThan(1e-9);
+    }
+
+    @Test
+    void clearRemovesUrlsAndReleasesMemory() {
+        VisitedUrlSet set = new VisitedUrlSet();
+        long initialFootprint = set.memoryFootprintBytes();
+        set.addAll(urls(100_000));
+
+        set.clear();
+
+        assertThat(set.size()).isZero();
+        assertThat(set.contains(urls(1).get(0))).isFalse();
+        assertThat(set.memoryFootprintBytes()).isEqualTo(initialFootprint);
+        assertThat(set.add(urls(1).get(0))).isTrue();
+    }
+
+    @Test
+    void acceptsEachUrlOnceUnderConcurrentAdds() throws Exception {
+        VisitedUrlSet set = new VisitedUrlSet();
+        List<String> urls = urls(50_000);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int added = 0;
+                for (String url : urls) {
+                    added += set.add(url) ? 1 : 0;
+                }
+                return added;
+            }));
+        }
+        start.countDown();
+        int added = 0;
+        for (Future<Integer> future : futures) {
+            added += future.get();
+        }
+        executor.shutdown();
+
+        assertThat(added).isEqualTo(urls.size());
+        assertThat(set.size()).isEqualTo(urls.size());
+    }
+
+    @Test
+    void fingerprintIsNeverEmptyAndDependsOnEveryCharacter() {
+        assertThat(VisitedUrlSet.fingerprint("")).isNotZero();
+        assertThat(VisitedUrlSet.fingerprint("https://example.com/a"))
+                .isEqualTo(VisitedUrlSet.fingerprint("https://example.com/a"))
+                .isNotEqualTo(VisitedUrlSet.fingerprint("https://example.com/b"))
+                .isNotEqualTo(VisitedUrlSet.fingerprint("https://example.com/a/"));
+    }
+
+    private static List<String> urls(int count) {
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            urls.add("https://example.com/catalog/" + (i % 100) + "/item-" + i);
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,52 @@
+package searchengine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimHashUtilTest {
+
+    @Test
+    void returnsNullForShortTexts() {
+        assertThat(SimHashUtil.simHash("")).isNull();
+        assertThat(SimHashUtil.simHash(words(SimHashUtil.MIN_WORDS - 1, 1))).isNull();
+        assertThat(SimHashUtil.simHash(words(SimHashUtil.MIN_WORDS, 1))).isNotNull();
+    }
+
+    @Test
+    void ignoresCaseAndPunctuation() {
+        String text = words(200, 7);
+        String noisy = text.toUpperCase().replace(" ", " ,  ");
+
+        assertThat(SimHashUtil.simHash(noisy)).isEqualTo(SimHashUtil.simHash(text));
+    }
+
+    @Test
+    void keepsSmallEditsCloseAndDifferentTextsFar() {
+        String text = words(1_000, 7);
+        String edited = text.replaceFirst("w\\d+", "вставка");
+        String other = words(1_000, 8);
+
+        long hash = SimHashUtil.simHash(text);
+        assertThat(SimHashUtil.hammingDistance(hash, SimHashUtil.simHash(edited))).isLessThanOrEqualTo(3);
+        assertThat(SimHashUtil.hammingDistance(hash, SimHashUtil.simHash(other))).isGreaterThan(10);
+    }
+
+    @Test
+    void countsDifferingBits() {
+        assertThat(SimHashUtil.hammingDistance(0L, 0L)).isZero();
+        assertThat(SimHashUtil.hammingDistance(0L, -1L)).isEqualTo(64);
+        assertThat(SimHashUtil.hammingDistance(0b1010L, 0b0110L)).isEqualTo(2);
+    }
+
+    private static String words(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append('w').append(random.nextInt(5_000)).append(' ');
+        }
+        return text.toString();
+    }
+}